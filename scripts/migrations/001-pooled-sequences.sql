@@ -0,0 +1,40 @@
+-- Migração: IDs IDENTITY -> sequences com alocação em blocos (pooled-lo)
+--
+-- Motivo: com GenerationType.IDENTITY o Hibernate desabilita o batch JDBC,
+-- então cada linha de data_results virava um INSERT separado.
+-- As entidades agora usam @SequenceGenerator(allocationSize = 50).
+--
+-- IMPORTANTE: executar ANTES de subir a versão que usa sequences.
+-- Caso contrário o ddl-auto=update cria as sequences começando em 1
+-- e os novos IDs colidem com os existentes.
+--
+-- Idempotente: pode ser executado mais de uma vez.
+
+BEGIN;
+
+-- INCREMENT BY deve ser igual ao allocationSize das entidades
+CREATE SEQUENCE IF NOT EXISTS instances_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS scan_results_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS data_results_seq INCREMENT BY 50;
+
+-- Posiciona cada sequence após o maior ID existente (próximo nextval = max(id) + 1),
+-- sem nunca retroceder um bloco já entregue (reexecução segura)
+SELECT setval('instances_seq', GREATEST(
+    (SELECT COALESCE(MAX(id), 0) + 1 FROM instances),
+    (SELECT last_value + CASE WHEN is_called THEN 50 ELSE 0 END FROM instances_seq)
+), false);
+SELECT setval('scan_results_seq', GREATEST(
+    (SELECT COALESCE(MAX(id), 0) + 1 FROM scan_results),
+    (SELECT last_value + CASE WHEN is_called THEN 50 ELSE 0 END FROM scan_results_seq)
+), false);
+SELECT setval('data_results_seq', GREATEST(
+    (SELECT COALESCE(MAX(id), 0) + 1 FROM data_results),
+    (SELECT last_value + CASE WHEN is_called THEN 50 ELSE 0 END FROM data_results_seq)
+), false);
+
+-- Remove o IDENTITY das colunas id (os IDs agora são informados pela aplicação)
+ALTER TABLE instances ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE scan_results ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE data_results ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+COMMIT;
@@ -0,0 +1,68 @@
+-- Migração: data_results.data_type / source_location (texto) -> IDs de dicionário
+--
+-- Motivo: os mesmos poucos textos se repetiam em milhões de linhas de data_results.
+-- Agora ficam uma única vez em data_types / source_locations e data_results guarda
+-- apenas data_type_id (smallint) e source_location_id (integer).
+--
+-- IMPORTANTE: executar ANTES de subir a versão que usa os dicionários.
+-- O ddl-auto=update não remove as colunas de texto (NOT NULL), e os INSERTs
+-- da nova versão falhariam.
+--
+-- Idempotente: pode ser executado mais de uma vez.
+-- Reescreve data_results inteira (UPDATE de todas as linhas): rodar em janela de baixo
+-- tráfego e, depois, VACUUM FULL data_results (fora da transação) para devolver o espaço.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS data_types (
+    id smallint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(50) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS source_locations (
+    id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE
+);
+
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_name = 'data_results' AND column_name = 'data_type'
+    ) THEN
+        INSERT INTO data_types (name)
+        SELECT DISTINCT data_type FROM data_results ORDER BY 1
+        ON CONFLICT (name) DO NOTHING;
+
+        INSERT INTO source_locations (name)
+        SELECT DISTINCT source_location FROM data_results ORDER BY 1
+        ON CONFLICT (name) DO NOTHING;
+
+        ALTER TABLE data_results
+            ADD COLUMN IF NOT EXISTS data_type_id smallint,
+            ADD COLUMN IF NOT EXISTS source_location_id integer;
+
+        UPDATE data_results r
+        SET data_type_id = t.id, source_location_id = l.id
+        FROM data_types t, source_locations l
+        WHERE t.name = r.data_type AND l.name = r.source_location;
+
+        ALTER TABLE data_results
+            ALTER COLUMN data_type_id SET NOT NULL,
+            ALTER COLUMN source_location_id SET NOT NULL,
+            DROP COLUMN data_type,
+            DROP COLUMN source_location;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_data_results_data_type') THEN
+        ALTER TABLE data_results ADD CONSTRAINT fk_data_results_data_type
+            FOREIGN KEY (data_type_id) REFERENCES data_types (id);
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_data_results_source_location') THEN
+        ALTER TABLE data_results ADD CONSTRAINT fk_data_results_source_location
+            FOREIGN KEY (source_location_id) REFERENCES source_locations (id);
+    END IF;
+END $$;
+
+COMMIT;
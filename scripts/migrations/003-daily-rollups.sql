@@ -0,0 +1,14 @@
+-- Migração: rollups diários (daily_data_rollups / daily_environment_rollups)
+--
+-- As tabelas são criadas pelo ddl-auto=update. Este script cria antes os índices
+-- usados pelo rebuild SEM bloquear escritas (CONCURRENTLY); se o ddl-auto os criasse
+-- no startup, data_results ficaria travada para INSERT durante a criação.
+--
+-- CONCURRENTLY não roda dentro de transação: executar comando a comando (sem BEGIN).
+-- Idempotente: pode ser executado mais de uma vez.
+--
+-- Depois de subir a versão nova, popular o histórico com o rebuild:
+--   java -jar radarlgpd.jar --spring.main.web-application-type=none --radarlgpd.rollup.rebuild.enabled=true
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_scan_results_received_at ON scan_results (received_at);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_data_results_scan_result_id ON data_results (scan_result_id);
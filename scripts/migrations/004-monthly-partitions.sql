@@ -0,0 +1,89 @@
+-- Migração: scan_results / data_results -> particionamento mensal por received_at
+--
+-- Motivo: com uma única tabela por entidade, a retenção virava DELETE de milhões de
+-- linhas seguido de VACUUM. Particionadas por mês (RANGE em received_at, UTC), a
+-- retenção só desanexa e remove partições inteiras (PartitionMaintenanceService),
+-- e consultas por período (rebuild dos rollups) leem só as partições do intervalo.
+--
+-- Mudanças de schema:
+--   - scan_results: PK (id, received_at); a constraint unique de scan_id sai da tabela
+--     (o PostgreSQL exige a chave de partição em toda unique) e vai para scan_ids.
+--   - data_results: nova coluna received_at (cópia do scan pai), PK (id, received_at)
+--     e FK (scan_result_id, received_at) -> scan_results.
+--   - Partições {tabela}_pAAAA_MM do primeiro mês com dados até 2 meses à frente;
+--     as seguintes são criadas pela aplicação.
+--
+-- IMPORTANTE: executar ANTES de subir a versão que grava em scan_ids. Copia as duas
+-- tabelas inteiras dentro de uma transação (escritas ficam bloqueadas até o COMMIT):
+-- rodar em janela de manutenção.
+--
+-- Idempotente: pode ser executado mais de uma vez (não faz nada se já particionado).
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS scan_ids (
+    scan_id varchar(36) PRIMARY KEY,
+    received_at timestamp(6) with time zone NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_scan_ids_received_at ON scan_ids (received_at);
+
+DO $$
+DECLARE
+    current_month date := date_trunc('month', now() AT TIME ZONE 'UTC')::date;
+    partition_month date;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'scan_results'::regclass) THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO scan_ids (scan_id, received_at)
+    SELECT scan_id, received_at FROM scan_results
+    ON CONFLICT (scan_id) DO NOTHING;
+
+    ALTER TABLE data_results ADD COLUMN IF NOT EXISTS received_at timestamp(6) with time zone;
+    UPDATE data_results d SET received_at = s.received_at
+    FROM scan_results s
+    WHERE s.id = d.scan_result_id AND d.received_at IS NULL;
+
+    ALTER TABLE scan_results RENAME TO scan_results_legacy;
+    ALTER TABLE data_results RENAME TO data_results_legacy;
+    ALTER INDEX IF EXISTS scan_results_pkey RENAME TO scan_results_legacy_pkey;
+    ALTER INDEX IF EXISTS data_results_pkey RENAME TO data_results_legacy_pkey;
+
+    CREATE TABLE scan_results (LIKE scan_results_legacy INCLUDING DEFAULTS, PRIMARY KEY (id, received_at))
+        PARTITION BY RANGE (received_at);
+    CREATE TABLE data_results (LIKE data_results_legacy INCLUDING DEFAULTS, PRIMARY KEY (id, received_at))
+        PARTITION BY RANGE (received_at);
+
+    SELECT COALESCE(LEAST(date_trunc('month', min(received_at) AT TIME ZONE 'UTC')::date, current_month), current_month)
+    INTO partition_month
+    FROM scan_results_legacy;
+
+    WHILE partition_month <= current_month + interval '2 months' LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF scan_results FOR VALUES FROM (%L) TO (%L)',
+            'scan_results' || to_char(partition_month, '"_p"YYYY_MM'),
+            partition_month || ' 00:00:00+00', (partition_month + interval '1 month')::date || ' 00:00:00+00');
+        EXECUTE format('CREATE TABLE %I PARTITION OF data_results FOR VALUES FROM (%L) TO (%L)',
+            'data_results' || to_char(partition_month, '"_p"YYYY_MM'),
+            partition_month || ' 00:00:00+00', (partition_month + interval '1 month')::date || ' 00:00:00+00');
+        partition_month := (partition_month + interval '1 month')::date;
+    END LOOP;
+
+    INSERT INTO scan_results SELECT * FROM scan_results_legacy;
+    INSERT INTO data_results SELECT * FROM data_results_legacy;
+
+    DROP TABLE data_results_legacy;
+    DROP TABLE scan_results_legacy;
+
+    CREATE INDEX idx_scan_results_received_at ON scan_results (received_at);
+    CREATE INDEX idx_data_results_scan_result_id ON data_results (scan_result_id);
+
+    ALTER TABLE data_results ADD CONSTRAINT fk_data_results_scan_result
+        FOREIGN KEY (scan_result_id, received_at) REFERENCES scan_results (id, received_at);
+    ALTER TABLE data_results ADD CONSTRAINT fk_data_results_data_type
+        FOREIGN KEY (data_type_id) REFERENCES data_types (id);
+    ALTER TABLE data_results ADD CONSTRAINT fk_data_results_source_location
+        FOREIGN KEY (source_location_id) REFERENCES source_locations (id);
+END $$;
+
+COMMIT;
@@ -0,0 +1,40 @@
+-- Migração: índice do histórico de scans por instância
+--
+-- GET /v1/instances/{id}/scans e GET /v1/telemetry/scans paginam por seek em
+-- (scan_timestamp_utc, id) dentro de uma instância. Com este índice cada página é uma
+-- leitura de faixa de "limit + 1" entradas, sem ordenação e sem OFFSET.
+--
+-- Em tabela particionada (migração 004) CREATE INDEX CONCURRENTLY não é aceito no pai.
+-- Para não bloquear a ingestão:
+--   1. cria o índice só no pai (ON ONLY: instantâneo, fica inválido);
+--   2. cria o índice de cada partição com CONCURRENTLY;
+--   3. anexa cada um ao índice do pai, que fica válido quando todas as partições
+--      estiverem anexadas. Partições criadas depois herdam o índice automaticamente.
+--
+-- Executar com psql (usa \gexec), comando a comando, sem BEGIN (CONCURRENTLY não roda
+-- dentro de transação). Idempotente: pode ser executado mais de uma vez.
+--
+-- Sem a migração 004 (tabela comum), basta:
+--   CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_scan_results_instance_history
+--       ON scan_results (instance_id, scan_timestamp_utc, id);
+
+CREATE INDEX IF NOT EXISTS idx_scan_results_instance_history
+    ON ONLY scan_results (instance_id, scan_timestamp_utc, id);
+
+SELECT format(
+           'CREATE INDEX CONCURRENTLY IF NOT EXISTS %I ON %I (instance_id, scan_timestamp_utc, id)',
+           c.relname || '_instance_history_idx', c.relname)
+FROM pg_inherits i
+JOIN pg_class c ON c.oid = i.inhrelid
+WHERE i.inhparent = 'scan_results'::regclass
+ORDER BY c.relname
+\gexec
+
+SELECT format(
+           'ALTER INDEX idx_scan_results_instance_history ATTACH PARTITION %I',
+           c.relname || '_instance_history_idx')
+FROM pg_inherits i
+JOIN pg_class c ON c.oid = i.inhrelid
+WHERE i.inhparent = 'scan_results'::regclass
+ORDER BY c.relname
+\gexec
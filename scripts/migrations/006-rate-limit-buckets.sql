@@ -0,0 +1,33 @@
+-- Migração: buckets de rate limit compartilhados pelo cluster (rate_limit_buckets)
+--
+-- Usada só com radarlgpd.rate-limit.engine=postgres: o Bucket4j guarda em "state" o
+-- estado serializado do bucket de cada cliente (id = chave do ClientAddressKey) e o
+-- atualiza com SELECT ... FOR UPDATE.
+--
+-- UNLOGGED: sem WAL, cada sincronização custa bem menos. Em um crash a tabela volta
+-- vazia, o que só devolve o saldo cheio aos clientes; réplicas não recebem os dados.
+--
+-- updated_at é mantido por trigger (o Bucket4j só grava id e state) e serve à limpeza
+-- dos buckets ociosos (RateLimitBucketRepository). Sem índice nele de propósito: um
+-- índice na coluna impediria atualizações HOT, e a limpeza periódica pode varrer a tabela.
+--
+-- Idempotente: pode ser executado mais de uma vez.
+
+CREATE UNLOGGED TABLE IF NOT EXISTS rate_limit_buckets (
+    id         BIGINT PRIMARY KEY,
+    state      BYTEA,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE OR REPLACE FUNCTION rate_limit_buckets_touch() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at := now();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS rate_limit_buckets_touch ON rate_limit_buckets;
+
+CREATE TRIGGER rate_limit_buckets_touch
+    BEFORE UPDATE ON rate_limit_buckets
+    FOR EACH ROW EXECUTE FUNCTION rate_limit_buckets_touch();
@@ -0,0 +1,22 @@
+-- Migração: scans descartados pela ingestão assíncrona (scan_dead_letters)
+--
+-- A tabela é criada pelo ddl-auto=update; este script a documenta e permite criá-la
+-- antes do deploy. Recebe os scans já respondidos com HTTP 202 que falharam também no
+-- reprocessamento individual (ver ScanIngestQueue). Depois de corrigida a causa, o
+-- payload pode ser reenviado e a linha apagada.
+--
+-- Idempotente: pode ser executado mais de uma vez.
+
+CREATE SEQUENCE IF NOT EXISTS scan_dead_letters_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS scan_dead_letters (
+    id          BIGINT PRIMARY KEY,
+    scan_id     VARCHAR(36)   NOT NULL,
+    instance_id BIGINT        NOT NULL,
+    payload     TEXT          NOT NULL,
+    error       VARCHAR(1000),
+    received_at TIMESTAMPTZ   NOT NULL,
+    failed_at   TIMESTAMPTZ   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_scan_dead_letters_failed_at ON scan_dead_letters (failed_at);
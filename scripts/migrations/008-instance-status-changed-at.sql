@@ -0,0 +1,16 @@
+-- Migração: instances.status_changed_at
+--
+-- A lista de revogação de tokens assinados (InstanceRevocationList) lê a cada recarga só as
+-- instâncias cujo status mudou desde a anterior, em vez de todas as não ativas. A coluna e o
+-- índice também são criados pelo ddl-auto=update; este script cria o índice SEM bloquear
+-- escritas (CONCURRENTLY) e preenche a coluna das instâncias que já não estavam ativas.
+--
+-- CONCURRENTLY não roda dentro de transação: executar comando a comando (sem BEGIN).
+-- Idempotente: pode ser executado mais de uma vez.
+
+ALTER TABLE instances ADD COLUMN IF NOT EXISTS status_changed_at TIMESTAMPTZ;
+
+UPDATE instances SET status_changed_at = now()
+ WHERE status <> 'active' AND status_changed_at IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_instance_status_changed_at ON instances (status_changed_at);
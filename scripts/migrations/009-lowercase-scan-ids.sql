@@ -0,0 +1,13 @@
+-- Migração: scan_ids em minúsculas
+--
+-- A ingestão passou a gravar scan_id em minúsculas (o filtro em memória RecentScanIdFilter
+-- e a PK de scan_ids precisam concordar sobre o que é duplicado). Converte as chaves de
+-- idempotência antigas para que um retry com outra caixa continue sendo reconhecido; uma
+-- chave que já existe também em minúsculas fica como está.
+--
+-- Idempotente: pode ser executado mais de uma vez.
+
+UPDATE scan_ids s
+   SET scan_id = lower(s.scan_id)
+ WHERE s.scan_id <> lower(s.scan_id)
+   AND NOT EXISTS (SELECT 1 FROM scan_ids t WHERE t.scan_id = lower(s.scan_id));
@@ -12,6 +12,9 @@ import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -28,6 +31,13 @@ import java.util.Arrays;
 @Slf4j
 public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
 
+    /**
+     * Principal dos clientes autenticados por API Key (dashboards, integrações internas).
+     */
+    private static final UsernamePasswordAuthenticationToken API_CLIENT =
+        UsernamePasswordAuthenticationToken.authenticated(
+            "api-client", null, AuthorityUtils.createAuthorityList("ROLE_API_CLIENT"));
+
     private final String validApiKey;
     private final ObjectMapper objectMapper;
     private final Environment environment;
@@ -83,6 +93,19 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Envio em lote/streaming: autenticação por item (instanceToken de cada scan)
+        if (requestPath.equals("/v1/telemetry/scan-results:batch")
+            || requestPath.equals("/v1/telemetry/scan-results:stream")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Histórico da própria instância: o controller valida o instance_token
+        if (requestPath.equals("/v1/telemetry/scans")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         // Para outros endpoints, exige Authorization
         if (authHeader == null || authHeader.isBlank()) {
             log.warn("Requisição sem API Key no path: {}", request.getRequestURI());
@@ -110,8 +133,9 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // API Key válida, continua a cadeia
+        // API Key válida: registra a autenticação (exigida por anyRequest().authenticated())
         log.debug("API Key válida para path: {}", request.getRequestURI());
+        SecurityContextHolder.getContext().setAuthentication(API_CLIENT);
         filterChain.doFilter(request, response);
     }
     
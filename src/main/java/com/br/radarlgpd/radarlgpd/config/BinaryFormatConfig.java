@@ -0,0 +1,31 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Conversores para payloads binários: application/cbor e application/x-jackson-smile.
+ *
+ * O Spring MVC já registra conversores CBOR/Smile quando as bibliotecas estão no classpath,
+ * mas com um ObjectMapper próprio que ignora spring.jackson.* (aceitaria campos desconhecidos).
+ * Aqui os mappers saem do Jackson2ObjectMapperBuilder do Spring Boot, com as mesmas regras
+ * strict do JSON (NFR-API-004), e substituem os conversores padrão.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,70 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+
+import java.time.Duration;
+
+/**
+ * Um {@link Bucket} do Bucket4j por cliente, em um cache Caffeine com TTL de um período.
+ * Na camada de IP a chave é o texto do primeiro item de X-Forwarded-For (ou o remoteAddr);
+ * nas demais, a chave {@code long} da camada.
+ */
+public class CaffeineRateLimitEngine implements RateLimitEngine {
+
+    private final Cache<Object, Bucket> bucketCache;
+    private final long capacity;
+    private final Duration period;
+
+    public CaffeineRateLimitEngine(long capacity, Duration period, long maximumSize) {
+        this.capacity = capacity;
+        this.period = period;
+        this.bucketCache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(period)
+            .build();
+    }
+
+    @Override
+    public long tryConsume(long key, long tokens) {
+        return tryConsume((Object) key, tokens);
+    }
+
+    @Override
+    public long tryConsume(String forwardedFor, String remoteAddr, long tokens) {
+        return tryConsume(clientIp(forwardedFor, remoteAddr), tokens);
+    }
+
+    private long tryConsume(Object key, long tokens) {
+        Bucket bucket = bucketCache.get(key, k -> createNewBucket());
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(tokens);
+        return probe.isConsumed() ? probe.getRemainingTokens() : -1;
+    }
+
+    /**
+     * X-Forwarded-For pode conter múltiplos IPs: usa o primeiro.
+     */
+    private String clientIp(String forwardedFor, String remoteAddr) {
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            return forwardedFor.split(",")[0].trim();
+        }
+        return remoteAddr;
+    }
+
+    /**
+     * Bucket com capacity unidades, reabastecido por inteiro a cada período.
+     */
+    private Bucket createNewBucket() {
+        Bandwidth limit = Bandwidth.builder()
+            .capacity(capacity)
+            .refillIntervally(capacity, period)
+            .build();
+
+        return Bucket.builder()
+            .addLimit(limit)
+            .build();
+    }
+}
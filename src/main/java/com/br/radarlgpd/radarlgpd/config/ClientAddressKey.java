@@ -0,0 +1,282 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+/**
+ * Converte o endereço do cliente em uma chave {@code long} para o rate limit, sem alocar.
+ *
+ * Lê o primeiro item de X-Forwarded-For (ou o remoteAddr) direto da String, caractere a
+ * caractere, em vez de split + trim. Chaves:
+ * <ul>
+ *   <li>IPv4 (e IPv6 mapeado ::ffff:a.b.c.d): {@code 0x00000001_xxxxxxxx} com o endereço de 32 bits;</li>
+ *   <li>IPv6: o prefixo /64 (os 64 bits altos). Um cliente IPv6 recebe um /64 inteiro, então
+ *       limitar por endereço completo seria contornável trocando o sufixo;</li>
+ *   <li>IPv6 dentro de ::/8 (loopback, IPv4-compatível): {@code 0x00000003_} + hash de 32 bits;</li>
+ *   <li>qualquer outro texto: {@code 0x00000002_} + hash de 32 bits.</li>
+ * </ul>
+ * As marcas ficam dentro de ::/8 (reservado), então não colidem com prefixos IPv6 reais
+ * (as chaves das outras camadas, em {@link RateLimitKey}, também ficam ali).
+ * A chave nunca é 0 (valor usado como "vazio" pelas tabelas).
+ */
+public final class ClientAddressKey {
+
+    static final long IPV4_TAG = 1L << 32;
+    static final long TEXT_TAG = 2L << 32;
+    static final long RESERVED_IPV6_TAG = 3L << 32;
+
+    private static final long NOT_PARSED = -1L;
+
+    private ClientAddressKey() {
+    }
+
+    /**
+     * Chave do cliente: primeiro item de X-Forwarded-For, ou o endereço da conexão.
+     *
+     * @param forwardedFor valor do header X-Forwarded-For (pode ser null)
+     * @param remoteAddr endereço da conexão
+     */
+    public static long of(String forwardedFor, String remoteAddr) {
+        if (forwardedFor != null) {
+            int end = forwardedFor.indexOf(',');
+            if (end < 0) {
+                end = forwardedFor.length();
+            }
+            int from = skipSpaces(forwardedFor, 0, end);
+            int to = trimSpaces(forwardedFor, from, end);
+            if (from < to) {
+                return of(forwardedFor, from, to);
+            }
+        }
+        return of(remoteAddr, 0, remoteAddr == null ? 0 : remoteAddr.length());
+    }
+
+    /**
+     * Chave de um endereço em {@code text[from, to)}.
+     */
+    static long of(String text, int from, int to) {
+        if (text == null || from >= to) {
+            return TEXT_TAG;
+        }
+
+        long ipv4 = parseIpv4(text, from, to);
+        if (ipv4 != NOT_PARSED) {
+            return IPV4_TAG | ipv4;
+        }
+
+        long key = parseIpv6(text, from, to);
+        if (key != NOT_PARSED) {
+            return key;
+        }
+
+        return TEXT_TAG | hash32(text, from, to);
+    }
+
+    /**
+     * @return endereço de 32 bits, ou NOT_PARSED
+     */
+    private static long parseIpv4(String text, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int i = from;
+        while (i < to) {
+            int value = 0;
+            int digits = 0;
+            while (i < to && digits < 4) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                digits++;
+                i++;
+            }
+            if (digits == 0 || digits > 3 || value > 255) {
+                return NOT_PARSED;
+            }
+            address = (address << 8) | value;
+            octets++;
+
+            if (i == to) {
+                break;
+            }
+            if (text.charAt(i) != '.' || octets == 4) {
+                return NOT_PARSED;
+            }
+            i++;
+            if (i == to) {
+                return NOT_PARSED;
+            }
+        }
+        return octets == 4 ? address : NOT_PARSED;
+    }
+
+    /**
+     * Lê os grupos antes e depois de "::" em dois acumuladores de 128 bits (hi/lo em longs),
+     * aceitando IPv4 no final, colchetes e zone id (%eth0).
+     *
+     * @return chave do endereço, ou NOT_PARSED
+     */
+    private static long parseIpv6(String text, int from, int to) {
+        if (text.charAt(from) == '[' && text.charAt(to - 1) == ']') {
+            from++;
+            to--;
+        }
+        int zone = text.indexOf('%', from);
+        if (zone >= 0 && zone < to) {
+            to = zone;
+        }
+        if (to - from < 2) {
+            return NOT_PARSED;
+        }
+
+        long headHi = 0;
+        long headLo = 0;
+        long tailHi = 0;
+        long tailLo = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int i = from;
+        if (text.charAt(i) == ':') {
+            if (text.charAt(i + 1) != ':') {
+                return NOT_PARSED;
+            }
+            compressed = true;
+            i += 2;
+        }
+
+        while (i < to) {
+            int groupStart = i;
+            int value = 0;
+            while (i < to && i - groupStart < 5) {
+                int digit = Character.digit(text.charAt(i), 16);
+                if (digit < 0) {
+                    break;
+                }
+                value = (value << 4) | digit;
+                i++;
+            }
+            int length = i - groupStart;
+
+            // IPv4 embutido no final (::ffff:192.0.2.1): vale por dois grupos
+            if (i < to && text.charAt(i) == '.') {
+                long ipv4 = parseIpv4(text, groupStart, to);
+                if (ipv4 == NOT_PARSED) {
+                    return NOT_PARSED;
+                }
+                if (compressed) {
+                    tailHi = (tailHi << 32) | (tailLo >>> 32);
+                    tailLo = (tailLo << 32) | ipv4;
+                    tailGroups += 2;
+                } else {
+                    headHi = (headHi << 32) | (headLo >>> 32);
+                    headLo = (headLo << 32) | ipv4;
+                    headGroups += 2;
+                }
+                i = to;
+                break;
+            }
+
+            if (length == 0 || length > 4) {
+                return NOT_PARSED;
+            }
+            if (compressed) {
+                tailHi = (tailHi << 16) | (tailLo >>> 48);
+                tailLo = (tailLo << 16) | value;
+                tailGroups++;
+            } else {
+                headHi = (headHi << 16) | (headLo >>> 48);
+                headLo = (headLo << 16) | value;
+                headGroups++;
+            }
+            if (headGroups + tailGroups > 8) {
+                return NOT_PARSED;
+            }
+
+            if (i == to) {
+                break;
+            }
+            if (text.charAt(i) != ':') {
+                return NOT_PARSED;
+            }
+            i++;
+            if (i < to && text.charAt(i) == ':') {
+                if (compressed) {
+                    return NOT_PARSED;
+                }
+                compressed = true;
+                i++;
+            } else if (i == to) {
+                return NOT_PARSED;
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+        if (groups > 8 || (!compressed && groups != 8) || (compressed && groups == 8)) {
+            return NOT_PARSED;
+        }
+
+        // Alinha o trecho antes de "::" à esquerda dos 128 bits
+        int shift = 16 * (8 - headGroups);
+        long hi = shiftLeftHi(headHi, headLo, shift) | tailHi;
+        long lo = shiftLeftLo(headLo, shift) | tailLo;
+
+        if (hi == 0 && (lo >>> 32) == 0xFFFFL) {
+            return IPV4_TAG | (lo & 0xFFFFFFFFL);
+        }
+        if ((hi >>> 56) == 0) {
+            return RESERVED_IPV6_TAG | (mix(hi ^ Long.rotateLeft(lo, 32)) & 0xFFFFFFFFL);
+        }
+        return hi;
+    }
+
+    private static long shiftLeftHi(long hi, long lo, int shift) {
+        if (shift == 0) {
+            return hi;
+        }
+        if (shift >= 128) {
+            return 0;
+        }
+        if (shift >= 64) {
+            return lo << (shift - 64);
+        }
+        return (hi << shift) | (lo >>> (64 - shift));
+    }
+
+    private static long shiftLeftLo(long lo, int shift) {
+        return shift >= 64 ? 0 : lo << shift;
+    }
+
+    private static long hash32(String text, int from, int to) {
+        long hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = hash * 31 + text.charAt(i);
+        }
+        return mix(hash) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Finalizador do MurmurHash3 (fmix64): espalha os bits da chave.
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static int skipSpaces(String text, int from, int to) {
+        while (from < to && text.charAt(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimSpaces(String text, int from, int to) {
+        while (to > from && text.charAt(to - 1) == ' ') {
+            to--;
+        }
+        return to;
+    }
+}
@@ -0,0 +1,106 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+import com.br.radarlgpd.radarlgpd.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Rate limit em camadas (IP, token da instância e siteId), cada uma com seus buckets e
+ * sua capacidade. Uma camada com capacidade 0 fica desligada.
+ *
+ * Rejeições são contadas por camada em radarlgpd.rate_limit.rejected{layer=...}.
+ */
+@Component
+@Slf4j
+public class LayeredRateLimiter {
+
+    private final Map<RateLimitLayer, RateLimitEngine> engines = new EnumMap<>(RateLimitLayer.class);
+    private final Map<RateLimitLayer, Long> capacities = new EnumMap<>(RateLimitLayer.class);
+    private final Map<RateLimitLayer, Counter> rejections = new EnumMap<>(RateLimitLayer.class);
+
+    public LayeredRateLimiter(
+        RateLimitEngineFactory engineFactory,
+        MeterRegistry meterRegistry,
+        @Value("${radarlgpd.rate-limit.requests-per-hour:100}") long ipRequestsPerHour,
+        @Value("${radarlgpd.rate-limit.instance-token.requests-per-hour:100}") long tokenRequestsPerHour,
+        @Value("${radarlgpd.rate-limit.site-id.requests-per-hour:100}") long siteRequestsPerHour
+    ) {
+        capacities.put(RateLimitLayer.IP, ipRequestsPerHour);
+        capacities.put(RateLimitLayer.INSTANCE_TOKEN, tokenRequestsPerHour);
+        capacities.put(RateLimitLayer.SITE_ID, siteRequestsPerHour);
+
+        for (RateLimitLayer layer : RateLimitLayer.values()) {
+            long capacity = capacities.get(layer);
+            if (capacity > 0) {
+                engines.put(layer, engineFactory.create(capacity));
+            } else {
+                log.info("Rate limit {} desligado", layer.description());
+            }
+            rejections.put(layer, Counter.builder("radarlgpd.rate_limit.rejected")
+                .description("Requisições (ou itens de lote) rejeitadas pelo rate limit")
+                .tag("layer", layer.tag())
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Consome unidades do bucket de uma chave na camada informada.
+     *
+     * @param key chave da camada ({@link ClientAddressKey} para IP, {@link RateLimitKey} nas demais)
+     * @return saldo restante, {@link Long#MAX_VALUE} se a camada está desligada,
+     *         ou -1 se o saldo era insuficiente (rejeição contada)
+     */
+    public long tryConsume(RateLimitLayer layer, long key, long tokens) {
+        RateLimitEngine engine = engines.get(layer);
+        if (engine == null) {
+            return Long.MAX_VALUE;
+        }
+        long remaining = engine.tryConsume(key, tokens);
+        if (remaining < 0) {
+            rejections.get(layer).increment();
+        }
+        return remaining;
+    }
+
+    /**
+     * Cobra uma unidade do bucket do siteId do scan.
+     *
+     * Só depois que a instância foi autenticada (token válido) ou registrada: o siteId é
+     * público (SHA256 do domínio), e cobrá-lo antes deixaria qualquer um gastar o saldo de
+     * um site com requisições que seriam rejeitadas.
+     *
+     * @param siteId siteId do payload (ignorado se ausente: a validação do schema rejeita)
+     * @throws RateLimitExceededException se o saldo do site for insuficiente
+     */
+    public void consumeSiteId(String siteId) {
+        if (siteId == null || siteId.isBlank()) {
+            return;
+        }
+
+        if (tryConsume(RateLimitLayer.SITE_ID, RateLimitKey.ofSiteId(siteId), 1) < 0) {
+            log.warn("Rate limit por site excedido - site_id: {}", siteId);
+            throw new RateLimitExceededException(exceededMessage(RateLimitLayer.SITE_ID), String.valueOf(3600),
+                capacity(RateLimitLayer.SITE_ID));
+        }
+    }
+
+    /**
+     * Requisições por hora da camada (0 se desligada).
+     */
+    public long capacity(RateLimitLayer layer) {
+        return capacities.get(layer);
+    }
+
+    /**
+     * Mensagem de limite excedido da camada ("Limite de 100 requisições por hora por site excedido").
+     */
+    public String exceededMessage(RateLimitLayer layer) {
+        return String.format("Limite de %d requisições por hora %s excedido", capacity(layer), layer.description());
+    }
+}
@@ -0,0 +1,277 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets por cliente em uma tabela primitiva, sem objetos por IP.
+ *
+ * O cliente vira uma chave {@code long} ({@link ClientAddressKey}) e o bucket inteiro cabe
+ * em outro {@code long}: início da janela corrente (32 bits, segundos desde a criação do
+ * motor) e saldo (32 bits). Mesma semântica do Bucket4j com refillIntervally: a cada período
+ * completo desde a primeira requisição o saldo volta à capacidade.
+ *
+ * A tabela é dividida em {@value #STRIPES} faixas (stripes), cada uma com endereçamento aberto
+ * (sondagem linear) em dois {@code long[]} paralelos. Consumir de um bucket existente é
+ * lock-free: leitura da chave (acquire) e CAS no estado. Só a inclusão de um IP novo e o
+ * redimensionamento da faixa usam o lock dela; no redimensionamento cada estado é trocado
+ * por MOVED via getAndSet, então um CAS concorrente na tabela antiga falha e é refeito na
+ * nova (nenhum consumo se perde).
+ *
+ * Buckets cuja janela já venceu equivalem a buckets novos e são descartados no
+ * redimensionamento. Com a faixa no tamanho máximo e cheia de buckets vivos, saem os de
+ * janela mais antiga (os próximos a reabastecer).
+ */
+public class PackedRateLimitEngine implements RateLimitEngine {
+
+    static final int STRIPES = 64;
+
+    private static final int INITIAL_SLOTS = 64;
+    private static final long EMPTY = 0L;
+    private static final long MOVED = -1L;
+    private static final long MAX_TOKENS = 0xFFFFFFFFL;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long capacity;
+    private final long periodSeconds;
+    private final int maxSlotsPerStripe;
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * @param capacity unidades por período (até 2^32 - 1)
+     * @param period período de reabastecimento (mínimo 1 segundo)
+     * @param maxTrackedClients clientes acompanhados antes de descartar os de janela mais antiga
+     */
+    public PackedRateLimitEngine(long capacity, Duration period, long maxTrackedClients) {
+        if (capacity < 1 || capacity > MAX_TOKENS) {
+            throw new IllegalArgumentException("Capacidade do rate limit deve estar entre 1 e " + MAX_TOKENS);
+        }
+        this.capacity = capacity;
+        this.periodSeconds = Math.max(1, period.toSeconds());
+
+        // Carga máxima de 3/4 por faixa
+        long perStripe = Math.max(INITIAL_SLOTS, (maxTrackedClients / STRIPES) * 4 / 3 + 1);
+        this.maxSlotsPerStripe = (int) Math.min(1 << 30, Long.highestOneBit(perStripe - 1) << 1);
+
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public long tryConsume(long key, long tokens) {
+        long hash = ClientAddressKey.mix(key);
+        return stripes[(int) (hash >>> 58)].tryConsume(key, (int) hash, tokens, nowSeconds());
+    }
+
+    /**
+     * Buckets acompanhados no momento (inclui os de janela vencida ainda não descartados).
+     */
+    public long trackedClients() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.size;
+        }
+        return total;
+    }
+
+    private long nowSeconds() {
+        return (System.nanoTime() - startNanos) / 1_000_000_000L;
+    }
+
+    private static long pack(long windowStart, long available) {
+        return (windowStart << 32) | available;
+    }
+
+    private static long windowStart(long state) {
+        return state >>> 32;
+    }
+
+    private boolean expired(long state, long now) {
+        return now - windowStart(state) >= periodSeconds;
+    }
+
+    /**
+     * Arrays paralelos de chaves e estados; tamanho potência de 2.
+     */
+    private static final class Table {
+
+        final long[] keys;
+        final long[] states;
+        final int mask;
+
+        Table(int slots) {
+            keys = new long[slots];
+            states = new long[slots];
+            mask = slots - 1;
+        }
+
+        /**
+         * @return posição da chave, ou -1 se ausente
+         */
+        int find(long key, int hash) {
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                long current = (long) SLOTS.getAcquire(keys, i);
+                if (current == key) {
+                    return i;
+                }
+                if (current == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        /**
+         * Inclui uma chave ausente. O estado é escrito antes da chave (release): quem
+         * encontra a chave enxerga o estado.
+         */
+        void insert(long key, int hash, long state) {
+            int i = hash & mask;
+            while (keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            SLOTS.setRelease(states, i, state);
+            SLOTS.setRelease(keys, i, key);
+        }
+    }
+
+    private final class Stripe {
+
+        /**
+         * ReentrantLock em vez de synchronized: não prende a carrier thread de virtual threads.
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Table table = new Table(INITIAL_SLOTS);
+        private volatile int size;
+
+        long tryConsume(long key, int hash, long tokens, long now) {
+            while (true) {
+                Table current = table;
+                int slot = current.find(key, hash);
+                if (slot < 0) {
+                    insertIfAbsent(key, hash, now);
+                    continue;
+                }
+
+                long state = (long) SLOTS.getVolatile(current.states, slot);
+                if (state == MOVED) {
+                    // Redimensionamento em andamento: aguarda a publicação da tabela nova
+                    Thread.onSpinWait();
+                    continue;
+                }
+
+                long window = windowStart(state);
+                long available = state & MAX_TOKENS;
+                long elapsed = now - window;
+                if (elapsed >= periodSeconds) {
+                    window += elapsed - elapsed % periodSeconds;
+                    available = capacity;
+                }
+                if (available < tokens) {
+                    return -1;
+                }
+
+                long remaining = available - tokens;
+                if (SLOTS.compareAndSet(current.states, slot, state, pack(window, remaining))) {
+                    return remaining;
+                }
+            }
+        }
+
+        private void insertIfAbsent(long key, int hash, long now) {
+            lock.lock();
+            try {
+                Table current = table;
+                if (current.find(key, hash) >= 0) {
+                    return;
+                }
+                if ((size + 1) * 4L > current.keys.length * 3L) {
+                    current = resize(current, now);
+                }
+                current.insert(key, hash, pack(now, capacity));
+                size++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Copia os buckets vivos para uma tabela nova (maior se necessário) e a publica.
+         * Chamado com o lock da faixa.
+         */
+        private Table resize(Table old, long now) {
+            int slots = old.keys.length;
+            long[] liveKeys = new long[size];
+            long[] liveStates = new long[size];
+            int live = 0;
+            for (int i = 0; i < slots; i++) {
+                long key = old.keys[i];
+                if (key == EMPTY) {
+                    continue;
+                }
+                long state = (long) SLOTS.getAndSet(old.states, i, MOVED);
+                if (!expired(state, now)) {
+                    liveKeys[live] = key;
+                    liveStates[live] = state;
+                    live++;
+                }
+            }
+
+            int newSlots = slots;
+            while ((live + 1) * 2L > newSlots && newSlots < maxSlotsPerStripe) {
+                newSlots <<= 1;
+            }
+
+            // Faixa no tamanho máximo e ainda acima de metade da carga: mantém só a metade
+            // com janela mais recente (sem isso, cada inclusão refaria a tabela)
+            long median = -1;
+            int keepAtMedian = live;
+            if ((live + 1) * 2L > newSlots) {
+                long[] windows = new long[live];
+                for (int i = 0; i < live; i++) {
+                    windows[i] = windowStart(liveStates[i]);
+                }
+                Arrays.sort(windows);
+                median = windows[live / 2];
+                int newer = live - upperBound(windows, median);
+                keepAtMedian = Math.max(0, live / 2 - newer);
+            }
+
+            Table resized = new Table(newSlots);
+            int kept = 0;
+            for (int i = 0; i < live; i++) {
+                long window = windowStart(liveStates[i]);
+                boolean keep = window > median || (window == median && keepAtMedian-- > 0);
+                if (keep) {
+                    resized.insert(liveKeys[i], (int) ClientAddressKey.mix(liveKeys[i]), liveStates[i]);
+                    kept++;
+                }
+            }
+            size = kept;
+            table = resized;
+            return resized;
+        }
+
+        /**
+         * Primeira posição com valor maior que {@code value} em um array ordenado.
+         */
+        private int upperBound(long[] sorted, long value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (sorted[middle] <= value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
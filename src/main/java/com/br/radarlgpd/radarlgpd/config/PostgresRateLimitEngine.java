@@ -0,0 +1,107 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+import com.br.radarlgpd.radarlgpd.repository.RateLimitBucketRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.jdbc.BucketTableSettings;
+import io.github.bucket4j.distributed.jdbc.SQLProxyConfiguration;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.github.bucket4j.postgresql.PostgreSQLSelectForUpdateBasedProxyManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Token buckets compartilhados pelo cluster, na tabela rate_limit_buckets do PostgreSQL
+ * (scripts/migrations/006-rate-limit-buckets.sql). Com vários nós atrás do balanceador,
+ * o limite vale para o conjunto, e não para cada nó. As camadas dividem a tabela: as
+ * chaves de cada uma ficam em faixas distintas ({@link RateLimitKey}).
+ *
+ * O estado fica com o Bucket4j ({@link PostgreSQLSelectForUpdateBasedProxyManager}: uma
+ * transação curta com SELECT ... FOR UPDATE por sincronização). Lock de linha, e não advisory
+ * lock, para não disputar o espaço de advisory locks com a manutenção de partições.
+ *
+ * Near-cache: cada nó mantém em um cache Caffeine um {@link BucketProxy} por cliente com a
+ * otimização "delaying" do Bucket4j. O consumo é cobrado de uma cópia local do bucket e só
+ * vai ao banco a cada max-unsynced-tokens unidades ou max-unsynced-timeout, o que vier
+ * primeiro; um cliente em rajada custa uma ida ao banco a cada poucas requisições. Em troca,
+ * o cluster pode aceitar até max-unsynced-tokens unidades a mais por nó e por cliente.
+ *
+ * Se o banco falhar, a requisição é cobrada de um {@link PackedRateLimitEngine} local (o
+ * limite passa a valer por nó) em vez de derrubar a API.
+ *
+ * Os buckets ociosos são removidos pelo RateLimitBucketSweeper (radarlgpd.rate-limit.distributed.cleanup-interval-ms).
+ */
+@Slf4j
+public class PostgresRateLimitEngine implements RateLimitEngine {
+
+    private final RemoteBucketBuilder<Long> bucketBuilder;
+    private final BucketConfiguration configuration;
+    private final Cache<Long, BucketProxy> nearCache;
+    private final PackedRateLimitEngine fallback;
+    private final Counter fallbacks;
+
+    public PostgresRateLimitEngine(
+        DataSource dataSource,
+        MeterRegistry meterRegistry,
+        long capacity,
+        long maxTrackedClients,
+        long maxUnsyncedTokens,
+        Duration maxUnsyncedTimeout,
+        Duration requestTimeout
+    ) {
+        ProxyManager<Long> proxyManager = new PostgreSQLSelectForUpdateBasedProxyManager<>(
+            SQLProxyConfiguration.builder()
+                .withTableSettings(BucketTableSettings.customSettings(
+                    RateLimitBucketRepository.TABLE,
+                    RateLimitBucketRepository.ID_COLUMN,
+                    RateLimitBucketRepository.STATE_COLUMN))
+                .withClientSideConfig(ClientSideConfig.getDefault().withRequestTimeout(requestTimeout))
+                .build(dataSource));
+        // max-unsynced-tokens=0: sem near-cache, toda requisição sincroniza com o banco
+        this.bucketBuilder = maxUnsyncedTokens > 0
+            ? proxyManager.builder()
+                .withOptimization(Optimizations.delaying(new DelayParameters(maxUnsyncedTokens, maxUnsyncedTimeout)))
+            : proxyManager.builder();
+
+        this.configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(capacity).refillIntervally(capacity, RateLimitConfig.PERIOD))
+            .build();
+
+        // Sem acesso por um período, a cópia local já não serve: o bucket está cheio
+        this.nearCache = Caffeine.newBuilder()
+            .maximumSize(maxTrackedClients)
+            .expireAfterAccess(RateLimitConfig.PERIOD)
+            .build();
+        this.fallback = new PackedRateLimitEngine(capacity, RateLimitConfig.PERIOD, maxTrackedClients);
+
+        this.fallbacks = Counter.builder("radarlgpd.rate_limit.distributed.fallbacks")
+            .description("Requisições cobradas do limite local por falha no banco")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public long tryConsume(long key, long tokens) {
+        try {
+            BucketProxy bucket = nearCache.get(key, k -> bucketBuilder.build(k, () -> configuration));
+            ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(tokens);
+            return probe.isConsumed() ? probe.getRemainingTokens() : -1;
+        } catch (RuntimeException e) {
+            // A cópia local pode ter ficado inconsistente: a próxima requisição recria do banco
+            nearCache.invalidate(key);
+            fallbacks.increment();
+            log.warn("Rate limit distribuído indisponível, usando limite local: {}", e.getMessage());
+            return fallback.tryConsume(key, tokens);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Escolhe como os buckets de cada camada do {@link LayeredRateLimiter} são guardados, por
+ * radarlgpd.rate-limit.engine: packed (padrão) e caffeine limitam por nó;
+ * postgres ({@link PostgresRateLimitEngine}) limita no cluster inteiro.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Período de reabastecimento dos buckets (NFR-API-002: requisições por hora).
+     */
+    public static final Duration PERIOD = Duration.ofHours(1);
+
+    @Bean
+    @ConditionalOnProperty(name = "radarlgpd.rate-limit.engine", havingValue = "packed", matchIfMissing = true)
+    public RateLimitEngineFactory packedRateLimitEngineFactory(
+        @Value("${radarlgpd.rate-limit.max-tracked-clients:100000}") long maxTrackedClients
+    ) {
+        return capacity -> new PackedRateLimitEngine(capacity, PERIOD, maxTrackedClients);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "radarlgpd.rate-limit.engine", havingValue = "caffeine")
+    public RateLimitEngineFactory caffeineRateLimitEngineFactory(
+        @Value("${radarlgpd.rate-limit.max-tracked-clients:100000}") long maxTrackedClients
+    ) {
+        return capacity -> new CaffeineRateLimitEngine(capacity, PERIOD, maxTrackedClients);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "radarlgpd.rate-limit.engine", havingValue = "postgres")
+    public RateLimitEngineFactory postgresRateLimitEngineFactory(
+        DataSource dataSource,
+        MeterRegistry meterRegistry,
+        @Value("${radarlgpd.rate-limit.max-tracked-clients:100000}") long maxTrackedClients,
+        @Value("${radarlgpd.rate-limit.distributed.max-unsynced-tokens:5}") long maxUnsyncedTokens,
+        @Value("${radarlgpd.rate-limit.distributed.max-unsynced-timeout:PT1S}") Duration maxUnsyncedTimeout,
+        @Value("${radarlgpd.rate-limit.distributed.request-timeout:PT0.5S}") Duration requestTimeout
+    ) {
+        return capacity -> new PostgresRateLimitEngine(dataSource, meterRegistry, capacity,
+            maxTrackedClients, maxUnsyncedTokens, maxUnsyncedTimeout, requestTimeout);
+    }
+}
@@ -0,0 +1,40 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+/**
+ * Armazena os token buckets de uma camada do rate limit ({@link RateLimitLayer}), todos com
+ * a mesma capacidade. Criado por {@link RateLimitEngineFactory}.
+ *
+ * Implementações:
+ * <ul>
+ *   <li>{@link PackedRateLimitEngine} (radarlgpd.rate-limit.engine=packed): tabela primitiva
+ *       com atualização lock-free;</li>
+ *   <li>{@link CaffeineRateLimitEngine} (radarlgpd.rate-limit.engine=caffeine): um Bucket4j
+ *       por cliente em um cache Caffeine;</li>
+ *   <li>{@link PostgresRateLimitEngine} (radarlgpd.rate-limit.engine=postgres): buckets no
+ *       PostgreSQL, compartilhados por todos os nós.</li>
+ * </ul>
+ */
+public interface RateLimitEngine {
+
+    /**
+     * Consome unidades do bucket de uma chave ({@link ClientAddressKey} ou {@link RateLimitKey}).
+     * A cobrança é atômica: se não houver saldo para todas as unidades, nenhuma é consumida.
+     *
+     * @param key chave do bucket (nunca 0)
+     * @param tokens unidades a consumir
+     * @return saldo restante após o consumo, ou -1 se o saldo era insuficiente
+     */
+    long tryConsume(long key, long tokens);
+
+    /**
+     * Consome unidades do bucket do cliente (IP).
+     *
+     * @param forwardedFor valor do header X-Forwarded-For (pode ser null)
+     * @param remoteAddr endereço da conexão
+     * @param tokens unidades a consumir
+     * @return saldo restante após o consumo, ou -1 se o saldo era insuficiente
+     */
+    default long tryConsume(String forwardedFor, String remoteAddr, long tokens) {
+        return tryConsume(ClientAddressKey.of(forwardedFor, remoteAddr), tokens);
+    }
+}
@@ -0,0 +1,14 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+/**
+ * Cria o {@link RateLimitEngine} de cada camada do rate limit, conforme
+ * radarlgpd.rate-limit.engine ({@link RateLimitConfig}).
+ */
+@FunctionalInterface
+public interface RateLimitEngineFactory {
+
+    /**
+     * @param capacity unidades por período ({@link RateLimitConfig#PERIOD}) de cada bucket
+     */
+    RateLimitEngine create(long capacity);
+}
@@ -1,17 +1,13 @@
 package com.br.radarlgpd.radarlgpd.config;
 
 import com.br.radarlgpd.radarlgpd.dto.ErrorResponse;
+import com.br.radarlgpd.radarlgpd.exception.RateLimitExceededException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
@@ -19,32 +15,37 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Set;
 
 /**
- * Interceptor para rate limiting usando Bucket4j + Caffeine.
+ * Interceptor para rate limiting com token bucket em camadas ({@link RateLimitLayer}).
  * NFR-API-002: Limita a 100 requisições por hora por IP.
+ * 
+ * Em uma passada pelo filtro, antes do parse do JSON e de qualquer acesso ao banco:
+ * token da instância (header Authorization nos endpoints de instância) e IP. O token vem
+ * primeiro: uma instância barulhenta é barrada sem gastar o saldo do IP, que pode ser o NAT
+ * de uma hospedagem compartilhada. O siteId só existe no corpo e é cobrado depois que a
+ * instância é autenticada ou registrada ({@link LayeredRateLimiter#consumeSiteId(String)}).
+ * 
+ * Os buckets de cada camada ficam no {@link LayeredRateLimiter}.
  */
 @Component
 @Slf4j
 public class RateLimitInterceptor extends OncePerRequestFilter {
 
-    @Value("${radarlgpd.rate-limit.requests-per-hour:100}")
-    private int requestsPerHour;
+    /**
+     * Endpoints em que o header Authorization traz o token da instância (nos demais é a API key).
+     */
+    private static final Set<String> INSTANCE_TOKEN_PATHS = Set.of("/v1/telemetry/scan-result", "/v1/telemetry/scans");
 
-    private final Cache<String, Bucket> bucketCache;
+    private final LayeredRateLimiter rateLimiter;
     private final ObjectMapper objectMapper;
 
-    public RateLimitInterceptor(ObjectMapper objectMapper) {
+    public RateLimitInterceptor(ObjectMapper objectMapper, LayeredRateLimiter rateLimiter) {
         this.objectMapper = objectMapper;
-        
-        // Configura cache Caffeine com TTL de 1 hora
-        this.bucketCache = Caffeine.newBuilder()
-            .maximumSize(100_000) // Máximo 100k IPs em cache
-            .expireAfterWrite(Duration.ofHours(1))
-            .build();
+        this.rateLimiter = rateLimiter;
     }
 
     @Override
@@ -60,29 +61,65 @@ public class RateLimitInterceptor extends OncePerRequestFilter {
             return;
         }
 
-        String clientIp = getClientIp(request);
-        
-        // Obtém ou cria bucket para este IP
-        Bucket bucket = bucketCache.get(clientIp, key -> createNewBucket());
-        
-        // Tenta consumir 1 token
-        if (bucket.tryConsume(1)) {
-            // Token disponível, adiciona headers informativos
-            long availableTokens = bucket.getAvailableTokens();
-            response.addHeader("X-RateLimit-Limit", String.valueOf(requestsPerHour));
-            response.addHeader("X-RateLimit-Remaining", String.valueOf(availableTokens));
+        // Camada do token da instância (só o header; validade é verificada depois, no controller)
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && !authHeader.isBlank() && INSTANCE_TOKEN_PATHS.contains(request.getRequestURI())
+            && rateLimiter.tryConsume(RateLimitLayer.INSTANCE_TOKEN, RateLimitKey.ofInstanceToken(authHeader), 1) < 0) {
+            log.warn("Rate limit por instância excedido - IP {} no path {}", getClientIp(request), request.getRequestURI());
+            handleRateLimitExceeded(response, request.getRequestURI(), RateLimitLayer.INSTANCE_TOKEN);
+            return;
+        }
+
+        // Tenta consumir 1 token do bucket deste IP
+        long ipKey = ClientAddressKey.of(request.getHeader("X-Forwarded-For"), request.getRemoteAddr());
+        long availableTokens = rateLimiter.tryConsume(RateLimitLayer.IP, ipKey, 1);
+
+        if (availableTokens >= 0) {
+            // Token disponível, adiciona headers informativos (camada de IP)
+            if (availableTokens != Long.MAX_VALUE) {
+                response.addHeader("X-RateLimit-Limit", String.valueOf(rateLimiter.capacity(RateLimitLayer.IP)));
+                response.addHeader("X-RateLimit-Remaining", String.valueOf(availableTokens));
+            }
             
-            log.debug("Rate limit OK para IP {} - {} tokens restantes", clientIp, availableTokens);
+            if (log.isDebugEnabled()) {
+                log.debug("Rate limit OK para IP {} - {} tokens restantes", getClientIp(request), availableTokens);
+            }
             filterChain.doFilter(request, response);
         } else {
             // Rate limit excedido
-            log.warn("Rate limit excedido para IP {} no path {}", clientIp, request.getRequestURI());
-            handleRateLimitExceeded(response, request.getRequestURI());
+            log.warn("Rate limit excedido para IP {} no path {}", getClientIp(request), request.getRequestURI());
+            handleRateLimitExceeded(response, request.getRequestURI(), RateLimitLayer.IP);
         }
     }
 
     /**
-     * Extrai o IP real do cliente, considerando proxies.
+     * Cobra unidades extras do bucket do cliente, além da já consumida pelo filtro.
+     * Usado por endpoints em que uma requisição carrega vários scans (ex: envio em lote),
+     * para que o limite valha por scan e não por requisição. A cobrança é atômica:
+     * se não houver saldo para todas as unidades, nenhuma é consumida.
+     * 
+     * @param request requisição corrente (identifica o cliente)
+     * @param tokens unidades extras a consumir
+     * @throws RateLimitExceededException se o saldo for insuficiente
+     */
+    public void consumeAdditional(HttpServletRequest request, long tokens) {
+        if (tokens <= 0) {
+            return;
+        }
+
+        long ipKey = ClientAddressKey.of(request.getHeader("X-Forwarded-For"), request.getRemoteAddr());
+        if (rateLimiter.tryConsume(RateLimitLayer.IP, ipKey, tokens) < 0) {
+            log.warn("Rate limit excedido para IP {} no path {} ({} unidades solicitadas)",
+                getClientIp(request), request.getRequestURI(), tokens + 1);
+            throw new RateLimitExceededException(
+                String.format("Limite de %d scans por hora excedido", rateLimiter.capacity(RateLimitLayer.IP)),
+                String.valueOf(3600),
+                rateLimiter.capacity(RateLimitLayer.IP));
+        }
+    }
+
+    /**
+     * Extrai o IP real do cliente, considerando proxies (apenas para logs).
      */
     private String getClientIp(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
@@ -95,26 +132,13 @@ public class RateLimitInterceptor extends OncePerRequestFilter {
         return request.getRemoteAddr();
     }
 
-    /**
-     * Cria um novo bucket: 100 requisições por hora com refill gradual.
-     */
-    private Bucket createNewBucket() {
-        Bandwidth limit = Bandwidth.builder()
-            .capacity(requestsPerHour)
-            .refillIntervally(requestsPerHour, Duration.ofHours(1))
-            .build();
-        
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
-    }
-
     /**
      * Envia resposta HTTP 429 Too Many Requests.
      */
     private void handleRateLimitExceeded(
         HttpServletResponse response,
-        String path
+        String path,
+        RateLimitLayer layer
     ) throws IOException {
         
         // Calcula quando o cliente pode tentar novamente (1 hora)
@@ -125,8 +149,7 @@ public class RateLimitInterceptor extends OncePerRequestFilter {
             .timestamp(OffsetDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))
             .status(HttpStatus.TOO_MANY_REQUESTS.value())
             .error("Rate Limit Exceeded")
-            .message(String.format("Limite de %d requisições por hora excedido. Tente novamente após: %s", 
-                requestsPerHour, retryAfterStr))
+            .message(String.format("%s. Tente novamente após: %s", rateLimiter.exceededMessage(layer), retryAfterStr))
             .path(path)
             .build();
 
@@ -134,7 +157,7 @@ public class RateLimitInterceptor extends OncePerRequestFilter {
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         response.setCharacterEncoding("UTF-8");
         response.addHeader("Retry-After", String.valueOf(3600)); // 1 hora em segundos
-        response.addHeader("X-RateLimit-Limit", String.valueOf(requestsPerHour));
+        response.addHeader("X-RateLimit-Limit", String.valueOf(rateLimiter.capacity(layer)));
         response.addHeader("X-RateLimit-Remaining", "0");
         response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
     }
@@ -0,0 +1,62 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+/**
+ * Chaves {@code long} das camadas de rate limit que não são por IP: token da instância
+ * e siteId. Calculadas direto da String, sem alocar.
+ *
+ * Hash de 52 bits com uma marca por camada nos bits 52-55, dentro de ::/8 como as marcas
+ * do {@link ClientAddressKey}: as chaves não colidem com as de IP nem entre camadas, o que
+ * permite guardar todas na mesma tabela (rate_limit_buckets).
+ */
+public final class RateLimitKey {
+
+    static final long INSTANCE_TOKEN_TAG = 4L << 52;
+    static final long SITE_ID_TAG = 5L << 52;
+
+    private static final long HASH_MASK = (1L << 52) - 1;
+    private static final String BEARER = "Bearer ";
+
+    private RateLimitKey() {
+    }
+
+    /**
+     * Chave do token da instância, com ou sem o prefixo "Bearer " (mesma limpeza do
+     * InstanceService: prefixo removido e espaços aparados).
+     */
+    public static long ofInstanceToken(String token) {
+        int from = 0;
+        int to = token.length();
+        if (token.startsWith(BEARER)) {
+            from = BEARER.length();
+            while (from < to && token.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && token.charAt(to - 1) <= ' ') {
+                to--;
+            }
+        }
+        return INSTANCE_TOKEN_TAG | (hash(token, from, to, false) & HASH_MASK);
+    }
+
+    /**
+     * Chave do siteId (SHA256 do domínio em hexadecimal; maiúsculas e minúsculas são o mesmo site).
+     */
+    public static long ofSiteId(String siteId) {
+        return SITE_ID_TAG | (hash(siteId, 0, siteId.length(), true) & HASH_MASK);
+    }
+
+    /**
+     * FNV-1a de 64 bits seguido do fmix64.
+     */
+    private static long hash(String text, int from, int to, boolean ignoreCase) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (ignoreCase && c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            hash = (hash ^ c) * 0x100000001b3L;
+        }
+        return ClientAddressKey.mix(hash);
+    }
+}
@@ -0,0 +1,52 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+/**
+ * Camadas do rate limit, cada uma com política própria (requisições por hora).
+ *
+ * Vários sites em hospedagem compartilhada saem pelo mesmo IP (NAT), e uma instância
+ * pode trocar de IP: o limite por IP sozinho barra sites legítimos e deixa passar uma
+ * instância barulhenta. As camadas de token e de siteId cobrem esses casos.
+ */
+public enum RateLimitLayer {
+
+    /**
+     * Primeiro item de X-Forwarded-For (ou o remoteAddr); radarlgpd.rate-limit.requests-per-hour.
+     */
+    IP("ip", "por IP"),
+
+    /**
+     * Token da instância (header Authorization ou instanceToken do item do lote), cobrado
+     * antes do parse do JSON e da validação no banco;
+     * radarlgpd.rate-limit.instance-token.requests-per-hour.
+     */
+    INSTANCE_TOKEN("instance_token", "por instância"),
+
+    /**
+     * siteId do scan, cobrado só depois que o token é validado ou a instância é registrada
+     * (o siteId é público: cobrá-lo antes deixaria qualquer um gastar o saldo do site);
+     * radarlgpd.rate-limit.site-id.requests-per-hour.
+     */
+    SITE_ID("site_id", "por site");
+
+    private final String tag;
+    private final String description;
+
+    RateLimitLayer(String tag, String description) {
+        this.tag = tag;
+        this.description = description;
+    }
+
+    /**
+     * Valor da tag "layer" nas métricas.
+     */
+    public String tag() {
+        return tag;
+    }
+
+    /**
+     * Complemento usado nas mensagens de erro ("Limite de 100 requisições por hora por site").
+     */
+    public String description() {
+        return description;
+    }
+}
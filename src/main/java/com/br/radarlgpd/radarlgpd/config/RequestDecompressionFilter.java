@@ -0,0 +1,373 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+import com.br.radarlgpd.radarlgpd.dto.ErrorResponse;
+import com.br.radarlgpd.radarlgpd.exception.PayloadTooLargeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.airlift.compress.zstd.ZstdInputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Filtro que descomprime corpos com Content-Encoding gzip ou zstd.
+ *
+ * Payloads de scan são muito repetitivos (wp_postmeta.meta_value, ...) e comprimem bem,
+ * reduzindo o tráfego de entrada da frota de plugins. A descompressão é feita em streaming:
+ * o controller (Jackson) lê direto do stream descomprimido e o corpo inteiro nunca fica em
+ * memória. O total descomprimido é limitado (proteção contra zip bomb); ao estourar, a
+ * leitura falha com {@link PayloadTooLargeException} (HTTP 413). Os bytes até o limite são
+ * entregues normalmente e só a leitura seguinte falha.
+ *
+ * O envio NDJSON ({@value #STREAM_PATH}) é feito para uploads longos, já limita cada linha
+ * e trata o estouro como resultado do item (a resposta já está em andamento): tem um limite
+ * próprio, bem maior (radarlgpd.request-decompression.stream-max-decompressed-size).
+ *
+ * Métricas: radarlgpd.request.decompression.ratio{encoding} (descomprimido / comprimido),
+ * radarlgpd.request.decompression.bytes{encoding,stage=compressed|decompressed} e
+ * radarlgpd.request.decompression.rejected{encoding}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private static final List<String> GZIP = List.of("gzip", "x-gzip");
+    private static final String ZSTD = "zstd";
+    private static final String STREAM_PATH = "/v1/telemetry/scan-results:stream";
+
+    private final boolean enabled;
+    private final long maxDecompressedBytes;
+    private final long streamMaxDecompressedBytes;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public RequestDecompressionFilter(
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${radarlgpd.request-decompression.enabled:true}") boolean enabled,
+        @Value("${radarlgpd.request-decompression.max-decompressed-size:10MB}") DataSize maxDecompressedSize,
+        @Value("${radarlgpd.request-decompression.stream-max-decompressed-size:10GB}") DataSize streamMaxDecompressedSize
+    ) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxDecompressedBytes = maxDecompressedSize.toBytes();
+        this.streamMaxDecompressedBytes = streamMaxDecompressedSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || request.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull HttpServletRequest request,
+        @NonNull HttpServletResponse response,
+        @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim().toLowerCase(Locale.ROOT);
+        if (encoding.isEmpty() || encoding.equals("identity")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String metricEncoding = GZIP.contains(encoding) ? "gzip" : encoding;
+        if (!metricEncoding.equals("gzip") && !metricEncoding.equals(ZSTD)) {
+            log.warn("Content-Encoding não suportado no path {}: {}", request.getRequestURI(), encoding);
+            handleUnsupportedEncoding(response, request.getRequestURI(), encoding);
+            return;
+        }
+
+        long limit = request.getRequestURI().endsWith(STREAM_PATH) ? streamMaxDecompressedBytes : maxDecompressedBytes;
+        DecompressingRequest decompressing = new DecompressingRequest(request, metricEncoding, limit);
+        try {
+            filterChain.doFilter(decompressing, response);
+        } finally {
+            decompressing.recordMetrics();
+        }
+    }
+
+    /**
+     * Envia resposta HTTP 415 Unsupported Media Type.
+     */
+    private void handleUnsupportedEncoding(
+        HttpServletResponse response,
+        String path,
+        String encoding
+    ) throws IOException {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+            .timestamp(OffsetDateTime.now().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))
+            .status(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value())
+            .error("Unsupported Media Type")
+            .message(String.format("Content-Encoding '%s' não suportado. Use gzip ou zstd", encoding))
+            .path(path)
+            .build();
+
+        response.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, zstd");
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    }
+
+    /**
+     * Requisição com o corpo descomprimido sob demanda. Content-Encoding e Content-Length
+     * deixam de ser expostos: o tamanho descomprimido não é conhecido antecipadamente.
+     */
+    private final class DecompressingRequest extends HttpServletRequestWrapper {
+
+        private final String encoding;
+        private final long maxBytes;
+        private CountingInputStream compressed;
+        private CountingInputStream decompressed;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+        private boolean rejected;
+
+        private DecompressingRequest(HttpServletRequest request, String encoding, long maxBytes) {
+            super(request);
+            this.encoding = encoding;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (reader != null) {
+                throw new IllegalStateException("getReader() já foi chamado nesta requisição");
+            }
+            return decodedStream();
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                if (inputStream != null) {
+                    throw new IllegalStateException("getInputStream() já foi chamado nesta requisição");
+                }
+                reader = new BufferedReader(new InputStreamReader(decodedStream(), charset()));
+            }
+            return reader;
+        }
+
+        /**
+         * Monta a cadeia na primeira leitura: gzip lê o cabeçalho no construtor,
+         * então um corpo inválido falha dentro do controller (HTTP 400) e não no filtro.
+         */
+        private ServletInputStream decodedStream() throws IOException {
+            if (inputStream == null) {
+                compressed = new CountingInputStream(super.getInputStream(), Long.MAX_VALUE);
+                InputStream decoder = encoding.equals(ZSTD)
+                    ? new ZstdInputStream(compressed)
+                    : new GZIPInputStream(compressed);
+                decompressed = new CountingInputStream(decoder, maxBytes);
+                inputStream = new DelegatingServletInputStream(decompressed);
+            }
+            return inputStream;
+        }
+
+        private Charset charset() throws UnsupportedEncodingException {
+            String name = getCharacterEncoding();
+            return name == null ? StandardCharsets.UTF_8 : Charset.forName(name);
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHiddenHeader(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHiddenHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(this::isHiddenHeader);
+            return Collections.enumeration(names);
+        }
+
+        private boolean isHiddenHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+
+        private void recordMetrics() {
+            if (compressed == null) {
+                return;
+            }
+
+            long compressedBytes = compressed.count();
+            long decompressedBytes = decompressed.count();
+
+            Counter.builder("radarlgpd.request.decompression.bytes")
+                .description("Bytes de corpos comprimidos recebidos, antes e depois da descompressão")
+                .tags("encoding", encoding, "stage", "compressed")
+                .register(meterRegistry)
+                .increment(compressedBytes);
+            Counter.builder("radarlgpd.request.decompression.bytes")
+                .description("Bytes de corpos comprimidos recebidos, antes e depois da descompressão")
+                .tags("encoding", encoding, "stage", "decompressed")
+                .register(meterRegistry)
+                .increment(decompressedBytes);
+
+            if (rejected) {
+                Counter.builder("radarlgpd.request.decompression.rejected")
+                    .description("Corpos rejeitados por exceder o limite descomprimido")
+                    .tag("encoding", encoding)
+                    .register(meterRegistry)
+                    .increment();
+            } else if (compressedBytes > 0) {
+                DistributionSummary.builder("radarlgpd.request.decompression.ratio")
+                    .description("Razão de compressão dos corpos recebidos (descomprimido / comprimido)")
+                    .tag("encoding", encoding)
+                    .register(meterRegistry)
+                    .record((double) decompressedBytes / compressedBytes);
+            }
+        }
+
+        /**
+         * Conta os bytes lidos e falha ao passar do limite. Uma leitura nunca devolve bytes
+         * além do limite: os anteriores chegam ao consumidor, e a falha vem na leitura seguinte.
+         */
+        private final class CountingInputStream extends FilterInputStream {
+
+            private final long limit;
+            private long count;
+
+            private CountingInputStream(InputStream in, long limit) {
+                super(in);
+                this.limit = limit;
+            }
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    add(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (count >= limit) {
+                    // No limite: read() devolve -1 (fim do corpo) ou falha
+                    return read();
+                }
+                int read = super.read(buffer, offset, (int) Math.min(length, limit - count));
+                if (read > 0) {
+                    add(read);
+                }
+                return read;
+            }
+
+            private void add(long bytes) {
+                count += bytes;
+                if (count > limit) {
+                    rejected = true;
+                    throw new PayloadTooLargeException(String.format(
+                        "Corpo descomprimido excede o limite de %d bytes", limit));
+                }
+            }
+
+            private long count() {
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Adapta o stream descomprimido para a API de servlet (leitura bloqueante apenas).
+     */
+    private static final class DelegatingServletInputStream extends ServletInputStream {
+
+        private final InputStream delegate;
+        private boolean finished;
+
+        private DelegatingServletInputStream(InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = delegate.read(buffer, offset, length);
+            finished = read < 0;
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Leitura assíncrona não suportada para corpos comprimidos");
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository.DayRange;
+import com.br.radarlgpd.radarlgpd.service.DailyRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Comando de rebuild dos rollups diários: recalcula os dias a partir dos dados brutos
+ * e encerra a aplicação.
+ *
+ * <pre>
+ * java -jar radarlgpd.jar --spring.main.web-application-type=none \
+ *     --radarlgpd.rollup.rebuild.enabled=true \
+ *     [--radarlgpd.rollup.rebuild.from=2025-01-01] [--radarlgpd.rollup.rebuild.to=2025-01-31] \
+ *     [--radarlgpd.rollup.rebuild.parallelism=4]
+ * </pre>
+ *
+ * Sem from/to: do primeiro dia com scans até ontem (UTC), deixando de fora o dia
+ * ainda em ingestão.
+ *
+ * Dias já compactados ({@code ScanCompactionService}) ou descartados pela retenção de
+ * partições não têm mais dados brutos e seriam zerados. Sem from, o início é limitado ao
+ * primeiro dia ainda íntegro (o corte da compactação mais um dia, que ele avança
+ * diariamente); um from anterior a isso é recusado, assim como qualquer intervalo com
+ * linhas em daily_instance_rollups.
+ */
+@Component
+@ConditionalOnProperty(name = "radarlgpd.rollup.rebuild.enabled", havingValue = "true")
+@Slf4j
+public class RollupRebuildRunner implements ApplicationRunner {
+
+    private final DailyRollupService dailyRollupService;
+    private final DailyRollupRepository dailyRollupRepository;
+    private final ConfigurableApplicationContext context;
+    private final String from;
+    private final String to;
+    private final int parallelism;
+    private final boolean compactionEnabled;
+    private final int compactionMinAgeDays;
+    private final boolean partitionsEnabled;
+    private final int retentionMonths;
+
+    public RollupRebuildRunner(
+        DailyRollupService dailyRollupService,
+        DailyRollupRepository dailyRollupRepository,
+        ConfigurableApplicationContext context,
+        @Value("${radarlgpd.rollup.rebuild.from:}") String from,
+        @Value("${radarlgpd.rollup.rebuild.to:}") String to,
+        @Value("${radarlgpd.rollup.rebuild.parallelism:4}") int parallelism,
+        @Value("${radarlgpd.compaction.enabled:true}") boolean compactionEnabled,
+        @Value("${radarlgpd.compaction.min-age-days:90}") int compactionMinAgeDays,
+        @Value("${radarlgpd.partitions.enabled:true}") boolean partitionsEnabled,
+        @Value("${radarlgpd.partitions.retention-months:12}") int retentionMonths
+    ) {
+        this.dailyRollupService = dailyRollupService;
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.context = context;
+        this.from = from;
+        this.to = to;
+        this.parallelism = parallelism;
+        this.compactionEnabled = compactionEnabled;
+        this.compactionMinAgeDays = compactionMinAgeDays;
+        this.partitionsEnabled = partitionsEnabled;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        int exitCode = 0;
+        try {
+            Optional<DayRange> days = resolveDays(LocalDate.now(ZoneOffset.UTC));
+            if (days.isPresent()) {
+                dailyRollupService.rebuild(days.get().first(), days.get().last(), parallelism);
+            }
+        } catch (Exception e) {
+            log.error("Falha no rebuild dos rollups diários", e);
+            exitCode = 1;
+        }
+
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    /**
+     * Dias a recalcular, a partir de from/to e dos dados brutos ainda existentes.
+     *
+     * @param today dia corrente (UTC)
+     * @return intervalo inclusivo, ou vazio se não há nada a recalcular
+     * @throws IllegalStateException se o intervalo inclui dias sem dados brutos
+     */
+    Optional<DayRange> resolveDays(LocalDate today) {
+        Optional<DayRange> received = dailyRollupRepository.findReceivedDayRange();
+        if (received.isEmpty() && (from.isBlank() || to.isBlank())) {
+            log.info("Rebuild dos rollups diários: nenhum scan recebido, nada a recalcular");
+            return Optional.empty();
+        }
+
+        LocalDate earliest = firstRebuildableDay(today);
+        LocalDate first;
+        if (from.isBlank()) {
+            first = received.get().first();
+            if (first.isBefore(earliest)) {
+                log.info("Rebuild dos rollups diários: começando em {}, dias anteriores já compactados ou descartados",
+                    earliest);
+                first = earliest;
+            }
+        } else {
+            first = LocalDate.parse(from);
+            if (first.isBefore(earliest)) {
+                throw new IllegalStateException("radarlgpd.rollup.rebuild.from=" + first + " é anterior a " + earliest
+                    + ": os dias anteriores já foram compactados ou descartados e não têm mais dados brutos");
+            }
+        }
+
+        LocalDate last = to.isBlank() ? today.minusDays(1) : LocalDate.parse(to);
+        if (first.isAfter(last)) {
+            log.info("Rebuild dos rollups diários: intervalo vazio ({} a {})", first, last);
+            return Optional.empty();
+        }
+
+        // Compactação com outro min-age-days no passado (ou rodada em outro nó com outra configuração)
+        Optional<DayRange> compacted = dailyRollupRepository.findCompactedDayRange(first, last);
+        if (compacted.isPresent()) {
+            throw new IllegalStateException("Dias de " + compacted.get().first() + " a " + compacted.get().last()
+                + " já foram compactados (daily_instance_rollups) e seriam zerados pelo rebuild");
+        }
+        return Optional.of(new DayRange(first, last));
+    }
+
+    /**
+     * Primeiro dia com todos os dados brutos: depois do corte da compactação (mais um dia de
+     * folga, pois o corte avança durante o rebuild) e dentro da retenção de partições.
+     */
+    private LocalDate firstRebuildableDay(LocalDate today) {
+        LocalDate earliest = LocalDate.MIN;
+        if (compactionEnabled) {
+            earliest = today.minusDays(compactionMinAgeDays).plusDays(1);
+        }
+        if (partitionsEnabled && retentionMonths > 0) {
+            LocalDate firstRetained = today.withDayOfMonth(1).minusMonths(retentionMonths);
+            earliest = firstRetained.isAfter(earliest) ? firstRetained : earliest;
+        }
+        return earliest;
+    }
+}
@@ -1,5 +1,6 @@
 package com.br.radarlgpd.radarlgpd.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,6 +29,9 @@ public class SecurityConfig {
             .sessionManagement(session -> 
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authorize -> authorize
+                // Dispatch assíncrono que encerra respostas em streaming (/v1/export): a requisição
+                // original já foi autorizada, e sem sessão não há autenticação a restaurar
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Permite acesso público ao health check
                 .requestMatchers("/health", "/actuator/health").permitAll()
                 // Permite acesso público ao Swagger UI e OpenAPI docs
@@ -42,6 +46,10 @@ public class SecurityConfig {
                 // (RF-API-3.0: Fluxo de Registro de Nova Instância)
                 // O controller decide o fluxo baseado na presença do header Authorization
                 .requestMatchers("/v1/telemetry/scan-result").permitAll()
+                // Envio em lote/streaming: cada item traz o token da sua instância (validado no service)
+                .requestMatchers("/v1/telemetry/scan-results:batch", "/v1/telemetry/scan-results:stream").permitAll()
+                // Histórico da própria instância: autenticado pelo instance_token (validado no controller)
+                .requestMatchers("/v1/telemetry/scans").permitAll()
                 // Todos os outros endpoints devem ser autenticados
                 .anyRequest().authenticated()
             )
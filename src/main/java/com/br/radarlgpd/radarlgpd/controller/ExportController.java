@@ -0,0 +1,90 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.ErrorResponse;
+import com.br.radarlgpd.radarlgpd.service.ScanExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Controller de exportação dos dados brutos para análise.
+ * Exige API Key (NFR-API-001); a resposta é escrita em streaming a partir de um cursor
+ * do banco, sem carregar o resultado em memória.
+ */
+@RestController
+@RequestMapping("/v1/export")
+@RequiredArgsConstructor
+@Tag(
+    name = "Exportação",
+    description = "Exportação em streaming de scans e resultados (CSV ou NDJSON)"
+)
+@SecurityRequirement(name = "BearerAuth")
+@ApiResponses({
+    @ApiResponse(
+        responseCode = "400",
+        description = "Intervalo ou formato inválido",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    ),
+    @ApiResponse(
+        responseCode = "401",
+        description = "API Key ausente ou inválida",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    ),
+    @ApiResponse(
+        responseCode = "429",
+        description = "Rate limit excedido ou limite de exportações simultâneas atingido",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    )
+})
+public class ExportController {
+
+    private final ScanExportService scanExportService;
+
+    @GetMapping("/scan-results")
+    @Operation(
+        summary = "Exporta scans e resultados",
+        description = """
+            Scans recebidos (received_at) em `[from, to)` com seus resultados, em ordem de recebimento.
+
+            - `csv`: uma linha por resultado; scans sem resultados saem com as colunas de resultado vazias.
+            - `ndjson`: um objeto JSON por linha (um por scan), com os resultados em `results`.
+
+            Scans já compactados ou descartados pela retenção não aparecem.
+            """
+    )
+    public ResponseEntity<StreamingResponseBody> scanResults(
+        @Parameter(description = "Início do intervalo (inclusivo, ISO-8601)", example = "2026-10-01T00:00:00Z")
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+        @Parameter(description = "Fim do intervalo (exclusivo, ISO-8601)", example = "2026-10-02T00:00:00Z")
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+        @Parameter(description = "csv ou ndjson", example = "csv")
+        @RequestParam(defaultValue = "csv") String format
+    ) {
+        ScanExportService.Format exportFormat = ScanExportService.Format.parse(format);
+        StreamingResponseBody body = scanExportService.export(from, to, exportFormat);
+
+        String filename = "scan-results-" + from.toLocalDate() + "-" + to.toLocalDate() + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+}
@@ -0,0 +1,77 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.ErrorResponse;
+import com.br.radarlgpd.radarlgpd.dto.ScanHistoryResponse;
+import com.br.radarlgpd.radarlgpd.service.ScanHistoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller de consulta das instâncias do plugin (dashboards, suporte).
+ * Exige API Key (NFR-API-001).
+ */
+@RestController
+@RequestMapping("/v1/instances")
+@RequiredArgsConstructor
+@Tag(
+    name = "Instâncias",
+    description = "Consulta de instâncias do plugin e do seu histórico de scans"
+)
+@SecurityRequirement(name = "BearerAuth")
+@ApiResponses({
+    @ApiResponse(
+        responseCode = "400",
+        description = "Cursor inválido",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    ),
+    @ApiResponse(
+        responseCode = "401",
+        description = "API Key ausente ou inválida",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    ),
+    @ApiResponse(
+        responseCode = "404",
+        description = "Instância não encontrada",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    ),
+    @ApiResponse(
+        responseCode = "429",
+        description = "Rate limit excedido",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    )
+})
+public class InstanceController {
+
+    private final ScanHistoryService scanHistoryService;
+
+    @GetMapping("/{id}/scans")
+    @Operation(
+        summary = "Histórico de scans de uma instância",
+        description = "Scans da instância do mais recente para o mais antigo (`scanTimestampUtc`), com os resultados "
+            + "de cada scan. Para a próxima página, envie o `nextCursor` recebido no parâmetro `cursor`."
+    )
+    public ResponseEntity<ScanHistoryResponse> scans(
+        @Parameter(description = "ID da instância", example = "42")
+        @PathVariable Long id,
+        @Parameter(description = "Cursor da próxima página (nextCursor da resposta anterior)")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Scans por página (1 a 100)", example = "20")
+        @RequestParam(defaultValue = "" + ScanHistoryService.DEFAULT_LIMIT) int limit
+    ) {
+        return ResponseEntity.ok(scanHistoryService.historyOf(id, cursor, limit));
+    }
+}
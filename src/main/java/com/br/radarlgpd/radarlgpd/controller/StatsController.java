@@ -0,0 +1,102 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.ErrorResponse;
+import com.br.radarlgpd.radarlgpd.dto.InstanceStatsResponse;
+import com.br.radarlgpd.radarlgpd.dto.StatsResponse;
+import com.br.radarlgpd.radarlgpd.dto.VersionStatsResponse;
+import com.br.radarlgpd.radarlgpd.service.StatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller de leitura das estatísticas agregadas (dashboards).
+ * Exige API Key (NFR-API-001); as respostas saem do snapshot em memória, sem consultar
+ * as tabelas brutas de scans.
+ */
+@RestController
+@RequestMapping("/v1/stats")
+@RequiredArgsConstructor
+@Tag(
+    name = "Estatísticas",
+    description = "Estatísticas agregadas da telemetria (totais por tipo de dado, localizações, versões e instâncias)"
+)
+@SecurityRequirement(name = "BearerAuth")
+@ApiResponses({
+    @ApiResponse(
+        responseCode = "401",
+        description = "API Key ausente ou inválida",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    ),
+    @ApiResponse(
+        responseCode = "429",
+        description = "Rate limit excedido",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorResponse.class))
+    )
+})
+public class StatsController {
+
+    private final StatsService statsService;
+
+    @GetMapping("/data-types")
+    @Operation(
+        summary = "Totais por tipo de dado",
+        description = "Soma das contagens por tipo de dado (CPF, EMAIL, ...) nos últimos `days` dias (UTC)."
+    )
+    public ResponseEntity<StatsResponse> dataTypes(
+        @Parameter(description = "Dias, incluindo hoje (limitado à janela do snapshot)", example = "30")
+        @RequestParam(defaultValue = "30") int days
+    ) {
+        return ResponseEntity.ok(statsService.dataTypes(days));
+    }
+
+    @GetMapping("/source-locations")
+    @Operation(
+        summary = "Localizações com mais ocorrências",
+        description = "Localizações (tabela.coluna) com maior soma de contagens nos últimos `days` dias, "
+            + "opcionalmente filtradas por tipo de dado."
+    )
+    public ResponseEntity<StatsResponse> sourceLocations(
+        @Parameter(description = "Dias, incluindo hoje (limitado à janela do snapshot)", example = "30")
+        @RequestParam(defaultValue = "30") int days,
+        @Parameter(description = "Filtra por tipo de dado", example = "CPF")
+        @RequestParam(required = false) String dataType,
+        @Parameter(description = "Quantidade de localizações", example = "10")
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(statsService.sourceLocations(days, dataType, limit));
+    }
+
+    @GetMapping("/versions")
+    @Operation(
+        summary = "Distribuição de versões",
+        description = "Scans por versão do scanner, do WordPress e do PHP nos últimos `days` dias."
+    )
+    public ResponseEntity<VersionStatsResponse> versions(
+        @Parameter(description = "Dias, incluindo hoje (limitado à janela do snapshot)", example = "30")
+        @RequestParam(defaultValue = "30") int days
+    ) {
+        return ResponseEntity.ok(statsService.versions(days));
+    }
+
+    @GetMapping("/instances")
+    @Operation(
+        summary = "Instâncias do plugin",
+        description = "Instâncias por status e ativas com telemetria nas últimas 24 horas, 7 e 30 dias."
+    )
+    public ResponseEntity<InstanceStatsResponse> instances() {
+        return ResponseEntity.ok(statsService.instances());
+    }
+}
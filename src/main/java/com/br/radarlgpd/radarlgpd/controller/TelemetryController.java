@@ -1,12 +1,22 @@
 package com.br.radarlgpd.radarlgpd.controller;
 
+import com.br.radarlgpd.radarlgpd.config.LayeredRateLimiter;
+import com.br.radarlgpd.radarlgpd.config.RateLimitInterceptor;
 import com.br.radarlgpd.radarlgpd.dto.ErrorResponse;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchRequest;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchResponse;
+import com.br.radarlgpd.radarlgpd.dto.ScanHistoryResponse;
 import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
 import com.br.radarlgpd.radarlgpd.dto.ScanResultResponse;
-import com.br.radarlgpd.radarlgpd.entity.Instance;
 import com.br.radarlgpd.radarlgpd.exception.ConsentNotGivenException;
+import com.br.radarlgpd.radarlgpd.repository.InstanceTokenView;
 import com.br.radarlgpd.radarlgpd.service.InstanceService;
-import com.br.radarlgpd.radarlgpd.service.ScanResultService;
+import com.br.radarlgpd.radarlgpd.service.RegisteredInstance;
+import com.br.radarlgpd.radarlgpd.service.ScanBatchService;
+import com.br.radarlgpd.radarlgpd.service.ScanHistoryService;
+import com.br.radarlgpd.radarlgpd.service.ScanIngestQueue;
+import com.br.radarlgpd.radarlgpd.service.ScanStreamService;
+import com.br.radarlgpd.radarlgpd.service.ScanSubmissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,16 +26,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Controller para receber telemetria de scans do plugin WordPress.
  * Endpoint principal: POST /v1/telemetry/scan-result
+ * Envio em lote: POST /v1/telemetry/scan-results:batch
+ * Envio em streaming (NDJSON): POST /v1/telemetry/scan-results:stream
+ * Histórico da própria instância: GET /v1/telemetry/scans
  * 
  * Implementa o Épico 1.1 com dois fluxos:
  * - Cenário A (RF-API-2.0): Plugin já autenticado (header Authorization presente)
@@ -41,8 +60,14 @@ import org.springframework.web.bind.annotation.*;
 )
 public class TelemetryController {
 
-    private final ScanResultService scanResultService;
     private final InstanceService instanceService;
+    private final ScanIngestQueue scanIngestQueue;
+    private final ScanSubmissionService scanSubmissionService;
+    private final ScanBatchService scanBatchService;
+    private final ScanStreamService scanStreamService;
+    private final ScanHistoryService scanHistoryService;
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final LayeredRateLimiter rateLimiter;
 
     /**
      * Recebe e processa resultados de scan do plugin WordPress.
@@ -59,7 +84,6 @@ public class TelemetryController {
      * @return resposta com status + token (se registro) ou apenas status (se autenticado)
      */
     @PostMapping("/scan-result")
-    @Transactional // RNF-API-PERF-1.0: Atomicidade (registro + telemetria juntos)
     @Operation(
         summary = "Recebe dados de scan do plugin WordPress",
         description = """
@@ -78,11 +102,23 @@ public class TelemetryController {
             
             ---
             
+            ### ⏱️ Modo de Ingestão Assíncrona (`radarlgpd.ingest.mode=async`)
+            - ✅ Scan validado é enfileirado e a API responde **HTTP 202** imediatamente
+            - ✅ A persistência ocorre em lote logo em seguida (mesma idempotência por `scanId`)
+            
+            ---
+            
+            ### 📦 Formatos do Corpo
+            - ✅ `application/json`, `application/cbor` ou `application/x-jackson-smile` (mesmo schema e mesmas regras strict)
+            - ✅ Smile é o mais compacto para scans com muitos resultados
+            
+            ---
+            
             ### ⚠️ Regras LGPD Obrigatórias
             
             1. **Consentimento**: `consent_given` DEVE ser `true`
             2. **Anonimização**: Apenas contagens agregadas (NUNCA dados pessoais)
-            3. **Rate Limit**: 100 requisições/hora por IP
+            3. **Rate Limit**: 100 requisições/hora por IP, por instância (token) e por site (`siteId`)
             
             ---
             
@@ -142,6 +178,22 @@ public class TelemetryController {
                 }
             )
         ),
+        @ApiResponse(
+            responseCode = "202",
+            description = "✅ Scan aceito e enfileirado para persistência (modo de ingestão assíncrona)",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ScanResultResponse.class),
+                examples = @ExampleObject(
+                    name = "Scan Enfileirado",
+                    value = """
+                        {
+                          "status": "accepted"
+                        }
+                        """
+                )
+            )
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "❌ Payload inválido (validação de schema falhou)",
@@ -210,7 +262,7 @@ public class TelemetryController {
         ),
         @ApiResponse(
             responseCode = "429",
-            description = "❌ Rate limit excedido (máx. 100 requisições/hora)",
+            description = "❌ Rate limit excedido (máx. 100 requisições/hora por IP, instância ou site)",
             content = @Content(
                 mediaType = "application/json",
                 schema = @Schema(implementation = ErrorResponse.class),
@@ -303,6 +355,170 @@ public class TelemetryController {
         }
     }
 
+    /**
+     * Recebe um lote de scans de instâncias já registradas.
+     * 
+     * Usado por parceiros de hospedagem que agregam scans de vários sites em uma requisição.
+     * Cada item traz o token da sua instância e é validado de forma independente; o rate limit
+     * é cobrado por item (a unidade da requisição já foi consumida pelo filtro).
+     * 
+     * @param batch itens do lote (máximo {@value ScanBatchRequest#MAX_ITEMS})
+     * @param httpRequest requisição corrente (identifica o cliente no rate limit)
+     * @return totais e status de cada item (received, duplicate ou rejected)
+     */
+    @PostMapping("/scan-results:batch")
+    @Operation(
+        summary = "Recebe um lote de scans de instâncias registradas",
+        description = """
+            **Envio em lote para parceiros que operam vários sites**
+            
+            - ✅ Cada item traz `instanceToken` + `scan` (mesmo schema de `/v1/telemetry/scan-result`)
+            - ✅ Itens são validados individualmente: um item inválido não derruba o lote
+            - ✅ Resposta por item: `received`, `duplicate` ou `rejected` (com `message`)
+            - ⚠️ Não registra instâncias: itens sem token são rejeitados
+            - ⚠️ **Rate Limit**: cada item conta como uma requisição do IP
+            - ⚠️ Item acima do limite da sua instância ou do seu site: `rejected` (os demais seguem)
+            """
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "✅ Lote processado (ver status de cada item)",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = ScanBatchResponse.class),
+                examples = @ExampleObject(
+                    name = "Lote Processado",
+                    value = """
+                        {
+                          "received": 1,
+                          "duplicate": 1,
+                          "rejected": 1,
+                          "results": [
+                            { "index": 0, "scanId": "123e4567-e89b-12d3-a456-426614174000", "status": "received" },
+                            { "index": 1, "scanId": "123e4567-e89b-12d3-a456-426614174000", "status": "duplicate" },
+                            { "index": 2, "status": "rejected", "message": "scan é obrigatório" }
+                          ]
+                        }
+                        """
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "❌ Lote vazio, acima do tamanho máximo ou JSON inválido",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "❌ Rate limit excedido (cobrado por item)",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<ScanBatchResponse> receiveScanBatch(
+        @Valid @RequestBody ScanBatchRequest batch,
+        HttpServletRequest httpRequest
+    ) {
+        log.info("Recebendo lote de scans - {} itens", batch.getItems().size());
+
+        // Uma unidade já foi consumida pelo RateLimitInterceptor para a requisição
+        rateLimitInterceptor.consumeAdditional(httpRequest, batch.getItems().size() - 1L);
+
+        return ResponseEntity.ok(scanBatchService.process(batch.getItems()));
+    }
+
+    /**
+     * Recebe scans em NDJSON (um item {@code {instanceToken, scan}} por linha) com memória constante.
+     * 
+     * Para uploads grandes e replays: o corpo é lido em streaming e persistido em chunks
+     * (uma transação por chunk); o resultado de cada linha é devolvido em NDJSON à medida
+     * que os chunks são gravados. O rate limit é cobrado por item, chunk a chunk.
+     * 
+     * @param httpRequest corpo NDJSON
+     * @param httpResponse resultados por linha (NDJSON, mesmo formato dos itens do lote)
+     */
+    @PostMapping(
+        value = "/scan-results:stream",
+        consumes = MediaType.APPLICATION_NDJSON_VALUE,
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @Operation(
+        summary = "Recebe scans em NDJSON (streaming)",
+        description = """
+            **Upload em massa / replay com memória constante**
+            
+            - ✅ Cada linha: `{ "instanceToken": "...", "scan": { ... } }`
+            - ✅ Resposta em NDJSON, uma linha por item: `{ "index": 0, "scanId": "...", "status": "received" }`
+            - ✅ Persistência em chunks: chunks já respondidos estão gravados
+            - ⚠️ JSON malformado ou rate limit excedido interrompem o envio no item correspondente
+            - ⚠️ **Rate Limit**: cada item conta como uma requisição do IP
+            - ⚠️ Item acima do limite da sua instância ou do seu site: `rejected` (os demais seguem)
+            """
+    )
+    public void receiveScanStream(
+        HttpServletRequest httpRequest,
+        HttpServletResponse httpResponse
+    ) throws IOException {
+        httpResponse.setStatus(HttpStatus.OK.value());
+        httpResponse.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        httpResponse.setCharacterEncoding("UTF-8");
+
+        // A primeira unidade já foi consumida pelo RateLimitInterceptor para a requisição
+        AtomicBoolean firstChunk = new AtomicBoolean(true);
+        long items = scanStreamService.ingest(httpRequest.getInputStream(), httpResponse.getOutputStream(),
+            size -> rateLimitInterceptor.consumeAdditional(httpRequest, firstChunk.getAndSet(false) ? size - 1L : size));
+
+        log.info("Envio NDJSON concluído - {} itens", items);
+    }
+
+    /**
+     * Histórico de scans da instância dona do token ("meu histórico" no painel do plugin).
+     * 
+     * @param authHeader token da instância (Bearer)
+     * @param cursor nextCursor da página anterior (ausente na primeira página)
+     * @param limit scans por página
+     * @return scans do mais recente para o mais antigo e o cursor da próxima página
+     */
+    @GetMapping("/scans")
+    @Operation(
+        summary = "Histórico de scans da própria instância",
+        description = """
+            **Histórico exibido no painel do plugin**
+            
+            - ✅ Autenticado pelo `instance_token` (`Authorization: Bearer {instance_token}`)
+            - ✅ Scans do mais recente para o mais antigo (`scanTimestampUtc`), com os resultados de cada scan
+            - ✅ Próxima página: envie o `nextCursor` recebido no parâmetro `cursor` (ausente na última página)
+            """,
+        security = @SecurityRequirement(name = "BearerAuth")
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "✅ Página do histórico",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ScanHistoryResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "❌ Cursor inválido",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "❌ Token de instância ausente, inválido ou banido",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<ScanHistoryResponse> myScans(
+        @RequestHeader(value = "Authorization", required = false) String authHeader,
+        @Parameter(description = "Cursor da próxima página (nextCursor da resposta anterior)")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Scans por página (1 a 100)", example = "20")
+        @RequestParam(defaultValue = "" + ScanHistoryService.DEFAULT_LIMIT) int limit
+    ) {
+        InstanceTokenView instance = instanceService.validateAndGetInstance(authHeader);
+        return ResponseEntity.ok(scanHistoryService.page(instance.id(), cursor, limit));
+    }
+
     /**
      * RF-API-2.0: Fluxo Autenticado (Cenário A)
      * 
@@ -317,18 +533,23 @@ public class TelemetryController {
         log.debug("Processando fluxo autenticado - scan_id: {}", request.getScanId());
 
         // RF-API-2.1: Validação de Token
-        Instance instance = instanceService.validateAndGetInstance(authHeader);
+        InstanceTokenView instance = instanceService.validateAndGetInstance(authHeader);
 
-        // RF-API-2.2: Persistência de Telemetria
-        boolean scanWasProcessed = scanResultService.processScanForInstance(request, instance.getId());
+        // Rate limit por site: só depois do token válido (o siteId do corpo não autentica ninguém)
+        rateLimiter.consumeSiteId(request.getSiteId());
 
-        // Atualiza métricas de atividade da instância (apenas se scan foi realmente salvo)
-        if (scanWasProcessed) {
-            instanceService.recordScanActivity(instance);
+        // Modo assíncrono: enfileira e responde 202 sem aguardar o banco
+        if (scanIngestQueue.offer(request, instance.id())) {
+            log.debug("Scan enfileirado - scan_id: {}, instance_id: {}", request.getScanId(), instance.id());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ScanResultResponse.builder().status("accepted").build());
         }
 
-        log.info("Scan recebido de instância existente - scan_id: {}, instance_id: {}, processado: {}, total_scans: {}", 
-            request.getScanId(), instance.getId(), scanWasProcessed, instance.getScanCount());
+        // RF-API-2.2: Persistência de Telemetria (transação no service, só no modo síncrono)
+        boolean scanWasProcessed = scanSubmissionService.receive(request, instance.id());
+
+        log.info("Scan recebido de instância existente - scan_id: {}, instance_id: {}, processado: {}", 
+            request.getScanId(), instance.id(), scanWasProcessed);
 
         // RF-API-2.3: Resposta (Sucesso)
         ScanResultResponse response = ScanResultResponse.builder()
@@ -345,36 +566,44 @@ public class TelemetryController {
      * 2. RF-API-3.2: Persiste telemetria do primeiro scan
      * 3. RF-API-3.3: Retorna HTTP 200 com { "status": "registered", "instance_token": "uuid..." }
      * 
-     * RNF-API-PERF-1.0: Transação atômica garante que ambos (instância + scan) sejam salvos juntos.
+     * RNF-API-PERF-1.0: no modo síncrono, instância e scan são salvos na mesma transação
+     * ({@link ScanSubmissionService#register}).
      */
     private ResponseEntity<ScanResultResponse> handleRegistrationFlow(ScanResultRequest request) {
         log.info("Processando fluxo de registro - scan_id: {}, site_id: {}", 
             request.getScanId(), request.getSiteId());
 
-        // RF-API-3.1: Geração de Instância
-        Instance newInstance = instanceService.registerNewInstance(
+        if (!scanIngestQueue.isEnabled()) {
+            RegisteredInstance newInstance = scanSubmissionService.register(request);
+            return ResponseEntity.ok(registered(newInstance));
+        }
+
+        // Modo assíncrono: o registro é síncrono (o token precisa ser devolvido) e já está
+        // commitado ao retornar; o scan vai para a fila sem transação aberta
+        RegisteredInstance newInstance = instanceService.registerNewInstance(
             request.getSiteId(), 
             request.getScannerVersion()
         );
 
-        // RF-API-3.2: Persistência de Telemetria (Primeiro Scan)
-        boolean scanWasProcessed = scanResultService.processScanForInstance(request, newInstance.getId());
-
-        // Atualiza métricas (apenas se scan foi realmente salvo)
-        if (scanWasProcessed) {
-            instanceService.recordScanActivity(newInstance);
+        if (scanIngestQueue.offerAfterCommit(request, newInstance.id())) {
+            log.info("Nova instância registrada - instance_id: {}, scan_id: {} enfileirado",
+                newInstance.id(), request.getScanId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(registered(newInstance));
         }
 
-        log.info("Nova instância registrada - instance_id: {}, instance_token: {}, scan_id: {}, scan_processado: {}", 
-            newInstance.getId(), newInstance.getInstanceToken(), request.getScanId(), scanWasProcessed);
+        // Fila desligada depois do registro (shutdown): o scan é gravado na hora
+        scanSubmissionService.receive(request, newInstance.id());
+        return ResponseEntity.ok(registered(newInstance));
+    }
 
-        // RF-API-3.3: Resposta (Sucesso no Registro)
-        ScanResultResponse response = ScanResultResponse.builder()
+    /**
+     * RF-API-3.3: Resposta (Sucesso no Registro)
+     */
+    private ScanResultResponse registered(RegisteredInstance newInstance) {
+        return ScanResultResponse.builder()
             .status("registered")
-            .instanceToken(newInstance.getInstanceToken())
+            .instanceToken(newInstance.instanceToken())
             .build();
-
-        return ResponseEntity.ok(response);
     }
 
     /**
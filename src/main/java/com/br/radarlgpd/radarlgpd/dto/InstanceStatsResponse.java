@@ -0,0 +1,44 @@
+package com.br.radarlgpd.radarlgpd.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Contagem de instâncias do plugin por status e por atividade recente.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Contagem de instâncias do plugin")
+public class InstanceStatsResponse {
+
+    @Schema(description = "Instâncias registradas", example = "1520")
+    private long total;
+
+    @Schema(description = "Instâncias com status active", example = "1480")
+    private long active;
+
+    @Schema(description = "Instâncias com status inactive", example = "35")
+    private long inactive;
+
+    @Schema(description = "Instâncias com status banned", example = "5")
+    private long banned;
+
+    @Schema(description = "Ativas com telemetria nas últimas 24 horas", example = "610")
+    private long seenLastDay;
+
+    @Schema(description = "Ativas com telemetria nos últimos 7 dias", example = "1105")
+    private long seenLastWeek;
+
+    @Schema(description = "Ativas com telemetria nos últimos 30 dias", example = "1402")
+    private long seenLastMonth;
+
+    @Schema(description = "Momento da contagem (recarga do snapshot)")
+    private OffsetDateTime refreshedAt;
+}
@@ -0,0 +1,31 @@
+package com.br.radarlgpd.radarlgpd.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Item do envio em lote: scan de uma instância já registrada.
+ *
+ * O scan NÃO é validado em cascata com o lote: cada item é validado individualmente
+ * e um item inválido é rejeitado sem derrubar os demais.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Scan de uma instância registrada dentro de um envio em lote")
+public class ScanBatchItem {
+
+    @Schema(
+        description = "Token da instância que realizou o scan (obtido no registro)",
+        example = "9f8c7b6a-5d4e-3c2b-1a0f-9e8d7c6b5a4f",
+        required = true
+    )
+    private String instanceToken;
+
+    @Schema(description = "Dados agregados do scan (mesmo schema de /v1/telemetry/scan-result)", required = true)
+    private ScanResultRequest scan;
+}
@@ -0,0 +1,45 @@
+package com.br.radarlgpd.radarlgpd.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de um item do lote, na mesma posição do item enviado.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Resultado individual de um scan do lote")
+public class ScanBatchItemResult {
+
+    public static final String RECEIVED = "received";
+    public static final String DUPLICATE = "duplicate";
+    public static final String REJECTED = "rejected";
+
+    @Schema(description = "Posição do item no lote (0-based)", example = "0")
+    private int index;
+
+    @Schema(description = "scan_id do item (quando informado)", example = "123e4567-e89b-12d3-a456-426614174000", nullable = true)
+    private String scanId;
+
+    /**
+     * - "received": scan persistido
+     * - "duplicate": scan_id já recebido anteriormente (ou repetido no lote); ignorado
+     * - "rejected": item inválido (schema, consentimento, rate limit da instância/site ou token); ver message
+     */
+    @Schema(
+        description = "Status do item",
+        example = "received",
+        allowableValues = {"received", "duplicate", "rejected"}
+    )
+    private String status;
+
+    @Schema(description = "Motivo da rejeição (apenas para status rejected)", nullable = true)
+    private String message;
+}
@@ -0,0 +1,33 @@
+package com.br.radarlgpd.radarlgpd.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO do envio em lote de scans (POST /v1/telemetry/scan-results:batch).
+ * Usado por parceiros de hospedagem que agregam scans de vários sites em uma requisição.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Lote de scans de uma ou mais instâncias registradas")
+public class ScanBatchRequest {
+
+    /**
+     * Tamanho máximo do lote. Cada item consome uma unidade do rate limit.
+     */
+    public static final int MAX_ITEMS = 500;
+
+    @NotEmpty(message = "items não pode ser vazio")
+    @Size(max = MAX_ITEMS, message = "items deve ter no máximo " + MAX_ITEMS + " scans")
+    @Schema(description = "Scans do lote (máximo 500)", required = true)
+    private List<ScanBatchItem> items;
+}
@@ -0,0 +1,32 @@
+package com.br.radarlgpd.radarlgpd.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de resposta do envio em lote: totais por status e resultado de cada item.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado do envio em lote")
+public class ScanBatchResponse {
+
+    @Schema(description = "Quantidade de scans persistidos", example = "2")
+    private int received;
+
+    @Schema(description = "Quantidade de scans duplicados ignorados", example = "0")
+    private int duplicate;
+
+    @Schema(description = "Quantidade de itens rejeitados", example = "1")
+    private int rejected;
+
+    @Schema(description = "Resultado de cada item, na ordem do envio")
+    private List<ScanBatchItemResult> results;
+}
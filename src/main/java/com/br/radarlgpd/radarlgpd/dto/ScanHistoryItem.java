@@ -0,0 +1,45 @@
+package com.br.radarlgpd.radarlgpd.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Scan do histórico de uma instância, com seus resultados agregados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Scan do histórico de uma instância")
+public class ScanHistoryItem {
+
+    @Schema(description = "ID do scan gerado pelo plugin", example = "123e4567-e89b-12d3-a456-426614174000")
+    private String scanId;
+
+    @Schema(description = "Momento do scan informado pelo plugin (UTC)")
+    private OffsetDateTime scanTimestampUtc;
+
+    @Schema(description = "Momento em que a API recebeu o scan")
+    private OffsetDateTime receivedAt;
+
+    @Schema(description = "Duração do scan em milissegundos", example = "1500")
+    private Integer scanDurationMs;
+
+    @Schema(description = "Versão do scanner", example = "1.0.0-mvp")
+    private String scannerVersion;
+
+    @Schema(description = "Versão do WordPress", example = "6.4.0")
+    private String wpVersion;
+
+    @Schema(description = "Versão do PHP", example = "8.2.0")
+    private String phpVersion;
+
+    @Schema(description = "Resultados agregados do scan")
+    private List<DataResult> results;
+}
@@ -0,0 +1,29 @@
+package com.br.radarlgpd.radarlgpd.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página do histórico de scans de uma instância (mais recentes primeiro).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página do histórico de scans de uma instância")
+public class ScanHistoryResponse {
+
+    @Schema(description = "Scans da página, do mais recente para o mais antigo")
+    private List<ScanHistoryItem> items;
+
+    @Schema(
+        description = "Cursor da próxima página (parâmetro `cursor`); ausente na última página",
+        example = "MjAyNS0xMC0yMFQyMToyMDowMFp8MTI1MA"
+    )
+    private String nextCursor;
+}
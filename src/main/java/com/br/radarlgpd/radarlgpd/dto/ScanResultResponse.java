@@ -27,26 +27,27 @@ public class ScanResultResponse {
      * Status do processamento:
      * - "received": Telemetria recebida de instância já registrada (RF-API-2.3)
      * - "registered": Nova instância registrada com sucesso (RF-API-3.3)
+     * - "accepted": Scan enfileirado para persistência assíncrona (HTTP 202)
      */
     @Schema(
         description = "Status do processamento",
         example = "received",
-        allowableValues = {"received", "registered"},
+        allowableValues = {"received", "registered", "accepted"},
         required = true
     )
     private String status;
     
     /**
      * Token da instância (presente APENAS no fluxo de registro - RF-API-3.3).
-     * UUIDv4 gerado pela API para autenticação futura.
+     * UUIDv4 (ou token assinado rl1.*, conforme radarlgpd.instance-token.format)
+     * gerado pela API para autenticação futura.
      * 
      * @JsonInclude(NON_NULL) garante que este campo só aparece quando preenchido.
      */
     @JsonProperty("instance_token")
     @Schema(
-        description = "Token único da instância (UUIDv4). Presente APENAS no primeiro scan (registro). Use este token no header Authorization para scans futuros.",
+        description = "Token único da instância (UUIDv4 ou assinado rl1.*; trate como string opaca). Presente APENAS no primeiro scan (registro). Use este token no header Authorization para scans futuros.",
         example = "9f8c7b6a-5d4e-3c2b-1a0f-9e8d7c6b5a4f",
-        format = "uuid",
         nullable = true
     )
     private String instanceToken;
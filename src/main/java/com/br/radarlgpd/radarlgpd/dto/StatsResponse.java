@@ -0,0 +1,34 @@
+package com.br.radarlgpd.radarlgpd.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Estatísticas agregadas de um período (dias em UTC, inclusivos).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Estatísticas agregadas de um período")
+public class StatsResponse {
+
+    @Schema(description = "Primeiro dia do período (UTC)", example = "2025-10-01")
+    private LocalDate from;
+
+    @Schema(description = "Último dia do período (UTC)", example = "2025-10-30")
+    private LocalDate to;
+
+    @Schema(description = "Última recarga completa do snapshot a partir dos rollups")
+    private OffsetDateTime refreshedAt;
+
+    @Schema(description = "Itens em ordem decrescente")
+    private List<StatsTotal> items;
+}
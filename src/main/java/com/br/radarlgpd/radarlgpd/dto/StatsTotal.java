@@ -0,0 +1,27 @@
+package com.br.radarlgpd.radarlgpd.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Agregado de um item das estatísticas (tipo de dado, localização ou versão).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Agregado de um item das estatísticas")
+public class StatsTotal {
+
+    @Schema(description = "Tipo de dado, localização ou versão", example = "CPF")
+    private String name;
+
+    @Schema(description = "Soma das contagens reportadas", example = "15230")
+    private long totalCount;
+
+    @Schema(description = "Scans que reportaram o item", example = "412")
+    private long scanCount;
+}
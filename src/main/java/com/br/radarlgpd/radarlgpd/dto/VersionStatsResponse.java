@@ -0,0 +1,40 @@
+package com.br.radarlgpd.radarlgpd.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Distribuição de scans por versão do scanner, do WordPress e do PHP em um período.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Distribuição de scans por versão")
+public class VersionStatsResponse {
+
+    @Schema(description = "Primeiro dia do período (UTC)", example = "2025-10-01")
+    private LocalDate from;
+
+    @Schema(description = "Último dia do período (UTC)", example = "2025-10-30")
+    private LocalDate to;
+
+    @Schema(description = "Última recarga completa do snapshot a partir dos rollups")
+    private OffsetDateTime refreshedAt;
+
+    @Schema(description = "Scans por versão do scanner")
+    private List<StatsTotal> scanner;
+
+    @Schema(description = "Scans por versão do WordPress")
+    private List<StatsTotal> wordpress;
+
+    @Schema(description = "Scans por versão do PHP")
+    private List<StatsTotal> php;
+}
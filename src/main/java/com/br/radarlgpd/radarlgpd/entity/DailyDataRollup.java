@@ -0,0 +1,61 @@
+package com.br.radarlgpd.radarlgpd.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Rollup diário por (dia, tipo de dado, localização): soma das contagens e quantidade de
+ * scans que reportaram o par. Dia = received_at em UTC.
+ *
+ * Mantido incrementalmente na ingestão (ver {@link com.br.radarlgpd.radarlgpd.service.DailyRollupService})
+ * e recalculável a partir de data_results pelo rebuild.
+ */
+@Entity
+@Table(name = "daily_data_rollups")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyDataRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    /**
+     * Soma de data_results.count.
+     */
+    @Column(nullable = false)
+    private Long totalCount;
+
+    /**
+     * Scans distintos que reportaram o par (tipo, localização) no dia.
+     */
+    @Column(nullable = false)
+    private Long scanCount;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(nullable = false)
+        private LocalDate day;
+
+        @Column(name = "data_type_id", nullable = false)
+        private Short dataTypeId;
+
+        @Column(name = "source_location_id", nullable = false)
+        private Integer sourceLocationId;
+    }
+}
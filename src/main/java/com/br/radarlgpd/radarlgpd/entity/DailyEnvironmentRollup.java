@@ -0,0 +1,62 @@
+package com.br.radarlgpd.radarlgpd.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Rollup diário por (dia, versão do scanner, versão do WordPress, versão do PHP):
+ * quantidade de scans e soma das contagens reportadas por eles. Dia = received_at em UTC.
+ * Versões ausentes são gravadas como texto vazio (as colunas fazem parte da chave).
+ *
+ * Mantido incrementalmente na ingestão (ver {@link com.br.radarlgpd.radarlgpd.service.DailyRollupService})
+ * e recalculável a partir de scan_results pelo rebuild.
+ */
+@Entity
+@Table(name = "daily_environment_rollups")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyEnvironmentRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private Long scanCount;
+
+    /**
+     * Soma de data_results.count dos scans do grupo.
+     */
+    @Column(nullable = false)
+    private Long totalCount;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(nullable = false)
+        private LocalDate day;
+
+        @Column(nullable = false, length = 50)
+        private String scannerVersion;
+
+        @Column(nullable = false, length = 50)
+        private String wpVersion;
+
+        @Column(nullable = false, length = 50)
+        private String phpVersion;
+    }
+}
@@ -0,0 +1,68 @@
+package com.br.radarlgpd.radarlgpd.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Resumo diário por (dia, instância, tipo de dado, localização) dos scans já compactados.
+ * Dia = received_at em UTC.
+ *
+ * Preenchido apenas pela compactação ({@link com.br.radarlgpd.radarlgpd.service.ScanCompactionService}),
+ * que soma aqui a contribuição dos scans antigos antes de apagá-los de scan_results/data_results.
+ * Para dias ainda não compactados, o detalhe por instância continua nos dados brutos.
+ *
+ * Scans sem resultados ficam na linha com data_type_id = source_location_id = 0
+ * ({@link com.br.radarlgpd.radarlgpd.repository.CompactionRepository#NO_RESULTS_ID}).
+ */
+@Entity
+@Table(name = "daily_instance_rollups")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyInstanceRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    /**
+     * Soma de data_results.count.
+     */
+    @Column(nullable = false)
+    private Long totalCount;
+
+    /**
+     * Scans distintos da instância que reportaram o par (tipo, localização) no dia.
+     */
+    @Column(nullable = false)
+    private Long scanCount;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(nullable = false)
+        private LocalDate day;
+
+        @Column(name = "instance_id", nullable = false)
+        private Long instanceId;
+
+        @Column(name = "data_type_id", nullable = false)
+        private Short dataTypeId;
+
+        @Column(name = "source_location_id", nullable = false)
+        private Integer sourceLocationId;
+    }
+}
@@ -1,24 +1,38 @@
 package com.br.radarlgpd.radarlgpd.entity;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.OffsetDateTime;
+
 /**
  * Entidade JPA para armazenar detalhes agregados dos dados encontrados.
  * Cada registro representa uma contagem de um tipo de dado em uma localização.
+ *
+ * Tipo e localização são guardados como IDs dos dicionários data_types e source_locations
+ * (os mesmos poucos textos se repetem em milhões de linhas): a linha fica só com colunas
+ * de largura fixa.
+ *
+ * received_at é copiado do scan pai: data_results é particionada pelo mesmo mês que
+ * scan_results (scripts/migrations/004), e a FK física é (scan_result_id, received_at).
  */
 @Entity
+// idx_data_results_scan_result_id (rebuild dos rollups) vem das migrações 003/004:
+// o ddl-auto não enxerga índices de tabela particionada e tentaria recriá-lo
 @Table(name = "data_results")
 @Data
 @Builder
@@ -26,19 +40,44 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class DataResultEntity {
 
+    /**
+     * Sequence dos IDs (também usada por escritas fora do Hibernate via SequenceIdAllocator).
+     */
+    public static final String SEQUENCE = "data_results_seq";
+
+    /**
+     * Com sequence pooled, os N resultados de um scan saem em um único batch JDBC.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE)
+    @SequenceGenerator(name = SEQUENCE, sequenceName = SEQUENCE, allocationSize = 50)
     private Long id;
 
+    /**
+     * Sem FK gerada pelo Hibernate: em tabelas particionadas ela precisa incluir received_at
+     * e é criada pela migração.
+     */
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "scan_result_id", nullable = false)
+    @JoinColumn(name = "scan_result_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private ScanResult scanResult;
 
-    @Column(nullable = false, length = 50)
-    private String dataType;
+    /**
+     * Mesmo received_at do scan pai (chave de partição).
+     */
+    @Column(nullable = false)
+    private OffsetDateTime receivedAt;
+
+    /**
+     * ID em data_types.
+     */
+    @Column(name = "data_type_id", nullable = false)
+    private Short dataTypeId;
 
-    @Column(nullable = false, length = 255)
-    private String sourceLocation;
+    /**
+     * ID em source_locations.
+     */
+    @Column(name = "source_location_id", nullable = false)
+    private Integer sourceLocationId;
 
     @Column(nullable = false)
     private Integer count;
@@ -0,0 +1,34 @@
+package com.br.radarlgpd.radarlgpd.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dicionário de tipos de dado (CPF, EMAIL, ...) referenciado por data_results.data_type_id.
+ * As linhas são criadas sob demanda pelo {@link com.br.radarlgpd.radarlgpd.service.DataResultDictionary}.
+ */
+@Entity
+@Table(name = "data_types")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataTypeEntity {
+
+    public static final String TABLE = "data_types";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Short id;
+
+    @Column(nullable = false, unique = true, length = 50)
+    private String name;
+}
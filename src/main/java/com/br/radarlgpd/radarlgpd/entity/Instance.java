@@ -21,7 +21,8 @@ import java.time.OffsetDateTime;
 @Table(name = "instances", indexes = {
     @Index(name = "idx_instance_token", columnList = "instance_token", unique = true),
     @Index(name = "idx_site_id", columnList = "site_id"),
-    @Index(name = "idx_status", columnList = "status")
+    @Index(name = "idx_status", columnList = "status"),
+    @Index(name = "idx_instance_status_changed_at", columnList = "status_changed_at")
 })
 @Data
 @Builder
@@ -30,7 +31,8 @@ import java.time.OffsetDateTime;
 public class Instance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "instances_seq")
+    @SequenceGenerator(name = "instances_seq", sequenceName = "instances_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -69,6 +71,13 @@ public class Instance {
     @Builder.Default
     private String status = "active";
 
+    /**
+     * Timestamp da última mudança de status (nulo enquanto nunca saiu de 'active').
+     * Permite à lista de revogação de tokens assinados buscar só as mudanças recentes.
+     */
+    @Column
+    private OffsetDateTime statusChangedAt;
+
     /**
      * Versão do scanner no momento do registro.
      * Útil para análise de compatibilidade.
@@ -0,0 +1,59 @@
+package com.br.radarlgpd.radarlgpd.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Scan aceito pela ingestão assíncrona (HTTP 202) que não pôde ser persistido nem
+ * reprocessado sozinho. Guarda o payload já validado para análise e reenvio manual.
+ *
+ * Gravado pela {@link com.br.radarlgpd.radarlgpd.service.ScanIngestQueue}; a contagem
+ * fica em radarlgpd.ingest.dead_letters.
+ */
+@Entity
+@Table(name = "scan_dead_letters", indexes = {
+    @Index(name = "idx_scan_dead_letters_failed_at", columnList = "failed_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scan_dead_letters_seq")
+    @SequenceGenerator(name = "scan_dead_letters_seq", sequenceName = "scan_dead_letters_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String scanId;
+
+    @Column(nullable = false)
+    private Long instanceId;
+
+    /**
+     * ScanResultRequest serializado em JSON (apenas dados agregados, já validados).
+     */
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    /**
+     * Mensagem do erro da última tentativa.
+     */
+    @Column(length = 1000)
+    private String error;
+
+    /**
+     * Momento em que a API recebeu o scan.
+     */
+    @Column(nullable = false)
+    private OffsetDateTime receivedAt;
+
+    @Column(nullable = false)
+    private OffsetDateTime failedAt;
+}
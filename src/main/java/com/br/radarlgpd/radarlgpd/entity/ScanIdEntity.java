@@ -0,0 +1,41 @@
+package com.br.radarlgpd.radarlgpd.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Registro de scan_ids já aceitos: a chave de idempotência da ingestão.
+ *
+ * scan_results é particionada por received_at, e o PostgreSQL só aceita UNIQUE em tabela
+ * particionada se a chave incluir a coluna de partição; um retry chega com outro
+ * received_at. A unicidade global de scan_id fica nesta tabela estreita (não particionada),
+ * gravada no mesmo INSERT que o scan (ver {@link com.br.radarlgpd.radarlgpd.repository.ScanResultRepository}).
+ * A retenção remove daqui os scan_ids das partições descartadas.
+ */
+@Entity
+@Table(
+    name = "scan_ids",
+    indexes = @Index(name = "idx_scan_ids_received_at", columnList = "received_at")
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanIdEntity {
+
+    @Id
+    @Column(length = 36)
+    private String scanId;
+
+    @Column(nullable = false)
+    private OffsetDateTime receivedAt;
+}
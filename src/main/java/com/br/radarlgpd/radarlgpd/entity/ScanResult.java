@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,8 +17,13 @@ import java.time.OffsetDateTime;
 /**
  * Entidade JPA para persistir scan results agregados.
  * Armazena apenas contagens e metadados, NUNCA dados pessoais.
+ *
+ * Em produção a tabela é particionada por mês em received_at (scripts/migrations/004):
+ * a chave primária física é (id, received_at) e a unicidade de scan_id fica em scan_ids.
  */
 @Entity
+// idx_scan_results_received_at (recorte por dia no rebuild dos rollups) vem das migrações
+// 003/004: o ddl-auto não enxerga índices de tabela particionada e tentaria recriá-lo
 @Table(name = "scan_results")
 @Data
 @Builder
@@ -25,11 +31,24 @@ import java.time.OffsetDateTime;
 @AllArgsConstructor
 public class ScanResult {
 
+    /**
+     * Sequence dos IDs (também usada por escritas fora do Hibernate via SequenceIdAllocator).
+     */
+    public static final String SEQUENCE = "scan_results_seq";
+
+    /**
+     * ID gerado por sequence com alocação em blocos (pooled-lo).
+     * Diferente de IDENTITY, permite que o Hibernate agrupe INSERTs em batch JDBC.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SEQUENCE)
+    @SequenceGenerator(name = SEQUENCE, sequenceName = SEQUENCE, allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true, length = 36)
+    /**
+     * Idempotência garantida por scan_ids (ver {@link ScanIdEntity}).
+     */
+    @Column(nullable = false, length = 36)
     private String scanId;
 
     /**
@@ -60,6 +79,9 @@ public class ScanResult {
     @Column(length = 50)
     private String phpVersion;
 
+    /**
+     * Chave de partição (mês UTC).
+     */
     @Column(nullable = false)
     private OffsetDateTime receivedAt;
 
@@ -0,0 +1,34 @@
+package com.br.radarlgpd.radarlgpd.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dicionário de localizações (tabela.coluna) referenciado por data_results.source_location_id.
+ * As linhas são criadas sob demanda pelo {@link com.br.radarlgpd.radarlgpd.service.DataResultDictionary}.
+ */
+@Entity
+@Table(name = "source_locations")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SourceLocationEntity {
+
+    public static final String TABLE = "source_locations";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true, length = 255)
+    private String name;
+}
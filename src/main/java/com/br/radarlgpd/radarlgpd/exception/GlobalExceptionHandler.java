@@ -3,6 +3,7 @@ package com.br.radarlgpd.radarlgpd.exception;
 import com.br.radarlgpd.radarlgpd.dto.ErrorResponse;
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +12,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
@@ -66,6 +68,11 @@ public class GlobalExceptionHandler {
         HttpMessageNotReadableException ex,
         HttpServletRequest request
     ) {
+        // Limite de descompressão estourado durante a leitura do corpo (o Jackson encapsula a exceção)
+        if (ex.getMostSpecificCause() instanceof PayloadTooLargeException tooLarge) {
+            return handlePayloadTooLarge(tooLarge, request);
+        }
+
         String message = "Payload inválido ou contém campos não reconhecidos";
         
         if (ex.getCause() instanceof UnrecognizedPropertyException unrecognizedEx) {
@@ -87,6 +94,75 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    /**
+     * Handler para corpo descomprimido acima do limite (proteção contra zip bomb).
+     * HTTP 413 Payload Too Large
+     */
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handlePayloadTooLarge(
+        PayloadTooLargeException ex,
+        HttpServletRequest request
+    ) {
+        log.warn("Corpo acima do limite no path {}: {}", request.getRequestURI(), ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+            .timestamp(getCurrentTimestamp())
+            .status(HttpStatus.PAYLOAD_TOO_LARGE.value())
+            .error("Payload Too Large")
+            .message(ex.getMessage())
+            .path(request.getRequestURI())
+            .build();
+
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
+    }
+
+    /**
+     * Handler para parâmetros de consulta inválidos (valor fora do formato ou regra violada).
+     * HTTP 400 Bad Request
+     */
+    @ExceptionHandler({InvalidQueryParameterException.class, MethodArgumentTypeMismatchException.class})
+    public ResponseEntity<ErrorResponse> handleInvalidQueryParameter(
+        RuntimeException ex,
+        HttpServletRequest request
+    ) {
+        String message = ex instanceof MethodArgumentTypeMismatchException mismatch
+            ? "Parâmetro '" + mismatch.getName() + "' com valor inválido"
+            : ex.getMessage();
+        log.warn("Parâmetro inválido no path {}: {}", request.getRequestURI(), message);
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+            .timestamp(getCurrentTimestamp())
+            .status(HttpStatus.BAD_REQUEST.value())
+            .error("Bad Request")
+            .message(message)
+            .path(request.getRequestURI())
+            .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    /**
+     * Handler para instância inexistente.
+     * HTTP 404 Not Found
+     */
+    @ExceptionHandler(InstanceNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleInstanceNotFound(
+        InstanceNotFoundException ex,
+        HttpServletRequest request
+    ) {
+        log.warn("Instância não encontrada no path {}", request.getRequestURI());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+            .timestamp(getCurrentTimestamp())
+            .status(HttpStatus.NOT_FOUND.value())
+            .error("Not Found")
+            .message(ex.getMessage())
+            .path(request.getRequestURI())
+            .build();
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
     /**
      * Handler para consentimento não concedido.
      * HTTP 403 Forbidden
@@ -156,11 +232,15 @@ public class GlobalExceptionHandler {
     /**
      * Handler para rate limit excedido.
      * HTTP 429 Too Many Requests
+     * 
+     * Rejeições de bucket substituem os headers X-RateLimit-* já escritos pelo filtro de IP
+     * (que descrevem o bucket do IP) pelos da camada que recusou.
      */
     @ExceptionHandler(RateLimitExceededException.class)
     public ResponseEntity<ErrorResponse> handleRateLimitExceeded(
         RateLimitExceededException ex,
-        HttpServletRequest request
+        HttpServletRequest request,
+        HttpServletResponse response
     ) {
         log.warn("Rate limit excedido para IP {} no path {}", 
             request.getRemoteAddr(), request.getRequestURI());
@@ -173,10 +253,14 @@ public class GlobalExceptionHandler {
             .path(request.getRequestURI())
             .build();
         
+        if (ex.getLimit() != null) {
+            response.setHeader("X-RateLimit-Limit", String.valueOf(ex.getLimit()));
+            response.setHeader("X-RateLimit-Remaining", "0");
+        }
+        
         return ResponseEntity
             .status(HttpStatus.TOO_MANY_REQUESTS)
             .header("Retry-After", ex.getRetryAfter())
-            .header("X-RateLimit-Limit", "100")
             .body(errorResponse);
     }
 
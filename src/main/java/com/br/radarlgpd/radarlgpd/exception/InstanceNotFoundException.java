@@ -0,0 +1,12 @@
+package com.br.radarlgpd.radarlgpd.exception;
+
+/**
+ * Exceção lançada quando a instância consultada não existe.
+ * Resulta em HTTP 404 Not Found.
+ */
+public class InstanceNotFoundException extends RuntimeException {
+
+    public InstanceNotFoundException(String message) {
+        super(message);
+    }
+}
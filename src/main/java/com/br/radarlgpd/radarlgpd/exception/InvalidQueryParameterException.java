@@ -0,0 +1,12 @@
+package com.br.radarlgpd.radarlgpd.exception;
+
+/**
+ * Exceção lançada quando um parâmetro de consulta (query string) é inválido.
+ * Resulta em HTTP 400 Bad Request.
+ */
+public class InvalidQueryParameterException extends RuntimeException {
+
+    public InvalidQueryParameterException(String message) {
+        super(message);
+    }
+}
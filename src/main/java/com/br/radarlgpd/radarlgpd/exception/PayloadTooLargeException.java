@@ -0,0 +1,12 @@
+package com.br.radarlgpd.radarlgpd.exception;
+
+/**
+ * Exceção lançada quando o corpo da requisição (descomprimido) excede o limite permitido.
+ * Resulta em HTTP 413 Payload Too Large.
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
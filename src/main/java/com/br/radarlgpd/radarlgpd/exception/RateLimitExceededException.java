@@ -3,17 +3,33 @@ package com.br.radarlgpd.radarlgpd.exception;
 /**
  * Exceção lançada quando o rate limit é excedido.
  * Resulta em HTTP 429 Too Many Requests.
+ *
+ * O limite só é informado por rejeições de bucket (capacidade da camada que recusou) e vai
+ * no header X-RateLimit-Limit; outras recusas (ex: exportações simultâneas) não o enviam.
  */
 public class RateLimitExceededException extends RuntimeException {
     
     private final String retryAfter;
+    private final Long limit;
     
     public RateLimitExceededException(String message, String retryAfter) {
+        this(message, retryAfter, null);
+    }
+    
+    public RateLimitExceededException(String message, String retryAfter, Long limit) {
         super(message);
         this.retryAfter = retryAfter;
+        this.limit = limit;
     }
     
     public String getRetryAfter() {
         return retryAfter;
     }
+    
+    /**
+     * Capacidade do bucket que recusou, ou null se a recusa não vem de um bucket.
+     */
+    public Long getLimit() {
+        return limit;
+    }
 }
@@ -0,0 +1,123 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * SQL da compactação de scans antigos em daily_instance_rollups.
+ *
+ * Todos os métodos operam sobre um lote identificado pelos IDs dos scans e pelo intervalo
+ * de received_at do lote (o intervalo permite ao planner ler só as partições envolvidas).
+ * Devem rodar na mesma transação: o lote é somado ao resumo e apagado atomicamente.
+ *
+ * Scans sem nenhum resultado entram no resumo na linha sentinela (data_type_id e
+ * source_location_id {@value #NO_RESULTS_ID}, total_count 0): sem ela, a compactação os
+ * apagaria sem deixar rastro.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CompactionRepository {
+
+    /**
+     * Dimensão dos scans sem resultados (IDs de dicionário começam em 1).
+     */
+    public static final int NO_RESULTS_ID = 0;
+
+    private static final String NEXT_BATCH_SQL = """
+        SELECT id, received_at FROM scan_results
+        WHERE received_at < ? AND (received_at, id) > (?, ?)
+        ORDER BY received_at, id
+        LIMIT ?
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String FOLD_SQL = """
+        INSERT INTO daily_instance_rollups AS r
+            (day, instance_id, data_type_id, source_location_id, total_count, scan_count)
+        SELECT (s.received_at AT TIME ZONE 'UTC')::date, s.instance_id,
+               coalesce(d.data_type_id, %1$d), coalesce(d.source_location_id, %1$d),
+               coalesce(sum(d.count), 0), count(DISTINCT s.id)
+        FROM scan_results s
+        LEFT JOIN data_results d ON d.scan_result_id = s.id AND d.received_at = s.received_at
+          AND d.received_at BETWEEN ? AND ?
+        WHERE s.id = ANY(?::bigint[]) AND s.received_at BETWEEN ? AND ?
+        GROUP BY 1, 2, 3, 4
+        ORDER BY 1, 2, 3, 4
+        ON CONFLICT (day, instance_id, data_type_id, source_location_id) DO UPDATE
+        SET total_count = r.total_count + EXCLUDED.total_count,
+            scan_count = r.scan_count + EXCLUDED.scan_count
+        """.formatted(NO_RESULTS_ID);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Trava o próximo lote de scans anteriores ao corte, em ordem (received_at, id) a partir
+     * do cursor. SKIP LOCKED: outro nó compactando ao mesmo tempo pega lotes disjuntos.
+     */
+    public List<ScanKey> lockNextBatch(OffsetDateTime cutoff, ScanKey after, int limit) {
+        return jdbcTemplate.query(NEXT_BATCH_SQL,
+            (rs, rowNum) -> new ScanKey(rs.getObject(2, OffsetDateTime.class), rs.getLong(1)),
+            cutoff, after.receivedAt(), after.id(), limit);
+    }
+
+    /**
+     * Soma os resultados do lote em daily_instance_rollups (upsert em ordem de chave),
+     * incluindo os scans sem resultados (linha sentinela).
+     *
+     * @return linhas de resumo inseridas ou atualizadas
+     */
+    public int foldIntoInstanceRollups(List<ScanKey> batch) {
+        Range range = Range.of(batch);
+        return jdbcTemplate.update(FOLD_SQL, range.first(), range.last(), ids(batch), range.first(), range.last());
+    }
+
+    /**
+     * @return data_results removidos
+     */
+    public int deleteDataResults(List<ScanKey> batch) {
+        Range range = Range.of(batch);
+        return jdbcTemplate.update(
+            "DELETE FROM data_results WHERE scan_result_id = ANY(?::bigint[]) AND received_at BETWEEN ? AND ?",
+            ids(batch), range.first(), range.last());
+    }
+
+    /**
+     * @return scans removidos
+     */
+    public int deleteScans(List<ScanKey> batch) {
+        Range range = Range.of(batch);
+        return jdbcTemplate.update(
+            "DELETE FROM scan_results WHERE id = ANY(?::bigint[]) AND received_at BETWEEN ? AND ?",
+            ids(batch), range.first(), range.last());
+    }
+
+    private static Object ids(List<ScanKey> batch) {
+        return batch.stream().map(ScanKey::id).toArray(Long[]::new);
+    }
+
+    /**
+     * Posição de um scan na ordem de compactação.
+     */
+    public record ScanKey(OffsetDateTime receivedAt, long id) {
+
+        /**
+         * Antes de qualquer scan.
+         */
+        public static final ScanKey START = new ScanKey(OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), 0);
+    }
+
+    /**
+     * Lotes vêm ordenados por received_at: primeiro e último dão o intervalo.
+     */
+    private record Range(OffsetDateTime first, OffsetDateTime last) {
+
+        static Range of(List<ScanKey> batch) {
+            return new Range(batch.get(0).receivedAt(), batch.get(batch.size() - 1).receivedAt());
+        }
+    }
+}
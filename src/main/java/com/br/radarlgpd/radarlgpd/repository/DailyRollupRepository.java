@@ -0,0 +1,195 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Escrita dos rollups diários (daily_data_rollups e daily_environment_rollups).
+ *
+ * Incremental: upserts em batch JDBC que somam os deltas às linhas existentes.
+ * Rebuild: recalcula um dia inteiro a partir de scan_results/data_results (DELETE + INSERT ... SELECT).
+ * O dia é sempre received_at em UTC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DailyRollupRepository {
+
+    private static final String UPSERT_DATA_SQL = """
+        INSERT INTO daily_data_rollups AS r (day, data_type_id, source_location_id, total_count, scan_count)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (day, data_type_id, source_location_id) DO UPDATE
+        SET total_count = r.total_count + EXCLUDED.total_count,
+            scan_count = r.scan_count + EXCLUDED.scan_count
+        """;
+
+    private static final String UPSERT_ENVIRONMENT_SQL = """
+        INSERT INTO daily_environment_rollups AS r (day, scanner_version, wp_version, php_version, scan_count, total_count)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON CONFLICT (day, scanner_version, wp_version, php_version) DO UPDATE
+        SET scan_count = r.scan_count + EXCLUDED.scan_count,
+            total_count = r.total_count + EXCLUDED.total_count
+        """;
+
+    // Faixa repetida em d.received_at: o planner não propaga desigualdades pela junção,
+    // e sem ela todas as partições de data_results seriam lidas
+    private static final String REBUILD_DATA_SQL = """
+        INSERT INTO daily_data_rollups (day, data_type_id, source_location_id, total_count, scan_count)
+        SELECT ?, d.data_type_id, d.source_location_id, sum(d.count), count(DISTINCT d.scan_result_id)
+        FROM scan_results s
+        JOIN data_results d ON d.scan_result_id = s.id AND d.received_at = s.received_at
+        WHERE s.received_at >= ? AND s.received_at < ?
+          AND d.received_at >= ? AND d.received_at < ?
+        GROUP BY d.data_type_id, d.source_location_id
+        """;
+
+    private static final String REBUILD_ENVIRONMENT_SQL = """
+        INSERT INTO daily_environment_rollups (day, scanner_version, wp_version, php_version, scan_count, total_count)
+        SELECT ?, s.scanner_version, COALESCE(s.wp_version, ''), COALESCE(s.php_version, ''),
+               count(*), COALESCE(sum(t.total), 0)
+        FROM scan_results s
+        LEFT JOIN LATERAL (
+            SELECT sum(d.count) AS total FROM data_results d
+            WHERE d.scan_result_id = s.id AND d.received_at = s.received_at
+        ) t ON true
+        WHERE s.received_at >= ? AND s.received_at < ?
+        GROUP BY s.scanner_version, COALESCE(s.wp_version, ''), COALESCE(s.php_version, '')
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Soma deltas em daily_data_rollups.
+     * As linhas devem vir ordenadas pela chave: transações concorrentes travam as
+     * mesmas linhas na mesma ordem (sem deadlock).
+     */
+    public void addDataDeltas(List<DataRollupRow> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_DATA_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setDate(1, Date.valueOf(delta.day()));
+            ps.setShort(2, delta.dataTypeId());
+            ps.setInt(3, delta.sourceLocationId());
+            ps.setLong(4, delta.totalCount());
+            ps.setLong(5, delta.scanCount());
+        });
+    }
+
+    /**
+     * Soma deltas em daily_environment_rollups (mesma regra de ordenação de {@link #addDataDeltas}).
+     */
+    public void addEnvironmentDeltas(List<EnvironmentRollupRow> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_ENVIRONMENT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setDate(1, Date.valueOf(delta.day()));
+            ps.setString(2, delta.scannerVersion());
+            ps.setString(3, delta.wpVersion());
+            ps.setString(4, delta.phpVersion());
+            ps.setLong(5, delta.scanCount());
+            ps.setLong(6, delta.totalCount());
+        });
+    }
+
+    /**
+     * Recalcula os dois rollups de um dia a partir dos dados brutos.
+     * Deve rodar dentro de uma transação (o DELETE e os INSERTs são atômicos).
+     *
+     * @return linhas gravadas em daily_data_rollups e daily_environment_rollups, somadas
+     */
+    public int rebuildDay(LocalDate day) {
+        Date sqlDay = Date.valueOf(day);
+        OffsetDateTime from = day.atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = from.plusDays(1);
+
+        jdbcTemplate.update("DELETE FROM daily_data_rollups WHERE day = ?", sqlDay);
+        jdbcTemplate.update("DELETE FROM daily_environment_rollups WHERE day = ?", sqlDay);
+
+        return jdbcTemplate.update(REBUILD_DATA_SQL, sqlDay, from, to, from, to)
+            + jdbcTemplate.update(REBUILD_ENVIRONMENT_SQL, sqlDay, from, to);
+    }
+
+    /**
+     * Linhas de daily_data_rollups a partir do dia informado (inclusivo).
+     */
+    public List<DataRollupRow> findDataRollupsSince(LocalDate firstDay) {
+        return jdbcTemplate.query("""
+            SELECT day, data_type_id, source_location_id, total_count, scan_count
+            FROM daily_data_rollups WHERE day >= ?
+            """,
+            (rs, rowNum) -> new DataRollupRow(rs.getDate(1).toLocalDate(), rs.getShort(2), rs.getInt(3),
+                rs.getLong(4), rs.getLong(5)),
+            Date.valueOf(firstDay));
+    }
+
+    /**
+     * Linhas de daily_environment_rollups a partir do dia informado (inclusivo).
+     */
+    public List<EnvironmentRollupRow> findEnvironmentRollupsSince(LocalDate firstDay) {
+        return jdbcTemplate.query("""
+            SELECT day, scanner_version, wp_version, php_version, scan_count, total_count
+            FROM daily_environment_rollups WHERE day >= ?
+            """,
+            (rs, rowNum) -> new EnvironmentRollupRow(rs.getDate(1).toLocalDate(), rs.getString(2),
+                rs.getString(3), rs.getString(4), rs.getLong(5), rs.getLong(6)),
+            Date.valueOf(firstDay));
+    }
+
+    /**
+     * Primeiro e último dia (UTC) com scans recebidos.
+     */
+    public Optional<DayRange> findReceivedDayRange() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject("""
+            SELECT (min(received_at) AT TIME ZONE 'UTC')::date, (max(received_at) AT TIME ZONE 'UTC')::date
+            FROM scan_results
+            """,
+            (rs, rowNum) -> rs.getDate(1) == null
+                ? null
+                : new DayRange(rs.getDate(1).toLocalDate(), rs.getDate(2).toLocalDate())));
+    }
+
+    /**
+     * Primeiro e último dia do intervalo (inclusivo) que já têm linhas em daily_instance_rollups,
+     * ou seja, dias cujos scans a compactação já apagou dos dados brutos.
+     */
+    public Optional<DayRange> findCompactedDayRange(LocalDate from, LocalDate to) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject("""
+            SELECT min(day), max(day) FROM daily_instance_rollups WHERE day BETWEEN ? AND ?
+            """,
+            (rs, rowNum) -> rs.getDate(1) == null
+                ? null
+                : new DayRange(rs.getDate(1).toLocalDate(), rs.getDate(2).toLocalDate()),
+            Date.valueOf(from), Date.valueOf(to)));
+    }
+
+    public record DayRange(LocalDate first, LocalDate last) {
+    }
+
+    /**
+     * Linha de daily_data_rollups (ou delta a somar a ela).
+     */
+    public record DataRollupRow(LocalDate day, short dataTypeId, int sourceLocationId, long totalCount, long scanCount) {
+    }
+
+    /**
+     * Linha de daily_environment_rollups (ou delta a somar a ela).
+     */
+    public record EnvironmentRollupRow(
+        LocalDate day,
+        String scannerVersion,
+        String wpVersion,
+        String phpVersion,
+        long scanCount,
+        long totalCount
+    ) {
+    }
+}
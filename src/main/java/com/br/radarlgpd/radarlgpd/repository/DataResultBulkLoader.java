@@ -0,0 +1,144 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import com.br.radarlgpd.radarlgpd.entity.DataResultEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * Caminho de persistência em massa para data_results via COPY do PostgreSQL.
+ *
+ * Alternativa ao {@link DataResultRepository} para ingestão de alto volume
+ * (fila write-behind, importações, backfills): as linhas de vários scans seguem em
+ * um único stream COPY (CSV) em vez de INSERTs via JPA.
+ *
+ * Participa da transação Spring corrente (mesma conexão do JPA), então os scans
+ * pais precisam estar persistidos na mesma transação; o contexto JPA é descarregado
+ * (flush) antes do COPY para respeitar a FK scan_result_id.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class DataResultBulkLoader {
+
+    private static final String COPY_SQL =
+        "COPY data_results (id, scan_result_id, received_at, data_type_id, source_location_id, count) FROM STDIN WITH (FORMAT csv)";
+
+    /**
+     * Tamanho do buffer enviado ao driver a cada escrita.
+     */
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final SequenceIdAllocator idAllocator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Carrega os resultados informados em um único COPY.
+     * Os IDs são reservados da sequence data_results_seq e atribuídos às entidades.
+     *
+     * @param rows resultados de um ou mais scans (scanResult já com ID atribuído)
+     * @return quantidade de linhas gravadas
+     */
+    @Transactional
+    public long copyIn(Collection<DataResultEntity> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        long[] ids = idAllocator.allocate(DataResultEntity.SEQUENCE, rows.size());
+        entityManager.flush();
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyIn copyIn = null;
+        try {
+            copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+
+            StringBuilder buffer = new StringBuilder(CHUNK_BYTES);
+            int index = 0;
+            for (DataResultEntity row : rows) {
+                row.setId(ids[index++]);
+                appendCsvRow(buffer, row);
+
+                if (buffer.length() >= CHUNK_BYTES) {
+                    write(copyIn, buffer);
+                }
+            }
+            write(copyIn, buffer);
+
+            long copied = copyIn.endCopy();
+            log.debug("COPY data_results concluído - {} linhas", copied);
+            return copied;
+        } catch (SQLException e) {
+            cancelQuietly(copyIn);
+            throw new DataAccessResourceFailureException("Falha no COPY de data_results", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Colunas numéricas (tipo e localização como IDs de dicionário) sem aspas; o timestamp
+     * ISO-8601 (aceito pelo timestamptz) é o único texto e vai entre aspas.
+     */
+    private void appendCsvRow(StringBuilder buffer, DataResultEntity row) {
+        buffer.append(row.getId()).append(',')
+            .append(row.getScanResult().getId()).append(',');
+        appendCsvText(buffer, row.getReceivedAt().toString());
+        buffer.append(',')
+            .append(row.getDataTypeId()).append(',')
+            .append(row.getSourceLocationId()).append(',')
+            .append(row.getCount()).append('\n');
+    }
+
+    /**
+     * Campo CSV entre aspas, com aspas internas dobradas (vírgulas e quebras de linha
+     * dentro do campo ficam protegidas).
+     */
+    static void appendCsvText(StringBuilder buffer, String value) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"');
+            }
+            buffer.append(c);
+        }
+        buffer.append('"');
+    }
+
+    private void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private void cancelQuietly(CopyIn copyIn) {
+        if (copyIn == null || !copyIn.isActive()) {
+            return;
+        }
+        try {
+            copyIn.cancelCopy();
+        } catch (SQLException e) {
+            log.warn("Falha ao cancelar COPY de data_results: {}", e.getMessage());
+        }
+    }
+}
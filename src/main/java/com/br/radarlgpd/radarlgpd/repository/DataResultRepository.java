@@ -2,11 +2,35 @@ package com.br.radarlgpd.radarlgpd.repository;
 
 import com.br.radarlgpd.radarlgpd.entity.DataResultEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repository para operações de persistência de DataResultEntity.
  */
 @Repository
 public interface DataResultRepository extends JpaRepository<DataResultEntity, Long> {
+
+    /**
+     * Resultados de um conjunto de scans, com os nomes dos dicionários.
+     * O intervalo de received_at dos scans limita a leitura às partições envolvidas.
+     */
+    @Query("""
+        SELECT new com.br.radarlgpd.radarlgpd.repository.ScanResultDetail(d.scanResult.id, t.name, l.name, d.count)
+        FROM DataResultEntity d, DataTypeEntity t, SourceLocationEntity l
+        WHERE t.id = d.dataTypeId AND l.id = d.sourceLocationId
+          AND d.scanResult.id IN :scanResultIds
+          AND d.receivedAt BETWEEN :from AND :to
+        ORDER BY d.id
+        """)
+    List<ScanResultDetail> findDetails(
+        @Param("scanResultIds") Collection<Long> scanResultIds,
+        @Param("from") OffsetDateTime from,
+        @Param("to") OffsetDateTime to
+    );
 }
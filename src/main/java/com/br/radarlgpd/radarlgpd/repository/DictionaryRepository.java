@@ -0,0 +1,95 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolução de textos para IDs nas tabelas de dicionário (data_types, source_locations),
+ * inserindo os textos ainda inexistentes.
+ *
+ * Caminho comum (textos já conhecidos): um único SELECT. Textos novos entram com
+ * INSERT ... ON CONFLICT DO NOTHING em ordem alfabética (transações concorrentes travam
+ * as mesmas chaves na mesma ordem, sem deadlock) e são relidos em seguida: em READ COMMITTED
+ * o novo SELECT também enxerga as linhas que uma transação concorrente acabou de commitar.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DictionaryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param table tabela de dicionário (constante da entidade, nunca entrada do usuário)
+     * @param names textos a resolver
+     * @return ID de cada texto
+     */
+    public Map<String, Integer> resolveIds(String table, Collection<String> names) {
+        Map<String, Integer> ids = new HashMap<>(names.size() * 2);
+        if (names.isEmpty()) {
+            return ids;
+        }
+
+        selectIds(table, names, ids);
+        if (ids.size() == names.size()) {
+            return ids;
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            if (!ids.containsKey(name)) {
+                missing.add(name);
+            }
+        }
+        missing.sort(null);
+
+        jdbcTemplate.update(
+            "INSERT INTO " + table + " (name) SELECT unnest(?::varchar[]) ORDER BY 1 ON CONFLICT (name) DO NOTHING",
+            (Object) missing.toArray(String[]::new));
+        selectIds(table, missing, ids);
+        return ids;
+    }
+
+    /**
+     * Todos os textos da tabela de dicionário, por ID.
+     */
+    public Map<Integer, String> findAllNames(String table) {
+        Map<Integer, String> names = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM " + table, rs -> {
+            names.put(rs.getInt(1), rs.getString(2));
+        });
+        return names;
+    }
+
+    /**
+     * Textos dos IDs informados, em uma única consulta (IDs inexistentes ficam de fora).
+     */
+    public Map<Integer, String> findNames(String table, Collection<Integer> ids) {
+        Map<Integer, String> names = new HashMap<>();
+        if (ids.isEmpty()) {
+            return names;
+        }
+        jdbcTemplate.query(
+            "SELECT id, name FROM " + table + " WHERE id = ANY(?::int[])",
+            rs -> {
+                names.put(rs.getInt(1), rs.getString(2));
+            },
+            (Object) ids.toArray(Integer[]::new));
+        return names;
+    }
+
+    private void selectIds(String table, Collection<String> names, Map<String, Integer> ids) {
+        jdbcTemplate.query(
+            "SELECT id, name FROM " + table + " WHERE name = ANY(?::varchar[])",
+            rs -> {
+                ids.put(rs.getString(2), rs.getInt(1));
+            },
+            (Object) names.toArray(String[]::new));
+    }
+}
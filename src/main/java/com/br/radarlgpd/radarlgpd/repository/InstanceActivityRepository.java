@@ -0,0 +1,121 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Escrita set-based das métricas de atividade das instâncias (scan_count, last_seen_at).
+ *
+ * Aplica os deltas acumulados de várias instâncias em um único
+ * UPDATE ... FROM (VALUES ...), em vez de um read-modify-write da entidade por scan.
+ * Também marca como inativas, por faixa de IDs, as instâncias sem atividade recente.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InstanceActivityRepository {
+
+    /**
+     * Linhas por statement (3 parâmetros por linha, bem abaixo do limite de 32767 do driver).
+     */
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Faixa de IDs existentes em instances (vazia se a tabela está vazia).
+     */
+    public record IdRange(long min, long max) {
+
+        public static final IdRange EMPTY = new IdRange(0, -1);
+    }
+
+    /**
+     * Delta de atividade de uma instância.
+     *
+     * @param instanceId ID da instância
+     * @param scans quantidade de scans a somar em scan_count
+     * @param lastSeenAt atividade mais recente observada
+     */
+    public record ActivityDelta(long instanceId, long scans, OffsetDateTime lastSeenAt) {
+    }
+
+    /**
+     * Aplica os deltas. last_seen_at nunca retrocede (GREATEST com o valor atual).
+     *
+     * São vários statements para listas grandes: o chamador deve envolver a chamada em uma
+     * transação (um chunk commitado antes de outro falhar seria somado de novo na repetição)
+     * e passar os deltas em ordem de instance_id (linhas travadas sempre na mesma ordem).
+     *
+     * @return IDs das instâncias atualizadas (deltas de IDs inexistentes ficam de fora)
+     */
+    public List<Long> applyDeltas(List<ActivityDelta> deltas) {
+        List<Long> updated = new ArrayList<>(deltas.size());
+        for (int from = 0; from < deltas.size(); from += ROWS_PER_STATEMENT) {
+            updated.addAll(applyChunk(deltas.subList(from, Math.min(from + ROWS_PER_STATEMENT, deltas.size()))));
+        }
+        return updated;
+    }
+
+    private List<Long> applyChunk(List<ActivityDelta> chunk) {
+        String values = String.join(", ", Collections.nCopies(chunk.size(), "(?::bigint, ?::bigint, ?::timestamptz)"));
+        String sql = """
+            UPDATE instances i
+               SET scan_count = i.scan_count + v.delta,
+                   last_seen_at = GREATEST(i.last_seen_at, v.seen_at)
+              FROM (VALUES %s) AS v(id, delta, seen_at)
+             WHERE i.id = v.id
+            RETURNING i.id
+            """.formatted(values);
+
+        List<Object> params = new ArrayList<>(chunk.size() * 3);
+        for (ActivityDelta delta : chunk) {
+            params.add(delta.instanceId());
+            params.add(delta.scans());
+            params.add(Timestamp.from(delta.lastSeenAt().toInstant()));
+        }
+
+        return jdbcTemplate.queryForList(sql, Long.class, params.toArray());
+    }
+
+    /**
+     * Menor e maior ID de instances (lidos do índice da PK).
+     */
+    public IdRange idRange() {
+        return jdbcTemplate.query("SELECT min(id), max(id) FROM instances", rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? IdRange.EMPTY : new IdRange(min, rs.getLong(2));
+        });
+    }
+
+    /**
+     * Marca como 'inactive' as instâncias ativas de [fromId, toId) sem atividade desde o corte
+     * (last_seen_at, ou created_at se a instância nunca gravou atividade).
+     *
+     * Um único statement (autocommit) por faixa. Linhas travadas por um UPDATE de atividade em
+     * andamento são puladas (SKIP LOCKED): a varredura nunca espera pela ingestão, e uma
+     * instância que está enviando scans não é inativa.
+     *
+     * @return IDs das instâncias marcadas
+     */
+    public List<Long> markInactive(long fromId, long toId, OffsetDateTime cutoff) {
+        return jdbcTemplate.queryForList("""
+            UPDATE instances
+               SET status = 'inactive', status_changed_at = now()
+             WHERE id IN (
+                   SELECT id FROM instances
+                    WHERE id >= ? AND id < ?
+                      AND status = 'active'
+                      AND COALESCE(last_seen_at, created_at) < ?
+                      FOR UPDATE SKIP LOCKED)
+            RETURNING id
+            """, Long.class, fromId, toId, Timestamp.from(cutoff.toInstant()));
+    }
+}
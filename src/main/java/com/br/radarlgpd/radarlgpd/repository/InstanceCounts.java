@@ -0,0 +1,23 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+/**
+ * Contagem de instâncias por status e por atividade recente (last_seen_at).
+ *
+ * @param total todas as instâncias registradas
+ * @param active status 'active'
+ * @param inactive status 'inactive'
+ * @param banned status 'banned'
+ * @param seenLastDay ativas com telemetria nas últimas 24 horas
+ * @param seenLastWeek ativas com telemetria nos últimos 7 dias
+ * @param seenLastMonth ativas com telemetria nos últimos 30 dias
+ */
+public record InstanceCounts(
+    long total,
+    long active,
+    long inactive,
+    long banned,
+    long seenLastDay,
+    long seenLastWeek,
+    long seenLastMonth
+) {
+}
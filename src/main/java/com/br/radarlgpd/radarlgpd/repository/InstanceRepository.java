@@ -2,8 +2,13 @@ package com.br.radarlgpd.radarlgpd.repository;
 
 import com.br.radarlgpd.radarlgpd.entity.Instance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,6 +26,50 @@ public interface InstanceRepository extends JpaRepository<Instance, Long> {
      */
     Optional<Instance> findByInstanceToken(String instanceToken);
 
+    /**
+     * Busca apenas (id, status) da instância pelo token, sem carregar a entidade.
+     * Projeção usada na validação de token com cache (RF-API-2.1).
+     * 
+     * @param instanceToken token UUIDv4 da instância
+     * @return Optional contendo a projeção se encontrada
+     */
+    Optional<InstanceTokenView> findTokenViewByInstanceToken(String instanceToken);
+
+    /**
+     * Lista as instâncias não ativas criadas a partir de uma data.
+     * Carga inicial da lista de revogação de tokens assinados.
+     * 
+     * @param createdSince início da janela coberta pela lista (instâncias anteriores são
+     *                     consultadas pela PK)
+     * @return projeções das instâncias banidas ou inativas
+     */
+    @Query("""
+        SELECT new com.br.radarlgpd.radarlgpd.repository.RevokedInstanceView(i.id, i.status, i.createdAt)
+        FROM Instance i
+        WHERE i.status <> 'active' AND i.createdAt >= :createdSince
+        """)
+    List<RevokedInstanceView> findRevoked(@Param("createdSince") OffsetDateTime createdSince);
+
+    /**
+     * Como {@link #findRevoked}, mas só as instâncias cujo status mudou a partir de uma data
+     * (índice em status_changed_at). Recarga incremental da lista de revogação.
+     */
+    @Query("""
+        SELECT new com.br.radarlgpd.radarlgpd.repository.RevokedInstanceView(i.id, i.status, i.createdAt)
+        FROM Instance i
+        WHERE i.statusChangedAt >= :changedSince AND i.status <> 'active' AND i.createdAt >= :createdSince
+        """)
+    List<RevokedInstanceView> findRevokedSince(
+        @Param("changedSince") OffsetDateTime changedSince,
+        @Param("createdSince") OffsetDateTime createdSince
+    );
+
+    /**
+     * Status de uma instância pelo ID, sem carregar a entidade.
+     */
+    @Query("SELECT i.status FROM Instance i WHERE i.id = :id")
+    Optional<String> findStatusById(@Param("id") Long id);
+
     /**
      * Verifica se já existe uma instância com o token informado.
      * Usado para garantir unicidade durante geração de novos tokens.
@@ -38,4 +87,42 @@ public interface InstanceRepository extends JpaRepository<Instance, Long> {
      * @return lista de instâncias do mesmo site
      */
     java.util.List<Instance> findBySiteId(String siteId);
+
+    /**
+     * Incrementa o contador de scans e atualiza last_seen_at em um único UPDATE,
+     * sem read-modify-write da entidade.
+     * 
+     * @param id ID da instância
+     * @param delta quantidade de scans a somar
+     * @param seenAt timestamp da atividade mais recente
+     * @return quantidade de linhas atualizadas (0 se a instância não existe)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Instance i SET i.scanCount = i.scanCount + :delta, i.lastSeenAt = :seenAt WHERE i.id = :id")
+    int incrementScanActivity(@Param("id") Long id, @Param("delta") int delta, @Param("seenAt") OffsetDateTime seenAt);
+
+    /**
+     * Conta instâncias por status e por atividade recente em uma única leitura.
+     * Alimenta o snapshot de estatísticas (não é chamado por requisição de dashboard).
+     * 
+     * @param lastDay limite de last_seen_at para "últimas 24 horas"
+     * @param lastWeek limite de last_seen_at para "últimos 7 dias"
+     * @param lastMonth limite de last_seen_at para "últimos 30 dias"
+     * @return contagens agregadas
+     */
+    @Query("""
+        SELECT new com.br.radarlgpd.radarlgpd.repository.InstanceCounts(
+            count(i),
+            coalesce(sum(case when i.status = 'active' then 1 else 0 end), 0),
+            coalesce(sum(case when i.status = 'inactive' then 1 else 0 end), 0),
+            coalesce(sum(case when i.status = 'banned' then 1 else 0 end), 0),
+            coalesce(sum(case when i.status = 'active' and i.lastSeenAt >= :lastDay then 1 else 0 end), 0),
+            coalesce(sum(case when i.status = 'active' and i.lastSeenAt >= :lastWeek then 1 else 0 end), 0),
+            coalesce(sum(case when i.status = 'active' and i.lastSeenAt >= :lastMonth then 1 else 0 end), 0))
+        FROM Instance i
+        """)
+    InstanceCounts countByStatusAndActivity(
+        @Param("lastDay") OffsetDateTime lastDay,
+        @Param("lastWeek") OffsetDateTime lastWeek,
+        @Param("lastMonth") OffsetDateTime lastMonth);
 }
@@ -0,0 +1,25 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+/**
+ * Projeção mínima e imutável de uma instância para validação de token (RF-API-2.1).
+ * Pode ser mantida em cache com segurança, ao contrário da entidade gerenciada {@code Instance}.
+ *
+ * @param id ID da instância
+ * @param status status atual ('active', 'inactive' ou 'banned')
+ */
+public record InstanceTokenView(Long id, String status) {
+
+    /**
+     * Verifica se a instância está ativa e pode enviar telemetria.
+     */
+    public boolean isActive() {
+        return "active".equalsIgnoreCase(status);
+    }
+
+    /**
+     * Verifica se a instância está banida.
+     */
+    public boolean isBanned() {
+        return "banned".equalsIgnoreCase(status);
+    }
+}
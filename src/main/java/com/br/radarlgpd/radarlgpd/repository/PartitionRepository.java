@@ -0,0 +1,129 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL das partições mensais (RANGE em received_at) de scan_results e data_results.
+ *
+ * Cada partição cobre um mês UTC e se chama {tabela}_pAAAA_MM (ex: scan_results_p2026_10).
+ * Partições fora desse padrão são ignoradas pela manutenção.
+ *
+ * Os nomes de tabela vêm sempre das constantes das entidades, nunca de entrada externa.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepository {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'_p'yyyy_MM");
+    private static final Pattern MONTHLY_SUFFIX = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Nome da partição mensal de uma tabela.
+     */
+    public static String partitionName(String table, YearMonth month) {
+        return table + month.format(SUFFIX);
+    }
+
+    /**
+     * Verifica se a tabela é particionada (scripts/migrations/004 aplicado).
+     * Com ddl-auto em um banco novo ela é uma tabela comum e a manutenção não se aplica.
+     */
+    public boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("""
+            SELECT EXISTS (
+                SELECT 1 FROM pg_partitioned_table p
+                JOIN pg_class c ON c.oid = p.partrelid
+                WHERE c.relname = ? AND pg_table_is_visible(c.oid)
+            )
+            """, Boolean.class, table));
+    }
+
+    /**
+     * Cria a partição do mês, se ainda não existir.
+     *
+     * @return true se a partição foi criada agora
+     */
+    public boolean createMonthlyPartition(String table, YearMonth month) {
+        String partition = partitionName(table, month);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition))) {
+            return false;
+        }
+
+        OffsetDateTime from = month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table
+            + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        return true;
+    }
+
+    /**
+     * Partições mensais anexadas à tabela, ordenadas por mês.
+     */
+    public Map<YearMonth, String> findMonthlyPartitions(String table) {
+        Map<YearMonth, String> partitions = new TreeMap<>();
+        jdbcTemplate.query("""
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = ? AND pg_table_is_visible(p.oid)
+            """,
+            rs -> {
+                String name = rs.getString(1);
+                Matcher matcher = MONTHLY_SUFFIX.matcher(name);
+                if (name.startsWith(table) && matcher.find()) {
+                    partitions.put(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))), name);
+                }
+            },
+            table);
+        return partitions;
+    }
+
+    /**
+     * Desanexa e remove uma partição inteira (sem DELETE de linhas nem VACUUM).
+     * Deve rodar dentro de uma transação: se o DROP falhar, a partição volta anexada.
+     */
+    public void detachAndDrop(String table, String partition) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    /**
+     * Remove até {@code limit} registros de scan_ids recebidos antes do instante informado.
+     *
+     * @return quantidade removida (menor que limit quando não há mais nada a remover)
+     */
+    public int deleteScanIdsBefore(OffsetDateTime cutoff, int limit) {
+        return jdbcTemplate.update("""
+            DELETE FROM scan_ids
+            WHERE scan_id IN (SELECT scan_id FROM scan_ids WHERE received_at < ? LIMIT ?)
+            """, cutoff, limit);
+    }
+
+    /**
+     * Tenta o advisory lock de transação: só um nó da API faz manutenção por vez.
+     */
+    public boolean tryMaintenanceLock(long key) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, key));
+    }
+
+    /**
+     * Limita a espera por locks na transação corrente (DDL em tabela particionada trava a tabela pai).
+     */
+    public void setLocalLockTimeout(long millis) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + millis);
+    }
+}
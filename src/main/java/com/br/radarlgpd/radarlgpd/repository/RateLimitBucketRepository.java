@@ -0,0 +1,43 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+
+/**
+ * Manutenção da tabela rate_limit_buckets (scripts/migrations/006-rate-limit-buckets.sql).
+ *
+ * A leitura e a escrita dos buckets ficam com o proxy manager do Bucket4j; aqui só a
+ * remoção dos buckets ociosos, que o Bucket4j não expira sozinho.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RateLimitBucketRepository {
+
+    public static final String TABLE = "rate_limit_buckets";
+    public static final String ID_COLUMN = "id";
+    public static final String STATE_COLUMN = "state";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Remove até {@code limit} buckets sem atualização há mais de {@code idle}.
+     * Lote pequeno por statement: não segura locks de muitas linhas de uma vez, e
+     * SKIP LOCKED pula os buckets que outro nó está sincronizando.
+     *
+     * @return quantidade de buckets removidos
+     */
+    public int deleteIdle(Duration idle, int limit) {
+        return jdbcTemplate.update("""
+            DELETE FROM rate_limit_buckets
+            WHERE id IN (
+                SELECT id FROM rate_limit_buckets
+                WHERE updated_at < now() - make_interval(secs => ?)
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            """, idle.toSeconds(), limit);
+    }
+}
@@ -0,0 +1,13 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Projeção de uma instância não ativa para a lista de revogação de tokens assinados.
+ *
+ * @param id ID da instância
+ * @param status status atual ('inactive' ou 'banned')
+ * @param createdAt criação da instância (define por quanto tempo fica na lista)
+ */
+public record RevokedInstanceView(Long id, String status, OffsetDateTime createdAt) {
+}
@@ -0,0 +1,16 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import com.br.radarlgpd.radarlgpd.entity.ScanDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository dos scans descartados pela ingestão assíncrona.
+ */
+@Repository
+public interface ScanDeadLetterRepository extends JpaRepository<ScanDeadLetter, Long> {
+
+    List<ScanDeadLetter> findByScanId(String scanId);
+}
@@ -0,0 +1,115 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Leitura em streaming de scans e resultados para exportação.
+ *
+ * Usa um cursor do servidor (forward-only, fetch size limitado): o driver do PostgreSQL
+ * só busca as linhas em blocos de radarlgpd.export.fetch-size quando a conexão está fora
+ * de autocommit, por isso a leitura roda numa transação somente leitura. A transação é
+ * JDBC pura (DataSourceTransactionManager), sem EntityManager: nenhuma entidade é
+ * carregada nem fica num contexto de persistência, e o heap não cresce com o volume.
+ */
+@Repository
+public class ScanExportRepository {
+
+    /**
+     * Linhas de um mesmo scan saem contíguas (ordem received_at, id), com os resultados na
+     * ordem de gravação; scans sem resultados saem uma vez, com as colunas de resultado nulas.
+     */
+    private static final String EXPORT_SQL = """
+        SELECT s.id, s.scan_id, s.instance_id, s.site_id, s.scan_timestamp_utc, s.scan_duration_ms,
+               s.scanner_version, s.wp_version, s.php_version, s.received_at,
+               t.name, l.name, d.count
+        FROM scan_results s
+        LEFT JOIN data_results d
+            ON d.scan_result_id = s.id AND d.received_at = s.received_at
+           AND d.received_at >= ? AND d.received_at < ?
+        LEFT JOIN data_types t ON t.id = d.data_type_id
+        LEFT JOIN source_locations l ON l.id = d.source_location_id
+        WHERE s.received_at >= ? AND s.received_at < ?
+        ORDER BY s.received_at, s.id, d.id
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ScanExportRepository(
+        DataSource dataSource,
+        @Value("${radarlgpd.export.fetch-size:1000}") int fetchSize
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+
+        this.readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Percorre os scans recebidos em [from, to) com seus resultados, linha a linha.
+     *
+     * @return linhas lidas
+     */
+    public long streamScanResults(OffsetDateTime from, OffsetDateTime to, Consumer<ExportRow> consumer) {
+        Long rows = readOnlyTransaction.execute(status -> {
+            long[] count = {0};
+            jdbcTemplate.query(EXPORT_SQL, rs -> {
+                consumer.accept(toRow(rs));
+                count[0]++;
+            }, from, to, from, to);
+            return count[0];
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private static ExportRow toRow(ResultSet rs) throws SQLException {
+        Integer count = rs.getObject(13, Integer.class);
+        return new ExportRow(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getLong(3),
+            rs.getString(4),
+            rs.getObject(5, OffsetDateTime.class),
+            rs.getInt(6),
+            rs.getString(7),
+            rs.getString(8),
+            rs.getString(9),
+            rs.getObject(10, OffsetDateTime.class),
+            rs.getString(11),
+            rs.getString(12),
+            count
+        );
+    }
+
+    /**
+     * Uma linha do join scan x resultado. dataType, sourceLocation e count são nulos
+     * para scans sem resultados.
+     */
+    public record ExportRow(
+        long id,
+        String scanId,
+        long instanceId,
+        String siteId,
+        OffsetDateTime scanTimestampUtc,
+        int scanDurationMs,
+        String scannerVersion,
+        String wpVersion,
+        String phpVersion,
+        OffsetDateTime receivedAt,
+        String dataType,
+        String sourceLocation,
+        Integer count
+    ) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import com.br.radarlgpd.radarlgpd.entity.ScanResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * INSERT idempotente de vários scans em um único batch JDBC.
+ *
+ * Equivalente em lote de {@link ScanResultRepository#insertIgnoringDuplicate(ScanResult)}:
+ * o update count de cada linha diz se o scan foi inserido (1) ou era duplicado (0),
+ * inclusive para scan_id repetido dentro do próprio lote (o registro em scan_ids do
+ * segundo conflita com o do primeiro).
+ *
+ * Depende de update counts exatos: não habilitar reWriteBatchedInserts no driver
+ * (com ele o PostgreSQL devolve SUCCESS_NO_INFO).
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScanResultBatchRepository {
+
+    private static final String INSERT_SQL = """
+        WITH accepted AS (
+            INSERT INTO scan_ids (scan_id, received_at) VALUES (?, ?)
+            ON CONFLICT (scan_id) DO NOTHING
+            RETURNING scan_id
+        )
+        INSERT INTO scan_results (id, scan_id, instance_id, site_id, consent_given, scan_timestamp_utc,
+                                  scan_duration_ms, scanner_version, wp_version, php_version, received_at)
+        SELECT ?, scan_id, ?, ?, ?, ?, ?, ?, ?, ?, ? FROM accepted
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insere os scans ignorando scan_id duplicado.
+     *
+     * @param scans scans com ID já reservado da sequence scan_results_seq
+     * @return para cada scan, na mesma ordem, true se inserido e false se duplicado
+     */
+    public boolean[] insertIgnoringDuplicates(List<ScanResult> scans) {
+        boolean[] inserted = new boolean[scans.size()];
+        if (scans.isEmpty()) {
+            return inserted;
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ScanResult scan = scans.get(i);
+                ps.setString(1, scan.getScanId());
+                ps.setObject(2, scan.getReceivedAt());
+                ps.setLong(3, scan.getId());
+                ps.setObject(4, scan.getInstanceId(), Types.BIGINT);
+                ps.setString(5, scan.getSiteId());
+                ps.setBoolean(6, scan.getConsentGiven());
+                ps.setObject(7, scan.getScanTimestampUtc());
+                ps.setInt(8, scan.getScanDurationMs());
+                ps.setString(9, scan.getScannerVersion());
+                ps.setString(10, scan.getWpVersion());
+                ps.setString(11, scan.getPhpVersion());
+                ps.setObject(12, scan.getReceivedAt());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return scans.size();
+            }
+        });
+
+        for (int i = 0; i < counts.length; i++) {
+            inserted[i] = counts[i] > 0;
+        }
+        return inserted;
+    }
+}
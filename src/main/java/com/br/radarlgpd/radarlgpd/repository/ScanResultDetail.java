@@ -0,0 +1,17 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+/**
+ * Resultado de um scan com tipo e localização já traduzidos dos dicionários.
+ *
+ * @param scanResultId ID do scan (scan_results.id)
+ * @param dataType nome em data_types
+ * @param sourceLocation nome em source_locations
+ * @param count quantidade de ocorrências
+ */
+public record ScanResultDetail(
+    Long scanResultId,
+    String dataType,
+    String sourceLocation,
+    Integer count
+) {
+}
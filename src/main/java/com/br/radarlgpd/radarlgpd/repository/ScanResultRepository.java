@@ -1,9 +1,14 @@
 package com.br.radarlgpd.radarlgpd.repository;
 
 import com.br.radarlgpd.radarlgpd.entity.ScanResult;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,4 +26,65 @@ public interface ScanResultRepository extends JpaRepository<ScanResult, Long> {
      * Verifica se já existe um scan com o scanId informado.
      */
     boolean existsByScanId(String scanId);
+
+    /**
+     * Insere o scan em um único round trip, ignorando scan_id duplicado.
+     *
+     * Substitui o par existsByScanId + save: além de economizar uma ida ao banco,
+     * elimina a corrida entre retries concorrentes do mesmo scan_id (o segundo INSERT
+     * aguarda o primeiro e vira no-op em vez de violar a constraint unique).
+     *
+     * O scan_id é registrado em scan_ids (única tabela com a constraint unique, já que
+     * scan_results é particionada) e o scan só é inserido se o registro foi aceito.
+     *
+     * @param scan scan com ID já reservado da sequence scan_results_seq
+     * @return ID inserido, ou vazio se o scan_id já existia (duplicado)
+     */
+    @Query(nativeQuery = true, value = """
+        WITH accepted AS (
+            INSERT INTO scan_ids (scan_id, received_at)
+            VALUES (:#{#scan.scanId}, :#{#scan.receivedAt})
+            ON CONFLICT (scan_id) DO NOTHING
+            RETURNING scan_id
+        )
+        INSERT INTO scan_results (id, scan_id, instance_id, site_id, consent_given, scan_timestamp_utc,
+                                  scan_duration_ms, scanner_version, wp_version, php_version, received_at)
+        SELECT :#{#scan.id}, scan_id, :#{#scan.instanceId}, :#{#scan.siteId}, :#{#scan.consentGiven},
+               :#{#scan.scanTimestampUtc}, :#{#scan.scanDurationMs}, :#{#scan.scannerVersion},
+               :#{#scan.wpVersion}, :#{#scan.phpVersion}, :#{#scan.receivedAt}
+        FROM accepted
+        RETURNING id
+        """)
+    Optional<Long> insertIgnoringDuplicate(@Param("scan") ScanResult scan);
+
+    /**
+     * Primeira página do histórico de uma instância (mais recentes primeiro).
+     *
+     * Paginação por seek em (scan_timestamp_utc, id), nunca OFFSET: cada página lê só as
+     * suas linhas no índice idx_scan_results_instance_history (scripts/migrations/005),
+     * não importa quão fundo no histórico.
+     */
+    @Query("""
+        SELECT s FROM ScanResult s
+        WHERE s.instanceId = :instanceId
+        ORDER BY s.scanTimestampUtc DESC, s.id DESC
+        """)
+    List<ScanResult> findHistory(@Param("instanceId") Long instanceId, Limit limit);
+
+    /**
+     * Página seguinte do histórico: scans anteriores à posição (timestamp, id) da última
+     * linha da página anterior.
+     */
+    @Query("""
+        SELECT s FROM ScanResult s
+        WHERE s.instanceId = :instanceId
+          AND (s.scanTimestampUtc, s.id) < (:timestamp, :id)
+        ORDER BY s.scanTimestampUtc DESC, s.id DESC
+        """)
+    List<ScanResult> findHistoryBefore(
+        @Param("instanceId") Long instanceId,
+        @Param("timestamp") OffsetDateTime timestamp,
+        @Param("id") Long id,
+        Limit limit
+    );
 }
@@ -0,0 +1,110 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reserva IDs das sequences das entidades para escritas feitas fora do Hibernate
+ * (COPY, INSERT nativo).
+ *
+ * Segue a mesma regra pooled-lo configurada no Hibernate: cada nextval entrega o
+ * bloco [valor, valor + ALLOCATION_SIZE - 1]. Como Hibernate e este alocador só
+ * consomem blocos inteiros via nextval, os IDs nunca colidem. Sobras de bloco ficam
+ * em memória para a próxima chamada (sequences não são transacionais, então um
+ * rollback não "devolve" IDs).
+ */
+@Component
+@RequiredArgsConstructor
+public class SequenceIdAllocator {
+
+    /**
+     * Deve ser igual ao allocationSize dos @SequenceGenerator e ao INCREMENT BY das sequences.
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Reserva {@code count} IDs da sequence informada.
+     *
+     * @param sequence nome da sequence (ex: data_results_seq)
+     * @param count quantidade de IDs
+     * @return IDs únicos, em ordem crescente dentro de cada bloco
+     */
+    public long[] allocate(String sequence, int count) {
+        long[] ids = new long[count];
+        if (count == 0) {
+            return ids;
+        }
+        return pools.computeIfAbsent(sequence, Pool::new).take(ids);
+    }
+
+    /**
+     * Reserva um único ID da sequence informada.
+     */
+    public long next(String sequence) {
+        return allocate(sequence, 1)[0];
+    }
+
+    /**
+     * Sobra do último bloco reservado de uma sequence.
+     * ReentrantLock em vez de synchronized: a busca de blocos faz I/O no banco.
+     */
+    private final class Pool {
+
+        private final String sequence;
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next;
+        private long limit;
+
+        private Pool(String sequence) {
+            this.sequence = sequence;
+        }
+
+        private long[] take(long[] ids) {
+            lock.lock();
+            try {
+                int filled = 0;
+                while (filled < ids.length) {
+                    if (next >= limit) {
+                        int missing = ids.length - filled;
+                        fetchBlocks((missing + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE, ids, filled);
+                        filled = ids.length;
+                    } else {
+                        ids[filled++] = next++;
+                    }
+                }
+                return ids;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Busca blocos com um único round trip e preenche ids[from..]; a sobra do último
+         * bloco fica reservada no pool.
+         */
+        private void fetchBlocks(int blocks, long[] ids, int from) {
+            List<Long> starts = jdbcTemplate.queryForList(
+                "SELECT nextval(?::regclass) FROM generate_series(1, ?)", Long.class, sequence, blocks);
+
+            int filled = from;
+            for (long start : starts) {
+                long end = start + ALLOCATION_SIZE;
+                long value = start;
+                while (value < end && filled < ids.length) {
+                    ids[filled++] = value++;
+                }
+                next = value;
+                limit = end;
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository.DataRollupRow;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository.EnvironmentRollupRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Acumula em memória os deltas dos rollups diários e grava periodicamente em lote.
+ *
+ * Todo scan do dia soma nas mesmas poucas linhas de daily_data_rollups e
+ * daily_environment_rollups; com o upsert na transação de ingestão, cada transação
+ * segurava o lock dessas linhas até o commit e as ingestões concorrentes andavam em fila.
+ * Agora a ingestão só entrega os deltas após o commit ({@link #addAfterCommit}); o flush
+ * periódico soma tudo por chave e aplica em uma transação curta, com as linhas em ordem
+ * de chave (sem deadlock entre nós da API).
+ *
+ * Mesmo esquema do {@link InstanceActivityAccumulator}: acúmulo com ConcurrentHashMap.compute,
+ * deltas devolvidos ao acumulador se o flush falhar e flush no shutdown gracioso. Os rollups
+ * ficam até radarlgpd.rollup.flush-interval-ms atrás dos dados brutos; em um crash os deltas
+ * pendentes se perdem e o rebuild ({@link DailyRollupService#rebuild}) os recupera.
+ */
+@Component
+@Slf4j
+public class DailyRollupAccumulator {
+
+    private static final Comparator<DataKey> DATA_KEY_ORDER = Comparator
+        .comparing(DataKey::day)
+        .thenComparingInt(DataKey::dataTypeId)
+        .thenComparingInt(DataKey::sourceLocationId);
+
+    private static final Comparator<EnvironmentKey> ENVIRONMENT_KEY_ORDER = Comparator
+        .comparing(EnvironmentKey::day)
+        .thenComparing(EnvironmentKey::scannerVersion)
+        .thenComparing(EnvironmentKey::wpVersion)
+        .thenComparing(EnvironmentKey::phpVersion);
+
+    private final DailyRollupRepository dailyRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<DataKey, long[]> pendingData = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<EnvironmentKey, long[]> pendingEnvironments = new ConcurrentHashMap<>();
+    // Um flush por vez: dois flushes concorrentes poderiam gravar a mesma chave fora de ordem
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public DailyRollupAccumulator(DailyRollupRepository dailyRollupRepository, TransactionTemplate transactionTemplate) {
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Registra os deltas de uma transação de ingestão para o próximo flush, após o commit
+     * (sem transação ativa, registra na hora).
+     */
+    public void addAfterCommit(List<DataRollupRow> dataDeltas, List<EnvironmentRollupRow> environmentDeltas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(dataDeltas, environmentDeltas);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(dataDeltas, environmentDeltas);
+            }
+        });
+    }
+
+    /**
+     * Grava todos os deltas pendentes. Em caso de falha, os deltas voltam para o acumulador
+     * e são tentados de novo no próximo ciclo.
+     */
+    @Scheduled(
+        fixedDelayString = "${radarlgpd.rollup.flush-interval-ms:5000}",
+        initialDelayString = "${radarlgpd.rollup.flush-interval-ms:5000}"
+    )
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<DataRollupRow> dataRows = drainData();
+            List<EnvironmentRollupRow> environmentRows = drainEnvironments();
+            if (dataRows.isEmpty() && environmentRows.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    dailyRollupRepository.addDataDeltas(dataRows);
+                    dailyRollupRepository.addEnvironmentDeltas(environmentRows);
+                });
+                log.debug("Rollups diários gravados - {} linhas de dados, {} de ambiente",
+                    dataRows.size(), environmentRows.size());
+            } catch (RuntimeException e) {
+                log.error("Falha ao gravar {} deltas de rollup, reenfileirando para o próximo ciclo",
+                    dataRows.size() + environmentRows.size(), e);
+                add(dataRows, environmentRows);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+
+        if (!pendingData.isEmpty() || !pendingEnvironments.isEmpty()) {
+            log.error("Deltas de rollup não gravados no shutdown - {} linhas",
+                pendingData.size() + pendingEnvironments.size());
+        }
+    }
+
+    private void add(List<DataRollupRow> dataDeltas, List<EnvironmentRollupRow> environmentDeltas) {
+        for (DataRollupRow row : dataDeltas) {
+            merge(pendingData, new DataKey(row.day(), row.dataTypeId(), row.sourceLocationId()),
+                row.totalCount(), row.scanCount());
+        }
+        for (EnvironmentRollupRow row : environmentDeltas) {
+            merge(pendingEnvironments,
+                new EnvironmentKey(row.day(), row.scannerVersion(), row.wpVersion(), row.phpVersion()),
+                row.scanCount(), row.totalCount());
+        }
+    }
+
+    /**
+     * Soma no delta pendente da chave; o array só é alterado dentro do compute (sob o lock do bin).
+     */
+    private static <K> void merge(ConcurrentHashMap<K, long[]> pending, K key, long first, long second) {
+        pending.compute(key, (k, delta) -> {
+            long[] current = delta != null ? delta : new long[2];
+            current[0] += first;
+            current[1] += second;
+            return current;
+        });
+    }
+
+    private List<DataRollupRow> drainData() {
+        List<DataKey> keys = new ArrayList<>(pendingData.keySet());
+        keys.sort(DATA_KEY_ORDER);
+
+        List<DataRollupRow> rows = new ArrayList<>(keys.size());
+        for (DataKey key : keys) {
+            long[] delta = pendingData.remove(key);
+            if (delta != null) {
+                rows.add(new DataRollupRow(key.day(), key.dataTypeId(), key.sourceLocationId(), delta[0], delta[1]));
+            }
+        }
+        return rows;
+    }
+
+    private List<EnvironmentRollupRow> drainEnvironments() {
+        List<EnvironmentKey> keys = new ArrayList<>(pendingEnvironments.keySet());
+        keys.sort(ENVIRONMENT_KEY_ORDER);
+
+        List<EnvironmentRollupRow> rows = new ArrayList<>(keys.size());
+        for (EnvironmentKey key : keys) {
+            long[] delta = pendingEnvironments.remove(key);
+            if (delta != null) {
+                rows.add(new EnvironmentRollupRow(key.day(), key.scannerVersion(), key.wpVersion(),
+                    key.phpVersion(), delta[0], delta[1]));
+            }
+        }
+        return rows;
+    }
+
+    private record DataKey(LocalDate day, short dataTypeId, int sourceLocationId) {
+    }
+
+    private record EnvironmentKey(LocalDate day, String scannerVersion, String wpVersion, String phpVersion) {
+    }
+}
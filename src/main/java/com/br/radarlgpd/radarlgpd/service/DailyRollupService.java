@@ -0,0 +1,142 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.entity.ScanResult;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository.DataRollupRow;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository.EnvironmentRollupRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Manutenção dos rollups diários (daily_data_rollups e daily_environment_rollups).
+ *
+ * Na ingestão, os scans persistidos de uma transação viram deltas agregados em memória
+ * (uma linha por chave). Após o commit, os deltas vão para o {@link DailyRollupAccumulator},
+ * que os grava em lote periodicamente: a transação de ingestão não trava as linhas de
+ * rollup, disputadas por todos os scans do dia. Os mesmos deltas alimentam na hora o
+ * snapshot em memória de /v1/stats ({@link StatsAggregate}).
+ *
+ * O rebuild recalcula dias inteiros a partir dos dados brutos, um dia por transação,
+ * com vários dias em paralelo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyRollupService {
+
+    private final DailyRollupRepository dailyRollupRepository;
+    private final DailyRollupAccumulator dailyRollupAccumulator;
+    private final TransactionTemplate transactionTemplate;
+    private final StatsAggregate statsAggregate;
+
+    /**
+     * Soma aos rollups os scans recém-persistidos, após o commit da transação que os inseriu.
+     *
+     * @param scans entidades persistidas (com receivedAt e versões)
+     * @param requests requests dos scans, na mesma ordem
+     * @param dictionaryIds IDs de dicionário de todos os resultados
+     */
+    public void record(List<ScanResult> scans, List<ScanResultRequest> requests, DataResultDictionary.Ids dictionaryIds) {
+        Map<DataKey, long[]> dataDeltas = new HashMap<>();
+        Map<EnvironmentKey, long[]> environmentDeltas = new HashMap<>();
+
+        for (int i = 0; i < scans.size(); i++) {
+            ScanResult scan = scans.get(i);
+            LocalDate day = scan.getReceivedAt().atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+
+            long scanTotal = 0;
+            Set<DataKey> reportedByScan = new HashSet<>();
+            for (DataResult result : requests.get(i).getResults()) {
+                DataKey key = new DataKey(day,
+                    dictionaryIds.dataTypeId(result.getDataType()),
+                    dictionaryIds.sourceLocationId(result.getSourceLocation()));
+
+                long[] delta = dataDeltas.computeIfAbsent(key, k -> new long[2]);
+                delta[0] += result.getCount();
+                if (reportedByScan.add(key)) {
+                    delta[1]++;
+                }
+                scanTotal += result.getCount();
+            }
+
+            EnvironmentKey environmentKey = new EnvironmentKey(day, scan.getScannerVersion(),
+                nullToEmpty(scan.getWpVersion()), nullToEmpty(scan.getPhpVersion()));
+            long[] delta = environmentDeltas.computeIfAbsent(environmentKey, k -> new long[2]);
+            delta[0]++;
+            delta[1] += scanTotal;
+        }
+
+        List<DataRollupRow> dataRows = new ArrayList<>(dataDeltas.size());
+        dataDeltas.forEach((key, delta) -> dataRows.add(
+            new DataRollupRow(key.day(), key.dataTypeId(), key.sourceLocationId(), delta[0], delta[1])));
+
+        List<EnvironmentRollupRow> environmentRows = new ArrayList<>(environmentDeltas.size());
+        environmentDeltas.forEach((key, delta) -> environmentRows.add(new EnvironmentRollupRow(
+            key.day(), key.scannerVersion(), key.wpVersion(), key.phpVersion(), delta[0], delta[1])));
+
+        dailyRollupAccumulator.addAfterCommit(dataRows, environmentRows);
+        statsAggregate.applyAfterCommit(dataRows, environmentRows);
+    }
+
+    /**
+     * Recalcula os rollups de todos os dias do intervalo (inclusivo) a partir dos dados brutos.
+     *
+     * Scans recebidos durante o rebuild de um dia podem ficar fora do recálculo: rodar para
+     * dias fechados (anteriores a hoje em UTC) ou com a ingestão parada. Dias já compactados
+     * ({@link ScanCompactionService}) ou descartados pela retenção não têm mais dados brutos
+     * e seriam zerados. Os deltas pendentes no acumulador são gravados antes.
+     *
+     * @param parallelism dias recalculados ao mesmo tempo (cada um ocupa uma conexão)
+     * @return linhas de rollup gravadas
+     */
+    public long rebuild(LocalDate from, LocalDate to, int parallelism) throws InterruptedException {
+        List<LocalDate> days = from.datesUntil(to.plusDays(1)).toList();
+        dailyRollupAccumulator.flush();
+        log.info("Rebuild dos rollups diários - {} dias ({} a {}), paralelismo {}", days.size(), from, to, parallelism);
+
+        long started = System.nanoTime();
+        long rows = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<Integer>> results = new ArrayList<>(days.size());
+            for (LocalDate day : days) {
+                results.add(executor.submit(() -> transactionTemplate.execute(status -> dailyRollupRepository.rebuildDay(day))));
+            }
+            for (Future<Integer> result : results) {
+                rows += result.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha no rebuild dos rollups diários", e.getCause());
+        }
+
+        log.info("Rebuild dos rollups diários concluído - {} dias, {} linhas em {} ms",
+            days.size(), rows, (System.nanoTime() - started) / 1_000_000);
+        return rows;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private record DataKey(LocalDate day, short dataTypeId, int sourceLocationId) {
+    }
+
+    private record EnvironmentKey(LocalDate day, String scannerVersion, String wpVersion, String phpVersion) {
+    }
+}
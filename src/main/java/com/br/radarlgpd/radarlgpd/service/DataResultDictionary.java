@@ -0,0 +1,119 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.entity.DataTypeEntity;
+import com.br.radarlgpd.radarlgpd.entity.SourceLocationEntity;
+import com.br.radarlgpd.radarlgpd.repository.DictionaryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache em memória (intern) dos IDs de data_types e source_locations usados na ingestão.
+ *
+ * O conjunto de textos distintos é pequeno e estável, então praticamente toda resolução
+ * sai do cache; só textos nunca vistos por este nó vão ao {@link DictionaryRepository}
+ * (que os insere se ainda não existirem).
+ *
+ * IDs resolvidos dentro de transação só entram no cache após o commit: um ID de texto
+ * inserido em transação que sofreu rollback não existe no banco.
+ *
+ * Métricas: cache.gets{cache=data-types|source-locations,result=hit|miss}, cache.size.
+ */
+@Component
+public class DataResultDictionary {
+
+    private final DictionaryRepository dictionaryRepository;
+    private final Cache<String, Integer> dataTypeIds;
+    private final Cache<String, Integer> sourceLocationIds;
+
+    public DataResultDictionary(
+        DictionaryRepository dictionaryRepository,
+        MeterRegistry meterRegistry,
+        @Value("${radarlgpd.data-dictionary.maximum-size:100000}") long maximumSize
+    ) {
+        this.dictionaryRepository = dictionaryRepository;
+        this.dataTypeIds = newCache(meterRegistry, "data-types", maximumSize);
+        this.sourceLocationIds = newCache(meterRegistry, "source-locations", maximumSize);
+    }
+
+    /**
+     * Resolve os IDs de tipo e localização de todos os resultados informados
+     * (no máximo duas idas ao banco por dicionário, e só para textos fora do cache).
+     */
+    public Ids resolve(Collection<DataResult> results) {
+        Set<String> dataTypes = new HashSet<>();
+        Set<String> sourceLocations = new HashSet<>();
+        for (DataResult result : results) {
+            dataTypes.add(result.getDataType());
+            sourceLocations.add(result.getSourceLocation());
+        }
+
+        return new Ids(
+            resolve(dataTypeIds, DataTypeEntity.TABLE, dataTypes),
+            resolve(sourceLocationIds, SourceLocationEntity.TABLE, sourceLocations));
+    }
+
+    private Map<String, Integer> resolve(Cache<String, Integer> cache, String table, Set<String> names) {
+        Map<String, Integer> ids = new HashMap<>(cache.getAllPresent(names));
+        if (ids.size() == names.size()) {
+            return ids;
+        }
+
+        Set<String> missing = new HashSet<>(names);
+        missing.removeAll(ids.keySet());
+
+        Map<String, Integer> loaded = dictionaryRepository.resolveIds(table, missing);
+        ids.putAll(loaded);
+        rememberAfterCommit(cache, loaded);
+        return ids;
+    }
+
+    private void rememberAfterCommit(Cache<String, Integer> cache, Map<String, Integer> loaded) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.putAll(loaded);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.putAll(loaded);
+            }
+        });
+    }
+
+    private static Cache<String, Integer> newCache(MeterRegistry meterRegistry, String name, long maximumSize) {
+        Cache<String, Integer> cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+
+    /**
+     * IDs resolvidos para um conjunto de resultados.
+     */
+    public record Ids(Map<String, Integer> dataTypes, Map<String, Integer> sourceLocations) {
+
+        public short dataTypeId(String dataType) {
+            return dataTypes.get(dataType).shortValue();
+        }
+
+        public int sourceLocationId(String sourceLocation) {
+            return sourceLocations.get(sourceLocation);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.repository.InstanceActivityRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceActivityRepository.ActivityDelta;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acumula a atividade das instâncias em memória e grava periodicamente em lote.
+ *
+ * Cada scan apenas soma no delta pendente da instância; o flush periódico aplica todos
+ * os deltas com um UPDATE set-based. Scans concorrentes da mesma instância deixam de
+ * disputar o lock da mesma linha e não há read-modify-write (sem incrementos perdidos).
+ *
+ * O acúmulo usa ConcurrentHashMap.compute (lock por bin, ou seja, striping natural):
+ * como o flush remove a entrada sob o mesmo lock, nenhum incremento cai entre a leitura
+ * e a remoção. No shutdown gracioso os deltas pendentes são gravados antes de liberar o banco.
+ *
+ * A ingestão registra o delta só após o commit ({@link #recordAfterCommit}), como o
+ * {@link RecentScanIdFilter}: um scan desfeito por rollback não conta atividade. Um delta
+ * cujo UPDATE não encontra a instância (removida) é descartado e contado em
+ * radarlgpd.instance_activity.unmatched; reenfileirá-lo nunca teria efeito.
+ *
+ * O flush grava todos os deltas em uma única transação, em ordem de instance_id: se um
+ * statement falha, nada foi gravado e reenfileirar tudo não soma scans duas vezes; e flushes
+ * de nós diferentes travam as mesmas linhas na mesma ordem (sem deadlock), como no
+ * {@link DailyRollupAccumulator}.
+ */
+@Component
+@Slf4j
+public class InstanceActivityAccumulator {
+
+    private final InstanceActivityRepository instanceActivityRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<Long, PendingActivity> pending = new ConcurrentHashMap<>();
+    private final Counter unmatched;
+
+    public InstanceActivityAccumulator(
+        InstanceActivityRepository instanceActivityRepository,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry
+    ) {
+        this.instanceActivityRepository = instanceActivityRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.unmatched = Counter.builder("radarlgpd.instance_activity.unmatched")
+            .description("Deltas de atividade descartados por não encontrar a instância")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Registra scans de uma instância para o próximo flush, após o commit da transação
+     * corrente (sem transação ativa, registra na hora).
+     */
+    public void recordAfterCommit(Long instanceId, int scans, OffsetDateTime seenAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(instanceId, scans, seenAt);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(instanceId, scans, seenAt);
+            }
+        });
+    }
+
+    /**
+     * Registra scans de uma instância para o próximo flush.
+     */
+    public void record(Long instanceId, int scans, OffsetDateTime seenAt) {
+        pending.compute(instanceId, (id, activity) -> {
+            PendingActivity current = activity != null ? activity : new PendingActivity();
+            current.add(scans, seenAt);
+            return current;
+        });
+    }
+
+    /**
+     * Grava todos os deltas pendentes. Em caso de falha, os deltas voltam para o acumulador
+     * e são tentados de novo no próximo ciclo.
+     */
+    @Scheduled(
+        fixedDelayString = "${radarlgpd.instance-activity.flush-interval-ms:5000}",
+        initialDelayString = "${radarlgpd.instance-activity.flush-interval-ms:5000}"
+    )
+    public void flush() {
+        List<ActivityDelta> deltas = drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            Set<Long> updated = new HashSet<>(
+                transactionTemplate.execute(status -> instanceActivityRepository.applyDeltas(deltas)));
+            log.debug("Atividade de instâncias gravada - {} deltas, {} instâncias atualizadas",
+                deltas.size(), updated.size());
+
+            if (updated.size() < deltas.size()) {
+                deltas.stream()
+                    .filter(delta -> !updated.contains(delta.instanceId()))
+                    .forEach(delta -> {
+                        unmatched.increment();
+                        log.warn("Instância não encontrada ao gravar atividade - instance_id: {}, scans: {}",
+                            delta.instanceId(), delta.scans());
+                    });
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao gravar atividade de {} instâncias, reenfileirando para o próximo ciclo",
+                deltas.size(), e);
+            deltas.forEach(delta -> pending.compute(delta.instanceId(), (id, activity) -> {
+                PendingActivity current = activity != null ? activity : new PendingActivity();
+                current.add(delta.scans(), delta.lastSeenAt());
+                return current;
+            }));
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+
+        if (!pending.isEmpty()) {
+            log.error("Atividade de {} instâncias não gravada no shutdown", pending.size());
+        }
+    }
+
+    private List<ActivityDelta> drain() {
+        List<ActivityDelta> deltas = new ArrayList<>(pending.size());
+        for (Long instanceId : pending.keySet()) {
+            PendingActivity activity = pending.remove(instanceId);
+            if (activity != null) {
+                deltas.add(new ActivityDelta(instanceId, activity.scans, activity.lastSeenAt));
+            }
+        }
+        deltas.sort(Comparator.comparingLong(ActivityDelta::instanceId));
+        return deltas;
+    }
+
+    /**
+     * Delta mutável; só é alterado dentro de pending.compute (sob o lock do bin).
+     */
+    private static final class PendingActivity {
+
+        private long scans;
+        private OffsetDateTime lastSeenAt;
+
+        private void add(long moreScans, OffsetDateTime seenAt) {
+            scans += moreScans;
+            if (lastSeenAt == null || seenAt.isAfter(lastSeenAt)) {
+                lastSeenAt = seenAt;
+            }
+        }
+    }
+}
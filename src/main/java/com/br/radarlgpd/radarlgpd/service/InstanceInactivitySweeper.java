@@ -0,0 +1,118 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.repository.InstanceActivityRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceActivityRepository.IdRange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Varredura que marca como 'inactive' as instâncias sem telemetria há mais de
+ * radarlgpd.instance-sweep.inactive-after.
+ *
+ * Percorre instances em faixas de radarlgpd.instance-sweep.range-size IDs, com um UPDATE
+ * set-based por faixa (sem carregar entidades). Cada faixa lê só o seu trecho do índice da
+ * PK e trava apenas as linhas que muda, pulando as que a ingestão está atualizando.
+ *
+ * Antes de cada faixa, a atividade acumulada em memória ({@link InstanceActivityAccumulator})
+ * é gravada: um scan recente ainda não gravado não deixa a instância parecer inativa.
+ *
+ * Tokens de instâncias inativas deixam de ser aceitos (RF-API-2.1): as instâncias marcadas
+ * saem do {@link InstanceTokenCache} e entram na {@link InstanceRevocationList} deste nó;
+ * os demais nós as veem ao expirar o cache / recarregar a lista.
+ *
+ * Métrica: radarlgpd.instance_sweep.inactivated.
+ */
+@Service
+@Slf4j
+public class InstanceInactivitySweeper {
+
+    private final InstanceActivityRepository instanceActivityRepository;
+    private final InstanceActivityAccumulator instanceActivityAccumulator;
+    private final InstanceTokenCache instanceTokenCache;
+    private final InstanceRevocationList instanceRevocationList;
+    private final boolean enabled;
+    private final Duration inactiveAfter;
+    private final int rangeSize;
+
+    private final Counter inactivated;
+
+    public InstanceInactivitySweeper(
+        InstanceActivityRepository instanceActivityRepository,
+        InstanceActivityAccumulator instanceActivityAccumulator,
+        InstanceTokenCache instanceTokenCache,
+        InstanceRevocationList instanceRevocationList,
+        MeterRegistry meterRegistry,
+        @Value("${radarlgpd.instance-sweep.enabled:true}") boolean enabled,
+        @Value("${radarlgpd.instance-sweep.inactive-after:P180D}") Duration inactiveAfter,
+        @Value("${radarlgpd.instance-sweep.range-size:10000}") int rangeSize
+    ) {
+        this.instanceActivityRepository = instanceActivityRepository;
+        this.instanceActivityAccumulator = instanceActivityAccumulator;
+        this.instanceTokenCache = instanceTokenCache;
+        this.instanceRevocationList = instanceRevocationList;
+        this.enabled = enabled;
+        this.inactiveAfter = inactiveAfter;
+        this.rangeSize = rangeSize;
+
+        this.inactivated = Counter.builder("radarlgpd.instance_sweep.inactivated")
+            .description("Instâncias marcadas como inativas por falta de telemetria")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${radarlgpd.instance-sweep.cron:0 45 3 * * *}", zone = "UTC")
+    public void scheduledSweep() {
+        if (!enabled) {
+            return;
+        }
+        sweep(OffsetDateTime.now(ZoneOffset.UTC).minus(inactiveAfter));
+    }
+
+    /**
+     * Marca como inativas as instâncias ativas sem atividade desde o corte.
+     *
+     * @return quantidade de instâncias marcadas
+     */
+    public long sweep(OffsetDateTime cutoff) {
+        long started = System.nanoTime();
+        IdRange ids = instanceActivityRepository.idRange();
+        long total = 0;
+
+        for (long from = ids.min(); from <= ids.max(); from += rangeSize) {
+            // Sem delta pendente, não há scan aceito que o UPDATE da faixa deixe de ver
+            instanceActivityAccumulator.flush();
+            List<Long> marked = instanceActivityRepository.markInactive(from, from + rangeSize, cutoff);
+            if (!marked.isEmpty()) {
+                revoke(marked);
+                inactivated.increment(marked.size());
+                total += marked.size();
+            }
+        }
+
+        if (total > 0) {
+            log.info("Instâncias marcadas como inativas - {} sem telemetria desde {}, {} ms",
+                total, cutoff, (System.nanoTime() - started) / 1_000_000);
+        }
+        return total;
+    }
+
+    /**
+     * O UPDATE da faixa já foi confirmado (autocommit): uma validação que ler o banco daqui
+     * em diante vê o status novo.
+     */
+    private void revoke(List<Long> instanceIds) {
+        Set<Long> marked = new HashSet<>(instanceIds);
+        instanceTokenCache.invalidateIf(view -> marked.contains(view.id()));
+        marked.forEach(id -> instanceRevocationList.revoke(id, "inactive"));
+    }
+}
@@ -0,0 +1,149 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.RevokedInstanceView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lista de revogação em memória para tokens assinados: instance_id -> status não ativo.
+ *
+ * Tokens assinados são validados sem ir ao banco, então o ban/inatividade de uma instância
+ * só tem efeito através desta lista. Só é mantida com a chave HMAC configurada.
+ *
+ * A lista cobre só as instâncias criadas dentro de uma janela: radarlgpd.instance-token.max-age
+ * ou radarlgpd.instance-token.revocation-window, o que for menor. Em memória fica no máximo uma
+ * entrada por instância não ativa criada na janela (mais as revogadas por este nó nesse
+ * período); entradas que saem da janela são descartadas a cada recarga. Tokens emitidos antes
+ * da janela (o token é emitido no registro) têm o status lido do banco pela PK, a cada uso.
+ *
+ * A carga inicial roda no agendador, logo no startup; até ela terminar, o status é lido
+ * do banco pela PK. Depois, a cada radarlgpd.instance-token.revocation-refresh-ms, só as
+ * instâncias com status_changed_at recente são lidas (mudanças feitas por outros nós); os
+ * fluxos deste nó que mudam status atualizam a lista na hora.
+ *
+ * Instâncias nunca voltam para 'active': dentro da janela uma revogação não é desfeita,
+ * nem por uma recarga concorrente com {@link #revoke}.
+ */
+@Component
+@Slf4j
+public class InstanceRevocationList {
+
+    private static final String ACTIVE = "active";
+    private static final String BANNED = "banned";
+
+    /**
+     * Releitura de mudanças anteriores à última recarga: status_changed_at é o horário do
+     * início da transação (ou do relógio do nó que baniu), e o commit pode vir depois.
+     * Também é a folga da janela entre a criação da instância e a emissão do token.
+     */
+    private static final Duration OVERLAP = Duration.ofMinutes(5);
+
+    private final InstanceRepository instanceRepository;
+    private final SignedInstanceTokens signedInstanceTokens;
+    private final Duration window;
+
+    private final ConcurrentHashMap<Long, Revocation> revoked = new ConcurrentHashMap<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile boolean loaded;
+    private OffsetDateTime changedSince;
+
+    public InstanceRevocationList(
+        InstanceRepository instanceRepository,
+        SignedInstanceTokens signedInstanceTokens,
+        @Value("${radarlgpd.instance-token.revocation-window:P90D}") Duration revocationWindow
+    ) {
+        this.instanceRepository = instanceRepository;
+        this.signedInstanceTokens = signedInstanceTokens;
+        Duration maxAge = signedInstanceTokens.getMaxAge();
+        this.window = maxAge.isZero() || maxAge.compareTo(revocationWindow) > 0 ? revocationWindow : maxAge;
+    }
+
+    /**
+     * Status efetivo da instância para fins de autenticação.
+     *
+     * @param issuedAt emissão do token; tokens anteriores à janela consultam o banco
+     * @return status de revogação ('banned'/'inactive') ou 'active' se não revogada
+     */
+    public String statusOf(long instanceId, Instant issuedAt) {
+        Revocation revocation = revoked.get(instanceId);
+        if (revocation != null) {
+            return revocation.status();
+        }
+        if (!loaded || issuedAt.isBefore(Instant.now().minus(window))) {
+            // Carga inicial em andamento ou instância fora da janela: consulta pontual pela PK
+            return instanceRepository.findStatusById(instanceId).orElse(ACTIVE);
+        }
+        return ACTIVE;
+    }
+
+    /**
+     * Revoga a instância imediatamente neste nó.
+     */
+    public void revoke(long instanceId, String status) {
+        // Criação desconhecida aqui: a entrada fica por uma janela inteira
+        add(instanceId, status, OffsetDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Carga inicial (no startup) e recargas incrementais. ReentrantLock em vez de
+     * synchronized: faz I/O no banco e não deve prender a carrier thread em virtual threads.
+     */
+    @Scheduled(
+        initialDelay = 0,
+        fixedDelayString = "${radarlgpd.instance-token.revocation-refresh-ms:60000}"
+    )
+    public void refresh() {
+        if (!signedInstanceTokens.isVerificationEnabled()) {
+            return;
+        }
+
+        refreshLock.lock();
+        try {
+            OffsetDateTime started = OffsetDateTime.now(ZoneOffset.UTC);
+            OffsetDateTime createdSince = started.minus(window).minus(OVERLAP);
+            List<RevokedInstanceView> changed = loaded
+                ? instanceRepository.findRevokedSince(changedSince, createdSince)
+                : instanceRepository.findRevoked(createdSince);
+
+            changed.forEach(view -> add(view.id(), view.status(), view.createdAt()));
+            revoked.values().removeIf(revocation -> revocation.createdAt().isBefore(createdSince));
+            changedSince = started.minus(OVERLAP);
+
+            if (!loaded) {
+                loaded = true;
+                log.info("Lista de revogação de tokens carregada - {} instâncias não ativas (janela de {})",
+                    revoked.size(), window);
+            } else {
+                log.debug("Lista de revogação de tokens atualizada - {} mudanças lidas, {} instâncias não ativas",
+                    changed.size(), revoked.size());
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * 'banned' prevalece sobre 'inactive' (uma leitura antiga não rebaixa um ban); a criação
+     * mais antiga conhecida decide quando a entrada sai da janela.
+     */
+    private void add(long instanceId, String status, OffsetDateTime createdAt) {
+        revoked.merge(instanceId, new Revocation(status, createdAt), (current, incoming) -> new Revocation(
+            BANNED.equals(current.status()) ? current.status() : incoming.status(),
+            current.createdAt().isBefore(incoming.createdAt()) ? current.createdAt() : incoming.createdAt()));
+    }
+
+    private record Revocation(String status, OffsetDateTime createdAt) {
+    }
+}
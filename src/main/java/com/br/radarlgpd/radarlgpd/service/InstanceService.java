@@ -1,13 +1,19 @@
 package com.br.radarlgpd.radarlgpd.service;
 
+import com.br.radarlgpd.radarlgpd.config.LayeredRateLimiter;
 import com.br.radarlgpd.radarlgpd.entity.Instance;
 import com.br.radarlgpd.radarlgpd.exception.InvalidInstanceTokenException;
+import com.br.radarlgpd.radarlgpd.exception.RateLimitExceededException;
 import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceTokenView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -23,17 +29,32 @@ import java.util.UUID;
 public class InstanceService {
 
     private final InstanceRepository instanceRepository;
+    private final InstanceTokenCache instanceTokenCache;
+    private final InstanceActivityAccumulator instanceActivityAccumulator;
+    private final SignedInstanceTokens signedInstanceTokens;
+    private final InstanceRevocationList instanceRevocationList;
+    private final LayeredRateLimiter rateLimiter;
 
     /**
-     * Valida um token de instância e retorna a instância correspondente.
+     * Se true, scan_count/last_seen_at são acumulados em memória e gravados em lote
+     * pelo {@link InstanceActivityAccumulator} (leitura logo após o scan pode estar defasada).
+     */
+    @Value("${radarlgpd.instance-activity.coalesce:false}")
+    private boolean coalesceActivity;
+
+    /**
+     * Valida um token de instância e retorna a projeção da instância correspondente.
      * Usado no Fluxo Autenticado (RF-API-2.1).
      * 
+     * Tokens assinados (rl1.*) são verificados só com HMAC + {@link InstanceRevocationList};
+     * tokens UUID passam pelo {@link InstanceTokenCache}: tokens válidos recentes não vão ao banco.
+     * 
      * @param token token recebido no header Authorization
-     * @return instância válida
+     * @return projeção (id, status) da instância válida
      * @throws InvalidInstanceTokenException se token inválido, inexistente ou banido
      */
     @Transactional(readOnly = true)
-    public Instance validateAndGetInstance(String token) {
+    public InstanceTokenView validateAndGetInstance(String token) {
         if (token == null || token.isBlank()) {
             throw new InvalidInstanceTokenException("Token de instância não informado");
         }
@@ -41,41 +62,73 @@ public class InstanceService {
         // Remove prefixo "Bearer " se presente
         String cleanToken = token.startsWith("Bearer ") ? token.substring(7).trim() : token;
 
-        Instance instance = instanceRepository.findByInstanceToken(cleanToken)
+        InstanceTokenView instance = resolveToken(cleanToken)
             .orElseThrow(() -> new InvalidInstanceTokenException(
                 "Token de instância não encontrado ou inválido"
             ));
 
         // Verificação de status (RF-API-2.1)
         if (instance.isBanned()) {
-            log.warn("Tentativa de uso de instância banida - instance_id: {}, site_id: {}", 
-                instance.getId(), instance.getSiteId());
+            log.warn("Tentativa de uso de instância banida - instance_id: {}", instance.id());
             throw new InvalidInstanceTokenException("Instância banida por comportamento suspeito");
         }
 
         if (!instance.isActive()) {
             log.warn("Tentativa de uso de instância inativa - instance_id: {}, status: {}", 
-                instance.getId(), instance.getStatus());
+                instance.id(), instance.status());
             throw new InvalidInstanceTokenException("Instância inativa ou desativada");
         }
 
-        log.debug("Token validado com sucesso - instance_id: {}, scan_count: {}", 
-            instance.getId(), instance.getScanCount());
+        log.debug("Token validado com sucesso - instance_id: {}", instance.id());
 
         return instance;
     }
 
+    /**
+     * Variante de {@link #validateAndGetInstance(String)} que não lança exceção,
+     * para validar vários tokens dentro de uma mesma transação (envio em lote):
+     * uma exceção atravessando o método marcaria a transação corrente para rollback.
+     * 
+     * @param token token da instância (com ou sem prefixo "Bearer ")
+     * @return projeção da instância se o token é válido e a instância está ativa
+     */
+    @Transactional(readOnly = true)
+    public Optional<InstanceTokenView> findActiveInstance(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        String cleanToken = token.startsWith("Bearer ") ? token.substring(7).trim() : token;
+        return resolveToken(cleanToken).filter(InstanceTokenView::isActive);
+    }
+
+    private Optional<InstanceTokenView> resolveToken(String token) {
+        if (signedInstanceTokens.isSignedToken(token)) {
+            return signedInstanceTokens.verify(token).map(verified -> new InstanceTokenView(
+                verified.instanceId(), instanceRevocationList.statusOf(verified.instanceId(), verified.issuedAt())));
+        }
+
+        return instanceTokenCache.get(token, instanceRepository::findTokenViewByInstanceToken);
+    }
+
     /**
      * Registra uma nova instância gerando um token único.
      * Usado no Fluxo de Registro (RF-API-3.1).
      * 
+     * Com radarlgpd.instance-token.format=signed, o token devolvido ao plugin é assinado
+     * (contém o instance_id) e a coluna instance_token guarda apenas um UUID interno.
+     * 
      * @param siteId hash SHA256 do domínio recebido do payload
      * @param scannerVersion versão do plugin no momento do registro
-     * @return nova instância criada e persistida
+     * @return ID da nova instância e o token a devolver ao plugin
+     * @throws RateLimitExceededException se o site passou do limite (nada é registrado)
      */
     @Transactional
-    public Instance registerNewInstance(String siteId, String scannerVersion) {
-        String instanceToken = generateUniqueToken();
+    public RegisteredInstance registerNewInstance(String siteId, String scannerVersion) {
+        // No formato assinado o UUID nunca é exposto; o índice único basta contra colisão
+        String instanceToken = signedInstanceTokens.isIssuingEnabled()
+            ? UUID.randomUUID().toString()
+            : generateUniqueToken();
 
         Instance instance = Instance.builder()
             .instanceToken(instanceToken)
@@ -87,25 +140,46 @@ public class InstanceService {
 
         instance = instanceRepository.save(instance);
 
+        // Rate limit por site depois do registro: acima do limite, a exceção desfaz o registro
+        rateLimiter.consumeSiteId(siteId);
+
         log.info("Nova instância registrada - instance_id: {}, site_id: {}, scanner_version: {}", 
             instance.getId(), siteId, scannerVersion);
 
-        return instance;
+        String issuedToken = signedInstanceTokens.isIssuingEnabled()
+            ? signedInstanceTokens.issue(instance.getId())
+            : instance.getInstanceToken();
+
+        return new RegisteredInstance(instance.getId(), issuedToken);
     }
 
     /**
-     * Atualiza as métricas de atividade de uma instância.
-     * Incrementa contador de scans e atualiza timestamp de última atividade.
+     * Atualiza as métricas de atividade de uma instância a partir do seu ID,
+     * sem carregar a entidade: incrementa o contador de scans e atualiza last_seen_at.
+     * 
+     * Com radarlgpd.instance-activity.coalesce=true o delta é acumulado em memória após o
+     * commit da transação corrente e gravado no próximo flush; caso contrário é aplicado com
+     * um único UPDATE na transação corrente.
      * 
-     * @param instance instância a atualizar
+     * @param instanceId ID da instância
+     * @param scans quantidade de scans persistidos para a instância
      */
     @Transactional
-    public void recordScanActivity(Instance instance) {
-        instance.recordScan();
-        instanceRepository.save(instance);
+    public void recordScanActivity(Long instanceId, Integer scans) {
+        OffsetDateTime now = OffsetDateTime.now();
 
-        log.debug("Atividade registrada - instance_id: {}, total_scans: {}", 
-            instance.getId(), instance.getScanCount());
+        if (coalesceActivity) {
+            instanceActivityAccumulator.recordAfterCommit(instanceId, scans, now);
+            return;
+        }
+
+        int updated = instanceRepository.incrementScanActivity(instanceId, scans, now);
+
+        if (updated == 0) {
+            log.warn("Instância não encontrada ao registrar atividade - instance_id: {}", instanceId);
+        } else {
+            log.debug("Atividade registrada - instance_id: {}, novos_scans: {}", instanceId, scans);
+        }
     }
 
     /**
@@ -146,7 +220,10 @@ public class InstanceService {
             .orElseThrow(() -> new IllegalArgumentException("Instância não encontrada: " + instanceId));
 
         instance.setStatus("banned");
+        instance.setStatusChangedAt(OffsetDateTime.now());
         instanceRepository.save(instance);
+        instanceTokenCache.invalidate(instance.getInstanceToken());
+        instanceRevocationList.revoke(instanceId, "banned");
 
         log.warn("Instância banida - instance_id: {}, site_id: {}", 
             instanceId, instance.getSiteId());
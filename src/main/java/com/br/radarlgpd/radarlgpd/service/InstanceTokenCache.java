@@ -0,0 +1,112 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.repository.InstanceTokenView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache em processo do mapeamento instance_token -> (instance_id, status).
+ *
+ * Todo scan autenticado valida o token antes de qualquer trabalho, e esse mapeamento
+ * quase nunca muda. Guarda apenas a projeção imutável {@link InstanceTokenView}, nunca a
+ * entidade gerenciada. Tokens inexistentes não são cacheados (evita que tokens aleatórios
+ * ocupem o cache).
+ *
+ * Mudanças de status devem chamar {@link #invalidate}/{@link #invalidateIf}; o TTL limita
+ * a defasagem entre nós diferentes da API.
+ *
+ * Métricas: cache.gets{cache=instance-tokens,result=hit|miss}, cache.size, cache.evictions.
+ */
+@Component
+public class InstanceTokenCache {
+
+    private static final String CACHE_NAME = "instance-tokens";
+
+    private final boolean enabled;
+    private final Cache<String, InstanceTokenView> tokens;
+
+    public InstanceTokenCache(
+        MeterRegistry meterRegistry,
+        @Value("${radarlgpd.instance-token-cache.enabled:true}") boolean enabled,
+        @Value("${radarlgpd.instance-token-cache.maximum-size:100000}") long maximumSize,
+        @Value("${radarlgpd.instance-token-cache.ttl:PT5M}") Duration ttl
+    ) {
+        this.enabled = enabled;
+        this.tokens = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, CACHE_NAME);
+    }
+
+    /**
+     * Obtém a projeção do token, consultando o loader apenas em cache miss.
+     *
+     * O loader roda fora do Caffeine (getIfPresent + put) e não dentro de get(key, loader):
+     * este executa a função sob o lock do bin do ConcurrentHashMap, o que prenderia a
+     * carrier thread de uma virtual thread durante a consulta ao banco. Misses concorrentes
+     * do mesmo token podem consultar o banco mais de uma vez, o que é inofensivo.
+     *
+     * @param token token da instância (sem prefixo Bearer)
+     * @param loader consulta ao banco
+     * @return projeção da instância, ou vazio se o token não existe
+     */
+    public Optional<InstanceTokenView> get(String token, Function<String, Optional<InstanceTokenView>> loader) {
+        if (!enabled) {
+            return loader.apply(token);
+        }
+
+        InstanceTokenView cached = tokens.getIfPresent(token);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<InstanceTokenView> loaded = loader.apply(token);
+        loaded.ifPresent(view -> tokens.put(token, view));
+        return loaded;
+    }
+
+    /**
+     * Remove o token do cache imediatamente e de novo após o commit da transação corrente,
+     * para que uma leitura concorrente do status antigo não volte a popular o cache.
+     */
+    public void invalidate(String token) {
+        tokens.invalidate(token);
+        afterCommit(() -> tokens.invalidate(token));
+    }
+
+    /**
+     * Remove todas as entradas cujas instâncias satisfazem o predicado
+     * (ex: faixa de IDs marcada como inativa). Custo O(tamanho do cache).
+     */
+    public void invalidateIf(Predicate<InstanceTokenView> predicate) {
+        tokens.asMap().values().removeIf(predicate);
+        afterCommit(() -> tokens.asMap().values().removeIf(predicate));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,185 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.repository.PartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Manutenção das partições mensais de scan_results e data_results.
+ *
+ * - Criação: garante as partições do mês corrente e dos próximos
+ *   radarlgpd.partitions.months-ahead meses (um INSERT sem partição para o seu
+ *   received_at falharia).
+ * - Retenção: partições anteriores a radarlgpd.partitions.retention-months meses são
+ *   desanexadas e removidas inteiras (sem DELETE de linhas nem VACUUM); os scan_ids
+ *   correspondentes saem de scan_ids. Os rollups diários não são afetados, então
+ *   /v1/stats continua cobrindo o período. Não rodar o rebuild de rollups para dias
+ *   já descartados: o rebuild recalcula a partir dos dados brutos.
+ *
+ * Roda no startup e diariamente (radarlgpd.partitions.cron). Com vários nós, um advisory
+ * lock faz só um deles executar; os demais pulam a rodada.
+ */
+@Service
+@Slf4j
+public class PartitionMaintenanceService {
+
+    public static final String SCAN_RESULTS = "scan_results";
+    public static final String DATA_RESULTS = "data_results";
+
+    /**
+     * Ordem de criação (tabela referenciada primeiro); a retenção usa a ordem inversa,
+     * já que data_results tem FK para scan_results.
+     */
+    private static final List<String> TABLES = List.of(SCAN_RESULTS, DATA_RESULTS);
+
+    private static final long MAINTENANCE_LOCK_KEY = 0x5241_4441_5250_4152L;
+    private static final int SCAN_ID_DELETE_BATCH = 10_000;
+
+    private final PartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final long lockTimeoutMs;
+
+    public PartitionMaintenanceService(
+        PartitionRepository partitionRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${radarlgpd.partitions.enabled:true}") boolean enabled,
+        @Value("${radarlgpd.partitions.months-ahead:2}") int monthsAhead,
+        @Value("${radarlgpd.partitions.retention-months:12}") int retentionMonths,
+        @Value("${radarlgpd.partitions.lock-timeout-ms:5000}") long lockTimeoutMs
+    ) {
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.lockTimeoutMs = lockTimeoutMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${radarlgpd.partitions.cron:0 15 3 * * *}", zone = "UTC")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        if (!partitionRepository.isPartitioned(SCAN_RESULTS)) {
+            log.info("scan_results não é particionada - manutenção de partições ignorada "
+                + "(aplicar scripts/migrations/004-monthly-partitions.sql)");
+            return;
+        }
+
+        try {
+            maintain(YearMonth.now(ZoneOffset.UTC));
+        } catch (RuntimeException e) {
+            // A próxima rodada tenta de novo; as partições futuras dão folga de meses
+            log.error("Falha na manutenção de partições: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Executa a manutenção tendo {@code currentMonth} como mês corrente.
+     */
+    public void maintain(YearMonth currentMonth) {
+        createPartitions(currentMonth);
+        if (retentionMonths > 0) {
+            dropExpiredPartitions(currentMonth.minusMonths(retentionMonths));
+        }
+    }
+
+    private void createPartitions(YearMonth currentMonth) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!lockForMaintenance()) {
+                return;
+            }
+            for (String table : TABLES) {
+                for (int i = 0; i <= monthsAhead; i++) {
+                    YearMonth month = currentMonth.plusMonths(i);
+                    if (partitionRepository.createMonthlyPartition(table, month)) {
+                        log.info("Partição criada: {}", PartitionRepository.partitionName(table, month));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Remove as partições de meses anteriores a {@code firstRetainedMonth}.
+     * Cada mês é removido em uma transação curta (tabela pai travada só pelo DDL).
+     */
+    private void dropExpiredPartitions(YearMonth firstRetainedMonth) {
+        Map<String, Map<YearMonth, String>> partitionsByTable = new HashMap<>();
+        Set<YearMonth> expiredMonths = new TreeSet<>();
+        for (String table : TABLES) {
+            Map<YearMonth, String> partitions = partitionRepository.findMonthlyPartitions(table);
+            partitions.keySet().removeIf(month -> !month.isBefore(firstRetainedMonth));
+            partitionsByTable.put(table, partitions);
+            expiredMonths.addAll(partitions.keySet());
+        }
+        if (expiredMonths.isEmpty()) {
+            return;
+        }
+
+        for (YearMonth month : expiredMonths) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!lockForMaintenance()) {
+                    return;
+                }
+                for (String table : TABLES.reversed()) {
+                    String partition = partitionsByTable.get(table).get(month);
+                    if (partition != null) {
+                        partitionRepository.detachAndDrop(table, partition);
+                        log.info("Partição removida pela retenção: {}", partition);
+                    }
+                }
+            });
+        }
+
+        deleteExpiredScanIds(firstRetainedMonth);
+    }
+
+    /**
+     * scan_ids não é particionada: remove em lotes pequenos para não segurar locks
+     * nem gerar uma transação gigante.
+     */
+    private void deleteExpiredScanIds(YearMonth firstRetainedMonth) {
+        OffsetDateTime cutoff = firstRetainedMonth.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+        long deleted = 0;
+        int batch;
+        do {
+            batch = partitionRepository.deleteScanIdsBefore(cutoff, SCAN_ID_DELETE_BATCH);
+            deleted += batch;
+        } while (batch == SCAN_ID_DELETE_BATCH);
+
+        log.info("Retenção: {} scan_ids anteriores a {} removidos", deleted, firstRetainedMonth);
+    }
+
+    private boolean lockForMaintenance() {
+        if (!partitionRepository.tryMaintenanceLock(MAINTENANCE_LOCK_KEY)) {
+            log.debug("Manutenção de partições em andamento em outro nó - rodada ignorada");
+            return false;
+        }
+        partitionRepository.setLocalLockTimeout(lockTimeoutMs);
+        return true;
+    }
+}
@@ -0,0 +1,15 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Scan já validado aguardando persistência no modo de ingestão assíncrona.
+ *
+ * @param request dados do scan (já validados pelo controller)
+ * @param instanceId ID da instância dona do scan
+ * @param receivedAt momento em que a API recebeu o scan (não o momento da escrita)
+ */
+public record QueuedScan(ScanResultRequest request, Long instanceId, OffsetDateTime receivedAt) {
+}
@@ -0,0 +1,46 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.config.RateLimitConfig;
+import com.br.radarlgpd.radarlgpd.repository.RateLimitBucketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Remove de rate_limit_buckets (radarlgpd.rate-limit.engine=postgres) os buckets sem
+ * atualização há mais de um período. Exato: com refillIntervally, um bucket parado por um
+ * período inteiro já voltou à capacidade, igual a um bucket novo.
+ *
+ * Remove em lotes; vários nós podem rodar ao mesmo tempo (SKIP LOCKED).
+ */
+@Service
+@ConditionalOnProperty(name = "radarlgpd.rate-limit.engine", havingValue = "postgres")
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitBucketSweeper {
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private final RateLimitBucketRepository bucketRepository;
+
+    @Scheduled(
+        initialDelayString = "${radarlgpd.rate-limit.distributed.cleanup-interval-ms:600000}",
+        fixedDelayString = "${radarlgpd.rate-limit.distributed.cleanup-interval-ms:600000}"
+    )
+    public void removeIdleBuckets() {
+        long started = System.nanoTime();
+        long total = 0;
+        int removed;
+        do {
+            removed = bucketRepository.deleteIdle(RateLimitConfig.PERIOD, BATCH_SIZE);
+            total += removed;
+        } while (removed == BATCH_SIZE);
+
+        if (total > 0) {
+            log.info("Buckets de rate limit ociosos removidos - {} em {} ms",
+                total, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Filtro em memória de scan_ids aceitos recentemente.
+ *
+ * Plugins fazem retry agressivo após timeout, então boa parte dos scans duplicados chega
+ * poucos minutos depois do original. Um scan_id presente no filtro é duplicado com certeza
+ * e é descartado sem nenhuma query. Um scan_id ausente segue para o INSERT ... ON CONFLICT,
+ * que continua sendo a fonte da verdade (o filtro é local ao nó e limitado em tamanho/tempo).
+ *
+ * Usa um conjunto exato (Caffeine) e não um Bloom filter: um falso positivo descartaria
+ * silenciosamente um scan novo. A chave é o scan_id em minúsculas ({@link #normalize}), a
+ * mesma forma gravada em scan_ids pela ingestão: o filtro e a PK concordam sobre o que é
+ * duplicado (UUIDs não diferenciam maiúsculas). O erro possível é o inverso (duplicado não
+ * detectado pelo filtro), medido em radarlgpd.scan_id_filter.missed_duplicates.
+ *
+ * Métricas: cache.gets{cache=recent-scan-ids,result=hit|miss} (taxa de acerto),
+ * cache.size, cache.evictions e radarlgpd.scan_id_filter.missed_duplicates.
+ */
+@Component
+@Slf4j
+public class RecentScanIdFilter {
+
+    private static final String CACHE_NAME = "recent-scan-ids";
+
+    private final boolean enabled;
+    private final Cache<String, Boolean> recentScanIds;
+    private final Counter missedDuplicates;
+
+    public RecentScanIdFilter(
+        MeterRegistry meterRegistry,
+        @Value("${radarlgpd.scan-id-filter.enabled:true}") boolean enabled,
+        @Value("${radarlgpd.scan-id-filter.maximum-size:200000}") long maximumSize,
+        @Value("${radarlgpd.scan-id-filter.ttl:PT6H}") Duration ttl
+    ) {
+        this.enabled = enabled;
+        this.recentScanIds = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.missedDuplicates = Counter.builder("radarlgpd.scan_id_filter.missed_duplicates")
+            .description("Scans duplicados que passaram pelo filtro e foram barrados pelo ON CONFLICT")
+            .register(meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, recentScanIds, CACHE_NAME);
+    }
+
+    /**
+     * Forma canônica do scan_id (minúsculas), usada no filtro e na persistência.
+     */
+    public static String normalize(String scanId) {
+        return scanId.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Verifica se o scan_id foi aceito recentemente por este nó.
+     *
+     * @return true se é duplicado com certeza; false se desconhecido (precisa consultar o banco)
+     */
+    public boolean isRecentlySeen(String scanId) {
+        if (!enabled) {
+            return false;
+        }
+        return recentScanIds.getIfPresent(normalize(scanId)) != null;
+    }
+
+    /**
+     * Registra um scan_id aceito.
+     */
+    public void markAccepted(String scanId) {
+        if (enabled) {
+            rememberAfterCommit(normalize(scanId));
+        }
+    }
+
+    /**
+     * Registra um duplicado que o filtro não conhecia (detectado pelo ON CONFLICT).
+     */
+    public void markMissedDuplicate(String scanId) {
+        if (!enabled) {
+            return;
+        }
+
+        missedDuplicates.increment();
+        rememberAfterCommit(normalize(scanId));
+        log.debug("Duplicado não detectado pelo filtro em memória - scan_id: {}", scanId);
+    }
+
+    /**
+     * Dentro de transação, o scan_id só entra no filtro após o commit: se a transação
+     * sofrer rollback, o retry do plugin não pode ser tratado como duplicado.
+     */
+    private void rememberAfterCommit(String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentScanIds.put(key, Boolean.TRUE);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentScanIds.put(key, Boolean.TRUE);
+            }
+        });
+    }
+}
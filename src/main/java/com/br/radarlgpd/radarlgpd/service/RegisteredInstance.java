@@ -0,0 +1,10 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+/**
+ * Resultado do registro de uma instância (RF-API-3.1).
+ *
+ * @param id ID da instância criada
+ * @param instanceToken token a devolver ao plugin (UUID ou assinado, conforme radarlgpd.instance-token.format)
+ */
+public record RegisteredInstance(Long id, String instanceToken) {
+}
@@ -0,0 +1,169 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.config.LayeredRateLimiter;
+import com.br.radarlgpd.radarlgpd.config.RateLimitKey;
+import com.br.radarlgpd.radarlgpd.config.RateLimitLayer;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchItem;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchItemResult;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchResponse;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.repository.InstanceTokenView;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service para o envio em lote de scans (POST /v1/telemetry/scan-results:batch).
+ *
+ * Cada item é validado de forma independente (schema, consentimento, rate limit da instância,
+ * token da instância e rate limit do site); itens inválidos são rejeitados sem afetar os demais. Os itens aceitos são persistidos
+ * juntos via {@link ScanResultService#processBatch(List)}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScanBatchService {
+
+    private final ScanResultService scanResultService;
+    private final InstanceService instanceService;
+    private final Validator validator;
+    private final LayeredRateLimiter rateLimiter;
+
+    /**
+     * Valida e persiste os itens do lote em uma única transação.
+     *
+     * @param items itens na ordem recebida
+     * @return totais e resultado de cada item, na mesma ordem
+     */
+    @Transactional
+    public ScanBatchResponse process(List<ScanBatchItem> items) {
+        ScanBatchItemResult[] results = new ScanBatchItemResult[items.size()];
+        List<Integer> positions = new ArrayList<>(items.size());
+        List<QueuedScan> accepted = new ArrayList<>(items.size());
+
+        // Tokens repetidos no lote (vários scans da mesma instância) são validados uma vez
+        Map<String, Optional<Long>> instanceByToken = new HashMap<>();
+        OffsetDateTime receivedAt = OffsetDateTime.now();
+
+        for (int i = 0; i < items.size(); i++) {
+            ScanBatchItem item = items.get(i);
+            ScanResultRequest scan = item == null ? null : item.getScan();
+            String scanId = scan == null ? null : scan.getScanId();
+
+            String rejection = validate(item);
+            if (rejection != null) {
+                results[i] = rejected(i, scanId, rejection);
+                continue;
+            }
+
+            // Token: antes da validação no banco, como no envio individual
+            if (rateLimiter.tryConsume(RateLimitLayer.INSTANCE_TOKEN, RateLimitKey.ofInstanceToken(item.getInstanceToken()), 1) < 0) {
+                results[i] = rejected(i, scanId, rateLimiter.exceededMessage(RateLimitLayer.INSTANCE_TOKEN));
+                continue;
+            }
+
+            Optional<Long> instanceId = instanceByToken.computeIfAbsent(item.getInstanceToken(), this::resolveInstance);
+            if (instanceId.isEmpty()) {
+                results[i] = rejected(i, scanId, "Token de instância inválido, expirado ou banido");
+                continue;
+            }
+
+            // Site: só com token válido (o siteId do corpo não autentica ninguém)
+            if (rateLimiter.tryConsume(RateLimitLayer.SITE_ID, RateLimitKey.ofSiteId(scan.getSiteId()), 1) < 0) {
+                results[i] = rejected(i, scanId, rateLimiter.exceededMessage(RateLimitLayer.SITE_ID));
+                continue;
+            }
+
+            positions.add(i);
+            accepted.add(new QueuedScan(scan, instanceId.get(), receivedAt));
+        }
+
+        boolean[] persisted = scanResultService.processBatch(accepted);
+
+        Map<Long, Integer> scansPerInstance = new HashMap<>();
+        for (int j = 0; j < accepted.size(); j++) {
+            QueuedScan queued = accepted.get(j);
+            int index = positions.get(j);
+            results[index] = ScanBatchItemResult.builder()
+                .index(index)
+                .scanId(queued.request().getScanId())
+                .status(persisted[j] ? ScanBatchItemResult.RECEIVED : ScanBatchItemResult.DUPLICATE)
+                .build();
+
+            if (persisted[j]) {
+                scansPerInstance.merge(queued.instanceId(), 1, Integer::sum);
+            }
+        }
+        scansPerInstance.forEach(instanceService::recordScanActivity);
+
+        return summarize(List.of(results));
+    }
+
+    /**
+     * @return motivo da rejeição, ou null se o item é válido
+     */
+    private String validate(ScanBatchItem item) {
+        if (item == null || item.getScan() == null) {
+            return "scan é obrigatório";
+        }
+        if (item.getInstanceToken() == null || item.getInstanceToken().isBlank()) {
+            return "instanceToken é obrigatório (registre a instância via /v1/telemetry/scan-result)";
+        }
+
+        Set<ConstraintViolation<ScanResultRequest>> violations = validator.validate(item.getScan());
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        }
+
+        // RF-API-1.1: Validação de Consentimento (LGPD Art. 7º)
+        if (!Boolean.TRUE.equals(item.getScan().getConsentGiven())) {
+            return "Consentimento não concedido. Dados não podem ser processados conforme LGPD Art. 7º";
+        }
+        return null;
+    }
+
+    private Optional<Long> resolveInstance(String token) {
+        return instanceService.findActiveInstance(token).map(InstanceTokenView::id);
+    }
+
+    private ScanBatchItemResult rejected(int index, String scanId, String message) {
+        return ScanBatchItemResult.builder()
+            .index(index)
+            .scanId(scanId)
+            .status(ScanBatchItemResult.REJECTED)
+            .message(message)
+            .build();
+    }
+
+    private ScanBatchResponse summarize(List<ScanBatchItemResult> results) {
+        Map<String, Long> totals = results.stream()
+            .collect(Collectors.groupingBy(ScanBatchItemResult::getStatus, Collectors.counting()));
+
+        log.info("Lote recebido - {} itens: {} recebidos, {} duplicados, {} rejeitados", results.size(),
+            totals.getOrDefault(ScanBatchItemResult.RECEIVED, 0L),
+            totals.getOrDefault(ScanBatchItemResult.DUPLICATE, 0L),
+            totals.getOrDefault(ScanBatchItemResult.REJECTED, 0L));
+
+        return ScanBatchResponse.builder()
+            .received(totals.getOrDefault(ScanBatchItemResult.RECEIVED, 0L).intValue())
+            .duplicate(totals.getOrDefault(ScanBatchItemResult.DUPLICATE, 0L).intValue())
+            .rejected(totals.getOrDefault(ScanBatchItemResult.REJECTED, 0L).intValue())
+            .results(results)
+            .build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.repository.CompactionRepository;
+import com.br.radarlgpd.radarlgpd.repository.CompactionRepository.ScanKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compactação (downsampling) de scans antigos.
+ *
+ * Scans recebidos antes de radarlgpd.compaction.min-age-days (dias UTC inteiros) são somados
+ * em daily_instance_rollups e apagados de scan_results/data_results, em lotes de
+ * radarlgpd.compaction.batch-size scans. Cada lote é uma transação curta: trava os scans
+ * (FOR UPDATE SKIP LOCKED), soma ao resumo e apaga. Os rollups globais (daily_data_rollups,
+ * daily_environment_rollups) e scan_ids não são tocados.
+ *
+ * Retomável: o lote é somado e apagado atomicamente, então um scan nunca é contado duas
+ * vezes e uma queda no meio só desfaz o lote corrente; a próxima rodada recomeça pelos
+ * scans que sobraram. O cursor keyset (received_at, id) evita que cada lote releia as
+ * tuplas mortas deixadas pelos anteriores.
+ *
+ * Métricas: radarlgpd.compaction.scans, radarlgpd.compaction.data_results,
+ * radarlgpd.compaction.batch (duração por lote) e radarlgpd.compaction.cursor
+ * (received_at em epoch seconds do último scan compactado).
+ */
+@Service
+@Slf4j
+public class ScanCompactionService {
+
+    private final CompactionRepository compactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int minAgeDays;
+    private final int batchSize;
+    private final long pauseMs;
+
+    private final Counter compactedScans;
+    private final Counter compactedDataResults;
+    private final Timer batchTimer;
+    private final AtomicLong cursorEpochSeconds = new AtomicLong();
+
+    public ScanCompactionService(
+        CompactionRepository compactionRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${radarlgpd.compaction.enabled:true}") boolean enabled,
+        @Value("${radarlgpd.compaction.min-age-days:90}") int minAgeDays,
+        @Value("${radarlgpd.compaction.batch-size:500}") int batchSize,
+        @Value("${radarlgpd.compaction.pause-ms:100}") long pauseMs
+    ) {
+        this.compactionRepository = compactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+
+        this.compactedScans = Counter.builder("radarlgpd.compaction.scans")
+            .description("Scans somados em daily_instance_rollups e apagados")
+            .register(meterRegistry);
+        this.compactedDataResults = Counter.builder("radarlgpd.compaction.data_results")
+            .description("data_results apagados pela compactação")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("radarlgpd.compaction.batch")
+            .description("Duração de cada lote (transação) da compactação")
+            .register(meterRegistry);
+        Gauge.builder("radarlgpd.compaction.cursor", cursorEpochSeconds, AtomicLong::get)
+            .description("received_at (epoch seconds) do último scan compactado")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(
+        initialDelayString = "${radarlgpd.compaction.interval-ms:3600000}",
+        fixedDelayString = "${radarlgpd.compaction.interval-ms:3600000}"
+    )
+    public void scheduledCompaction() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate firstKeptDay = LocalDate.now(ZoneOffset.UTC).minusDays(minAgeDays);
+        compact(firstKeptDay.atStartOfDay().atOffset(ZoneOffset.UTC));
+    }
+
+    /**
+     * Compacta todos os scans recebidos antes do corte, lote a lote.
+     * Para ao esgotar os scans ou se a thread for interrompida (shutdown).
+     *
+     * @return scans compactados nesta rodada
+     */
+    public long compact(OffsetDateTime cutoff) {
+        long started = System.nanoTime();
+        long scans = 0;
+        int batches = 0;
+        ScanKey cursor = ScanKey.START;
+
+        while (true) {
+            ScanKey after = cursor;
+            BatchResult batch = batchTimer.record(() -> compactBatch(cutoff, after));
+            if (batch == null || batch.scans() == 0) {
+                break;
+            }
+
+            // Só depois do commit do lote
+            compactedScans.increment(batch.scans());
+            compactedDataResults.increment(batch.dataResults());
+            scans += batch.scans();
+            batches++;
+            cursor = batch.last();
+            cursorEpochSeconds.set(cursor.receivedAt().toEpochSecond());
+
+            if (!pause()) {
+                log.info("Compactação interrompida - será retomada na próxima rodada");
+                break;
+            }
+        }
+
+        if (scans > 0) {
+            log.info("Compactação concluída - {} scans anteriores a {} em {} lotes, {} ms",
+                scans, cutoff, batches, (System.nanoTime() - started) / 1_000_000);
+        }
+        return scans;
+    }
+
+    private BatchResult compactBatch(OffsetDateTime cutoff, ScanKey after) {
+        return transactionTemplate.execute(status -> {
+            List<ScanKey> batch = compactionRepository.lockNextBatch(cutoff, after, batchSize);
+            if (batch.isEmpty()) {
+                return new BatchResult(0, 0, after);
+            }
+
+            compactionRepository.foldIntoInstanceRollups(batch);
+            int dataResults = compactionRepository.deleteDataResults(batch);
+            int scans = compactionRepository.deleteScans(batch);
+
+            log.debug("Lote compactado - {} scans, {} data results, até received_at {}",
+                scans, dataResults, batch.get(batch.size() - 1).receivedAt());
+            return new BatchResult(scans, dataResults, batch.get(batch.size() - 1));
+        });
+    }
+
+    /**
+     * Pausa entre lotes para não disputar I/O com a ingestão.
+     *
+     * @return false se a thread foi interrompida
+     */
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record BatchResult(int scans, int dataResults, ScanKey last) {
+    }
+}
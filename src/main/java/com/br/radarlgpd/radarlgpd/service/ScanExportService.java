@@ -0,0 +1,249 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.exception.InvalidQueryParameterException;
+import com.br.radarlgpd.radarlgpd.exception.RateLimitExceededException;
+import com.br.radarlgpd.radarlgpd.repository.ScanExportRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanExportRepository.ExportRow;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Exportação de scans e resultados em CSV ou NDJSON, escrita direto na resposta HTTP
+ * enquanto o cursor do banco é percorrido (heap constante, independente do volume).
+ *
+ * - CSV: uma linha por resultado (scan x tipo x localização); scans sem resultados saem
+ *   com as colunas de resultado vazias.
+ * - NDJSON: um objeto por scan, com os resultados aninhados em "results".
+ *
+ * Cada exportação segura uma conexão do pool da aplicação enquanto o cursor é lido (até
+ * spring.mvc.async.request-timeout). Exportações simultâneas são limitadas por
+ * radarlgpd.export.max-concurrent; acima disso a requisição recebe HTTP 429 antes de
+ * abrir o cursor, e a ingestão nunca fica sem conexões por causa delas.
+ */
+@Service
+@Slf4j
+public class ScanExportService {
+
+    private static final String CSV_HEADER = "scan_id,instance_id,site_id,scan_timestamp_utc,scan_duration_ms,"
+        + "scanner_version,wp_version,php_version,received_at,data_type,source_location,count\n";
+
+    /**
+     * Retry-After (segundos) da recusa por limite de exportações simultâneas.
+     */
+    private static final String RETRY_AFTER_SECONDS = "60";
+
+    private final ScanExportRepository scanExportRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxConcurrentExports;
+    private final Semaphore exportPermits;
+
+    public ScanExportService(
+        ScanExportRepository scanExportRepository,
+        ObjectMapper objectMapper,
+        @Value("${radarlgpd.export.max-concurrent:2}") int maxConcurrentExports
+    ) {
+        this.scanExportRepository = scanExportRepository;
+        this.objectMapper = objectMapper;
+        this.maxConcurrentExports = maxConcurrentExports;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+    }
+
+    /**
+     * Formatos aceitos no parâmetro format.
+     */
+    public enum Format {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidQueryParameterException("Formato de exportação inválido: use csv ou ndjson");
+            }
+        }
+    }
+
+    /**
+     * Prepara a exportação dos scans recebidos em [from, to).
+     * A consulta só começa quando o corpo da resposta é escrito.
+     *
+     * Reserva uma das vagas de exportação simultânea, devolvida quando o corpo termina
+     * de ser escrito (com sucesso ou não).
+     *
+     * @throws RateLimitExceededException se já há radarlgpd.export.max-concurrent exportações em andamento
+     */
+    public StreamingResponseBody export(OffsetDateTime from, OffsetDateTime to, Format format) {
+        if (!from.isBefore(to)) {
+            throw new InvalidQueryParameterException("Intervalo inválido: 'from' deve ser anterior a 'to'");
+        }
+        if (!exportPermits.tryAcquire()) {
+            log.warn("Exportação recusada - {} exportações já em andamento", maxConcurrentExports);
+            throw new RateLimitExceededException(
+                "Limite de " + maxConcurrentExports + " exportações simultâneas atingido; tente novamente mais tarde",
+                RETRY_AFTER_SECONDS);
+        }
+
+        return outputStream -> {
+            try {
+                long started = System.nanoTime();
+                long rows = switch (format) {
+                    case CSV -> writeCsv(from, to, outputStream);
+                    case NDJSON -> writeNdjson(from, to, outputStream);
+                };
+                log.info("Exportação {} concluída - {} a {}, {} linhas em {} ms",
+                    format, from, to, rows, (System.nanoTime() - started) / 1_000_000);
+            } finally {
+                exportPermits.release();
+            }
+        };
+    }
+
+    private long writeCsv(OffsetDateTime from, OffsetDateTime to, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+
+        long rows = scanExportRepository.streamScanResults(from, to, row -> {
+            try {
+                writeCsvRow(writer, row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return rows;
+    }
+
+    private void writeCsvRow(Writer writer, ExportRow row) throws IOException {
+        writer.write(row.scanId());
+        writer.write(',');
+        writer.write(Long.toString(row.instanceId()));
+        writer.write(',');
+        writer.write(row.siteId());
+        writer.write(',');
+        writer.write(row.scanTimestampUtc().toString());
+        writer.write(',');
+        writer.write(Integer.toString(row.scanDurationMs()));
+        writer.write(',');
+        writeCsvField(writer, row.scannerVersion());
+        writer.write(',');
+        writeCsvField(writer, row.wpVersion());
+        writer.write(',');
+        writeCsvField(writer, row.phpVersion());
+        writer.write(',');
+        writer.write(row.receivedAt().toString());
+        writer.write(',');
+        writeCsvField(writer, row.dataType());
+        writer.write(',');
+        writeCsvField(writer, row.sourceLocation());
+        writer.write(',');
+        if (row.count() != null) {
+            writer.write(row.count().toString());
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Texto livre (versões, localizações) segue a RFC 4180: entre aspas se tiver vírgula,
+     * aspas ou quebra de linha, com aspas duplicadas.
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private long writeNdjson(OffsetDateTime from, OffsetDateTime to, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Um objeto por linha: o separador é o '\n' escrito em endScan
+        generator.setRootValueSeparator(null);
+        long[] currentScan = {-1};
+
+        long rows = scanExportRepository.streamScanResults(from, to, row -> {
+            try {
+                if (row.id() != currentScan[0]) {
+                    if (currentScan[0] >= 0) {
+                        endScan(generator);
+                    }
+                    startScan(generator, row);
+                    currentScan[0] = row.id();
+                }
+                if (row.dataType() != null) {
+                    generator.writeStartObject();
+                    generator.writeStringField("data_type", row.dataType());
+                    generator.writeStringField("source_location", row.sourceLocation());
+                    generator.writeNumberField("count", row.count());
+                    generator.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (currentScan[0] >= 0) {
+            endScan(generator);
+        }
+        generator.close();
+        return rows;
+    }
+
+    private static void startScan(JsonGenerator generator, ExportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("scan_id", row.scanId());
+        generator.writeNumberField("instance_id", row.instanceId());
+        generator.writeStringField("site_id", row.siteId());
+        generator.writeStringField("scan_timestamp_utc", row.scanTimestampUtc().toString());
+        generator.writeNumberField("scan_duration_ms", row.scanDurationMs());
+        generator.writeStringField("scanner_version", row.scannerVersion());
+        generator.writeStringField("wp_version", row.wpVersion());
+        generator.writeStringField("php_version", row.phpVersion());
+        generator.writeStringField("received_at", row.receivedAt().toString());
+        generator.writeArrayFieldStart("results");
+    }
+
+    private static void endScan(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,161 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.ScanHistoryItem;
+import com.br.radarlgpd.radarlgpd.dto.ScanHistoryResponse;
+import com.br.radarlgpd.radarlgpd.entity.ScanResult;
+import com.br.radarlgpd.radarlgpd.exception.InstanceNotFoundException;
+import com.br.radarlgpd.radarlgpd.exception.InvalidQueryParameterException;
+import com.br.radarlgpd.radarlgpd.repository.DataResultRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultDetail;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Histórico de scans por instância, do mais recente para o mais antigo.
+ *
+ * Paginação por seek (keyset) em (scan_timestamp_utc, id): o cursor carrega a posição da
+ * última linha entregue e a página seguinte começa logo abaixo dela. O custo de cada página
+ * não depende da profundidade no histórico (sem OFFSET) e scans recebidos durante a
+ * navegação não duplicam nem pulam linhas.
+ */
+@Service
+@RequiredArgsConstructor
+public class ScanHistoryService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final char CURSOR_SEPARATOR = '|';
+
+    private final ScanResultRepository scanResultRepository;
+    private final DataResultRepository dataResultRepository;
+    private final InstanceRepository instanceRepository;
+
+    /**
+     * Página do histórico de uma instância consultada pelo ID (dashboards).
+     *
+     * @throws InstanceNotFoundException se a instância não existe
+     */
+    @Transactional(readOnly = true)
+    public ScanHistoryResponse historyOf(Long instanceId, String cursor, int limit) {
+        if (!instanceRepository.existsById(instanceId)) {
+            throw new InstanceNotFoundException("Instância não encontrada");
+        }
+        return page(instanceId, cursor, limit);
+    }
+
+    /**
+     * Página do histórico de uma instância já autenticada.
+     *
+     * @param instanceId ID da instância
+     * @param cursor {@code nextCursor} da página anterior (null na primeira página)
+     * @param limit scans por página (limitado a 1..{@value #MAX_LIMIT})
+     * @throws InvalidQueryParameterException se o cursor é inválido
+     */
+    @Transactional(readOnly = true)
+    public ScanHistoryResponse page(Long instanceId, String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_LIMIT);
+        // Uma linha a mais indica se existe próxima página
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<ScanResult> scans;
+        if (cursor == null || cursor.isBlank()) {
+            scans = scanResultRepository.findHistory(instanceId, fetch);
+        } else {
+            Position after = decodeCursor(cursor);
+            scans = scanResultRepository.findHistoryBefore(instanceId, after.timestamp(), after.id(), fetch);
+        }
+
+        boolean hasNext = scans.size() > pageSize;
+        List<ScanResult> pageScans = hasNext ? scans.subList(0, pageSize) : scans;
+
+        Map<Long, List<DataResult>> results = loadResults(pageScans);
+        List<ScanHistoryItem> items = pageScans.stream()
+            .map(scan -> toItem(scan, results.getOrDefault(scan.getId(), List.of())))
+            .toList();
+
+        return ScanHistoryResponse.builder()
+            .items(items)
+            .nextCursor(hasNext ? encodeCursor(pageScans.getLast()) : null)
+            .build();
+    }
+
+    /**
+     * Resultados dos scans da página em uma única consulta.
+     */
+    private Map<Long, List<DataResult>> loadResults(List<ScanResult> scans) {
+        if (scans.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Long> ids = scans.stream().map(ScanResult::getId).toList();
+        OffsetDateTime from = scans.stream().map(ScanResult::getReceivedAt).min(Comparator.naturalOrder()).orElseThrow();
+        OffsetDateTime to = scans.stream().map(ScanResult::getReceivedAt).max(Comparator.naturalOrder()).orElseThrow();
+
+        return dataResultRepository.findDetails(ids, from, to).stream()
+            .collect(Collectors.groupingBy(
+                ScanResultDetail::scanResultId,
+                Collectors.mapping(detail -> DataResult.builder()
+                    .dataType(detail.dataType())
+                    .sourceLocation(detail.sourceLocation())
+                    .count(detail.count())
+                    .build(), Collectors.toList())
+            ));
+    }
+
+    private ScanHistoryItem toItem(ScanResult scan, List<DataResult> results) {
+        return ScanHistoryItem.builder()
+            .scanId(scan.getScanId())
+            .scanTimestampUtc(scan.getScanTimestampUtc())
+            .receivedAt(scan.getReceivedAt())
+            .scanDurationMs(scan.getScanDurationMs())
+            .scannerVersion(scan.getScannerVersion())
+            .wpVersion(scan.getWpVersion())
+            .phpVersion(scan.getPhpVersion())
+            .results(results)
+            .build();
+    }
+
+    /**
+     * Cursor opaco: base64url de "{instante ISO-8601}|{id}" da última linha da página.
+     */
+    private String encodeCursor(ScanResult last) {
+        String position = last.getScanTimestampUtc().toInstant().toString() + CURSOR_SEPARATOR + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Position decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf(CURSOR_SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("separador ausente");
+            }
+            return new Position(
+                Instant.parse(position.substring(0, separator)).atOffset(ZoneOffset.UTC),
+                Long.parseLong(position.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidQueryParameterException("Parâmetro 'cursor' inválido");
+        }
+    }
+
+    private record Position(OffsetDateTime timestamp, long id) {
+    }
+}
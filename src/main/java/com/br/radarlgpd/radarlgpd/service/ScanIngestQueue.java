@@ -0,0 +1,289 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.entity.ScanDeadLetter;
+import com.br.radarlgpd.radarlgpd.repository.ScanDeadLetterRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fila write-behind para ingestão assíncrona de scans.
+ *
+ * Com radarlgpd.ingest.mode=async, o controller apenas valida o request e o enfileira,
+ * respondendo HTTP 202 imediatamente. Uma thread dedicada drena a fila em lotes e
+ * persiste cada lote em uma única transação, desacoplando a latência HTTP da latência
+ * do PostgreSQL (pool Hikari pequeno no Render).
+ *
+ * A fila é limitada: quando cheia, {@link #offer} retorna false e o controller
+ * processa o scan de forma síncrona (backpressure sem perda de dados).
+ * No shutdown gracioso, a fila é drenada antes de liberar o banco.
+ *
+ * Um scan que falha também no reprocessamento individual já foi respondido com 202:
+ * vai para scan_dead_letters ({@link ScanDeadLetter}) e é contado em
+ * radarlgpd.ingest.dead_letters.
+ */
+@Service
+@Slf4j
+public class ScanIngestQueue {
+
+    private static final long POLL_TIMEOUT_MS = 500;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ScanResultService scanResultService;
+    private final InstanceService instanceService;
+    private final ScanDeadLetterRepository deadLetterRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter deadLetters;
+    private final boolean asyncEnabled;
+    private final int batchSize;
+    private final long shutdownTimeoutMs;
+    private final boolean virtualThreads;
+    private final BlockingQueue<QueuedScan> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public ScanIngestQueue(
+        ScanResultService scanResultService,
+        InstanceService instanceService,
+        ScanDeadLetterRepository deadLetterRepository,
+        ObjectMapper objectMapper,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${radarlgpd.ingest.mode:sync}") String mode,
+        @Value("${radarlgpd.ingest.queue-capacity:10000}") int queueCapacity,
+        @Value("${radarlgpd.ingest.batch-size:100}") int batchSize,
+        @Value("${radarlgpd.ingest.shutdown-timeout-ms:30000}") long shutdownTimeoutMs,
+        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.scanResultService = scanResultService;
+        this.instanceService = instanceService;
+        this.deadLetterRepository = deadLetterRepository;
+        this.objectMapper = objectMapper;
+        // Transação própria também quando chamada no afterCommit do registro (ver offerAfterCommit)
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.deadLetters = Counter.builder("radarlgpd.ingest.dead_letters")
+            .description("Scans aceitos pela ingestão assíncrona que não puderam ser persistidos")
+            .register(meterRegistry);
+        this.asyncEnabled = "async".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.virtualThreads = virtualThreads;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!asyncEnabled) {
+            return;
+        }
+
+        running = true;
+        // Segue o modelo de threads da aplicação (spring.threads.virtual.enabled)
+        writer = virtualThreads
+            ? Thread.ofVirtual().name("scan-ingest-writer").start(this::drainLoop)
+            : Thread.ofPlatform().name("scan-ingest-writer").daemon().start(this::drainLoop);
+
+        log.info("Ingestão assíncrona habilitada - capacidade: {}, lote: {}",
+            queue.remainingCapacity(), batchSize);
+    }
+
+    /**
+     * Indica se o modo assíncrono está ativo e aceitando scans.
+     */
+    public boolean isEnabled() {
+        return asyncEnabled && running;
+    }
+
+    /**
+     * Enfileira um scan validado para persistência assíncrona.
+     *
+     * @param request dados do scan (consentimento e schema já validados)
+     * @param instanceId ID da instância dona do scan
+     * @return true se enfileirado; false se o modo assíncrono está desligado ou a fila está cheia
+     */
+    public boolean offer(ScanResultRequest request, Long instanceId) {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        boolean accepted = queue.offer(new QueuedScan(request, instanceId, OffsetDateTime.now()));
+        if (!accepted) {
+            log.warn("Fila de ingestão cheia - scan_id: {} será processado de forma síncrona",
+                request.getScanId());
+        }
+        return accepted;
+    }
+
+    /**
+     * Enfileira o scan de uma instância criada na transação corrente, só depois do commit.
+     *
+     * Enfileirado antes, a thread escritora poderia gravar o scan de uma instância cujo
+     * registro ainda vai sofrer rollback. Se a fila estiver cheia no commit, o scan é
+     * persistido na própria thread, em transação nova (o registro já foi respondido).
+     *
+     * @param request dados do scan (consentimento e schema já validados)
+     * @param instanceId ID da instância registrada na transação corrente
+     * @return true se o scan ficou a cargo da ingestão assíncrona; false se o modo assíncrono está desligado
+     */
+    public boolean offerAfterCommit(ScanResultRequest request, Long instanceId) {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        QueuedScan scan = new QueuedScan(request, instanceId, OffsetDateTime.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueueOrWrite(scan);
+            return true;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueueOrWrite(scan);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Quantidade de scans aguardando persistência.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writer == null) {
+            return;
+        }
+
+        running = false;
+        log.info("Encerrando ingestão assíncrona - {} scans pendentes na fila", queue.size());
+
+        try {
+            writer.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writer.isAlive() || !queue.isEmpty()) {
+            log.error("Shutdown da ingestão excedeu {} ms - {} scans não persistidos",
+                shutdownTimeoutMs, queue.size());
+        }
+    }
+
+    /**
+     * Loop da thread escritora: drena a fila em lotes até o shutdown e a fila esvaziar.
+     */
+    private void drainLoop() {
+        List<QueuedScan> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedScan first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // Shutdown: continua drenando até a fila esvaziar
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void enqueueOrWrite(QueuedScan scan) {
+        if (!queue.offer(scan)) {
+            log.warn("Fila de ingestão cheia - scan_id: {} será processado de forma síncrona",
+                scan.request().getScanId());
+            writeBatch(List.of(scan));
+        }
+    }
+
+    /**
+     * Persiste o lote em uma transação. Se o lote falhar, reprocessa item a item
+     * para que um scan problemático não descarte os demais; o que falhar sozinho
+     * vai para scan_dead_letters.
+     */
+    private void writeBatch(List<QueuedScan> batch) {
+        try {
+            int persisted = persistInTransaction(batch);
+            log.debug("Lote de ingestão persistido - {} recebidos, {} novos", batch.size(), persisted);
+        } catch (RuntimeException batchError) {
+            log.warn("Falha ao persistir lote de {} scans, reprocessando individualmente: {}",
+                batch.size(), batchError.getMessage());
+
+            for (QueuedScan scan : batch) {
+                try {
+                    persistInTransaction(List.of(scan));
+                } catch (RuntimeException itemError) {
+                    deadLetter(scan, itemError);
+                }
+            }
+        }
+    }
+
+    private void deadLetter(QueuedScan scan, RuntimeException cause) {
+        deadLetters.increment();
+        log.error("Scan enviado para scan_dead_letters - scan_id: {}, instance_id: {}",
+            scan.request().getScanId(), scan.instanceId(), cause);
+
+        try {
+            String error = String.valueOf(cause.getMessage());
+            ScanDeadLetter deadLetter = ScanDeadLetter.builder()
+                .scanId(scan.request().getScanId())
+                .instanceId(scan.instanceId())
+                .payload(objectMapper.writeValueAsString(scan.request()))
+                .error(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error)
+                .receivedAt(scan.receivedAt())
+                .failedAt(OffsetDateTime.now())
+                .build();
+            transactionTemplate.executeWithoutResult(status -> deadLetterRepository.save(deadLetter));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Falha ao gravar scan em scan_dead_letters - scan_id: {}, perdido",
+                scan.request().getScanId(), e);
+        }
+    }
+
+    /**
+     * Scans + métricas de atividade das instâncias na mesma transação (RNF-API-PERF-1.0).
+     *
+     * @return quantidade de scans efetivamente persistidos (exclui duplicados)
+     */
+    private int persistInTransaction(List<QueuedScan> batch) {
+        Integer persisted = transactionTemplate.execute(status -> {
+            Map<Long, Integer> scansPerInstance = scanResultService.processQueuedBatch(batch);
+            scansPerInstance.forEach(instanceService::recordScanActivity);
+            return scansPerInstance.values().stream().mapToInt(Integer::intValue).sum();
+        });
+        return persisted != null ? persisted : 0;
+    }
+}
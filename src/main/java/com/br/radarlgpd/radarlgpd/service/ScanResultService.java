@@ -1,12 +1,15 @@
 package com.br.radarlgpd.radarlgpd.service;
 
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
 import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
-import com.br.radarlgpd.radarlgpd.dto.ScanResultResponse;
 import com.br.radarlgpd.radarlgpd.entity.DataResultEntity;
 import com.br.radarlgpd.radarlgpd.entity.ScanResult;
 import com.br.radarlgpd.radarlgpd.exception.ConsentNotGivenException;
+import com.br.radarlgpd.radarlgpd.repository.DataResultBulkLoader;
 import com.br.radarlgpd.radarlgpd.repository.DataResultRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultBatchRepository;
 import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import com.br.radarlgpd.radarlgpd.repository.SequenceIdAllocator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,8 +17,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Service para processar e persistir scan results.
@@ -28,6 +35,12 @@ public class ScanResultService {
 
     private final ScanResultRepository scanResultRepository;
     private final DataResultRepository dataResultRepository;
+    private final DataResultBulkLoader dataResultBulkLoader;
+    private final ScanResultBatchRepository scanResultBatchRepository;
+    private final SequenceIdAllocator idAllocator;
+    private final RecentScanIdFilter recentScanIdFilter;
+    private final DataResultDictionary dataResultDictionary;
+    private final DailyRollupService dailyRollupService;
 
     /**
      * Processa um scan result associado a uma instância específica.
@@ -45,18 +58,18 @@ public class ScanResultService {
         // RF-API-1.1: Validação de Consentimento (obrigatória em ambos os fluxos)
         validateConsent(request);
         
-        // Verifica se já existe scan com este ID (idempotência)
-        if (scanResultRepository.existsByScanId(request.getScanId())) {
+        // Converte e persiste com INSERT ... ON CONFLICT (idempotência em um único round trip)
+        ScanResult entity = convertToEntity(request, instanceId);
+        ScanResult scanResult = insertIgnoringDuplicate(entity);
+        if (scanResult == null) {
             log.warn("Scan duplicado detectado: {}", request.getScanId());
             return false; // Idempotente: não gera erro, apenas ignora
         }
         
-        // Converte e persiste
-        ScanResult scanResult = convertToEntity(request, instanceId);
-        scanResult = scanResultRepository.save(scanResult);
-        
-        // Persiste os resultados detalhados
-        saveDataResults(scanResult, request);
+        // Persiste os resultados detalhados e atualiza os rollups diários
+        DataResultDictionary.Ids dictionaryIds = dataResultDictionary.resolve(request.getResults());
+        saveDataResults(scanResult, entity.getReceivedAt(), request, dictionaryIds);
+        dailyRollupService.record(List.of(entity), List.of(request), dictionaryIds);
         
         log.info("Scan processado com sucesso: {} - instance_id: {}, {} resultados encontrados", 
             request.getScanId(), instanceId, request.getResults().size());
@@ -65,37 +78,96 @@ public class ScanResultService {
     }
 
     /**
-     * Processa um scan result recebido do plugin WordPress (MÉTODO LEGADO).
-     * Mantido para compatibilidade, mas deve ser substituído por processScanForInstance.
+     * Persiste um lote de scans vindos da fila de ingestão assíncrona.
+     * Consentimento e schema já foram validados pelo controller antes do enfileiramento.
      * 
-     * @deprecated Use {@link #processScanForInstance(ScanResultRequest, Long)} ao invés
+     * @param batch scans enfileirados
+     * @return quantidade de scans persistidos por instance_id (para atualizar métricas de atividade)
      */
-    @Deprecated(since = "1.1.0", forRemoval = true)
     @Transactional
-    public ScanResultResponse processScan(ScanResultRequest request) {
-        log.info("Processando scan_id: {}", request.getScanId());
-        
-        // NFR-API-003: Validação de Consentimento
-        validateConsent(request);
-        
-        // Verifica se já existe scan com este ID (idempotência)
-        if (scanResultRepository.existsByScanId(request.getScanId())) {
-            log.warn("Scan duplicado detectado: {}", request.getScanId());
-            return buildResponse(request.getScanId(), "DUPLICATE", 
-                "Scan já foi processado anteriormente");
+    public Map<Long, Integer> processQueuedBatch(List<QueuedScan> batch) {
+        boolean[] persisted = processBatch(batch);
+
+        Map<Long, Integer> scansPerInstance = new HashMap<>();
+        for (int i = 0; i < persisted.length; i++) {
+            if (persisted[i]) {
+                scansPerInstance.merge(batch.get(i).instanceId(), 1, Integer::sum);
+            }
         }
-        
-        // Converte e persiste
-        ScanResult scanResult = convertToEntity(request);
-        scanResult = scanResultRepository.save(scanResult);
-        
-        // Persiste os resultados detalhados
-        saveDataResults(scanResult, request);
-        
-        log.info("Scan processado com sucesso: {} - {} resultados encontrados", 
-            request.getScanId(), request.getResults().size());
-        
-        return buildResponse(request.getScanId(), "SUCCESS", "Scan processado com sucesso");
+        return scansPerInstance;
+    }
+
+    /**
+     * Persiste um lote de scans já validados (consentimento e schema) em uma transação:
+     * os scans seguem em um único batch JDBC de INSERT ... ON CONFLICT e os resultados
+     * de todos eles em um único COPY.
+     * 
+     * Scans duplicados (já persistidos ou repetidos dentro do próprio lote) são ignorados,
+     * mantendo a mesma idempotência de {@link #processScanForInstance(ScanResultRequest, Long)}.
+     * 
+     * @param batch scans a persistir
+     * @return para cada scan, na mesma ordem, true se persistido e false se duplicado
+     */
+    @Transactional
+    public boolean[] processBatch(List<QueuedScan> batch) {
+        boolean[] persisted = new boolean[batch.size()];
+
+        // Retries recentes são descartados antes de reservar IDs
+        List<Integer> positions = new ArrayList<>(batch.size());
+        List<ScanResult> candidates = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            QueuedScan queued = batch.get(i);
+            if (recentScanIdFilter.isRecentlySeen(queued.request().getScanId())) {
+                continue;
+            }
+            positions.add(i);
+            candidates.add(convertToEntity(queued.request(), queued.instanceId(), queued.receivedAt()));
+        }
+
+        long[] ids = idAllocator.allocate(ScanResult.SEQUENCE, candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            candidates.get(i).setId(ids[i]);
+        }
+
+        boolean[] inserted = scanResultBatchRepository.insertIgnoringDuplicates(candidates);
+
+        List<Integer> persistedPositions = new ArrayList<>(candidates.size());
+        List<ScanResult> persistedScans = new ArrayList<>(candidates.size());
+        List<ScanResultRequest> persistedRequests = new ArrayList<>(candidates.size());
+        List<DataResult> persistedResults = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            String scanId = candidates.get(i).getScanId();
+            if (!inserted[i]) {
+                recentScanIdFilter.markMissedDuplicate(scanId);
+                log.warn("Scan duplicado detectado no lote: {}", scanId);
+                continue;
+            }
+
+            recentScanIdFilter.markAccepted(scanId);
+            int position = positions.get(i);
+            persisted[position] = true;
+            persistedPositions.add(i);
+            persistedScans.add(candidates.get(i));
+            persistedRequests.add(batch.get(position).request());
+            persistedResults.addAll(batch.get(position).request().getResults());
+        }
+
+        // Uma única resolução de dicionário para todos os resultados do lote
+        DataResultDictionary.Ids dictionaryIds = dataResultDictionary.resolve(persistedResults);
+        List<DataResultEntity> dataResults = new ArrayList<>(persistedResults.size());
+        for (int i : persistedPositions) {
+            ScanResult reference = scanResultRepository.getReferenceById(ids[i]);
+            dataResults.addAll(toDataResultEntities(
+                reference, candidates.get(i).getReceivedAt(), batch.get(positions.get(i)).request(), dictionaryIds));
+        }
+
+        long copied = dataResultBulkLoader.copyIn(dataResults);
+        dailyRollupService.record(persistedScans, persistedRequests, dictionaryIds);
+
+        log.info("Lote de scans processado - {} scans recebidos, {} persistidos, {} data results",
+            batch.size(), persistedPositions.size(), copied);
+
+        return persisted;
     }
 
     /**
@@ -114,12 +186,47 @@ public class ScanResultService {
         }
     }
 
+    /**
+     * Insere o scan reservando o ID da sequence e ignorando scan_id duplicado.
+     * Retries recentes são descartados pelo filtro em memória sem ir ao banco.
+     * 
+     * @return referência ao scan inserido (para associar os data results), ou null se duplicado
+     */
+    private ScanResult insertIgnoringDuplicate(ScanResult scanResult) {
+        String scanId = scanResult.getScanId();
+        if (recentScanIdFilter.isRecentlySeen(scanId)) {
+            return null;
+        }
+
+        scanResult.setId(idAllocator.next(ScanResult.SEQUENCE));
+        Optional<Long> insertedId = scanResultRepository.insertIgnoringDuplicate(scanResult);
+
+        if (insertedId.isEmpty()) {
+            recentScanIdFilter.markMissedDuplicate(scanId);
+            return null;
+        }
+
+        recentScanIdFilter.markAccepted(scanId);
+        return scanResultRepository.getReferenceById(insertedId.get());
+    }
+
     /**
      * Converte DTO para entidade JPA.
      */
     private ScanResult convertToEntity(ScanResultRequest request, Long instanceId) {
+        return convertToEntity(request, instanceId, OffsetDateTime.now());
+    }
+
+    /**
+     * Converte DTO para entidade JPA preservando o momento real de recebimento
+     * (relevante quando o scan passou pela fila de ingestão assíncrona).
+     * received_at é truncado para microssegundos (precisão do timestamptz): o valor entra
+     * na FK (scan_result_id, received_at) de data_results e precisa ser idêntico nas duas tabelas.
+     * scan_id é gravado em minúsculas: um retry com outra caixa é o mesmo scan.
+     */
+    private ScanResult convertToEntity(ScanResultRequest request, Long instanceId, OffsetDateTime receivedAt) {
         return ScanResult.builder()
-            .scanId(request.getScanId())
+            .scanId(RecentScanIdFilter.normalize(request.getScanId()))
             .instanceId(instanceId)
             .siteId(request.getSiteId())
             .consentGiven(request.getConsentGiven())
@@ -129,51 +236,51 @@ public class ScanResultService {
             .scannerVersion(request.getScannerVersion())
             .wpVersion(request.getEnvironment().getWpVersion())
             .phpVersion(request.getEnvironment().getPhpVersion())
-            .receivedAt(OffsetDateTime.now())
+            .receivedAt(receivedAt.truncatedTo(ChronoUnit.MICROS))
             .build();
     }
 
     /**
-     * Converte DTO para entidade JPA (MÉTODO LEGADO sem instanceId).
-     * 
-     * @deprecated Use {@link #convertToEntity(ScanResultRequest, Long)} ao invés
+     * Persiste os resultados detalhados de dados encontrados.
      */
-    @Deprecated(since = "1.1.0", forRemoval = true)
-    private ScanResult convertToEntity(ScanResultRequest request) {
-        return convertToEntity(request, null);
+    private void saveDataResults(
+        ScanResult scanResult,
+        OffsetDateTime receivedAt,
+        ScanResultRequest request,
+        DataResultDictionary.Ids dictionaryIds
+    ) {
+        List<DataResultEntity> entities = toDataResultEntities(scanResult, receivedAt, request, dictionaryIds);
+        
+        dataResultRepository.saveAll(entities);
+        log.debug("Persistidos {} data results para scan_id: {}", 
+            entities.size(), scanResult.getScanId());
     }
 
     /**
-     * Persiste os resultados detalhados de dados encontrados.
+     * Converte os resultados do DTO em entidades associadas ao scan.
+     * Tipo e localização já resolvidos para os IDs dos dicionários.
+     * receivedAt é o do scan pai (mesma partição), passado à parte porque scanResult
+     * costuma ser uma referência não inicializada.
      */
-    private void saveDataResults(ScanResult scanResult, ScanResultRequest request) {
-        List<DataResultEntity> entities = new ArrayList<>();
+    private List<DataResultEntity> toDataResultEntities(
+        ScanResult scanResult,
+        OffsetDateTime receivedAt,
+        ScanResultRequest request,
+        DataResultDictionary.Ids dictionaryIds
+    ) {
+        List<DataResultEntity> entities = new ArrayList<>(request.getResults().size());
         
         for (var result : request.getResults()) {
             DataResultEntity entity = DataResultEntity.builder()
                 .scanResult(scanResult)
-                .dataType(result.getDataType())
-                .sourceLocation(result.getSourceLocation())
+                .receivedAt(receivedAt)
+                .dataTypeId(dictionaryIds.dataTypeId(result.getDataType()))
+                .sourceLocationId(dictionaryIds.sourceLocationId(result.getSourceLocation()))
                 .count(result.getCount())
                 .build();
             entities.add(entity);
         }
         
-        dataResultRepository.saveAll(entities);
-        log.debug("Persistidos {} data results para scan_id: {}", 
-            entities.size(), scanResult.getScanId());
-    }
-
-    /**
-     * Constrói resposta padronizada (MÉTODO LEGADO).
-     * 
-     * @deprecated Não mais utilizado na nova arquitetura (RF-API-2.3, RF-API-3.3)
-     */
-    @Deprecated(since = "1.1.0", forRemoval = true)
-    private ScanResultResponse buildResponse(String scanId, String status, String message) {
-        return ScanResultResponse.builder()
-            .status(status)
-            .message(message)
-            .build();
+        return entities;
     }
 }
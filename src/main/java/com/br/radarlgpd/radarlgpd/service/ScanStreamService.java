@@ -0,0 +1,273 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchItem;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchItemResult;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchResponse;
+import com.br.radarlgpd.radarlgpd.exception.PayloadTooLargeException;
+import com.br.radarlgpd.radarlgpd.exception.RateLimitExceededException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Ingestão de scans em NDJSON (um item por linha) com memória constante.
+ *
+ * Os itens são lidos um a um do corpo com o {@link JsonParser} de streaming e persistidos
+ * em chunks de tamanho fixo via {@link ScanBatchService} (uma transação por chunk). O
+ * resultado de cada item é escrito na resposta, também em NDJSON, ao final de cada chunk.
+ * Em memória fica no máximo um chunk, independente do tamanho do envio.
+ *
+ * Erros de binding (campo desconhecido, tipo errado) rejeitam só o item. JSON malformado
+ * ou uma linha maior que radarlgpd.ingest.stream-max-line-bytes interrompe o envio: não há
+ * como ressincronizar o parser; chunks anteriores já foram gravados. O limite por linha é
+ * aplicado na leitura dos bytes, antes de o item virar árvore em memória. O mesmo vale para
+ * um corpo comprimido que passa do limite total descomprimido do
+ * {@link com.br.radarlgpd.radarlgpd.config.RequestDecompressionFilter}.
+ *
+ * A resposta já está em andamento (HTTP 200) quando um chunk estoura o rate limit: os itens
+ * do chunk saem como rejeitados, um por linha, e o envio é interrompido.
+ */
+@Service
+@Slf4j
+public class ScanStreamService {
+
+    private final ScanBatchService scanBatchService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter resultWriter;
+    private final int chunkSize;
+    private final int maxLineBytes;
+
+    public ScanStreamService(
+        ScanBatchService scanBatchService,
+        ObjectMapper objectMapper,
+        @Value("${radarlgpd.ingest.stream-chunk-size:500}") int chunkSize,
+        @Value("${radarlgpd.ingest.stream-max-line-bytes:1048576}") int maxLineBytes
+    ) {
+        this.scanBatchService = scanBatchService;
+        this.objectMapper = objectMapper;
+        this.resultWriter = objectMapper.writerFor(ScanBatchItemResult.class);
+        this.chunkSize = chunkSize;
+        this.maxLineBytes = maxLineBytes;
+    }
+
+    /**
+     * Consome o corpo NDJSON e escreve o resultado de cada item na saída.
+     *
+     * @param in corpo da requisição (um {@link ScanBatchItem} por linha)
+     * @param out corpo da resposta (um {@link ScanBatchItemResult} por linha, index = posição do item)
+     * @param chargeRateLimit cobrado com o tamanho de cada chunk antes de persisti-lo
+     *                        (lança {@link RateLimitExceededException} se o saldo acabou)
+     * @return quantidade de itens lidos
+     */
+    public long ingest(InputStream in, OutputStream out, IntConsumer chargeRateLimit) throws IOException {
+        long offset = 0;
+        List<ScanBatchItem> chunk = new ArrayList<>(chunkSize);
+        List<String> bindingErrors = new ArrayList<>(chunkSize);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(new LineLimitedInputStream(in, maxLineBytes));
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Não fecha os streams do container
+            parser.disable(StreamReadFeature.AUTO_CLOSE_SOURCE.mappedFeature());
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            try {
+                while (parser.nextToken() != null) {
+                    readItem(parser, chunk, bindingErrors);
+
+                    if (chunk.size() == chunkSize) {
+                        if (!flushChunk(chunk, bindingErrors, offset, generator, chargeRateLimit)) {
+                            return offset + chunkSize;
+                        }
+                        offset += chunkSize;
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                log.warn("NDJSON malformado no item {} - envio interrompido: {}",
+                    offset + chunk.size(), e.getOriginalMessage());
+                return interrupt(chunk, bindingErrors, offset, generator, chargeRateLimit,
+                    "JSON malformado; envio interrompido neste item (anteriores foram processados)");
+            } catch (LineTooLongException e) {
+                log.warn("Linha NDJSON acima de {} bytes no item {} - envio interrompido",
+                    maxLineBytes, offset + chunk.size());
+                return interrupt(chunk, bindingErrors, offset, generator, chargeRateLimit,
+                    "Linha maior que " + maxLineBytes + " bytes; envio interrompido neste item (anteriores foram processados)");
+            } catch (PayloadTooLargeException e) {
+                log.warn("NDJSON comprimido acima do limite no item {} - envio interrompido: {}",
+                    offset + chunk.size(), e.getMessage());
+                return interrupt(chunk, bindingErrors, offset, generator, chargeRateLimit,
+                    e.getMessage() + "; envio interrompido neste item (anteriores foram processados)");
+            }
+
+            long total = offset + chunk.size();
+            flushChunk(chunk, bindingErrors, offset, generator, chargeRateLimit);
+            return total;
+        }
+    }
+
+    /**
+     * Grava os itens já lidos e rejeita o item em que a leitura parou.
+     *
+     * @return quantidade de itens lidos (sem contar o rejeitado)
+     */
+    private long interrupt(
+        List<ScanBatchItem> chunk,
+        List<String> bindingErrors,
+        long offset,
+        JsonGenerator generator,
+        IntConsumer chargeRateLimit,
+        String message
+    ) throws IOException {
+        long failedIndex = offset + chunk.size();
+        if (flushChunk(chunk, bindingErrors, offset, generator, chargeRateLimit)) {
+            writeResult(generator, ScanBatchItemResult.builder()
+                .index((int) failedIndex)
+                .status(ScanBatchItemResult.REJECTED)
+                .message(message)
+                .build());
+        }
+        return failedIndex;
+    }
+
+    /**
+     * Lê um item inteiro como árvore (consome o objeto mesmo que o binding falhe)
+     * e faz o binding; se falhar, o item entra no chunk como nulo com o motivo.
+     */
+    private void readItem(JsonParser parser, List<ScanBatchItem> chunk, List<String> bindingErrors) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            chunk.add(null);
+            bindingErrors.add("Cada linha deve ser um objeto JSON");
+            return;
+        }
+
+        JsonNode tree = parser.readValueAsTree();
+        try {
+            chunk.add(objectMapper.treeToValue(tree, ScanBatchItem.class));
+            bindingErrors.add(null);
+        } catch (JsonProcessingException e) {
+            chunk.add(null);
+            bindingErrors.add("Item inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Cobra o rate limit e persiste o chunk, escrevendo o resultado de cada item.
+     *
+     * @return false se o rate limit rejeitou o chunk (itens escritos como rejeitados; o
+     *         envio deve ser interrompido)
+     */
+    private boolean flushChunk(
+        List<ScanBatchItem> chunk,
+        List<String> bindingErrors,
+        long offset,
+        JsonGenerator generator,
+        IntConsumer chargeRateLimit
+    ) throws IOException {
+        if (chunk.isEmpty()) {
+            return true;
+        }
+
+        try {
+            chargeRateLimit.accept(chunk.size());
+        } catch (RateLimitExceededException e) {
+            // O status 200 já pode ter sido enviado: o limite vira resultado de cada item
+            log.warn("Rate limit excedido durante envio NDJSON nos itens {} a {} - envio interrompido",
+                offset, offset + chunk.size() - 1);
+            for (int i = 0; i < chunk.size(); i++) {
+                writeResult(generator, ScanBatchItemResult.builder()
+                    .index((int) (offset + i))
+                    .status(ScanBatchItemResult.REJECTED)
+                    .message(e.getMessage() + "; envio interrompido (itens anteriores foram processados)")
+                    .build());
+            }
+            generator.flush();
+            return false;
+        }
+
+        ScanBatchResponse response = scanBatchService.process(chunk);
+
+        for (ScanBatchItemResult result : response.getResults()) {
+            String bindingError = bindingErrors.get(result.getIndex());
+            if (bindingError != null) {
+                result.setMessage(bindingError);
+            }
+            result.setIndex((int) (offset + result.getIndex()));
+            writeResult(generator, result);
+        }
+        generator.flush();
+
+        chunk.clear();
+        bindingErrors.clear();
+        return true;
+    }
+
+    private void writeResult(JsonGenerator generator, ScanBatchItemResult result) throws IOException {
+        resultWriter.writeValue(generator, result);
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Limita os bytes entre quebras de linha. Ao estourar, entrega os bytes anteriores à
+     * linha longa (o parser ainda lê os itens completos que vieram no mesmo bloco) e falha
+     * na leitura seguinte; assim a linha nunca é acumulada inteira pelo parser.
+     */
+    private static final class LineLimitedInputStream extends FilterInputStream {
+
+        private final int maxLineBytes;
+        private int lineBytes;
+        private boolean exceeded;
+
+        LineLimitedInputStream(InputStream in, int maxLineBytes) {
+            super(in);
+            this.maxLineBytes = maxLineBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n <= 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (exceeded) {
+                throw new LineTooLongException();
+            }
+
+            int n = super.read(b, off, len);
+            for (int i = 0; i < n; i++) {
+                if (b[off + i] == '\n') {
+                    lineBytes = 0;
+                } else if (++lineBytes > maxLineBytes) {
+                    exceeded = true;
+                    if (i == 0) {
+                        throw new LineTooLongException();
+                    }
+                    return i;
+                }
+            }
+            return n;
+        }
+    }
+
+    private static final class LineTooLongException extends IOException {
+    }
+}
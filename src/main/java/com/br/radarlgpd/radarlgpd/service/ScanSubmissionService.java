@@ -0,0 +1,60 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Persistência síncrona do envio individual (POST /v1/telemetry/scan-result).
+ *
+ * A transação fica só aqui: no modo assíncrono o controller valida, aplica o rate limit
+ * e enfileira sem abrir transação, e a escrita fica com o {@link ScanIngestQueue}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScanSubmissionService {
+
+    private final ScanResultService scanResultService;
+    private final InstanceService instanceService;
+
+    /**
+     * Persiste o scan de uma instância já autenticada e atualiza a atividade dela, na mesma
+     * transação (RF-API-2.2).
+     *
+     * @return true se o scan foi persistido, false se duplicado
+     */
+    @Transactional
+    public boolean receive(ScanResultRequest request, Long instanceId) {
+        boolean scanWasProcessed = scanResultService.processScanForInstance(request, instanceId);
+
+        // Atualiza métricas de atividade da instância (apenas se scan foi realmente salvo)
+        if (scanWasProcessed) {
+            instanceService.recordScanActivity(instanceId, 1);
+        }
+        return scanWasProcessed;
+    }
+
+    /**
+     * Registra a instância e persiste o primeiro scan (RF-API-3.1, RF-API-3.2).
+     *
+     * RNF-API-PERF-1.0: transação atômica garante que ambos (instância + scan) sejam salvos juntos.
+     *
+     * @return ID da nova instância e o token a devolver ao plugin
+     */
+    @Transactional
+    public RegisteredInstance register(ScanResultRequest request) {
+        RegisteredInstance newInstance = instanceService.registerNewInstance(
+            request.getSiteId(),
+            request.getScannerVersion()
+        );
+
+        boolean scanWasProcessed = receive(request, newInstance.id());
+
+        log.info("Nova instância registrada - instance_id: {}, scan_id: {}, scan_processado: {}",
+            newInstance.id(), request.getScanId(), scanWasProcessed);
+        return newInstance;
+    }
+}
@@ -0,0 +1,193 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Tokens de instância autovalidáveis, assinados com HMAC-SHA256.
+ *
+ * Formato: {@code rl1.<payload>.<assinatura>}, onde payload = base64url(instance_id || emitido_em)
+ * (2 longs) e assinatura = base64url(HMAC-SHA256(chave, "rl1." + payload)).
+ *
+ * A validação é só CPU (sem consulta ao banco); a revogação (ban/inatividade) é feita
+ * pela {@link InstanceRevocationList}. Tokens UUID legados continuam válidos: o formato é
+ * reconhecido pelo prefixo.
+ *
+ * Com radarlgpd.instance-token.format=signed, novos registros recebem tokens assinados.
+ * A verificação fica ativa sempre que a chave está configurada, para que tokens já emitidos
+ * continuem válidos se o formato voltar para uuid.
+ */
+@Component
+@Slf4j
+public class SignedInstanceTokens {
+
+    private static final String PREFIX = "rl1.";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final int PAYLOAD_BYTES = 2 * Long.BYTES;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    // Só para o payload: a assinatura é comparada já codificada (ver verify)
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final boolean issueSigned;
+    private final Duration maxAge;
+    private final Mac prototype;
+
+    public SignedInstanceTokens(
+        @Value("${radarlgpd.instance-token.format:uuid}") String format,
+        @Value("${radarlgpd.instance-token.hmac-secret:}") String secret,
+        @Value("${radarlgpd.instance-token.max-age:PT0S}") Duration maxAge
+    ) {
+        this.issueSigned = "signed".equalsIgnoreCase(format);
+        this.maxAge = maxAge;
+
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (issueSigned && key.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException(
+                "radarlgpd.instance-token.hmac-secret deve ter ao menos " + MIN_SECRET_BYTES
+                    + " bytes quando radarlgpd.instance-token.format=signed");
+        }
+        this.prototype = key.length > 0 ? createMac(key) : null;
+
+        if (issueSigned) {
+            log.info("Tokens de instância assinados (HMAC) habilitados para novos registros");
+        }
+    }
+
+    /**
+     * Indica se novos registros devem receber token assinado.
+     */
+    public boolean isIssuingEnabled() {
+        return issueSigned;
+    }
+
+    /**
+     * Indica se tokens assinados são aceitos (chave HMAC configurada).
+     */
+    public boolean isVerificationEnabled() {
+        return prototype != null;
+    }
+
+    /**
+     * Validade dos tokens assinados (zero = sem expiração).
+     */
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Indica se o token está no formato assinado (independente de ser válido).
+     */
+    public boolean isSignedToken(String token) {
+        return token.startsWith(PREFIX);
+    }
+
+    /**
+     * Emite um token assinado para a instância.
+     *
+     * @param instanceId ID da instância (já atribuído pela sequence)
+     * @return token no formato rl1.payload.assinatura
+     */
+    public String issue(long instanceId) {
+        if (prototype == null) {
+            throw new IllegalStateException("Chave HMAC de tokens de instância não configurada");
+        }
+
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_BYTES)
+            .putLong(instanceId)
+            .putLong(Instant.now().getEpochSecond())
+            .array();
+        String signedPart = PREFIX + ENCODER.encodeToString(payload);
+
+        return signedPart + "." + ENCODER.encodeToString(sign(signedPart));
+    }
+
+    /**
+     * Verifica assinatura (comparação em tempo constante) e idade do token.
+     *
+     * A assinatura é comparada na forma codificada, e não em bytes: o último caractere de
+     * 32 bytes em base64url carrega 2 bits de preenchimento, e decodificar aceitaria outras
+     * grafias do mesmo token (bits de preenchimento diferentes, "=" no fim). Cada token tem
+     * uma única grafia válida, que é também a chave do rate limit por token.
+     *
+     * @return instância e emissão se o token é autêntico; vazio caso contrário
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (prototype == null || !isSignedToken(token)) {
+            return Optional.empty();
+        }
+
+        int separator = token.lastIndexOf('.');
+        if (separator <= PREFIX.length()) {
+            return Optional.empty();
+        }
+
+        try {
+            String signedPart = token.substring(0, separator);
+            byte[] signature = token.substring(separator + 1).getBytes(StandardCharsets.UTF_8);
+            byte[] expected = ENCODER.encodeToString(sign(signedPart)).getBytes(StandardCharsets.US_ASCII);
+            if (!MessageDigest.isEqual(signature, expected)) {
+                return Optional.empty();
+            }
+
+            byte[] payload = DECODER.decode(signedPart.substring(PREFIX.length()));
+            if (payload.length != PAYLOAD_BYTES) {
+                return Optional.empty();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            long instanceId = buffer.getLong();
+            long issuedAt = buffer.getLong();
+
+            Instant issued = Instant.ofEpochSecond(issuedAt);
+            if (!maxAge.isZero() && issued.plus(maxAge).isBefore(Instant.now())) {
+                return Optional.empty();
+            }
+            return Optional.of(new VerifiedToken(instanceId, issued));
+        } catch (IllegalArgumentException e) {
+            // Base64 inválido
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Token assinado autêntico.
+     *
+     * @param instanceId ID da instância
+     * @param issuedAt emissão do token (no registro da instância)
+     */
+    public record VerifiedToken(long instanceId, Instant issuedAt) {
+    }
+
+    private byte[] sign(String data) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return mac.doFinal(data.getBytes(StandardCharsets.US_ASCII));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Provider HMAC não suporta clone", e);
+        }
+    }
+
+    private static Mac createMac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Falha ao inicializar HMAC de tokens de instância", e);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.entity.DataTypeEntity;
+import com.br.radarlgpd.radarlgpd.entity.SourceLocationEntity;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository.DataRollupRow;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository.EnvironmentRollupRow;
+import com.br.radarlgpd.radarlgpd.repository.DictionaryRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceCounts;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Snapshot em memória das estatísticas servidas em /v1/stats.
+ *
+ * Guarda, por dia (UTC), os mesmos agregados dos rollups diários dentro de uma janela
+ * (radarlgpd.stats.window-days). É recarregado periodicamente a partir dos rollups e dos
+ * contadores de instâncias, e entre recargas recebe os deltas de cada transação de ingestão
+ * logo após o commit. Consultas de dashboard só leem memória: nunca tocam data_results
+ * nem scan_results.
+ *
+ * Deltas commitados por outros nós da API só aparecem na próxima recarga; deltas que
+ * coincidem com uma recarga podem ficar de fora ou ser contados duas vezes até a seguinte.
+ * A divergência fica limitada a radarlgpd.stats.refresh-ms.
+ *
+ * Os textos dos dicionários (tipos e localizações) são relidos inteiros só na recarga; IDs
+ * que surgem entre recargas são resolvidos na consulta, todos de uma vez ({@link DictionaryNames}).
+ */
+@Component
+@Slf4j
+public class StatsAggregate {
+
+    private final DailyRollupRepository dailyRollupRepository;
+    private final DailyRollupAccumulator dailyRollupAccumulator;
+    private final DictionaryRepository dictionaryRepository;
+    private final InstanceRepository instanceRepository;
+    private final int windowDays;
+
+    private volatile Map<LocalDate, DayStats> days = new ConcurrentHashMap<>();
+    private final DictionaryNames dataTypeNames;
+    private final DictionaryNames sourceLocationNames;
+    private volatile InstanceCounts instanceCounts = new InstanceCounts(0, 0, 0, 0, 0, 0, 0);
+    private volatile OffsetDateTime refreshedAt;
+
+    public StatsAggregate(
+        DailyRollupRepository dailyRollupRepository,
+        DailyRollupAccumulator dailyRollupAccumulator,
+        DictionaryRepository dictionaryRepository,
+        InstanceRepository instanceRepository,
+        @Value("${radarlgpd.stats.window-days:90}") int windowDays
+    ) {
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.dailyRollupAccumulator = dailyRollupAccumulator;
+        this.dictionaryRepository = dictionaryRepository;
+        this.instanceRepository = instanceRepository;
+        this.windowDays = windowDays;
+        this.dataTypeNames = new DictionaryNames(DataTypeEntity.TABLE);
+        this.sourceLocationNames = new DictionaryNames(SourceLocationEntity.TABLE);
+    }
+
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    public OffsetDateTime getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    public InstanceCounts getInstanceCounts() {
+        return instanceCounts;
+    }
+
+    /**
+     * Recarrega a janela inteira a partir dos rollups e recalcula os contadores de instâncias.
+     * Antes, grava os deltas pendentes do {@link DailyRollupAccumulator} (já somados ao snapshot atual).
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${radarlgpd.stats.refresh-ms:300000}")
+    public void refresh() {
+        long started = System.nanoTime();
+        LocalDate firstDay = today().minusDays(windowDays - 1L);
+        dailyRollupAccumulator.flush();
+
+        Map<LocalDate, DayStats> loaded = new ConcurrentHashMap<>();
+        List<DataRollupRow> dataRows = dailyRollupRepository.findDataRollupsSince(firstDay);
+        List<EnvironmentRollupRow> environmentRows = dailyRollupRepository.findEnvironmentRollupsSince(firstDay);
+        dataRows.forEach(row -> loaded.computeIfAbsent(row.day(), d -> new DayStats()).add(row));
+        environmentRows.forEach(row -> loaded.computeIfAbsent(row.day(), d -> new DayStats()).add(row));
+
+        dataTypeNames.reload();
+        sourceLocationNames.reload();
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        instanceCounts = instanceRepository.countByStatusAndActivity(
+            now.minusDays(1), now.minusDays(7), now.minusDays(30));
+        days = loaded;
+        refreshedAt = now;
+
+        log.debug("Snapshot de estatísticas recarregado - {} dias, {} linhas de rollup em {} ms",
+            loaded.size(), dataRows.size() + environmentRows.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Soma ao snapshot os deltas de rollup de uma transação de ingestão, após o commit
+     * (sem transação ativa, soma na hora).
+     */
+    public void applyAfterCommit(List<DataRollupRow> dataDeltas, List<EnvironmentRollupRow> environmentDeltas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(dataDeltas, environmentDeltas);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(dataDeltas, environmentDeltas);
+            }
+        });
+    }
+
+    private void apply(List<DataRollupRow> dataDeltas, List<EnvironmentRollupRow> environmentDeltas) {
+        Map<LocalDate, DayStats> current = days;
+        dataDeltas.forEach(row -> current.computeIfAbsent(row.day(), d -> new DayStats()).add(row));
+        environmentDeltas.forEach(row -> current.computeIfAbsent(row.day(), d -> new DayStats()).add(row));
+    }
+
+    /**
+     * Soma por tipo de dado nos últimos {@code lastDays} dias, em ordem decrescente de total.
+     */
+    public List<Total> totalsByDataType(int lastDays) {
+        Map<Integer, long[]> totals = new HashMap<>();
+        forEachDay(lastDays, day -> day.data.forEach((key, counters) ->
+            add(totals, (int) key.dataTypeId(), counters)));
+        return named(totals, dataTypeNames.resolve(totals.keySet()));
+    }
+
+    /**
+     * Localizações com maior total nos últimos {@code lastDays} dias.
+     *
+     * @param dataType filtra por tipo de dado (null = todos)
+     */
+    public List<Total> topSourceLocations(int lastDays, String dataType, int limit) {
+        Map<DataKey, long[]> byKey = new HashMap<>();
+        forEachDay(lastDays, day -> day.data.forEach((key, counters) -> add(byKey, key, counters)));
+
+        Map<Integer, String> typeNames = dataType == null ? Map.of()
+            : dataTypeNames.resolve(byKey.keySet().stream().map(key -> (int) key.dataTypeId()).toList());
+        Map<Integer, long[]> totals = new HashMap<>();
+        byKey.forEach((key, total) -> {
+            if (dataType == null || dataType.equals(typeNames.get((int) key.dataTypeId()))) {
+                long[] sum = totals.computeIfAbsent(key.sourceLocationId(), k -> new long[2]);
+                sum[0] += total[0];
+                sum[1] += total[1];
+            }
+        });
+        List<Total> ranked = named(totals, sourceLocationNames.resolve(totals.keySet()));
+        return ranked.subList(0, Math.min(limit, ranked.size()));
+    }
+
+    /**
+     * Distribuição de scans por versão (do scanner, do WordPress ou do PHP) nos últimos {@code lastDays} dias.
+     */
+    public List<Total> scansByVersion(int lastDays, Function<EnvironmentKey, String> version) {
+        Map<String, long[]> totals = new HashMap<>();
+        forEachDay(lastDays, day -> day.environments.forEach((key, counters) -> {
+            long[] total = totals.computeIfAbsent(version.apply(key), v -> new long[2]);
+            total[0] += counters[0].sum();
+            total[1] += counters[1].sum();
+        }));
+        return totals.entrySet().stream()
+            .map(entry -> new Total(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+            .sorted(Comparator.comparingLong(Total::scanCount).reversed().thenComparing(Total::name))
+            .toList();
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private void forEachDay(int lastDays, Consumer<DayStats> action) {
+        LocalDate first = today().minusDays(lastDays - 1L);
+        days.forEach((day, stats) -> {
+            if (!day.isBefore(first)) {
+                action.accept(stats);
+            }
+        });
+    }
+
+    private static <K> void add(Map<K, long[]> totals, K key, LongAdder[] counters) {
+        long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+        total[0] += counters[0].sum();
+        total[1] += counters[1].sum();
+    }
+
+    private static List<Total> named(Map<Integer, long[]> totals, Map<Integer, String> names) {
+        List<Total> result = new ArrayList<>(totals.size());
+        totals.forEach((id, total) -> result.add(new Total(names.get(id), total[0], total[1])));
+        result.sort(Comparator.comparingLong(Total::totalCount).reversed().thenComparing(Total::name));
+        return result;
+    }
+
+    /**
+     * Textos de uma tabela de dicionário por ID.
+     *
+     * Relida inteira só em {@link #refresh} (tabelas pequenas, fora do caminho das consultas).
+     * IDs desconhecidos de uma consulta saem em uma única leitura por id = ANY(...); os que
+     * nem assim existem ficam como "#id" até a próxima recarga, sem nova ida ao banco.
+     */
+    private final class DictionaryNames {
+
+        private final String table;
+        private volatile Map<Integer, String> names = new ConcurrentHashMap<>();
+
+        private DictionaryNames(String table) {
+            this.table = table;
+        }
+
+        private void reload() {
+            names = new ConcurrentHashMap<>(dictionaryRepository.findAllNames(table));
+        }
+
+        /**
+         * @return mapa com um texto para cada um dos IDs informados
+         */
+        private Map<Integer, String> resolve(Collection<Integer> ids) {
+            Map<Integer, String> current = names;
+            Set<Integer> missing = new HashSet<>();
+            for (Integer id : ids) {
+                if (!current.containsKey(id)) {
+                    missing.add(id);
+                }
+            }
+            if (!missing.isEmpty()) {
+                Map<Integer, String> loaded = dictionaryRepository.findNames(table, missing);
+                missing.forEach(id -> current.putIfAbsent(id, loaded.getOrDefault(id, "#" + id)));
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Agregado de um nome (tipo, localização ou versão).
+     *
+     * @param totalCount soma das contagens reportadas
+     * @param scanCount scans que reportaram (por tipo de dado: soma por localização)
+     */
+    public record Total(String name, long totalCount, long scanCount) {
+    }
+
+    public record EnvironmentKey(String scannerVersion, String wpVersion, String phpVersion) {
+    }
+
+    private record DataKey(short dataTypeId, int sourceLocationId) {
+    }
+
+    /**
+     * Agregados de um dia. Contadores [total, scans] em LongAdder: deltas de várias
+     * transações são somados em paralelo sem lock.
+     */
+    private static final class DayStats {
+
+        private final Map<DataKey, LongAdder[]> data = new ConcurrentHashMap<>();
+        private final Map<EnvironmentKey, LongAdder[]> environments = new ConcurrentHashMap<>();
+
+        private void add(DataRollupRow row) {
+            LongAdder[] counters = data.computeIfAbsent(
+                new DataKey(row.dataTypeId(), row.sourceLocationId()), k -> newCounters());
+            counters[0].add(row.totalCount());
+            counters[1].add(row.scanCount());
+        }
+
+        private void add(EnvironmentRollupRow row) {
+            LongAdder[] counters = environments.computeIfAbsent(
+                new EnvironmentKey(row.scannerVersion(), row.wpVersion(), row.phpVersion()), k -> newCounters());
+            counters[0].add(row.totalCount());
+            counters[1].add(row.scanCount());
+        }
+
+        private static LongAdder[] newCounters() {
+            return new LongAdder[] {new LongAdder(), new LongAdder()};
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.InstanceStatsResponse;
+import com.br.radarlgpd.radarlgpd.dto.StatsResponse;
+import com.br.radarlgpd.radarlgpd.dto.StatsTotal;
+import com.br.radarlgpd.radarlgpd.dto.VersionStatsResponse;
+import com.br.radarlgpd.radarlgpd.repository.InstanceCounts;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Consultas de /v1/stats, respondidas a partir do {@link StatsAggregate} (somente memória).
+ * O período pedido é limitado à janela mantida no snapshot.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatsService {
+
+    private final StatsAggregate statsAggregate;
+
+    public StatsResponse dataTypes(int days) {
+        int lastDays = clampDays(days);
+        return response(lastDays, statsAggregate.totalsByDataType(lastDays));
+    }
+
+    public StatsResponse sourceLocations(int days, String dataType, int limit) {
+        int lastDays = clampDays(days);
+        return response(lastDays, statsAggregate.topSourceLocations(lastDays, dataType, Math.max(1, limit)));
+    }
+
+    public VersionStatsResponse versions(int days) {
+        int lastDays = clampDays(days);
+        LocalDate today = statsAggregate.today();
+        return VersionStatsResponse.builder()
+            .from(today.minusDays(lastDays - 1L))
+            .to(today)
+            .refreshedAt(statsAggregate.getRefreshedAt())
+            .scanner(toDto(statsAggregate.scansByVersion(lastDays, StatsAggregate.EnvironmentKey::scannerVersion)))
+            .wordpress(toDto(statsAggregate.scansByVersion(lastDays, StatsAggregate.EnvironmentKey::wpVersion)))
+            .php(toDto(statsAggregate.scansByVersion(lastDays, StatsAggregate.EnvironmentKey::phpVersion)))
+            .build();
+    }
+
+    public InstanceStatsResponse instances() {
+        InstanceCounts counts = statsAggregate.getInstanceCounts();
+        return InstanceStatsResponse.builder()
+            .total(counts.total())
+            .active(counts.active())
+            .inactive(counts.inactive())
+            .banned(counts.banned())
+            .seenLastDay(counts.seenLastDay())
+            .seenLastWeek(counts.seenLastWeek())
+            .seenLastMonth(counts.seenLastMonth())
+            .refreshedAt(statsAggregate.getRefreshedAt())
+            .build();
+    }
+
+    private int clampDays(int days) {
+        return Math.max(1, Math.min(days, statsAggregate.getWindowDays()));
+    }
+
+    private StatsResponse response(int lastDays, List<StatsAggregate.Total> totals) {
+        LocalDate today = statsAggregate.today();
+        return StatsResponse.builder()
+            .from(today.minusDays(lastDays - 1L))
+            .to(today)
+            .refreshedAt(statsAggregate.getRefreshedAt())
+            .items(toDto(totals))
+            .build();
+    }
+
+    private static List<StatsTotal> toDto(List<StatsAggregate.Total> totals) {
+        return totals.stream()
+            .map(total -> StatsTotal.builder()
+                .name(total.name())
+                .totalCount(total.totalCount())
+                .scanCount(total.scanCount())
+                .build())
+            .toList();
+    }
+}
@@ -0,0 +1,132 @@
+package com.br.radarlgpd.radarlgpd.benchmark;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark (JMH) do custo de parse de {@link ScanResultRequest} por formato:
+ * JSON x CBOR x Smile.
+ *
+ * Não roda no build normal. Execução:
+ * <pre>
+ * mvn test -Dtest=PayloadFormatBenchmarkTest -Dbenchmark=true
+ * </pre>
+ *
+ * Payloads: test-payload.json (2 resultados) e dois sintéticos com 100 e 1000 resultados,
+ * no perfil dos nossos scans (muitos contadores, poucos textos distintos). Os mappers usam
+ * as mesmas regras strict de spring.jackson.* (fail-on-unknown-properties e
+ * fail-on-null-for-primitives). Além do tempo por operação, imprime o tamanho de cada
+ * payload por formato.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class PayloadFormatBenchmarkTest {
+
+    @Test
+    @DisplayName("Benchmark: custo de parse de ScanResultRequest por formato")
+    void compararFormatos() throws Exception {
+        PayloadState sizes = new PayloadState();
+        for (String payload : List.of("test-payload", "synthetic-100", "synthetic-1000")) {
+            sizes.payload = payload;
+            for (String format : List.of("json", "cbor", "smile")) {
+                sizes.format = format;
+                sizes.setUp();
+                System.out.printf("%-16s %-6s %8d bytes%n", payload, format, sizes.bytes.length);
+            }
+        }
+
+        new Runner(new OptionsBuilder()
+            .include(PayloadFormatBenchmarkTest.class.getSimpleName())
+            .build()).run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    public ScanResultRequest parse(PayloadState state) throws Exception {
+        return state.mapper.readValue(state.bytes, ScanResultRequest.class);
+    }
+
+    @State(Scope.Benchmark)
+    public static class PayloadState {
+
+        @Param({"test-payload", "synthetic-100", "synthetic-1000"})
+        String payload;
+
+        @Param({"json", "cbor", "smile"})
+        String format;
+
+        ObjectMapper mapper;
+        byte[] bytes;
+
+        @Setup
+        public void setUp() throws Exception {
+            ObjectMapper json = strict(new ObjectMapper());
+            ScanResultRequest request = json.readValue(
+                Files.readAllBytes(Path.of("test-payload.json")), ScanResultRequest.class);
+
+            if (payload.startsWith("synthetic-")) {
+                request.setResults(syntheticResults(Integer.parseInt(payload.substring("synthetic-".length()))));
+            }
+
+            mapper = switch (format) {
+                case "cbor" -> strict(new CBORMapper());
+                case "smile" -> strict(new SmileMapper());
+                default -> json;
+            };
+            bytes = mapper.writeValueAsBytes(request);
+        }
+
+        private static ObjectMapper strict(ObjectMapper mapper) {
+            return mapper
+                .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .enable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES);
+        }
+
+        private static List<DataResult> syntheticResults(int count) {
+            String[] dataTypes = {"CPF", "CNPJ", "EMAIL", "TELEFONE", "RG", "CEP"};
+            String[] locations = {
+                "wp_comments.comment_content", "wp_users.user_email", "wp_postmeta.meta_value",
+                "wp_usermeta.meta_value", "wp_posts.post_content", "wp_options.option_value"
+            };
+
+            List<DataResult> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                results.add(DataResult.builder()
+                    .dataType(dataTypes[i % dataTypes.length])
+                    .sourceLocation(locations[(i / dataTypes.length) % locations.length] + "_" + (i / 36))
+                    .count(i * 37 % 10_000)
+                    .build());
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.br.radarlgpd.radarlgpd.benchmark;
+
+import com.br.radarlgpd.radarlgpd.config.CaffeineRateLimitEngine;
+import com.br.radarlgpd.radarlgpd.config.PackedRateLimitEngine;
+import com.br.radarlgpd.radarlgpd.config.RateLimitEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark (JMH) dos motores de rate limit: {@link CaffeineRateLimitEngine}
+ * (Caffeine&lt;String, Bucket&gt;) x {@link PackedRateLimitEngine} (tabela primitiva lock-free).
+ *
+ * Não roda no build normal. Execução:
+ * <pre>
+ * mvn test -Dtest=RateLimitEngineBenchmarkTest -Dbenchmark=true
+ * </pre>
+ *
+ * Mede:
+ * <ul>
+ *   <li>memória por IP acompanhado: heap ocupado após registrar 100 mil IPs distintos;</li>
+ *   <li>ns/op com 8 threads concorrentes, para um único IP (todas as threads no mesmo bucket)
+ *       e para 10 mil IPs, partindo do valor bruto de X-Forwarded-For ("ip, proxy").</li>
+ * </ul>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class RateLimitEngineBenchmarkTest {
+
+    private static final int TRACKED_IPS = 100_000;
+    private static final long CAPACITY = 0xFFFFFFFFL;
+
+    @Test
+    @DisplayName("Benchmark: memória por IP e ns/op sob contenção dos motores de rate limit")
+    void compararMotores() throws Exception {
+        String[] headers = forwardedFor(TRACKED_IPS);
+        for (String engine : List.of("caffeine", "packed")) {
+            long before = usedHeap();
+            RateLimitEngine limiter = create(engine);
+            for (String header : headers) {
+                limiter.tryConsume(header, "127.0.0.1", 1);
+            }
+            long after = usedHeap();
+            System.out.printf("%-9s %,d IPs: %,d bytes/IP%n",
+                engine, TRACKED_IPS, (after - before) / TRACKED_IPS);
+            // Mantém o motor alcançável até a medição
+            limiter.tryConsume(headers[0], "127.0.0.1", 1);
+        }
+
+        new Runner(new OptionsBuilder()
+            .include(RateLimitEngineBenchmarkTest.class.getSimpleName())
+            .build()).run();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    @Threads(8)
+    public long tryConsume(EngineState state) {
+        String[] headers = state.headers;
+        return state.limiter.tryConsume(
+            headers[ThreadLocalRandom.current().nextInt(headers.length)], "127.0.0.1", 1);
+    }
+
+    @State(Scope.Benchmark)
+    public static class EngineState {
+
+        @Param({"caffeine", "packed"})
+        String engine;
+
+        @Param({"1", "10000"})
+        int clients;
+
+        RateLimitEngine limiter;
+        String[] headers;
+
+        @Setup
+        public void setUp() {
+            limiter = create(engine);
+            headers = forwardedFor(clients);
+        }
+    }
+
+    /**
+     * Capacidade máxima do motor compacto: o saldo não se esgota durante a medição.
+     */
+    private static RateLimitEngine create(String engine) {
+        return switch (engine) {
+            case "caffeine" -> new CaffeineRateLimitEngine(CAPACITY, Duration.ofHours(1), TRACKED_IPS * 2L);
+            case "packed" -> new PackedRateLimitEngine(CAPACITY, Duration.ofHours(1), TRACKED_IPS * 2L);
+            default -> throw new IllegalArgumentException(engine);
+        };
+    }
+
+    private static String[] forwardedFor(int count) {
+        String[] headers = new String[count];
+        for (int i = 0; i < count; i++) {
+            headers[i] = String.format("10.%d.%d.%d, 192.0.2.1", (i >>> 16) & 0xFF, (i >>> 8) & 0xFF, i & 0xFF);
+        }
+        return headers;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
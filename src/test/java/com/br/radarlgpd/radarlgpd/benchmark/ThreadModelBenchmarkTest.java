@@ -0,0 +1,202 @@
+package com.br.radarlgpd.radarlgpd.benchmark;
+
+import com.br.radarlgpd.radarlgpd.RadarlgpdApplication;
+import com.br.radarlgpd.radarlgpd.entity.Instance;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark do modelo de threads: platform threads (pool fixo do Tomcat) x virtual threads,
+ * com o Postgres lento (trigger com pg_sleep em cada INSERT de scan_results).
+ *
+ * Não roda no build normal. Execução:
+ * <pre>
+ * mvn test -Dtest=ThreadModelBenchmarkTest -Dbenchmark=true \
+ *     -Dbench.tomcatThreads=50 -Dbench.hikariPool=100 -Dbench.concurrency=400 \
+ *     -Dbench.dbDelayMs=20 -Dbench.durationSeconds=20
+ * </pre>
+ *
+ * Para cada modo sobe a aplicação em porta aleatória, aquece, dispara scans autenticados
+ * com {@code bench.concurrency} clientes simultâneos e imprime throughput, p50 e p99.
+ * Com platform threads a concorrência efetiva fica limitada a bench.tomcatThreads; com
+ * virtual threads, a bench.hikariPool.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ThreadModelBenchmarkTest {
+
+    private static final int TOMCAT_THREADS = Integer.getInteger("bench.tomcatThreads", 50);
+    private static final int HIKARI_POOL = Integer.getInteger("bench.hikariPool", 100);
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 400);
+    private static final int DB_DELAY_MS = Integer.getInteger("bench.dbDelayMs", 20);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("bench.durationSeconds", 20));
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+
+    private static final String SCAN_TEMPLATE = """
+        {"scanId":"%s","siteId":"e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",\
+        "consentGiven":true,"scanTimestampUtc":"2025-10-20T14:30:01Z","scanDurationMs":4580,\
+        "scannerVersion":"1.0.0-mvp","environment":{"wpVersion":"6.4.1","phpVersion":"8.1"},\
+        "results":[{"dataType":"CPF","sourceLocation":"wp_comments.comment_content","count":152}]}""";
+
+    @Test
+    @DisplayName("Benchmark: platform threads x virtual threads com Postgres lento")
+    void compararModelosDeThreads() throws Exception {
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-10s %8s %8s %12s %10s %10s %8s",
+            "modo", "tomcat", "hikari", "req/s", "p50 ms", "p99 ms", "erros"));
+
+        report.add(run(false));
+        report.add(run(true));
+
+        System.out.printf("%n=== Benchmark modelo de threads (concorrência %d, atraso do banco %d ms, %ds) ===%n",
+            CONCURRENCY, DB_DELAY_MS, DURATION.toSeconds());
+        report.forEach(System.out::println);
+    }
+
+    private String run(boolean virtualThreads) throws Exception {
+        // Argumentos de linha de comando: precedência sobre application-local.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RadarlgpdApplication.class).run(
+            "--server.port=0",
+            "--spring.threads.virtual.enabled=" + virtualThreads,
+            "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+            "--spring.datasource.hikari.maximum-pool-size=" + HIKARI_POOL,
+            "--radarlgpd.rate-limit.requests-per-hour=" + Integer.MAX_VALUE,
+            "--radarlgpd.rate-limit.instance-token.requests-per-hour=" + Integer.MAX_VALUE,
+            "--radarlgpd.rate-limit.site-id.requests-per-hour=" + Integer.MAX_VALUE,
+            // Evita contenção na linha da instância (todos os scans são da mesma instância)
+            "--radarlgpd.instance-activity.coalesce=true",
+            "--logging.level.com.br.radarlgpd=WARN")) {
+
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            Instance instance = context.getBean(InstanceRepository.class).save(Instance.builder()
+                .instanceToken(UUID.randomUUID().toString())
+                .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+                .status("active")
+                .scannerVersionAtRegistration("bench")
+                .scanCount(0)
+                .build());
+            String token = instance.getInstanceToken();
+            Long instanceId = instance.getId();
+            installSlowInsertTrigger(jdbc);
+
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                URI uri = URI.create("http://localhost:" + port + "/v1/telemetry/scan-result");
+
+                load(uri, token, WARM_UP);
+                Result result = load(uri, token, DURATION);
+
+                return String.format("%-10s %8d %8d %12.1f %10.1f %10.1f %8d",
+                    virtualThreads ? "virtual" : "platform", TOMCAT_THREADS, HIKARI_POOL,
+                    result.count() / (double) DURATION.toSeconds(),
+                    result.percentileMs(50), result.percentileMs(99), result.errors());
+            } finally {
+                jdbc.execute("DROP TRIGGER IF EXISTS bench_slow_insert ON scan_results");
+                jdbc.update("DELETE FROM data_results WHERE scan_result_id IN "
+                    + "(SELECT id FROM scan_results WHERE instance_id = ?)", instanceId);
+                jdbc.update("DELETE FROM scan_results WHERE instance_id = ?", instanceId);
+                jdbc.update("DELETE FROM instances WHERE id = ?", instanceId);
+            }
+        }
+    }
+
+    private void installSlowInsertTrigger(JdbcTemplate jdbc) {
+        jdbc.execute("""
+            CREATE OR REPLACE FUNCTION bench_slow_insert() RETURNS trigger AS $$
+            BEGIN
+                PERFORM pg_sleep(%s / 1000.0);
+                RETURN NEW;
+            END
+            $$ LANGUAGE plpgsql
+            """.formatted(DB_DELAY_MS));
+        jdbc.execute("DROP TRIGGER IF EXISTS bench_slow_insert ON scan_results");
+        jdbc.execute("CREATE TRIGGER bench_slow_insert BEFORE INSERT ON scan_results "
+            + "FOR EACH ROW EXECUTE FUNCTION bench_slow_insert()");
+    }
+
+    /**
+     * Dispara scans com {@link #CONCURRENCY} clientes até o fim da janela.
+     */
+    private Result load(URI uri, String token, Duration window) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        long deadline = System.nanoTime() + window.toNanos();
+        AtomicLong errors = new AtomicLong();
+
+        List<Future<long[]>> clients = new ArrayList<>(CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENCY; c++) {
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                            .timeout(Duration.ofSeconds(60))
+                            .header("Content-Type", "application/json")
+                            .header("Authorization", "Bearer " + token)
+                            .POST(HttpRequest.BodyPublishers.ofString(SCAN_TEMPLATE.formatted(UUID.randomUUID())))
+                            .build();
+
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+
+                        if (n == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, n * 2);
+                        }
+                        latencies[n++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, n);
+                }));
+            }
+        }
+
+        List<long[]> perClient = new ArrayList<>(CONCURRENCY);
+        for (Future<long[]> future : clients) {
+            perClient.add(future.get());
+        }
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private record Result(long[] sortedLatenciesNanos, long errors) {
+
+        long count() {
+            return sortedLatenciesNanos.length;
+        }
+
+        double percentileMs(int percentile) {
+            if (sortedLatenciesNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatenciesNanos.length) - 1;
+            return sortedLatenciesNanos[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+import com.br.radarlgpd.radarlgpd.service.RateLimitBucketSweeper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rate limit distribuído: nós diferentes (instâncias do motor com near-caches próprios)
+ * cobram do mesmo bucket em rate_limit_buckets.
+ */
+@SpringBootTest(properties = {
+    "radarlgpd.rate-limit.engine=postgres",
+    "radarlgpd.rate-limit.distributed.cleanup-interval-ms=3600000"
+})
+class PostgresRateLimitEngineTest {
+
+    private static final String MIGRATION = "scripts/migrations/006-rate-limit-buckets.sql";
+
+    @Autowired
+    private RateLimitEngineFactory engineFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private RateLimitBucketSweeper bucketSweeper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createTable() throws Exception {
+        jdbcTemplate.execute(Files.readString(Path.of(MIGRATION)));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM rate_limit_buckets");
+    }
+
+    @Test
+    @DisplayName("radarlgpd.rate-limit.engine=postgres deve usar o motor distribuído")
+    void propriedadeDeveSelecionarMotorDistribuido() {
+        RateLimitEngine engine = engineFactory.create(100);
+        assertThat(engine).isInstanceOf(PostgresRateLimitEngine.class);
+        assertThat(engine.tryConsume(null, "10.0.7.1", 1)).isEqualTo(99);
+    }
+
+    @Test
+    @DisplayName("Dois nós devem compartilhar o limite do mesmo IP")
+    void doisNosDevemCompartilharLimite() {
+        PostgresRateLimitEngine first = node(4, 0, Duration.ZERO);
+        PostgresRateLimitEngine second = node(4, 0, Duration.ZERO);
+
+        assertThat(first.tryConsume("10.0.7.2", "127.0.0.1", 1)).isEqualTo(3);
+        assertThat(second.tryConsume("10.0.7.2", "127.0.0.1", 1)).isEqualTo(2);
+        assertThat(first.tryConsume("10.0.7.2", "127.0.0.1", 1)).isEqualTo(1);
+        assertThat(second.tryConsume("10.0.7.2", "127.0.0.1", 1)).isZero();
+        assertThat(first.tryConsume("10.0.7.2", "127.0.0.1", 1)).isEqualTo(-1);
+        assertThat(second.tryConsume("10.0.7.2", "127.0.0.1", 1)).isEqualTo(-1);
+
+        // Outro IP tem bucket próprio
+        assertThat(second.tryConsume("10.0.7.3", "127.0.0.1", 1)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Near-cache deve cobrar localmente até max-unsynced-tokens e então sincronizar")
+    void nearCacheDeveAgruparSincronizacoes() {
+        PostgresRateLimitEngine batching = node(100, 10, Duration.ofHours(1));
+        PostgresRateLimitEngine observer = node(100, 0, Duration.ZERO);
+
+        for (int i = 0; i < 5; i++) {
+            batching.tryConsume("10.0.7.4", "127.0.0.1", 1);
+        }
+        // Consumo local ainda não chegou ao banco
+        assertThat(observer.tryConsume("10.0.7.4", "127.0.0.1", 1)).isGreaterThan(93);
+
+        for (int i = 0; i < 10; i++) {
+            batching.tryConsume("10.0.7.4", "127.0.0.1", 1);
+        }
+        // Passou de max-unsynced-tokens: sincronizado
+        assertThat(observer.tryConsume("10.0.7.4", "127.0.0.1", 1)).isLessThanOrEqualTo(98 - 10);
+    }
+
+    @Test
+    @DisplayName("Limpeza deve remover só buckets ociosos há mais de um período")
+    void limpezaDeveRemoverBucketsOciosos() {
+        PostgresRateLimitEngine node = node(4, 0, Duration.ZERO);
+        node.tryConsume("10.0.7.5", "127.0.0.1", 1);
+        node.tryConsume("10.0.7.6", "127.0.0.1", 1);
+        // UPDATE direto dispararia a trigger de updated_at
+        jdbcTemplate.execute("ALTER TABLE rate_limit_buckets DISABLE TRIGGER rate_limit_buckets_touch");
+        try {
+            jdbcTemplate.update("UPDATE rate_limit_buckets SET updated_at = now() - interval '2 hours' WHERE id = ?",
+                ClientAddressKey.of("10.0.7.5", null));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE rate_limit_buckets ENABLE TRIGGER rate_limit_buckets_touch");
+        }
+
+        bucketSweeper.removeIdleBuckets();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM rate_limit_buckets", Long.class))
+            .containsExactly(ClientAddressKey.of("10.0.7.6", null));
+    }
+
+    /**
+     * Simula um nó do cluster: motor com near-cache próprio sobre o mesmo banco.
+     */
+    private PostgresRateLimitEngine node(int capacity, long maxUnsyncedTokens, Duration maxUnsyncedTimeout) {
+        return new PostgresRateLimitEngine(dataSource, new SimpleMeterRegistry(),
+            capacity, 1000, maxUnsyncedTokens, maxUnsyncedTimeout, Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,87 @@
+package com.br.radarlgpd.radarlgpd.config;
+
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository.DayRange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Garante que o rebuild dos rollups não recalcula dias cujos dados brutos já foram
+ * compactados ou descartados (o recálculo os zeraria).
+ */
+@SpringBootTest
+class RollupRebuildRunnerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+    private static final LocalDate FIRST = LocalDate.of(2001, 6, 1);
+    private static final LocalDate LAST = LocalDate.of(2001, 6, 30);
+
+    @Autowired
+    private DailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM daily_instance_rollups WHERE day BETWEEN ? AND ?", FIRST, LAST);
+    }
+
+    @Test
+    @DisplayName("from anterior ao corte da compactação é recusado")
+    void refusesFromBeforeCompactionCutoff() {
+        RollupRebuildRunner runner = runner("2026-07-01", "2026-10-16", true, false);
+
+        // corte em 2026-07-19 (90 dias); o primeiro dia íntegro é 2026-07-20
+        assertThatThrownBy(() -> runner.resolveDays(TODAY))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("2026-07-20");
+    }
+
+    @Test
+    @DisplayName("from anterior à retenção de partições é recusado")
+    void refusesFromBeforeRetention() {
+        RollupRebuildRunner runner = runner("2025-09-30", "2026-10-16", false, true);
+
+        assertThatThrownBy(() -> runner.resolveDays(TODAY))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("2025-10-01");
+    }
+
+    @Test
+    @DisplayName("Intervalo com dias em daily_instance_rollups é recusado")
+    void refusesCompactedDays() {
+        jdbcTemplate.update("""
+            INSERT INTO daily_instance_rollups (day, instance_id, data_type_id, source_location_id, total_count, scan_count)
+            VALUES (?, 1, 1, 1, 10, 1)
+            """, LocalDate.of(2001, 6, 15));
+
+        RollupRebuildRunner runner = runner(FIRST.toString(), LAST.toString(), false, false);
+
+        assertThatThrownBy(() -> runner.resolveDays(TODAY))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("2001-06-15");
+    }
+
+    @Test
+    @DisplayName("Intervalo só com dados brutos é aceito")
+    void acceptsRawDays() {
+        RollupRebuildRunner runner = runner(FIRST.toString(), LAST.toString(), false, false);
+
+        assertThat(runner.resolveDays(TODAY)).contains(new DayRange(FIRST, LAST));
+    }
+
+    private RollupRebuildRunner runner(String from, String to, boolean compactionEnabled, boolean partitionsEnabled) {
+        return new RollupRebuildRunner(null, dailyRollupRepository, null, from, to, 1,
+            compactionEnabled, 90, partitionsEnabled, 12);
+    }
+}
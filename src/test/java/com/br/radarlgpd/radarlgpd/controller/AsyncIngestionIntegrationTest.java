@@ -0,0 +1,187 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.entity.Instance;
+import com.br.radarlgpd.radarlgpd.repository.DataResultRepository;
+import com.br.radarlgpd.radarlgpd.entity.ScanDeadLetter;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanDeadLetterRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import com.br.radarlgpd.radarlgpd.service.ScanIngestQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testes de integração do modo de ingestão assíncrona (write-behind).
+ *
+ * Sem @Transactional: a thread escritora persiste em transações próprias,
+ * então os dados precisam estar commitados para serem observados.
+ */
+@SpringBootTest(properties = "radarlgpd.ingest.mode=async")
+@AutoConfigureMockMvc
+class AsyncIngestionIntegrationTest {
+
+    private static final Duration WRITE_TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private DataResultRepository dataResultRepository;
+
+    @Autowired
+    private ScanDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private ScanIngestQueue scanIngestQueue;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        deadLetterRepository.deleteAll();
+        dataResultRepository.deleteAll();
+        scanResultRepository.deleteAll();
+        instanceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Modo async: deve responder 202 e persistir o scan em segundo plano")
+    void deveResponder202EPersistirEmSegundoPlano() throws Exception {
+        Instance instance = instanceRepository.save(createInstance());
+        ScanResultRequest request = createValidRequest();
+
+        mockMvc.perform(post("/v1/telemetry/scan-result")
+                .header("Authorization", "Bearer " + instance.getInstanceToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.status").value("accepted"));
+
+        awaitUntil(() -> scanResultRepository.existsByScanId(request.getScanId()));
+
+        assertThat(dataResultRepository.count()).isEqualTo(1);
+        awaitUntil(() -> instanceRepository.findById(instance.getId()).orElseThrow().getScanCount() == 1);
+    }
+
+    @Test
+    @DisplayName("Modo async: registro devolve token com 202 e scan duplicado é persistido uma única vez")
+    void registroDevolveTokenEScanDuplicadoEhIgnorado() throws Exception {
+        ScanResultRequest request = createValidRequest();
+        String payload = objectMapper.writeValueAsString(request);
+
+        mockMvc.perform(post("/v1/telemetry/scan-result")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.status").value("registered"))
+            .andExpect(jsonPath("$.instance_token").isNotEmpty());
+
+        mockMvc.perform(post("/v1/telemetry/scan-result")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload))
+            .andExpect(status().isAccepted());
+
+        awaitUntil(() -> scanResultRepository.existsByScanId(request.getScanId()));
+        Thread.sleep(1000); // dá tempo para o segundo scan (duplicado) passar pela fila
+
+        assertThat(scanResultRepository.count()).isEqualTo(1);
+        assertThat(instanceRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Modo async: scan que falha também sozinho vai para scan_dead_letters e é contado")
+    void scanComFalhaPermanenteVaiParaDeadLetter() throws Exception {
+        Instance instance = instanceRepository.save(createInstance());
+        ScanResultRequest valid = createValidRequest();
+        // scanner_version acima de 50 caracteres: o INSERT falha (a validação do controller foi pulada)
+        ScanResultRequest invalid = createValidRequest();
+        invalid.setScannerVersion("9".repeat(60));
+        double before = meterRegistry.counter("radarlgpd.ingest.dead_letters").count();
+
+        assertThat(scanIngestQueue.offer(invalid, instance.getId())).isTrue();
+        assertThat(scanIngestQueue.offer(valid, instance.getId())).isTrue();
+
+        awaitUntil(() -> !deadLetterRepository.findByScanId(invalid.getScanId()).isEmpty());
+        awaitUntil(() -> scanResultRepository.existsByScanId(valid.getScanId()));
+
+        ScanDeadLetter deadLetter = deadLetterRepository.findByScanId(invalid.getScanId()).get(0);
+        assertThat(deadLetter.getInstanceId()).isEqualTo(instance.getId());
+        assertThat(objectMapper.readValue(deadLetter.getPayload(), ScanResultRequest.class).getScanId())
+            .isEqualTo(invalid.getScanId());
+        assertThat(scanResultRepository.existsByScanId(invalid.getScanId())).isFalse();
+        assertThat(meterRegistry.counter("radarlgpd.ingest.dead_letters").count()).isEqualTo(before + 1);
+    }
+
+    private void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        Instant deadline = Instant.now().plus(WRITE_TIMEOUT);
+        while (!condition.getAsBoolean()) {
+            assertThat(Instant.now()).as("condição não atingida em %s", WRITE_TIMEOUT).isBefore(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private Instance createInstance() {
+        return Instance.builder()
+            .instanceToken(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .status("active")
+            .scannerVersionAtRegistration("1.0.0")
+            .scanCount(0)
+            .build();
+    }
+
+    private ScanResultRequest createValidRequest() {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(
+                DataResult.builder()
+                    .dataType("CPF")
+                    .sourceLocation("wp_comments.comment_content")
+                    .count(152)
+                    .build()
+            ))
+            .build();
+    }
+}
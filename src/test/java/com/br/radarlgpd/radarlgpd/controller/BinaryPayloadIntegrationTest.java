@@ -0,0 +1,133 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testes de integração dos formatos binários (CBOR e Smile) no envio de scans.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class BinaryPayloadIntegrationTest {
+
+    private static final String SCAN_URL = "/v1/telemetry/scan-result";
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final SmileMapper smileMapper = new SmileMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Scan em CBOR deve ser processado como o JSON")
+    void scanEmCborDeveSerProcessado() throws Exception {
+        mockMvc.perform(post(SCAN_URL)
+                .header("X-Forwarded-For", "10.0.2.1")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(cborMapper.writeValueAsBytes(createValidRequest())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("registered"));
+    }
+
+    @Test
+    @DisplayName("Scan em Smile deve ser processado como o JSON")
+    void scanEmSmileDeveSerProcessado() throws Exception {
+        mockMvc.perform(post(SCAN_URL)
+                .header("X-Forwarded-For", "10.0.2.2")
+                .contentType(SMILE)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(smileMapper.writeValueAsBytes(createValidRequest())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("registered"));
+    }
+
+    @Test
+    @DisplayName("NFR-API-004: CBOR com campo desconhecido deve retornar 400")
+    void cborComCampoDesconhecidoDeveRetornar400() throws Exception {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> payload = objectMapper.convertValue(createValidRequest(), Map.class);
+        payload.put("userEmail", "nao-deveria-estar-aqui");
+
+        mockMvc.perform(post(SCAN_URL)
+                .header("X-Forwarded-For", "10.0.2.3")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(cborMapper.writeValueAsBytes(payload)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value(containsString("userEmail")));
+    }
+
+    @Test
+    @DisplayName("NFR-API-004: Erros de validação em Smile devem ser iguais aos do JSON")
+    void errosDeValidacaoEmSmileDevemSerIguaisAosDoJson() throws Exception {
+        ScanResultRequest request = createValidRequest();
+        request.setScanId("invalid-uuid");
+
+        String jsonErrors = mockMvc.perform(post(SCAN_URL)
+                .header("X-Forwarded-For", "10.0.2.4")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(request)))
+            .andExpect(status().isBadRequest())
+            .andReturn().getResponse().getContentAsString();
+
+        String smileErrors = mockMvc.perform(post(SCAN_URL)
+                .header("X-Forwarded-For", "10.0.2.4")
+                .contentType(SMILE)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(smileMapper.writeValueAsBytes(request)))
+            .andExpect(status().isBadRequest())
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(objectMapper.readTree(smileErrors).get("errors"))
+            .isEqualTo(objectMapper.readTree(jsonErrors).get("errors"));
+    }
+
+    private ScanResultRequest createValidRequest() {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(
+                DataResult.builder()
+                    .dataType("CPF")
+                    .sourceLocation("wp_comments.comment_content")
+                    .count(152)
+                    .build()
+            ))
+            .build();
+    }
+}
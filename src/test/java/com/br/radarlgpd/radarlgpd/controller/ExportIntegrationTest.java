@@ -0,0 +1,209 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.repository.DataResultRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import com.br.radarlgpd.radarlgpd.service.QueuedScan;
+import com.br.radarlgpd.radarlgpd.service.ScanExportService;
+import com.br.radarlgpd.radarlgpd.service.ScanResultService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testes de integração de /v1/export: autenticação, validação do intervalo, conteúdo
+ * das exportações CSV e NDJSON e limite de exportações simultâneas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ScanResultService scanResultService;
+
+    @Autowired
+    private ScanExportService scanExportService;
+
+    @Autowired
+    private DataResultRepository dataResultRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Value("${radarlgpd.api.key}")
+    private String validApiKey;
+
+    @AfterEach
+    void cleanUp() {
+        dataResultRepository.deleteAll();
+        scanResultRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("NFR-API-001: Exportação sem API Key deve retornar 401")
+    void exportacaoSemApiKeyDeveRetornar401() throws Exception {
+        mockMvc.perform(get("/v1/export/scan-results")
+                .param("from", "2026-10-01T00:00:00Z")
+                .param("to", "2026-10-02T00:00:00Z")
+                .header("X-Forwarded-For", "10.0.4.1"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Intervalo invertido ou formato desconhecido deve retornar 400")
+    void intervaloOuFormatoInvalidoDeveRetornar400() throws Exception {
+        mockMvc.perform(get("/v1/export/scan-results")
+                .param("from", "2026-10-02T00:00:00Z")
+                .param("to", "2026-10-01T00:00:00Z")
+                .header("X-Forwarded-For", "10.0.4.2")
+                .header("Authorization", "Bearer " + validApiKey))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/v1/export/scan-results")
+                .param("from", "2026-10-01T00:00:00Z")
+                .param("to", "2026-10-02T00:00:00Z")
+                .param("format", "xml")
+                .header("X-Forwarded-For", "10.0.4.2")
+                .header("Authorization", "Bearer " + validApiKey))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("CSV e NDJSON devem trazer os scans do intervalo com seus resultados")
+    void exportacaoDeveTrazerScansDoIntervalo() throws Exception {
+        OffsetDateTime receivedAt = OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+        String location = "wp_export_" + UUID.randomUUID().toString().substring(0, 8) + ".\"meta,value\"";
+        String firstScanId = UUID.randomUUID().toString();
+        String secondScanId = UUID.randomUUID().toString();
+        scanResultService.processBatch(List.of(
+            new QueuedScan(createRequest(firstScanId, List.of(result("CPF", location, 4), result("EMAIL", location, 2))),
+                1L, receivedAt),
+            new QueuedScan(createRequest(secondScanId, List.of()), 1L, receivedAt.plusNanos(500_000_000))));
+
+        String from = receivedAt.toString();
+        String to = receivedAt.plusSeconds(1).toString();
+
+        String csv = export(from, to, "csv");
+        List<String> lines = csv.lines().toList();
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).startsWith("scan_id,instance_id,site_id");
+        assertThat(lines.get(1)).startsWith(firstScanId + ",1,").endsWith(",CPF,\"" + location.replace("\"", "\"\"") + "\",4");
+        assertThat(lines.get(2)).startsWith(firstScanId + ",1,").contains(",EMAIL,");
+        assertThat(lines.get(3)).startsWith(secondScanId + ",1,").endsWith(",,,");
+
+        List<JsonNode> scans = export(from, to, "ndjson").lines().map(this::readTree).toList();
+        assertThat(scans).hasSize(2);
+        assertThat(scans.get(0).get("scan_id").asText()).isEqualTo(firstScanId);
+        assertThat(scans.get(0).get("results")).hasSize(2);
+        assertThat(scans.get(0).get("results").get(0).get("source_location").asText()).isEqualTo(location);
+        assertThat(scans.get(1).get("scan_id").asText()).isEqualTo(secondScanId);
+        assertThat(scans.get(1).get("results")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Exportação acima do limite de simultâneas deve retornar 429 até uma terminar")
+    void exportacaoAcimaDoLimiteDeveRetornar429() throws Exception {
+        OffsetDateTime from = OffsetDateTime.parse("2026-10-01T00:00:00Z");
+        OffsetDateTime to = from.plusDays(1);
+        // Duas exportações aceitas e ainda não escritas ocupam as duas vagas (radarlgpd.export.max-concurrent)
+        StreamingResponseBody first = scanExportService.export(from, to, ScanExportService.Format.CSV);
+        StreamingResponseBody second = scanExportService.export(from, to, ScanExportService.Format.NDJSON);
+        try {
+            mockMvc.perform(get("/v1/export/scan-results")
+                    .param("from", from.toString())
+                    .param("to", to.toString())
+                    .header("X-Forwarded-For", "10.0.4.4")
+                    .header("Authorization", "Bearer " + validApiKey))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                // Recusa por concorrência, não por bucket: só o limite do IP, escrito pelo filtro
+                .andExpect(header().stringValues("X-RateLimit-Limit", "100"));
+
+            first.writeTo(new ByteArrayOutputStream());
+            first = null;
+
+            assertThat(export(from.toString(), to.toString(), "csv")).startsWith("scan_id,");
+        } finally {
+            if (first != null) {
+                first.writeTo(new ByteArrayOutputStream());
+            }
+            second.writeTo(new ByteArrayOutputStream());
+        }
+    }
+
+    private String export(String from, String to, String format) throws Exception {
+        MvcResult started = mockMvc.perform(get("/v1/export/scan-results")
+                .param("from", from)
+                .param("to", to)
+                .param("format", format)
+                .header("X-Forwarded-For", "10.0.4.3")
+                .header("Authorization", "Bearer " + validApiKey))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        return mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("attachment")))
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DataResult result(String dataType, String sourceLocation, int count) {
+        return DataResult.builder().dataType(dataType).sourceLocation(sourceLocation).count(count).build();
+    }
+
+    private ScanResultRequest createRequest(String scanId, List<DataResult> results) {
+        return ScanResultRequest.builder()
+            .scanId(scanId)
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(results)
+            .build();
+    }
+}
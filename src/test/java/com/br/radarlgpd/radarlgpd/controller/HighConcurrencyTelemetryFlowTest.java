@@ -0,0 +1,17 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Contrato do fluxo de telemetria no perfil high-concurrency (virtual threads).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"local", "high-concurrency"})
+class HighConcurrencyTelemetryFlowTest extends TelemetryFlowContract {
+
+    @Override
+    protected boolean expectVirtualThreads() {
+        return true;
+    }
+}
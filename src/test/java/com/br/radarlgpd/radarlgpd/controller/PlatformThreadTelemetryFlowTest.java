@@ -0,0 +1,15 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Contrato do fluxo de telemetria no modelo padrão (pool fixo de platform threads do Tomcat).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PlatformThreadTelemetryFlowTest extends TelemetryFlowContract {
+
+    @Override
+    protected boolean expectVirtualThreads() {
+        return false;
+    }
+}
@@ -0,0 +1,226 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchItem;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchRequest;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.br.radarlgpd.radarlgpd.repository.DataResultRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Testes de integração do rate limit (NFR-API-002): chave do cliente a partir de
+ * X-Forwarded-For, IPv6 agrupado por prefixo /64, resposta 429 ao esgotar o saldo e
+ * camadas por token da instância e por siteId (cobrado só com token válido ou no registro).
+ */
+@SpringBootTest(properties = {
+    "radarlgpd.rate-limit.requests-per-hour=3",
+    "radarlgpd.rate-limit.instance-token.requests-per-hour=2",
+    "radarlgpd.rate-limit.site-id.requests-per-hour=2"
+})
+@AutoConfigureMockMvc
+class RateLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private DataResultRepository dataResultRepository;
+
+    @AfterEach
+    void cleanUp() {
+        dataResultRepository.deleteAll();
+        scanResultRepository.deleteAll();
+        instanceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("NFR-API-002: Cliente acima do limite deve receber 429")
+    void clienteAcimaDoLimiteDeveReceber429() throws Exception {
+        // Só o primeiro item de X-Forwarded-For identifica o cliente
+        request("10.0.6.1").andExpect(header().string("X-RateLimit-Remaining", "2"));
+        request(" 10.0.6.1 , 192.0.2.10").andExpect(header().string("X-RateLimit-Remaining", "1"));
+        request("10.0.6.1, 192.0.2.11").andExpect(header().string("X-RateLimit-Remaining", "0"));
+
+        request("10.0.6.1").andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "3600"));
+
+        // Outro IP tem o próprio saldo
+        request("10.0.6.2").andExpect(header().string("X-RateLimit-Remaining", "2"));
+    }
+
+    @Test
+    @DisplayName("NFR-API-002: Endereços IPv6 do mesmo /64 devem dividir o limite")
+    void enderecosIpv6DoMesmoPrefixoDevemDividirOLimite() throws Exception {
+        request("2001:db8:6:1::1").andExpect(header().string("X-RateLimit-Remaining", "2"));
+        request("2001:db8:6:1:aaaa:bbbb:cccc:dddd").andExpect(header().string("X-RateLimit-Remaining", "1"));
+        request("[2001:0db8:0006:0001::ffff]").andExpect(header().string("X-RateLimit-Remaining", "0"));
+        request("2001:db8:6:1::2").andExpect(status().isTooManyRequests());
+
+        // Outro /64
+        request("2001:db8:6:2::1").andExpect(header().string("X-RateLimit-Remaining", "2"));
+        // IPv4 mapeado em IPv6 conta como o próprio IPv4
+        request("::ffff:10.0.6.3").andExpect(header().string("X-RateLimit-Remaining", "2"));
+        request("10.0.6.3").andExpect(header().string("X-RateLimit-Remaining", "1"));
+    }
+
+    @Test
+    @DisplayName("Token da instância deve ter limite próprio, cobrado antes do IP")
+    void tokenDeveTerLimitePorInstancia() throws Exception {
+        String token = "Bearer " + UUID.randomUUID();
+
+        // Instância trocando de IP: barrada no terceiro envio
+        authenticatedRequest("10.0.6.10", token).andExpect(status().isUnauthorized());
+        authenticatedRequest("10.0.6.11", token).andExpect(status().isUnauthorized());
+        authenticatedRequest("10.0.6.12", token).andExpect(status().isTooManyRequests())
+            .andExpect(header().string("X-RateLimit-Limit", "2"))
+            .andExpect(jsonPath("$.message").value(containsString("por instância")));
+
+        // A rejeição não gastou o saldo do IP
+        request("10.0.6.12").andExpect(header().string("X-RateLimit-Remaining", "2"));
+    }
+
+    @Test
+    @DisplayName("Requisições sem token válido não devem gastar o saldo do site")
+    void tokenInvalidoNaoDeveGastarSaldoDoSite() throws Exception {
+        double before = rejections("site_id");
+        String siteId = randomSiteId();
+
+        // Tokens inexistentes com o siteId de outro site: 401, sem cobrar o site
+        for (int i = 0; i < 3; i++) {
+            scanResult("10.0.6.2" + i, "Bearer " + UUID.randomUUID(), createValidRequest(siteId))
+                .andExpect(status().isUnauthorized());
+        }
+
+        // Registros cobram o site; acima do limite o registro é desfeito
+        scanResult("10.0.6.23", null, createValidRequest(siteId)).andExpect(status().isOk());
+        scanResult("10.0.6.24", null, createValidRequest(siteId)).andExpect(status().isOk());
+        scanResult("10.0.6.25", null, createValidRequest(siteId)).andExpect(status().isTooManyRequests())
+            .andExpect(header().string("X-RateLimit-Limit", "2"))
+            .andExpect(jsonPath("$.message").value(containsString("por site")));
+
+        assertThat(instanceRepository.findBySiteId(siteId)).hasSize(2);
+        assertThat(rejections("site_id")).isEqualTo(before + 1);
+    }
+
+    @Test
+    @DisplayName("Item do lote acima do limite da instância deve ser rejeitado sozinho")
+    void itemDoLoteAcimaDoLimiteDaInstanciaDeveSerRejeitado() throws Exception {
+        String token = UUID.randomUUID().toString();
+        List<ScanBatchItem> items = List.of(
+            new ScanBatchItem(token, createValidRequest(randomSiteId())),
+            new ScanBatchItem(token, createValidRequest(randomSiteId())),
+            new ScanBatchItem(token, createValidRequest(randomSiteId()))
+        );
+
+        mockMvc.perform(post("/v1/telemetry/scan-results:batch")
+                .header("X-Forwarded-For", "10.0.6.30")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ScanBatchRequest(items))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rejected").value(3))
+            .andExpect(jsonPath("$.results[1].message").value(containsString("Token")))
+            .andExpect(jsonPath("$.results[2].message").value(containsString("por instância")));
+    }
+
+    /**
+     * Endpoint sem token responde 401, mas a requisição já passou pelo rate limit.
+     */
+    private ResultActions request(String forwardedFor) throws Exception {
+        return mockMvc.perform(get("/v1/telemetry/scans")
+            .header("X-Forwarded-For", forwardedFor));
+    }
+
+    /**
+     * Token inexistente responde 401 no controller, depois das camadas de rate limit.
+     */
+    private ResultActions authenticatedRequest(String forwardedFor, String authorization) throws Exception {
+        return mockMvc.perform(get("/v1/telemetry/scans")
+            .header("X-Forwarded-For", forwardedFor)
+            .header("Authorization", authorization));
+    }
+
+    /**
+     * @param authorization header Authorization, ou null para o fluxo de registro
+     */
+    private ResultActions scanResult(String forwardedFor, String authorization, ScanResultRequest scan) throws Exception {
+        MockHttpServletRequestBuilder request = post("/v1/telemetry/scan-result")
+            .header("X-Forwarded-For", forwardedFor)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(scan));
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private double rejections(String layer) {
+        return meterRegistry.get("radarlgpd.rate_limit.rejected").tag("layer", layer).counter().count();
+    }
+
+    private String randomSiteId() {
+        byte[] hash = new byte[32];
+        ThreadLocalRandom.current().nextBytes(hash);
+        return HexFormat.of().formatHex(hash);
+    }
+
+    private ScanResultRequest createValidRequest(String siteId) {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId(siteId)
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(
+                DataResult.builder()
+                    .dataType("CPF")
+                    .sourceLocation("wp_comments.comment_content")
+                    .count(152)
+                    .build()
+            ))
+            .build();
+    }
+}
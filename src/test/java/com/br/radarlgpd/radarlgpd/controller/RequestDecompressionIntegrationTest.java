@@ -0,0 +1,226 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchItem;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchRequest;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.entity.Instance;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testes de integração da descompressão de corpos (Content-Encoding gzip/zstd).
+ * Limite de 64KB para o corpo JSON e de 128KB para o envio NDJSON.
+ */
+@SpringBootTest(properties = {
+    "radarlgpd.request-decompression.max-decompressed-size=64KB",
+    "radarlgpd.request-decompression.stream-max-decompressed-size=128KB"
+})
+@AutoConfigureMockMvc
+@Transactional
+class RequestDecompressionIntegrationTest {
+
+    private static final String BATCH_URL = "/v1/telemetry/scan-results:batch";
+    private static final String STREAM_URL = "/v1/telemetry/scan-results:stream";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Test
+    @DisplayName("Corpo gzip deve ser descomprimido e processado")
+    void corpoGzipDeveSerProcessado() throws Exception {
+        byte[] body = gzip(batchBody());
+
+        mockMvc.perform(post(BATCH_URL)
+                .header("X-Forwarded-For", "10.0.1.1")
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.received").value(1));
+    }
+
+    @Test
+    @DisplayName("Corpo zstd deve ser descomprimido e processado")
+    void corpoZstdDeveSerProcessado() throws Exception {
+        byte[] body = zstd(batchBody());
+
+        mockMvc.perform(post(BATCH_URL)
+                .header("X-Forwarded-For", "10.0.1.2")
+                .header(HttpHeaders.CONTENT_ENCODING, "zstd")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.received").value(1));
+    }
+
+    @Test
+    @DisplayName("Corpo que descomprime acima do limite deve retornar 413")
+    void corpoAcimaDoLimiteDeveRetornar413() throws Exception {
+        // JSON válido até o fim do buffer: o parser segue consumindo espaços até estourar o limite
+        byte[] bomb = gzip(("{\"items\":[" + " ".repeat(1024 * 1024) + "]}").getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(post(BATCH_URL)
+                .header("X-Forwarded-For", "10.0.1.3")
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(bomb))
+            .andExpect(status().isPayloadTooLarge())
+            .andExpect(jsonPath("$.error").value("Payload Too Large"));
+    }
+
+    @Test
+    @DisplayName("Content-Encoding desconhecido deve retornar 415")
+    void encodingDesconhecidoDeveRetornar415() throws Exception {
+        mockMvc.perform(post(BATCH_URL)
+                .header("X-Forwarded-For", "10.0.1.4")
+                .header(HttpHeaders.CONTENT_ENCODING, "br")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(batchBody()))
+            .andExpect(status().isUnsupportedMediaType())
+            .andExpect(header().string(HttpHeaders.ACCEPT_ENCODING, "gzip, zstd"));
+    }
+
+    @Test
+    @DisplayName("Envio NDJSON deve usar o próprio limite, acima do limite do corpo JSON")
+    void envioNdjsonDeveUsarLimiteProprio() throws Exception {
+        // ~100KB descomprimidos: acima dos 64KB do corpo JSON, abaixo dos 128KB do NDJSON
+        byte[] body = gzip(streamBody(100 * 1024));
+
+        String response = mockMvc.perform(post(STREAM_URL)
+                .header("X-Forwarded-For", "10.0.1.5")
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(parseLines(response)).extracting(line -> line.get("status").asText())
+            .containsExactly("received", "received");
+    }
+
+    @Test
+    @DisplayName("Envio NDJSON acima do limite deve rejeitar o item corrente e encerrar a resposta")
+    void envioNdjsonAcimaDoLimiteDeveRejeitarItemCorrente() throws Exception {
+        byte[] body = gzip(streamBody(1024 * 1024));
+
+        String response = mockMvc.perform(post(STREAM_URL)
+                .header("X-Forwarded-For", "10.0.1.6")
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> lines = parseLines(response);
+        assertThat(lines).extracting(line -> line.get("status").asText()).containsExactly("received", "rejected");
+        assertThat(lines.get(1).get("index").asInt()).isEqualTo(1);
+        assertThat(lines.get(1).get("message").asText()).contains("excede o limite de 131072 bytes");
+    }
+
+    /**
+     * Dois itens NDJSON separados por linhas em branco (o parser as consome sem criar itens).
+     */
+    private byte[] streamBody(int blankLines) throws IOException {
+        String token = saveInstance().getInstanceToken();
+        String body = objectMapper.writeValueAsString(new ScanBatchItem(token, createScan())) + "\n"
+            + "\n".repeat(blankLines)
+            + objectMapper.writeValueAsString(new ScanBatchItem(token, createScan())) + "\n";
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<JsonNode> parseLines(String ndjson) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private byte[] batchBody() throws IOException {
+        Instance instance = saveInstance();
+        return objectMapper.writeValueAsBytes(
+            new ScanBatchRequest(List.of(new ScanBatchItem(instance.getInstanceToken(), createScan()))));
+    }
+
+    private Instance saveInstance() {
+        return instanceRepository.save(Instance.builder()
+            .instanceToken(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .status("active")
+            .scannerVersionAtRegistration("1.0.0")
+            .scanCount(0)
+            .build());
+    }
+
+    private ScanResultRequest createScan() {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(
+                DataResult.builder()
+                    .dataType("CPF")
+                    .sourceLocation("wp_comments.comment_content")
+                    .count(152)
+                    .build()
+            ))
+            .build();
+    }
+
+    private byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(raw);
+        }
+        return buffer.toByteArray();
+    }
+
+    private byte[] zstd(byte[] raw) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = new ZstdOutputStream(buffer)) {
+            out.write(raw);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,163 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchItem;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchRequest;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.entity.Instance;
+import com.br.radarlgpd.radarlgpd.repository.DataResultRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testes de integração do envio em lote (POST /v1/telemetry/scan-results:batch).
+ */
+@SpringBootTest(properties = "radarlgpd.rate-limit.requests-per-hour=10")
+@AutoConfigureMockMvc
+@Transactional
+class ScanBatchIntegrationTest {
+
+    private static final String BATCH_URL = "/v1/telemetry/scan-results:batch";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private DataResultRepository dataResultRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Lote misto deve persistir válidos e devolver status por item")
+    void loteMistoDeveDevolverStatusPorItem() throws Exception {
+        Instance first = instanceRepository.save(createInstance());
+        Instance second = instanceRepository.save(createInstance());
+
+        ScanResultRequest scan = createValidRequest();
+        ScanResultRequest withoutConsent = createValidRequest();
+        withoutConsent.setConsentGiven(false);
+        ScanResultRequest invalid = createValidRequest();
+        invalid.setScanId("nao-e-uuid");
+
+        List<ScanBatchItem> items = List.of(
+            new ScanBatchItem(first.getInstanceToken(), scan),
+            new ScanBatchItem(second.getInstanceToken(), createValidRequest()),
+            new ScanBatchItem(first.getInstanceToken(), scan),
+            new ScanBatchItem(UUID.randomUUID().toString(), createValidRequest()),
+            new ScanBatchItem(first.getInstanceToken(), withoutConsent),
+            new ScanBatchItem(first.getInstanceToken(), invalid)
+        );
+
+        mockMvc.perform(post(BATCH_URL)
+                .header("X-Forwarded-For", "10.0.0.1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ScanBatchRequest(items))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.received").value(2))
+            .andExpect(jsonPath("$.duplicate").value(1))
+            .andExpect(jsonPath("$.rejected").value(3))
+            .andExpect(jsonPath("$.results[0].status").value("received"))
+            .andExpect(jsonPath("$.results[1].status").value("received"))
+            .andExpect(jsonPath("$.results[2].status").value("duplicate"))
+            .andExpect(jsonPath("$.results[3].status").value("rejected"))
+            .andExpect(jsonPath("$.results[4].status").value("rejected"))
+            .andExpect(jsonPath("$.results[5].status").value("rejected"))
+            .andExpect(jsonPath("$.results[5].message").isNotEmpty());
+
+        entityManager.clear();
+        assertThat(scanResultRepository.count()).isEqualTo(2);
+        assertThat(dataResultRepository.count()).isEqualTo(2);
+        assertThat(instanceRepository.findById(first.getId()).orElseThrow().getScanCount()).isEqualTo(1);
+        assertThat(instanceRepository.findById(second.getId()).orElseThrow().getScanCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Rate limit deve ser cobrado por item do lote")
+    void rateLimitDeveSerCobradoPorItem() throws Exception {
+        Instance instance = instanceRepository.save(createInstance());
+
+        List<ScanBatchItem> items = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            items.add(new ScanBatchItem(instance.getInstanceToken(), createValidRequest()));
+        }
+
+        mockMvc.perform(post(BATCH_URL)
+                .header("X-Forwarded-For", "10.0.0.2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ScanBatchRequest(items))))
+            .andExpect(status().isTooManyRequests());
+
+        assertThat(scanResultRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Lote vazio deve retornar 400")
+    void loteVazioDeveRetornar400() throws Exception {
+        mockMvc.perform(post(BATCH_URL)
+                .header("X-Forwarded-For", "10.0.0.3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ScanBatchRequest(List.of()))))
+            .andExpect(status().isBadRequest());
+    }
+
+    private Instance createInstance() {
+        return Instance.builder()
+            .instanceToken(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .status("active")
+            .scannerVersionAtRegistration("1.0.0")
+            .scanCount(0)
+            .build();
+    }
+
+    private ScanResultRequest createValidRequest() {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(
+                DataResult.builder()
+                    .dataType("CPF")
+                    .sourceLocation("wp_comments.comment_content")
+                    .count(152)
+                    .build()
+            ))
+            .build();
+    }
+}
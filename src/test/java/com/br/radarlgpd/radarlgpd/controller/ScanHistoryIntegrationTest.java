@@ -0,0 +1,191 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.repository.DataResultRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import com.br.radarlgpd.radarlgpd.service.InstanceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testes de integração do histórico de scans por instância: paginação por cursor
+ * (sem repetir nem pular scans) e autenticação dos dois endpoints.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ScanHistoryIntegrationTest {
+
+    private static final String CLIENT_IP = "10.0.5.1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InstanceService instanceService;
+
+    @Autowired
+    private DataResultRepository dataResultRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Value("${radarlgpd.api.key}")
+    private String validApiKey;
+
+    @AfterEach
+    void cleanUp() {
+        dataResultRepository.deleteAll();
+        scanResultRepository.deleteAll();
+        instanceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Histórico deve ser paginado por cursor do scan mais recente para o mais antigo")
+    void historicoDeveSerPaginadoPorCursor() throws Exception {
+        // Dois scans com o mesmo timestamp: o desempate é pelo id
+        String oldest = UUID.randomUUID().toString();
+        String token = register(scan(oldest, "2025-10-01T10:00:00Z"));
+        String tiedFirst = send(token, "2025-10-02T10:00:00Z");
+        String tiedSecond = send(token, "2025-10-02T10:00:00Z");
+        String middle = send(token, "2025-10-03T10:00:00Z");
+        String newest = send(token, "2025-10-04T10:00:00Z");
+
+        List<String> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = myScans(token, cursor, 2);
+            pageSizes.add(page.get("items").size());
+            page.get("items").forEach(item -> seen.add(item.get("scanId").asText()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+        assertThat(seen).containsExactly(newest, middle, tiedSecond, tiedFirst, oldest);
+
+        // Endpoint administrativo (API Key) devolve a mesma primeira página, com os resultados
+        Long instanceId = instanceService.validateAndGetInstance(token).id();
+        mockMvc.perform(get("/v1/instances/{id}/scans", instanceId)
+                .param("limit", "2")
+                .header("X-Forwarded-For", CLIENT_IP)
+                .header("Authorization", "Bearer " + validApiKey))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(2))
+            .andExpect(jsonPath("$.items[0].scanId").value(newest))
+            .andExpect(jsonPath("$.items[0].results[0].dataType").value("CPF"))
+            .andExpect(jsonPath("$.items[0].results[0].sourceLocation").value("wp_users.user_email"))
+            .andExpect(jsonPath("$.items[0].results[0].count").value(7))
+            .andExpect(jsonPath("$.nextCursor").isString());
+    }
+
+    @Test
+    @DisplayName("Histórico da instância sem token deve retornar 401")
+    void historicoSemTokenDeveRetornar401() throws Exception {
+        mockMvc.perform(get("/v1/telemetry/scans")
+                .header("X-Forwarded-For", CLIENT_IP))
+            .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/v1/instances/{id}/scans", 1)
+                .header("X-Forwarded-For", CLIENT_IP))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Cursor inválido deve retornar 400 e instância inexistente 404")
+    void cursorInvalidoDeveRetornar400() throws Exception {
+        String token = register(scan(UUID.randomUUID().toString(), "2025-10-01T10:00:00Z"));
+
+        mockMvc.perform(get("/v1/telemetry/scans")
+                .param("cursor", "nao-e-um-cursor")
+                .header("X-Forwarded-For", CLIENT_IP)
+                .header("Authorization", "Bearer " + token))
+            .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/v1/instances/{id}/scans", Long.MAX_VALUE)
+                .header("X-Forwarded-For", CLIENT_IP)
+                .header("Authorization", "Bearer " + validApiKey))
+            .andExpect(status().isNotFound());
+    }
+
+    private JsonNode myScans(String token, String cursor, int limit) throws Exception {
+        var request = get("/v1/telemetry/scans")
+            .param("limit", String.valueOf(limit))
+            .header("X-Forwarded-For", CLIENT_IP)
+            .header("Authorization", "Bearer " + token);
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        String body = mockMvc.perform(request)
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private String register(ScanResultRequest request) throws Exception {
+        String body = mockMvc.perform(post("/v1/telemetry/scan-result")
+                .header("X-Forwarded-For", CLIENT_IP)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("instance_token").asText();
+    }
+
+    private String send(String token, String scanTimestampUtc) throws Exception {
+        String scanId = UUID.randomUUID().toString();
+        mockMvc.perform(post("/v1/telemetry/scan-result")
+                .header("X-Forwarded-For", CLIENT_IP)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(scan(scanId, scanTimestampUtc))))
+            .andExpect(status().isOk());
+        return scanId;
+    }
+
+    private ScanResultRequest scan(String scanId, String scanTimestampUtc) {
+        return ScanResultRequest.builder()
+            .scanId(scanId)
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc(scanTimestampUtc)
+            .scanDurationMs(1500)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(DataResult.builder()
+                .dataType("CPF")
+                .sourceLocation("wp_users.user_email")
+                .count(7)
+                .build()))
+            .build();
+    }
+}
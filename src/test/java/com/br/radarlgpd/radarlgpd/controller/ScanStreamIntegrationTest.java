@@ -0,0 +1,199 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanBatchItem;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.entity.Instance;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testes de integração da ingestão NDJSON (POST /v1/telemetry/scan-results:stream).
+ * Chunk pequeno para exercitar vários chunks em um único envio; limite de 5 unidades por
+ * hora por IP (cada teste usa um IP próprio).
+ */
+@SpringBootTest(properties = {
+    "radarlgpd.ingest.stream-chunk-size=2",
+    "radarlgpd.ingest.stream-max-line-bytes=4096",
+    "radarlgpd.rate-limit.requests-per-hour=5"
+})
+@AutoConfigureMockMvc
+@Transactional
+class ScanStreamIntegrationTest {
+
+    private static final String STREAM_URL = "/v1/telemetry/scan-results:stream";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Test
+    @DisplayName("Envio NDJSON deve devolver uma linha de resultado por item")
+    void envioNdjsonDeveDevolverResultadoPorLinha() throws Exception {
+        Instance instance = instanceRepository.save(createInstance());
+        String token = instance.getInstanceToken();
+
+        StringBuilder body = new StringBuilder();
+        body.append(objectMapper.writeValueAsString(new ScanBatchItem(token, createValidRequest()))).append('\n');
+        body.append(objectMapper.writeValueAsString(new ScanBatchItem(token, createValidRequest()))).append('\n');
+        body.append("{\"instanceToken\":\"").append(token).append("\",\"campoDesconhecido\":1}\n");
+        body.append(objectMapper.writeValueAsString(new ScanBatchItem(token, createValidRequest()))).append('\n');
+        body.append(objectMapper.writeValueAsString(new ScanBatchItem(UUID.randomUUID().toString(), createValidRequest())));
+
+        String response = mockMvc.perform(post(STREAM_URL)
+                .header("X-Forwarded-For", "10.0.1.1")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body.toString()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> lines = parseLines(response);
+        assertThat(lines).extracting(line -> line.get("index").asInt()).containsExactly(0, 1, 2, 3, 4);
+        assertThat(lines).extracting(line -> line.get("status").asText())
+            .containsExactly("received", "received", "rejected", "received", "rejected");
+        assertThat(lines.get(2).get("message").asText()).startsWith("Item inválido");
+
+        assertThat(scanResultRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("JSON malformado deve interromper o envio mantendo os itens anteriores")
+    void jsonMalformadoDeveInterromperEnvio() throws Exception {
+        Instance instance = instanceRepository.save(createInstance());
+
+        String body = objectMapper.writeValueAsString(new ScanBatchItem(instance.getInstanceToken(), createValidRequest()))
+            + "\n{\"instanceToken\": \n";
+
+        String response = mockMvc.perform(post(STREAM_URL)
+                .header("X-Forwarded-For", "10.0.1.2")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> lines = parseLines(response);
+        assertThat(lines).extracting(line -> line.get("status").asText()).containsExactly("received", "rejected");
+        assertThat(scanResultRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Linha acima do limite de bytes deve interromper o envio mantendo os itens anteriores")
+    void linhaLongaDeveInterromperEnvio() throws Exception {
+        Instance instance = instanceRepository.save(createInstance());
+        String token = instance.getInstanceToken();
+
+        String body = objectMapper.writeValueAsString(new ScanBatchItem(token, createValidRequest())) + "\n"
+            + "{\"instanceToken\":\"" + "a".repeat(5000) + "\"}\n"
+            + objectMapper.writeValueAsString(new ScanBatchItem(token, createValidRequest())) + "\n";
+
+        String response = mockMvc.perform(post(STREAM_URL)
+                .header("X-Forwarded-For", "10.0.1.3")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> lines = parseLines(response);
+        assertThat(lines).extracting(line -> line.get("status").asText()).containsExactly("received", "rejected");
+        assertThat(lines.get(1).get("index").asInt()).isEqualTo(1);
+        assertThat(lines.get(1).get("message").asText()).contains("4096 bytes");
+        assertThat(scanResultRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Rate limit no meio do envio deve rejeitar os itens do chunk, um por linha")
+    void rateLimitNoMeioDoEnvioDeveRejeitarItensDoChunk() throws Exception {
+        Instance instance = instanceRepository.save(createInstance());
+
+        // 5 unidades por hora: chunks de 2 itens cobram 2, 2 e, no terceiro, estouram o limite
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            body.append(objectMapper.writeValueAsString(
+                new ScanBatchItem(instance.getInstanceToken(), createValidRequest()))).append('\n');
+        }
+
+        String response = mockMvc.perform(post(STREAM_URL)
+                .header("X-Forwarded-For", "10.0.1.4")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body.toString()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> lines = parseLines(response);
+        assertThat(lines).extracting(line -> line.get("index").asInt()).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(lines).extracting(line -> line.get("status").asText())
+            .containsExactly("received", "received", "received", "received", "rejected", "rejected");
+        assertThat(lines.get(4).get("message").asText()).startsWith("Limite de 5 scans por hora excedido");
+        assertThat(scanResultRepository.count()).isEqualTo(4);
+    }
+
+    private List<JsonNode> parseLines(String ndjson) throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private Instance createInstance() {
+        return Instance.builder()
+            .instanceToken(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .status("active")
+            .scannerVersionAtRegistration("1.0.0")
+            .scanCount(0)
+            .build();
+    }
+
+    private ScanResultRequest createValidRequest() {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(
+                DataResult.builder()
+                    .dataType("CPF")
+                    .sourceLocation("wp_comments.comment_content")
+                    .count(152)
+                    .build()
+            ))
+            .build();
+    }
+}
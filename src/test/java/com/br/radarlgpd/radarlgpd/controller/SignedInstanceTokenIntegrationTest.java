@@ -0,0 +1,197 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.entity.Instance;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.service.InstanceRevocationList;
+import com.br.radarlgpd.radarlgpd.service.InstanceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testes de integração dos tokens de instância assinados (radarlgpd.instance-token.format=signed).
+ */
+@SpringBootTest(properties = {
+    "radarlgpd.instance-token.format=signed",
+    "radarlgpd.instance-token.hmac-secret=chave-de-teste-com-pelo-menos-32-bytes"
+})
+@AutoConfigureMockMvc
+@Transactional
+class SignedInstanceTokenIntegrationTest {
+
+    private static final String BASE64URL =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Autowired
+    private InstanceService instanceService;
+
+    @Autowired
+    private InstanceRevocationList instanceRevocationList;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Registro deve emitir token assinado aceito nos scans seguintes")
+    void registroDeveEmitirTokenAssinadoAceito() throws Exception {
+        String token = register();
+
+        assertThat(token).startsWith("rl1.");
+
+        mockMvc.perform(post("/v1/telemetry/scan-result")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("received"));
+    }
+
+    @Test
+    @DisplayName("Token assinado adulterado deve retornar 401")
+    void tokenAdulteradoDeveRetornar401() throws Exception {
+        String token = register();
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        expectUnauthorized(tampered);
+    }
+
+    @Test
+    @DisplayName("Outra grafia base64url da mesma assinatura deve retornar 401")
+    void grafiaNaoCanonicaDaAssinaturaDeveRetornar401() throws Exception {
+        String token = register();
+
+        // 32 bytes em base64url: o último caractere carrega 2 bits de preenchimento, e trocar
+        // um deles decodifica para a mesma assinatura
+        char last = token.charAt(token.length() - 1);
+        int value = BASE64URL.indexOf(last);
+        String otherPaddingBits = token.substring(0, token.length() - 1) + BASE64URL.charAt(value ^ 1);
+
+        expectUnauthorized(otherPaddingBits);
+        expectUnauthorized(token + "=");
+    }
+
+    @Test
+    @DisplayName("Token assinado de instância banida deve retornar 401")
+    void tokenDeInstanciaBanidaDeveRetornar401() throws Exception {
+        String token = register();
+        Instance instance = instanceRepository.findAll().get(0);
+
+        instanceService.banInstance(instance.getId());
+
+        mockMvc.perform(post("/v1/telemetry/scan-result")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Ban feito por outro nó deve valer após a recarga incremental da lista de revogação")
+    void banDeOutroNoDeveValerAposRecarga() throws Exception {
+        String token = register();
+        Instance instance = instanceRepository.findAll().get(0);
+        instanceRevocationList.refresh(); // garante a carga inicial concluída
+
+        // Outro nó: muda o status no banco sem passar pela lista deste nó
+        jdbcTemplate.update("UPDATE instances SET status = 'banned', status_changed_at = now() WHERE id = ?",
+            instance.getId());
+
+        mockMvc.perform(post("/v1/telemetry/scan-result")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+            .andExpect(status().isOk());
+
+        instanceRevocationList.refresh();
+
+        expectUnauthorized(token);
+    }
+
+    @Test
+    @DisplayName("Token UUID legado deve continuar válido no modo assinado")
+    void tokenUuidLegadoDeveContinuarValido() throws Exception {
+        Instance legacy = instanceRepository.save(Instance.builder()
+            .instanceToken(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .status("active")
+            .scannerVersionAtRegistration("1.0.0")
+            .scanCount(0)
+            .build());
+
+        mockMvc.perform(post("/v1/telemetry/scan-result")
+                .header("Authorization", "Bearer " + legacy.getInstanceToken())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+            .andExpect(status().isOk());
+    }
+
+    private void expectUnauthorized(String token) throws Exception {
+        mockMvc.perform(post("/v1/telemetry/scan-result")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+            .andExpect(status().isUnauthorized());
+    }
+
+    private String register() throws Exception {
+        String body = mockMvc.perform(post("/v1/telemetry/scan-result")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidRequest())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("registered"))
+            .andReturn().getResponse().getContentAsString();
+
+        JsonNode response = objectMapper.readTree(body);
+        return response.get("instance_token").asText();
+    }
+
+    private ScanResultRequest createValidRequest() {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(
+                DataResult.builder()
+                    .dataType("CPF")
+                    .sourceLocation("wp_comments.comment_content")
+                    .count(152)
+                    .build()
+            ))
+            .build();
+    }
+}
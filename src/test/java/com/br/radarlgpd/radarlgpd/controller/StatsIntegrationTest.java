@@ -0,0 +1,146 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.repository.DataResultRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import com.br.radarlgpd.radarlgpd.service.StatsAggregate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Testes de integração de /v1/stats: autenticação, atualização incremental do snapshot
+ * na ingestão e consistência com a recarga a partir dos rollups.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StatsAggregate statsAggregate;
+
+    @Autowired
+    private DataResultRepository dataResultRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Value("${radarlgpd.api.key}")
+    private String validApiKey;
+
+    @AfterEach
+    void cleanUp() {
+        dataResultRepository.deleteAll();
+        scanResultRepository.deleteAll();
+        instanceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("NFR-API-001: Estatísticas sem API Key devem retornar 401")
+    void estatisticasSemApiKeyDevemRetornar401() throws Exception {
+        mockMvc.perform(get("/v1/stats/data-types")
+                .header("X-Forwarded-For", "10.0.3.1"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Scans recebidos devem aparecer nas estatísticas sem esperar a recarga")
+    void scansRecebidosDevemAparecerNasEstatisticas() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String location = "wp_stats_" + suffix + ".meta_value";
+        String scannerVersion = "7.7.0-" + suffix;
+
+        sendScan(scannerVersion, location, 40);
+        sendScan(scannerVersion, location, 2);
+
+        JsonNode locations = getStats("/v1/stats/source-locations?dataType=CPF&limit=1000");
+        assertThat(find(locations.get("items"), location).get("totalCount").asLong()).isEqualTo(42);
+        assertThat(find(locations.get("items"), location).get("scanCount").asLong()).isEqualTo(2);
+
+        JsonNode versions = getStats("/v1/stats/versions?days=1");
+        assertThat(find(versions.get("scanner"), scannerVersion).get("scanCount").asLong()).isEqualTo(2);
+
+        mockMvc.perform(get("/v1/stats/instances")
+                .header("X-Forwarded-For", "10.0.3.2")
+                .header("Authorization", "Bearer " + validApiKey))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").isNumber());
+
+        // A recarga a partir dos rollups chega aos mesmos valores
+        statsAggregate.refresh();
+        JsonNode reloaded = getStats("/v1/stats/source-locations?dataType=CPF&limit=1000");
+        assertThat(find(reloaded.get("items"), location).get("totalCount").asLong()).isEqualTo(42);
+    }
+
+    private void sendScan(String scannerVersion, String location, int count) throws Exception {
+        ScanResultRequest request = ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion(scannerVersion)
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(DataResult.builder()
+                .dataType("CPF")
+                .sourceLocation(location)
+                .count(count)
+                .build()))
+            .build();
+
+        mockMvc.perform(post("/v1/telemetry/scan-result")
+                .header("X-Forwarded-For", "10.0.3.2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk());
+    }
+
+    private JsonNode getStats(String url) throws Exception {
+        String body = mockMvc.perform(get(url)
+                .header("X-Forwarded-For", "10.0.3.2")
+                .header("Authorization", "Bearer " + validApiKey))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private JsonNode find(JsonNode items, String name) {
+        for (JsonNode item : items) {
+            if (name.equals(item.get("name").asText())) {
+                return item;
+            }
+        }
+        throw new AssertionError("Item não encontrado nas estatísticas: " + name);
+    }
+}
@@ -22,6 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -165,6 +166,33 @@ class TelemetryControllerIntegrationTest {
             .andExpect(jsonPath("$.instance_token").doesNotExist()); // Não retorna token no fluxo autenticado
     }
 
+    @Test
+    @DisplayName("scan_id com outra caixa deve ser tratado como o mesmo scan")
+    void scanIdComOutraCaixaDeveSerOMesmoScan() throws Exception {
+        Instance instance = instanceRepository.save(Instance.builder()
+            .instanceToken(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .status("active")
+            .scannerVersionAtRegistration("1.0.0")
+            .scanCount(0)
+            .build());
+        ScanResultRequest request = createValidRequest();
+        String scanId = request.getScanId().toUpperCase();
+
+        for (String spelling : List.of(scanId, scanId.toLowerCase())) {
+            request.setScanId(spelling);
+            mockMvc.perform(post("/v1/telemetry/scan-result")
+                    .header("Authorization", "Bearer " + instance.getInstanceToken())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        }
+
+        // Gravado em minúsculas, uma única vez
+        assertThat(scanResultRepository.existsByScanId(scanId.toLowerCase())).isTrue();
+        assertThat(scanResultRepository.count()).isEqualTo(1);
+    }
+
     @Test
     @DisplayName("NFR-API-004: Deve rejeitar count negativo")
     void deveRejeitarCountNegativo() throws Exception {
@@ -0,0 +1,177 @@
+package com.br.radarlgpd.radarlgpd.controller;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.repository.DataResultRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contrato do fluxo POST /v1/telemetry/scan-result via HTTP real (Tomcat), compartilhado
+ * pelos modelos de execução da API. Cada subclasse sobe a aplicação em um modelo
+ * (platform threads ou perfil high-concurrency com virtual threads) e deve produzir
+ * exatamente as mesmas respostas e o mesmo estado no banco.
+ *
+ * Sem @Transactional: a requisição roda em uma thread do Tomcat, fora da transação do teste.
+ */
+abstract class TelemetryFlowContract {
+
+    private static final String SCAN_URL = "/v1/telemetry/scan-result";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ServletWebServerApplicationContext webServerContext;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private DataResultRepository dataResultRepository;
+
+    /**
+     * @return true se o modelo sob teste atende requisições em virtual threads
+     */
+    protected abstract boolean expectVirtualThreads();
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        dataResultRepository.deleteAll();
+        scanResultRepository.deleteAll();
+        instanceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Contrato: requisições devem rodar no modelo de threads esperado")
+    void requisicoesDevemRodarNoModeloDeThreadsEsperado() {
+        Executor executor = ((TomcatWebServer) webServerContext.getWebServer())
+            .getTomcat().getConnector().getProtocolHandler().getExecutor();
+
+        assertThat(executor instanceof VirtualThreadExecutor).isEqualTo(expectVirtualThreads());
+    }
+
+    @Test
+    @DisplayName("Contrato: registro devolve token que autentica os scans seguintes")
+    void registroDevolveTokenQueAutenticaScansSeguintes() throws Exception {
+        ResponseEntity<String> registration = post(createValidRequest(), null);
+
+        assertThat(registration.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode body = objectMapper.readTree(registration.getBody());
+        assertThat(body.get("status").asText()).isEqualTo("registered");
+        String token = body.get("instance_token").asText();
+
+        ResponseEntity<String> authenticated = post(createValidRequest(), token);
+
+        assertThat(authenticated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(objectMapper.readTree(authenticated.getBody()).get("status").asText()).isEqualTo("received");
+        assertThat(instanceRepository.count()).isEqualTo(1);
+        assertThat(scanResultRepository.count()).isEqualTo(2);
+        assertThat(dataResultRepository.count()).isEqualTo(2);
+        assertThat(instanceRepository.findAll().get(0).getScanCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Contrato: scan duplicado é aceito sem gravar de novo")
+    void scanDuplicadoEhAceitoSemGravarDeNovo() throws Exception {
+        String token = objectMapper.readTree(post(createValidRequest(), null).getBody())
+            .get("instance_token").asText();
+        ScanResultRequest request = createValidRequest();
+
+        assertThat(post(request, token).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(post(request, token).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(scanResultRepository.count()).isEqualTo(2);
+        assertThat(instanceRepository.findAll().get(0).getScanCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Contrato: sem consentimento retorna 403 e não grava nada")
+    void semConsentimentoRetorna403() {
+        ScanResultRequest request = createValidRequest();
+        request.setConsentGiven(false);
+
+        assertThat(post(request, null).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(instanceRepository.count()).isZero();
+        assertThat(scanResultRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Contrato: token inexistente retorna 401")
+    void tokenInexistenteRetorna401() {
+        assertThat(post(createValidRequest(), UUID.randomUUID().toString()).getStatusCode())
+            .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(scanResultRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Contrato: payload inválido retorna 400")
+    void payloadInvalidoRetorna400() {
+        ScanResultRequest request = createValidRequest();
+        request.setScanId("nao-e-uuid");
+
+        assertThat(post(request, null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(instanceRepository.count()).isZero();
+    }
+
+    private ResponseEntity<String> post(ScanResultRequest request, String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        return restTemplate.postForEntity(SCAN_URL, new HttpEntity<>(request, headers), String.class);
+    }
+
+    private ScanResultRequest createValidRequest() {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(
+                DataResult.builder()
+                    .dataType("CPF")
+                    .sourceLocation("wp_comments.comment_content")
+                    .count(152)
+                    .build()
+            ))
+            .build();
+    }
+}
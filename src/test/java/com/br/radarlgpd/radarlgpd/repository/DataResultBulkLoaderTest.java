@@ -0,0 +1,128 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.entity.DataResultEntity;
+import com.br.radarlgpd.radarlgpd.entity.ScanResult;
+import com.br.radarlgpd.radarlgpd.service.DataResultDictionary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que o COPY de data_results grava exatamente os valores das entidades (timestamp
+ * com offset e fração de segundo, contagens extremas) e que os IDs atribuídos vêm de
+ * blocos da sequence, sem colidir com os IDs que o Hibernate reserva depois.
+ */
+@SpringBootTest
+@Transactional
+class DataResultBulkLoaderTest {
+
+    @Autowired
+    private DataResultBulkLoader dataResultBulkLoader;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private DataResultRepository dataResultRepository;
+
+    @Autowired
+    private DataResultDictionary dataResultDictionary;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Campo de texto CSV deve ir entre aspas com aspas internas dobradas")
+    void campoDeTextoDeveSerEscapado() {
+        StringBuilder buffer = new StringBuilder();
+
+        DataResultBulkLoader.appendCsvText(buffer, "a\"b,c\nd");
+        buffer.append(',');
+        DataResultBulkLoader.appendCsvText(buffer, "");
+
+        assertThat(buffer).hasToString("\"a\"\"b,c\nd\",\"\"");
+    }
+
+    @Test
+    @DisplayName("COPY deve gravar os valores das entidades com os IDs reservados da sequence")
+    void copyDeveGravarValoresComIdsDaSequence() {
+        // Offset diferente de UTC e microssegundos: o texto ISO-8601 vai inteiro para o timestamptz
+        OffsetDateTime receivedAt = OffsetDateTime.now(ZoneOffset.ofHoursMinutes(5, 30))
+            .truncatedTo(ChronoUnit.SECONDS).plusNanos(123_456_000);
+        ScanResult scan = scanResultRepository.saveAndFlush(createScan(receivedAt));
+
+        String location = "wp_copy_" + UUID.randomUUID().toString().substring(0, 8) + ".meta_value";
+        DataResultDictionary.Ids ids = dataResultDictionary.resolve(List.of(
+            DataResult.builder().dataType("CPF").sourceLocation(location).count(1).build(),
+            DataResult.builder().dataType("EMAIL").sourceLocation(location).count(1).build()));
+
+        List<DataResultEntity> rows = List.of(
+            createRow(scan, ids.dataTypeId("CPF"), ids.sourceLocationId(location), 0),
+            createRow(scan, ids.dataTypeId("EMAIL"), ids.sourceLocationId(location), Integer.MAX_VALUE),
+            createRow(scan, ids.dataTypeId("CPF"), ids.sourceLocationId(location), 42));
+
+        assertThat(dataResultBulkLoader.copyIn(rows)).isEqualTo(3);
+
+        List<Map<String, Object>> stored = jdbcTemplate.queryForList("""
+            SELECT id, received_at, data_type_id, source_location_id, count
+            FROM data_results WHERE scan_result_id = ? ORDER BY id
+            """, scan.getId());
+        assertThat(stored).hasSize(3);
+        for (int i = 0; i < rows.size(); i++) {
+            DataResultEntity row = rows.get(i);
+            Map<String, Object> copied = stored.get(i);
+            assertThat(((Number) copied.get("id")).longValue()).isEqualTo(row.getId());
+            assertThat(((Timestamp) copied.get("received_at")).toInstant()).isEqualTo(receivedAt.toInstant());
+            assertThat(((Number) copied.get("data_type_id")).shortValue()).isEqualTo(row.getDataTypeId());
+            assertThat(((Number) copied.get("source_location_id")).intValue()).isEqualTo(row.getSourceLocationId());
+            assertThat(((Number) copied.get("count")).intValue()).isEqualTo(row.getCount());
+        }
+
+        // IDs dentro de blocos já entregues pela sequence (pooled-lo: [nextval, nextval + 49])
+        long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + DataResultEntity.SEQUENCE, Long.class);
+        assertThat(rows).allSatisfy(row ->
+            assertThat(row.getId()).isLessThan(lastValue + SequenceIdAllocator.ALLOCATION_SIZE));
+
+        // O próximo bloco do Hibernate não reutiliza os IDs do COPY
+        DataResultEntity viaJpa = dataResultRepository.saveAndFlush(
+            createRow(scan, ids.dataTypeId("EMAIL"), ids.sourceLocationId(location), 7));
+        assertThat(rows).extracting(DataResultEntity::getId).doesNotContain(viaJpa.getId());
+    }
+
+    private ScanResult createScan(OffsetDateTime receivedAt) {
+        return ScanResult.builder()
+            .scanId(UUID.randomUUID().toString())
+            .instanceId(1L)
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc(receivedAt)
+            .scanDurationMs(1000)
+            .scannerVersion("1.0.0")
+            .receivedAt(receivedAt)
+            .build();
+    }
+
+    private DataResultEntity createRow(ScanResult scan, short dataTypeId, int sourceLocationId, int count) {
+        return DataResultEntity.builder()
+            .scanResult(scan)
+            .receivedAt(scan.getReceivedAt())
+            .dataTypeId(dataTypeId)
+            .sourceLocationId(sourceLocationId)
+            .count(count)
+            .build();
+    }
+}
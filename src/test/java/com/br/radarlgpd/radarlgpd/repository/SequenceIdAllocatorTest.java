@@ -0,0 +1,103 @@
+package com.br.radarlgpd.radarlgpd.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que a alocação pooled-lo entrega IDs únicos sob concorrência, inclusive com
+ * blocos consumidos ao mesmo tempo por outro cliente da sequence (o Hibernate, ou
+ * outro nó da API).
+ */
+@SpringBootTest
+class SequenceIdAllocatorTest {
+
+    private static final String SEQUENCE = "sequence_id_allocator_test_seq";
+    private static final int THREADS = 8;
+    private static final int ALLOCATIONS_PER_THREAD = 100;
+    private static final int EXTERNAL_BLOCKS = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE SEQUENCE " + SEQUENCE + " INCREMENT BY " + SequenceIdAllocator.ALLOCATION_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS " + SEQUENCE);
+    }
+
+    @Test
+    @DisplayName("Alocações concorrentes devem entregar IDs únicos e fora dos blocos de outros clientes")
+    void alocacoesConcorrentesDevemEntregarIdsUnicos() throws Exception {
+        SequenceIdAllocator allocator = new SequenceIdAllocator(jdbcTemplate);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        AtomicLong duplicates = new AtomicLong();
+        AtomicLong requested = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ALLOCATIONS_PER_THREAD; i++) {
+                        // Tamanhos de 1 a 120: sobras de bloco, bloco exato e vários blocos por chamada
+                        int count = (thread * 31 + i * 7) % 120 + 1;
+                        requested.addAndGet(count);
+                        for (long id : allocator.allocate(SEQUENCE, count)) {
+                            if (!seen.add(id)) {
+                                duplicates.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            // Outro cliente da sequence reservando blocos inteiros ao mesmo tempo
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < EXTERNAL_BLOCKS; i++) {
+                    long blockStart = jdbcTemplate.queryForObject("SELECT nextval(?::regclass)", Long.class, SEQUENCE);
+                    for (long id = blockStart; id < blockStart + SequenceIdAllocator.ALLOCATION_SIZE; id++) {
+                        if (!seen.add(id)) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(duplicates.get()).isZero();
+        assertThat(seen).hasSize((int) (requested.get() + (long) EXTERNAL_BLOCKS * SequenceIdAllocator.ALLOCATION_SIZE));
+    }
+}
@@ -0,0 +1,192 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository;
+import com.br.radarlgpd.radarlgpd.repository.DataResultRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que os rollups diários acompanham a ingestão (fluxos unitário e em lote),
+ * que o rebuild a partir dos dados brutos chega aos mesmos valores e que ingestões
+ * concorrentes não disputam as linhas de rollup.
+ *
+ * Sem @Transactional: os deltas só chegam ao acumulador após o commit. O flush periódico
+ * fica desligado; os testes chamam {@link DailyRollupAccumulator#flush()}.
+ */
+@SpringBootTest(properties = "radarlgpd.rollup.flush-interval-ms=3600000")
+class DailyRollupServiceTest {
+
+    private static final int CONCURRENT_SCANS = 8;
+
+    @Autowired
+    private ScanResultService scanResultService;
+
+    @Autowired
+    private DailyRollupAccumulator dailyRollupAccumulator;
+
+    @Autowired
+    private DailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private DataResultRepository dataResultRepository;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        dataResultRepository.deleteAll();
+        scanResultRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Rollups incrementais devem bater com o rebuild a partir dos dados brutos")
+    void rollupsIncrementaisDevemBaterComRebuild() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String location = "wp_rollup_" + suffix + ".meta_value";
+        String scannerVersion = "9.9.0-" + suffix;
+
+        // Mesmo par (CPF, location) duas vezes no primeiro scan: conta um único scan
+        scanResultService.processScanForInstance(createRequest(scannerVersion, List.of(
+            result("CPF", location, 10),
+            result("CPF", location, 5),
+            result("EMAIL", location, 1))), 1L);
+        scanResultService.processBatch(List.of(
+            new QueuedScan(createRequest(scannerVersion, List.of(result("CPF", location, 4))), 1L, OffsetDateTime.now()),
+            new QueuedScan(createRequest(scannerVersion, List.of(result("EMAIL", location, 2))), 1L, OffsetDateTime.now())));
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        dailyRollupAccumulator.flush();
+        Map<String, String> incremental = snapshot(today, location, scannerVersion);
+
+        assertThat(incremental).containsExactlyInAnyOrderEntriesOf(Map.of(
+            "CPF", "19/2",
+            "EMAIL", "3/2",
+            "env", "3/22"));
+
+        transactionTemplate.executeWithoutResult(status -> dailyRollupRepository.rebuildDay(today));
+
+        assertThat(snapshot(today, location, scannerVersion)).isEqualTo(incremental);
+    }
+
+    @Test
+    @DisplayName("Ingestões concorrentes não devem esperar pelo lock das linhas de rollup")
+    void ingestoesConcorrentesNaoDevemEsperarPelasLinhasDeRollup() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String location = "wp_rollup_" + suffix + ".meta_value";
+        String scannerVersion = "9.9.1-" + suffix;
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_SCANS);
+        try (Connection locker = dataSource.getConnection()) {
+            // Outra transação segura as tabelas de rollup: uma ingestão que gravasse nelas ficaria parada aqui
+            locker.setAutoCommit(false);
+            try (Statement statement = locker.createStatement()) {
+                statement.execute("LOCK TABLE daily_data_rollups, daily_environment_rollups IN EXCLUSIVE MODE");
+            }
+
+            List<Future<Boolean>> scans = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_SCANS; i++) {
+                scans.add(executor.submit(() -> scanResultService.processScanForInstance(
+                    createRequest(scannerVersion, List.of(result("CPF", location, 10))), 1L)));
+            }
+            for (Future<Boolean> scan : scans) {
+                assertThat(scan.get(10, TimeUnit.SECONDS)).isTrue();
+            }
+
+            locker.rollback();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Os oito deltas do mesmo par viram um único upsert por linha
+        dailyRollupAccumulator.flush();
+
+        assertThat(snapshot(LocalDate.now(ZoneOffset.UTC), location, scannerVersion))
+            .containsExactlyInAnyOrderEntriesOf(Map.of(
+                "CPF", (10 * CONCURRENT_SCANS) + "/" + CONCURRENT_SCANS,
+                "env", CONCURRENT_SCANS + "/" + (10 * CONCURRENT_SCANS)));
+    }
+
+    /**
+     * total/scans por tipo de dado na localização, mais scans/total do ambiente.
+     */
+    private Map<String, String> snapshot(LocalDate day, String location, String scannerVersion) {
+        Map<String, String> values = new HashMap<>();
+        jdbcTemplate.query("""
+            SELECT t.name, r.total_count, r.scan_count
+            FROM daily_data_rollups r
+            JOIN data_types t ON t.id = r.data_type_id
+            JOIN source_locations l ON l.id = r.source_location_id
+            WHERE r.day = ? AND l.name = ?
+            """,
+            rs -> {
+                values.put(rs.getString(1), rs.getLong(2) + "/" + rs.getLong(3));
+            },
+            day, location);
+        jdbcTemplate.query("""
+            SELECT scan_count, total_count FROM daily_environment_rollups
+            WHERE day = ? AND scanner_version = ? AND wp_version = '6.4.1' AND php_version = '8.1'
+            """,
+            rs -> {
+                values.put("env", rs.getLong(1) + "/" + rs.getLong(2));
+            },
+            day, scannerVersion);
+        return values;
+    }
+
+    private DataResult result(String dataType, String sourceLocation, int count) {
+        return DataResult.builder().dataType(dataType).sourceLocation(sourceLocation).count(count).build();
+    }
+
+    private ScanResultRequest createRequest(String scannerVersion, List<DataResult> results) {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion(scannerVersion)
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(results)
+            .build();
+    }
+}
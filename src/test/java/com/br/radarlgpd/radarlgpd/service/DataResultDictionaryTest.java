@@ -0,0 +1,93 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que tipo e localização são gravados como IDs de dicionário,
+ * com textos novos inseridos uma única vez.
+ */
+@SpringBootTest
+@Transactional
+class DataResultDictionaryTest {
+
+    @Autowired
+    private ScanResultService scanResultService;
+
+    @Autowired
+    private DataResultDictionary dataResultDictionary;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Localização nova deve ser inserida uma vez e reaproveitada")
+    void localizacaoNovaDeveSerInseridaUmaVez() {
+        String location = "wp_test_" + UUID.randomUUID().toString().replace("-", "") + ".meta_value";
+        DataResult result = DataResult.builder().dataType("CPF").sourceLocation(location).count(3).build();
+
+        DataResultDictionary.Ids first = dataResultDictionary.resolve(List.of(result));
+        DataResultDictionary.Ids second = dataResultDictionary.resolve(List.of(result));
+
+        assertThat(second.sourceLocationId(location)).isEqualTo(first.sourceLocationId(location));
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM source_locations WHERE name = ?", Integer.class, location)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Resultados dos fluxos unitário e em lote devem apontar para os textos originais")
+    void resultadosDevemApontarParaOsTextosOriginais() {
+        ScanResultRequest single = createRequest("wp_usermeta.meta_value");
+        ScanResultRequest queued = createRequest("wp_options.option_value");
+
+        scanResultService.processScanForInstance(single, 1L);
+        scanResultService.processBatch(List.of(new QueuedScan(queued, 1L, OffsetDateTime.now())));
+
+        List<String> stored = jdbcTemplate.queryForList("""
+            SELECT t.name || '@' || l.name || '=' || r.count
+            FROM data_results r
+            JOIN scan_results s ON s.id = r.scan_result_id
+            JOIN data_types t ON t.id = r.data_type_id
+            JOIN source_locations l ON l.id = r.source_location_id
+            WHERE s.scan_id IN (?, ?)
+            ORDER BY 1
+            """, String.class, single.getScanId(), queued.getScanId());
+
+        assertThat(stored).containsExactly(
+            "EMAIL@wp_options.option_value=7",
+            "EMAIL@wp_usermeta.meta_value=7");
+    }
+
+    private ScanResultRequest createRequest(String sourceLocation) {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(DataResult.builder()
+                .dataType("EMAIL")
+                .sourceLocation(sourceLocation)
+                .count(7)
+                .build()))
+            .build();
+    }
+}
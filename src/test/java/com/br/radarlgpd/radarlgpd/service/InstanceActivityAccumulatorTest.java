@@ -0,0 +1,145 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.entity.Instance;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Garante que o acúmulo de atividade não perde incrementos concorrentes, grava tudo com
+ * um flush set-based, só conta scans de transações commitadas, contabiliza os deltas
+ * de instâncias inexistentes e não soma duas vezes os deltas de um flush que falhou.
+ */
+@SpringBootTest(properties = "radarlgpd.instance-activity.flush-interval-ms=3600000")
+class InstanceActivityAccumulatorTest {
+
+    private static final int THREADS = 8;
+    private static final int SCANS_PER_THREAD = 500;
+
+    @Autowired
+    private InstanceActivityAccumulator accumulator;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        instanceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Scans concorrentes da mesma instância devem ser somados sem perdas")
+    void scansConcorrentesDevemSerSomadosSemPerdas() throws Exception {
+        Instance first = instanceRepository.save(createInstance());
+        Instance second = instanceRepository.save(createInstance());
+        OffsetDateTime latest = OffsetDateTime.now().plusMinutes(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < SCANS_PER_THREAD; i++) {
+                    accumulator.record(first.getId(), 1, OffsetDateTime.now());
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        accumulator.record(second.getId(), 2, latest);
+        accumulator.flush();
+
+        assertThat(instanceRepository.findById(first.getId()).orElseThrow().getScanCount())
+            .isEqualTo(THREADS * SCANS_PER_THREAD);
+        Instance updatedSecond = instanceRepository.findById(second.getId()).orElseThrow();
+        assertThat(updatedSecond.getScanCount()).isEqualTo(2);
+        // PostgreSQL arredonda para microssegundos
+        assertThat(updatedSecond.getLastSeenAt().toInstant()).isCloseTo(latest.toInstant(), within(1, ChronoUnit.MICROS));
+    }
+
+    @Test
+    @DisplayName("Delta de transação desfeita não deve ser gravado")
+    void deltaDeTransacaoDesfeitaNaoDeveSerGravado() {
+        Instance instance = instanceRepository.save(createInstance());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            accumulator.recordAfterCommit(instance.getId(), 5, OffsetDateTime.now());
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status ->
+            accumulator.recordAfterCommit(instance.getId(), 1, OffsetDateTime.now()));
+        accumulator.flush();
+
+        assertThat(instanceRepository.findById(instance.getId()).orElseThrow().getScanCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Delta de instância inexistente deve ser contado e descartado")
+    void deltaDeInstanciaInexistenteDeveSerContado() {
+        Instance instance = instanceRepository.save(createInstance());
+        double before = meterRegistry.counter("radarlgpd.instance_activity.unmatched").count();
+
+        accumulator.record(-1L, 3, OffsetDateTime.now());
+        accumulator.record(instance.getId(), 1, OffsetDateTime.now());
+        accumulator.flush();
+        accumulator.flush();
+
+        assertThat(meterRegistry.counter("radarlgpd.instance_activity.unmatched").count()).isEqualTo(before + 1);
+        assertThat(instanceRepository.findById(instance.getId()).orElseThrow().getScanCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Flush que falha em um chunk posterior não deve gravar nem duplicar os chunks anteriores")
+    void flushComFalhaNaoDeveDuplicarChunksAnteriores() {
+        Instance first = instanceRepository.save(createInstance());
+        Instance overflow = instanceRepository.save(createInstance());
+
+        // 999 IDs inexistentes + first completam o primeiro chunk (1000 linhas, em ordem de ID);
+        // o delta de overflow, no segundo chunk, estoura o scan_count (integer)
+        for (long id = -999; id <= -1; id++) {
+            accumulator.record(id, 1, OffsetDateTime.now());
+        }
+        accumulator.record(first.getId(), 1, OffsetDateTime.now());
+        accumulator.record(overflow.getId(), Integer.MAX_VALUE, OffsetDateTime.now());
+        accumulator.record(overflow.getId(), Integer.MAX_VALUE, OffsetDateTime.now());
+        accumulator.flush();
+
+        assertThat(instanceRepository.findById(first.getId()).orElseThrow().getScanCount()).isZero();
+
+        // Sem a instância, o delta problemático vira "não encontrado" e o reenvio passa
+        instanceRepository.deleteById(overflow.getId());
+        accumulator.flush();
+
+        assertThat(instanceRepository.findById(first.getId()).orElseThrow().getScanCount()).isEqualTo(1);
+    }
+
+    private Instance createInstance() {
+        return Instance.builder()
+            .instanceToken(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .status("active")
+            .scannerVersionAtRegistration("1.0.0")
+            .scanCount(0)
+            .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.entity.Instance;
+import com.br.radarlgpd.radarlgpd.exception.InvalidInstanceTokenException;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Garante que a varredura de inatividade marca só as instâncias ativas sem telemetria
+ * desde o corte, percorrendo várias faixas de IDs, e que os tokens delas deixam de valer
+ * mesmo já estando no cache. Atividade ainda acumulada em memória conta como telemetria.
+ */
+@SpringBootTest(properties = {
+    "radarlgpd.instance-sweep.enabled=false",
+    "radarlgpd.instance-sweep.range-size=2"
+})
+class InstanceInactivitySweeperTest {
+
+    private static final OffsetDateTime CUTOFF = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+
+    @Autowired
+    private InstanceInactivitySweeper sweeper;
+
+    @Autowired
+    private InstanceService instanceService;
+
+    @Autowired
+    private InstanceActivityAccumulator instanceActivityAccumulator;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @AfterEach
+    void cleanUp() {
+        instanceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Instâncias ativas sem telemetria desde o corte devem ficar inativas")
+    void instanciasSemTelemetriaDevemFicarInativas() {
+        Instance stale = instanceRepository.save(createInstance("active", CUTOFF.minusDays(1), CUTOFF.minusDays(30)));
+        Instance neverSeen = instanceRepository.save(createInstance("active", null, CUTOFF.minusDays(30)));
+        Instance recent = instanceRepository.save(createInstance("active", CUTOFF.plusDays(1), CUTOFF.minusDays(30)));
+        Instance banned = instanceRepository.save(createInstance("banned", CUTOFF.minusDays(1), CUTOFF.minusDays(30)));
+        Instance newborn = instanceRepository.save(createInstance("active", null, CUTOFF.plusDays(1)));
+
+        // Coloca o token no cache antes da varredura
+        instanceService.validateAndGetInstance(stale.getInstanceToken());
+
+        assertThat(sweeper.sweep(CUTOFF)).isEqualTo(2);
+
+        assertThat(statusOf(stale)).isEqualTo("inactive");
+        assertThat(statusOf(neverSeen)).isEqualTo("inactive");
+        assertThat(statusOf(recent)).isEqualTo("active");
+        assertThat(statusOf(banned)).isEqualTo("banned");
+        assertThat(statusOf(newborn)).isEqualTo("active");
+
+        assertThatThrownBy(() -> instanceService.validateAndGetInstance(stale.getInstanceToken()))
+            .isInstanceOf(InvalidInstanceTokenException.class);
+
+        // Segunda varredura não encontra mais nada
+        assertThat(sweeper.sweep(CUTOFF)).isZero();
+    }
+
+    @Test
+    @DisplayName("Scan acumulado em memória e ainda não gravado deve impedir a inativação")
+    void scanAcumuladoDeveImpedirInativacao() {
+        Instance instance = instanceRepository.save(createInstance("active", CUTOFF.minusDays(1), CUTOFF.minusDays(30)));
+        instanceActivityAccumulator.record(instance.getId(), 1, CUTOFF.plusDays(1));
+
+        assertThat(sweeper.sweep(CUTOFF)).isZero();
+
+        assertThat(statusOf(instance)).isEqualTo("active");
+        assertThat(instanceRepository.findById(instance.getId()).orElseThrow().getScanCount()).isEqualTo(1);
+    }
+
+    private String statusOf(Instance instance) {
+        return instanceRepository.findById(instance.getId()).orElseThrow().getStatus();
+    }
+
+    private Instance createInstance(String status, OffsetDateTime lastSeenAt, OffsetDateTime createdAt) {
+        return Instance.builder()
+            .instanceToken(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .status(status)
+            .scannerVersionAtRegistration("1.0.0")
+            .lastSeenAt(lastSeenAt)
+            .createdAt(createdAt)
+            .scanCount(0)
+            .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.entity.Instance;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que a lista de revogação só guarda instâncias criadas dentro da janela e que
+ * tokens emitidos antes dela têm o status lido do banco.
+ */
+@SpringBootTest(properties = {
+    "radarlgpd.instance-token.hmac-secret=chave-de-teste-com-pelo-menos-32-bytes",
+    "radarlgpd.instance-token.revocation-window=P30D"
+})
+@Transactional
+class InstanceRevocationListTest {
+
+    private static final Duration OUTSIDE_WINDOW = Duration.ofDays(60);
+
+    @Autowired
+    private InstanceRevocationList instanceRevocationList;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Lista deve guardar só instâncias não ativas criadas dentro da janela")
+    void listaDeveGuardarSoInstanciasDaJanela() {
+        Instance old = instanceRepository.save(createInstance("banned", OffsetDateTime.now().minus(OUTSIDE_WINDOW)));
+        Instance recent = instanceRepository.save(createInstance("banned", OffsetDateTime.now()));
+
+        instanceRevocationList.refresh();
+
+        // Token recente: decide só pela lista, que não guarda a instância antiga
+        assertThat(instanceRevocationList.statusOf(old.getId(), Instant.now())).isEqualTo("active");
+        assertThat(instanceRevocationList.statusOf(recent.getId(), Instant.now())).isEqualTo("banned");
+    }
+
+    @Test
+    @DisplayName("Token emitido antes da janela deve ter o status lido pela PK")
+    void tokenAnteriorAJanelaDeveConsultarPk() {
+        Instance instance = instanceRepository.save(createInstance("active", OffsetDateTime.now().minus(OUTSIDE_WINDOW)));
+        instanceRevocationList.refresh();
+
+        // Ban de outro nó, ainda não lido pela recarga incremental
+        jdbcTemplate.update("UPDATE instances SET status = 'banned' WHERE id = ?", instance.getId());
+
+        assertThat(instanceRevocationList.statusOf(instance.getId(), Instant.now().minus(OUTSIDE_WINDOW)))
+            .isEqualTo("banned");
+    }
+
+    private Instance createInstance(String status, OffsetDateTime createdAt) {
+        return Instance.builder()
+            .instanceToken(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .status(status)
+            .statusChangedAt(OffsetDateTime.now())
+            .scannerVersionAtRegistration("1.0.0")
+            .createdAt(createdAt)
+            .scanCount(0)
+            .build();
+    }
+}
@@ -0,0 +1,168 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.entity.Instance;
+import com.br.radarlgpd.radarlgpd.exception.InvalidInstanceTokenException;
+import com.br.radarlgpd.radarlgpd.repository.InstanceRepository;
+import com.br.radarlgpd.radarlgpd.repository.InstanceTokenView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Garante que o cache de tokens deixa de servir a instância assim que ela é banida ou
+ * inativada, inclusive contra uma leitura concorrente do status antigo, e que o cache
+ * desligado e as métricas de acerto/falha se comportam como documentado.
+ */
+@SpringBootTest(properties = {
+    "radarlgpd.instance-sweep.enabled=false",
+    "radarlgpd.instance-sweep.range-size=2"
+})
+class InstanceTokenCacheTest {
+
+    private static final OffsetDateTime CUTOFF = OffsetDateTime.parse("2025-01-01T00:00:00Z");
+
+    @Autowired
+    private InstanceService instanceService;
+
+    @Autowired
+    private InstanceInactivitySweeper sweeper;
+
+    @Autowired
+    private InstanceTokenCache instanceTokenCache;
+
+    @Autowired
+    private InstanceRepository instanceRepository;
+
+    @AfterEach
+    void cleanUp() {
+        instanceRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Token em cache deve deixar de valer quando a instância é banida")
+    void tokenEmCacheDeveDeixarDeValerAposBan() {
+        Instance instance = instanceRepository.save(createInstance(CUTOFF.plusDays(1)));
+        instanceService.validateAndGetInstance(instance.getInstanceToken());
+
+        instanceService.banInstance(instance.getId());
+
+        assertThatThrownBy(() -> instanceService.validateAndGetInstance(instance.getInstanceToken()))
+            .isInstanceOf(InvalidInstanceTokenException.class)
+            .hasMessageContaining("banida");
+    }
+
+    @Test
+    @DisplayName("Token em cache deve deixar de valer quando a instância fica inativa")
+    void tokenEmCacheDeveDeixarDeValerAposInativacao() {
+        Instance stale = instanceRepository.save(createInstance(CUTOFF.minusDays(1)));
+        Instance recent = instanceRepository.save(createInstance(CUTOFF.plusDays(1)));
+        instanceService.validateAndGetInstance(stale.getInstanceToken());
+        instanceService.validateAndGetInstance(recent.getInstanceToken());
+
+        assertThat(sweeper.sweep(CUTOFF)).isEqualTo(1);
+
+        assertThatThrownBy(() -> instanceService.validateAndGetInstance(stale.getInstanceToken()))
+            .isInstanceOf(InvalidInstanceTokenException.class)
+            .hasMessageContaining("inativa");
+        assertThat(instanceService.validateAndGetInstance(recent.getInstanceToken()).isActive()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Leitura concorrente do status antigo não deve sobreviver ao commit da mudança")
+    void leituraDoStatusAntigoNaoDeveSobreviverAoCommit() {
+        String token = UUID.randomUUID().toString();
+        InstanceTokenView active = new InstanceTokenView(1L, "active");
+        InstanceTokenView banned = new InstanceTokenView(1L, "banned");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            instanceTokenCache.invalidate(token);
+            // Outra requisição lê o status antigo (ainda sem commit) e repopula o cache
+            assertThat(instanceTokenCache.get(token, t -> Optional.of(active))).contains(active);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(instanceTokenCache.get(token, t -> Optional.of(banned))).contains(banned);
+    }
+
+    @Test
+    @DisplayName("Métricas devem contar acertos e falhas; tokens inexistentes não são cacheados")
+    void metricasDevemContarAcertosEFalhas() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InstanceTokenCache cache = new InstanceTokenCache(meterRegistry, true, 100, Duration.ofMinutes(5));
+        CountingLoader loader = new CountingLoader();
+
+        cache.get("existente", loader);
+        cache.get("existente", loader);
+        cache.get("existente", loader);
+        cache.get("inexistente", loader);
+        cache.get("inexistente", loader);
+
+        // 1 carga do token existente + 2 do inexistente (sem cache negativo)
+        assertThat(loader.calls.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "instance-tokens", "result", "hit")
+            .functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "instance-tokens", "result", "miss")
+            .functionCounter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Cache desligado deve consultar o loader em toda chamada")
+    void cacheDesligadoDeveConsultarLoaderSempre() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InstanceTokenCache cache = new InstanceTokenCache(meterRegistry, false, 100, Duration.ofMinutes(5));
+        CountingLoader loader = new CountingLoader();
+
+        assertThat(cache.get("existente", loader)).isPresent();
+        assertThat(cache.get("existente", loader)).isPresent();
+
+        assertThat(loader.calls.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "instance-tokens", "result", "hit")
+            .functionCounter().count()).isZero();
+    }
+
+    private Instance createInstance(OffsetDateTime lastSeenAt) {
+        return Instance.builder()
+            .instanceToken(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .status("active")
+            .scannerVersionAtRegistration("1.0.0")
+            .lastSeenAt(lastSeenAt)
+            .createdAt(CUTOFF.minusDays(30))
+            .scanCount(0)
+            .build();
+    }
+
+    /**
+     * Loader que conhece só o token "existente" e conta as consultas.
+     */
+    private static final class CountingLoader implements Function<String, Optional<InstanceTokenView>> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Optional<InstanceTokenView> apply(String token) {
+            calls.incrementAndGet();
+            return "existente".equals(token) ? Optional.of(new InstanceTokenView(1L, "active")) : Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.repository.PartitionRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Garante a criação antecipada das partições mensais e a retenção por remoção de
+ * partições inteiras. Só roda com as tabelas já particionadas (migração 004).
+ */
+@SpringBootTest
+class PartitionMaintenanceServiceTest {
+
+    private static final YearMonth EXPIRED_MONTH = YearMonth.of(2001, 1);
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Autowired
+    private PartitionRepository partitionRepository;
+
+    @Autowired
+    private ScanResultService scanResultService;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(partitionRepository.isPartitioned(PartitionMaintenanceService.SCAN_RESULTS),
+            "scan_results não é particionada (migração 004 não aplicada)");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        LocalDate day = EXPIRED_MONTH.atDay(15);
+        jdbcTemplate.update("DELETE FROM daily_data_rollups WHERE day = ?", day);
+        jdbcTemplate.update("DELETE FROM daily_environment_rollups WHERE day = ?", day);
+    }
+
+    @Test
+    @DisplayName("Partições do mês corrente e dos próximos meses devem existir")
+    void particoesDoMesCorrenteEProximosDevemExistir() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+
+        partitionMaintenanceService.maintain(current);
+
+        for (String table : List.of(PartitionMaintenanceService.SCAN_RESULTS, PartitionMaintenanceService.DATA_RESULTS)) {
+            assertThat(partitionRepository.findMonthlyPartitions(table))
+                .containsKeys(current, current.plusMonths(1), current.plusMonths(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Retenção deve remover partições inteiras e os scan_ids do período")
+    void retencaoDeveRemoverParticoesInteiras() {
+        partitionRepository.createMonthlyPartition(PartitionMaintenanceService.SCAN_RESULTS, EXPIRED_MONTH);
+        partitionRepository.createMonthlyPartition(PartitionMaintenanceService.DATA_RESULTS, EXPIRED_MONTH);
+
+        String scanId = UUID.randomUUID().toString();
+        OffsetDateTime receivedAt = EXPIRED_MONTH.atDay(15).atStartOfDay().atOffset(ZoneOffset.UTC);
+        scanResultService.processBatch(List.of(new QueuedScan(createRequest(scanId), 1L, receivedAt)));
+        assertThat(scanResultRepository.existsByScanId(scanId)).isTrue();
+
+        partitionMaintenanceService.maintain(YearMonth.now(ZoneOffset.UTC));
+
+        assertThat(partitionRepository.findMonthlyPartitions(PartitionMaintenanceService.SCAN_RESULTS))
+            .doesNotContainKey(EXPIRED_MONTH);
+        assertThat(partitionRepository.findMonthlyPartitions(PartitionMaintenanceService.DATA_RESULTS))
+            .doesNotContainKey(EXPIRED_MONTH);
+        assertThat(scanResultRepository.existsByScanId(scanId)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM scan_ids WHERE scan_id = ?", Long.class, scanId))
+            .isZero();
+    }
+
+    private ScanResultRequest createRequest(String scanId) {
+        return ScanResultRequest.builder()
+            .scanId(scanId)
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2001-01-15T10:00:00Z")
+            .scanDurationMs(1000)
+            .scannerVersion("1.0.0")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(List.of(DataResult.builder()
+                .dataType("CPF")
+                .sourceLocation("wp_users.user_email")
+                .count(3)
+                .build()))
+            .build();
+    }
+}
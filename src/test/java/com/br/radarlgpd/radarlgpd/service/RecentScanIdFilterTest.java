@@ -0,0 +1,75 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes unitários do filtro de scan_ids recentes: chave sem diferença de maiúsculas
+ * (a mesma forma gravada em scan_ids), filtro desligado e métricas.
+ * Sem transação ativa, o scan_id entra no filtro na hora.
+ */
+class RecentScanIdFilterTest {
+
+    private MeterRegistry meterRegistry;
+    private RecentScanIdFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RecentScanIdFilter(meterRegistry, true, 1000, Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("scan_id aceito deve ser reconhecido em qualquer caixa")
+    void scanIdAceitoDeveSerReconhecidoEmQualquerCaixa() {
+        String scanId = UUID.randomUUID().toString().toUpperCase();
+
+        assertThat(filter.isRecentlySeen(scanId)).isFalse();
+        filter.markAccepted(scanId);
+
+        assertThat(filter.isRecentlySeen(scanId)).isTrue();
+        assertThat(filter.isRecentlySeen(scanId.toLowerCase())).isTrue();
+        assertThat(filter.isRecentlySeen(UUID.randomUUID().toString())).isFalse();
+        assertThat(RecentScanIdFilter.normalize(scanId)).isEqualTo(scanId.toLowerCase());
+    }
+
+    @Test
+    @DisplayName("Métricas devem contar acertos, falhas e duplicados não detectados")
+    void metricasDevemContarAcertosFalhasEDuplicadosNaoDetectados() {
+        String accepted = UUID.randomUUID().toString();
+        String missed = UUID.randomUUID().toString();
+
+        filter.markAccepted(accepted);
+        filter.isRecentlySeen(accepted);
+        filter.isRecentlySeen(missed);
+        filter.markMissedDuplicate(missed);
+        filter.isRecentlySeen(missed);
+
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "recent-scan-ids", "result", "hit")
+            .functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "recent-scan-ids", "result", "miss")
+            .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("radarlgpd.scan_id_filter.missed_duplicates").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Filtro desligado nunca deve marcar duplicado nem contar métricas")
+    void filtroDesligadoNuncaDeveMarcarDuplicado() {
+        RecentScanIdFilter disabled = new RecentScanIdFilter(meterRegistry, false, 1000, Duration.ofHours(1));
+        String scanId = UUID.randomUUID().toString();
+
+        disabled.markAccepted(scanId);
+        disabled.markMissedDuplicate(scanId);
+
+        assertThat(disabled.isRecentlySeen(scanId)).isFalse();
+        assertThat(meterRegistry.get("radarlgpd.scan_id_filter.missed_duplicates").counter().count()).isZero();
+    }
+}
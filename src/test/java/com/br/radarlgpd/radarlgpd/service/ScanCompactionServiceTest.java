@@ -0,0 +1,145 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import com.br.radarlgpd.radarlgpd.repository.CompactionRepository;
+import com.br.radarlgpd.radarlgpd.repository.PartitionRepository;
+import com.br.radarlgpd.radarlgpd.repository.ScanResultRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que a compactação soma os scans antigos no resumo por instância (inclusive os
+ * sem resultados) e apaga os dados brutos, atravessando vários lotes pelo cursor keyset.
+ */
+@SpringBootTest(properties = {
+    "radarlgpd.compaction.batch-size=1",
+    "radarlgpd.compaction.pause-ms=0"
+})
+class ScanCompactionServiceTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2002, 3);
+    private static final long INSTANCE_ID = 1L;
+
+    @Autowired
+    private ScanCompactionService scanCompactionService;
+
+    @Autowired
+    private ScanResultService scanResultService;
+
+    @Autowired
+    private ScanResultRepository scanResultRepository;
+
+    @Autowired
+    private PartitionRepository partitionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String location;
+
+    @BeforeEach
+    void setUp() {
+        location = "wp_compaction_" + UUID.randomUUID().toString().substring(0, 8) + ".meta_value";
+        if (partitionRepository.isPartitioned(PartitionMaintenanceService.SCAN_RESULTS)) {
+            partitionRepository.createMonthlyPartition(PartitionMaintenanceService.SCAN_RESULTS, MONTH);
+            partitionRepository.createMonthlyPartition(PartitionMaintenanceService.DATA_RESULTS, MONTH);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        LocalDate first = MONTH.atDay(1);
+        LocalDate last = MONTH.atEndOfMonth();
+        jdbcTemplate.update("DELETE FROM daily_instance_rollups WHERE day BETWEEN ? AND ?", first, last);
+        jdbcTemplate.update("DELETE FROM daily_data_rollups WHERE day BETWEEN ? AND ?", first, last);
+        jdbcTemplate.update("DELETE FROM daily_environment_rollups WHERE day BETWEEN ? AND ?", first, last);
+    }
+
+    @Test
+    @DisplayName("Scans antigos devem virar resumo diário por instância e sair dos dados brutos")
+    void scansAntigosDevemSerCompactados() {
+        OffsetDateTime firstDay = MONTH.atDay(1).atTime(10, 0).atOffset(ZoneOffset.UTC);
+        List<String> scanIds = List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+            UUID.randomUUID().toString());
+        scanResultService.processBatch(List.of(
+            new QueuedScan(createRequest(scanIds.get(0), 10), INSTANCE_ID, firstDay),
+            new QueuedScan(createRequest(scanIds.get(1), 5), INSTANCE_ID, firstDay.plusHours(2)),
+            new QueuedScan(createRequest(scanIds.get(2), 7), INSTANCE_ID, firstDay.plusDays(1))));
+
+        long compacted = scanCompactionService.compact(MONTH.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+
+        assertThat(compacted).isEqualTo(3);
+        assertThat(scanIds).noneMatch(scanResultRepository::existsByScanId);
+        assertThat(summary(MONTH.atDay(1))).containsEntry("total_count", 15L).containsEntry("scan_count", 2L);
+        assertThat(summary(MONTH.atDay(2))).containsEntry("total_count", 7L).containsEntry("scan_count", 1L);
+    }
+
+    @Test
+    @DisplayName("Scan sem resultados deve ficar registrado no resumo ao ser compactado")
+    void scanSemResultadosDeveFicarNoResumo() {
+        OffsetDateTime day = MONTH.atDay(3).atTime(10, 0).atOffset(ZoneOffset.UTC);
+        String scanId = UUID.randomUUID().toString();
+        scanResultService.processBatch(List.of(
+            new QueuedScan(createRequest(scanId, List.of()), INSTANCE_ID, day)));
+
+        long compacted = scanCompactionService.compact(MONTH.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+
+        assertThat(compacted).isEqualTo(1);
+        assertThat(scanResultRepository.existsByScanId(scanId)).isFalse();
+        assertThat(jdbcTemplate.queryForMap("""
+            SELECT total_count, scan_count FROM daily_instance_rollups
+            WHERE day = ? AND instance_id = ? AND data_type_id = ? AND source_location_id = ?
+            """, MONTH.atDay(3), INSTANCE_ID, CompactionRepository.NO_RESULTS_ID, CompactionRepository.NO_RESULTS_ID))
+            .containsEntry("total_count", 0L).containsEntry("scan_count", 1L);
+    }
+
+    private Map<String, Object> summary(LocalDate day) {
+        return jdbcTemplate.queryForMap("""
+            SELECT r.total_count, r.scan_count
+            FROM daily_instance_rollups r
+            JOIN source_locations l ON l.id = r.source_location_id
+            WHERE r.day = ? AND r.instance_id = ? AND l.name = ?
+            """, day, INSTANCE_ID, location);
+    }
+
+    private ScanResultRequest createRequest(String scanId, int count) {
+        return createRequest(scanId, List.of(DataResult.builder()
+            .dataType("CPF")
+            .sourceLocation(location)
+            .count(count)
+            .build()));
+    }
+
+    private ScanResultRequest createRequest(String scanId, List<DataResult> results) {
+        return ScanResultRequest.builder()
+            .scanId(scanId)
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2002-03-01T10:00:00Z")
+            .scanDurationMs(1000)
+            .scannerVersion("1.0.0")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(results)
+            .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.dto.DataResult;
+import com.br.radarlgpd.radarlgpd.dto.Environment;
+import com.br.radarlgpd.radarlgpd.dto.ScanResultRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que a persistência de um scan usa batch JDBC:
+ * um scan com N resultados não pode gerar N INSERTs em data_results.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class ScanResultServiceBatchingTest {
+
+    private static final int RESULTS_PER_SCAN = 20;
+
+    @Autowired
+    private ScanResultService scanResultService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Aquece os geradores de ID para não contar o primeiro nextval de cada sequence
+        scanResultService.processScanForInstance(createRequest(1), 1L);
+        entityManager.flush();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Scan com N resultados deve gerar um número constante de statements")
+    void scanComNResultadosDeveGerarStatementsConstantes() {
+        scanResultService.processScanForInstance(createRequest(RESULTS_PER_SCAN), 1L);
+        entityManager.flush();
+
+        // Todos os resultados foram gravados via JPA (o scan vai por INSERT ... ON CONFLICT nativo)...
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(RESULTS_PER_SCAN);
+        // ...com no máximo: INSERT idempotente do scan + nextval + 1 batch de data_results
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    private ScanResultRequest createRequest(int resultCount) {
+        return ScanResultRequest.builder()
+            .scanId(UUID.randomUUID().toString())
+            .siteId("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+            .consentGiven(true)
+            .scanTimestampUtc("2025-10-20T14:30:01Z")
+            .scanDurationMs(4580)
+            .scannerVersion("1.0.0-mvp")
+            .environment(Environment.builder()
+                .wpVersion("6.4.1")
+                .phpVersion("8.1")
+                .build())
+            .results(IntStream.range(0, resultCount)
+                .mapToObj(i -> DataResult.builder()
+                    .dataType("CPF")
+                    .sourceLocation("wp_postmeta.meta_value_" + i)
+                    .count(i)
+                    .build())
+                .toList())
+            .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.br.radarlgpd.radarlgpd.service;
+
+import com.br.radarlgpd.radarlgpd.entity.DataTypeEntity;
+import com.br.radarlgpd.radarlgpd.entity.SourceLocationEntity;
+import com.br.radarlgpd.radarlgpd.repository.DailyRollupRepository.DataRollupRow;
+import com.br.radarlgpd.radarlgpd.repository.DictionaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testes unitários da resolução de nomes do snapshot de /v1/stats: IDs que surgem entre
+ * recargas são lidos juntos, uma única vez, e IDs inexistentes não voltam ao banco.
+ * Sem transação ativa, os deltas entram no snapshot na hora.
+ */
+class StatsAggregateTest {
+
+    private static final short CPF = 1;
+    private static final short EMAIL = 2;
+    private static final int USERS = 10;
+    private static final int ORDERS = 11;
+    private static final int MISSING = 99;
+
+    private FakeDictionaryRepository dictionaryRepository;
+    private StatsAggregate statsAggregate;
+
+    @BeforeEach
+    void setUp() {
+        dictionaryRepository = new FakeDictionaryRepository();
+        statsAggregate = new StatsAggregate(null, null, dictionaryRepository, null, 90);
+    }
+
+    @Test
+    @DisplayName("IDs novos devem ser resolvidos em uma única consulta e ficar em cache")
+    void idsNovosDevemSerResolvidosEmUmaConsulta() {
+        applyDeltas(
+            row(CPF, USERS, 10),
+            row(EMAIL, USERS, 5),
+            row(CPF, ORDERS, 3));
+
+        assertThat(statsAggregate.totalsByDataType(7))
+            .extracting(StatsAggregate.Total::name).containsExactly("CPF", "EMAIL");
+        assertThat(statsAggregate.topSourceLocations(7, "CPF", 10))
+            .extracting(StatsAggregate.Total::name).containsExactly("wp_users.meta_value", "wp_orders.note");
+        statsAggregate.totalsByDataType(7);
+        statsAggregate.topSourceLocations(7, null, 10);
+
+        // Uma consulta por dicionário, com todos os IDs desconhecidos de uma vez
+        assertThat(dictionaryRepository.lookups).containsExactly(
+            DataTypeEntity.TABLE + "=[1, 2]",
+            SourceLocationEntity.TABLE + "=[10, 11]");
+    }
+
+    @Test
+    @DisplayName("ID inexistente deve ser cacheado e não voltar ao banco a cada consulta")
+    void idInexistenteDeveSerCacheado() {
+        applyDeltas(row(CPF, MISSING, 4));
+
+        assertThat(statsAggregate.topSourceLocations(7, null, 10))
+            .extracting(StatsAggregate.Total::name).containsExactly("#" + MISSING);
+        statsAggregate.topSourceLocations(7, null, 10);
+        statsAggregate.topSourceLocations(7, null, 10);
+
+        assertThat(dictionaryRepository.lookups).containsExactly(SourceLocationEntity.TABLE + "=[99]");
+    }
+
+    private void applyDeltas(DataRollupRow... rows) {
+        statsAggregate.applyAfterCommit(List.of(rows), List.of());
+    }
+
+    private DataRollupRow row(short dataTypeId, int sourceLocationId, long totalCount) {
+        return new DataRollupRow(statsAggregate.today(), dataTypeId, sourceLocationId, totalCount, 1);
+    }
+
+    /**
+     * Dicionários fixos em memória; registra as consultas por ID.
+     */
+    private static final class FakeDictionaryRepository extends DictionaryRepository {
+
+        private static final Map<String, Map<Integer, String>> NAMES = Map.of(
+            DataTypeEntity.TABLE, Map.of(1, "CPF", 2, "EMAIL"),
+            SourceLocationEntity.TABLE, Map.of(10, "wp_users.meta_value", 11, "wp_orders.note"));
+
+        private final List<String> lookups = new ArrayList<>();
+
+        private FakeDictionaryRepository() {
+            super(null);
+        }
+
+        @Override
+        public Map<Integer, String> findNames(String table, Collection<Integer> ids) {
+            lookups.add(table + "=" + ids.stream().sorted().toList());
+            Map<Integer, String> names = new HashMap<>(NAMES.get(table));
+            names.keySet().retainAll(ids);
+            return names;
+        }
+
+        @Override
+        public Map<Integer, String> findAllNames(String table) {
+            throw new AssertionError("Recarga completa fora do refresh");
+        }
+    }
+}